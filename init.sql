@@ -11,18 +11,38 @@ CREATE TABLE IF NOT EXISTS users (
     updated_at TIMESTAMP DEFAULT CURRENT_TIMESTAMP
 );
 
+-- Genres table (dictionary for media.genre_ids, names are unique case-insensitively)
+CREATE TABLE IF NOT EXISTS genres (
+    genre_id SERIAL PRIMARY KEY,
+    name VARCHAR(100) NOT NULL
+);
+CREATE UNIQUE INDEX IF NOT EXISTS idx_genres_name ON genres (LOWER(name));
+
 -- Media table
 CREATE TABLE IF NOT EXISTS media (
     media_id SERIAL PRIMARY KEY,
     title VARCHAR(255) NOT NULL,
     description TEXT,
-    genre TEXT,
+    genre_ids INTEGER[] NOT NULL DEFAULT '{}',
     media_type VARCHAR(50),
     release_year INTEGER,
     director VARCHAR(255),
     cast_members TEXT,
     creator_user_id INTEGER,
     age_restriction INTEGER,
+    rating_count INTEGER NOT NULL DEFAULT 0,
+    rating_sum INTEGER NOT NULL DEFAULT 0,
+    stars_1 INTEGER NOT NULL DEFAULT 0,
+    stars_2 INTEGER NOT NULL DEFAULT 0,
+    stars_3 INTEGER NOT NULL DEFAULT 0,
+    stars_4 INTEGER NOT NULL DEFAULT 0,
+    stars_5 INTEGER NOT NULL DEFAULT 0,
+    favorite_count INTEGER NOT NULL DEFAULT 0,
+    version INTEGER NOT NULL DEFAULT 1,
+    search_vector tsvector GENERATED ALWAYS AS (
+        setweight(to_tsvector('simple', coalesce(title, '')), 'A') ||
+        setweight(to_tsvector('simple', coalesce(description, '')), 'B')
+    ) STORED,
     created_at TIMESTAMP DEFAULT CURRENT_TIMESTAMP,
     updated_at TIMESTAMP DEFAULT CURRENT_TIMESTAMP
 );
@@ -35,6 +55,8 @@ CREATE TABLE IF NOT EXISTS ratings (
     rating_value INTEGER NOT NULL CHECK (rating_value >= 1 AND rating_value <= 5),
     comment TEXT,
     confirmed BOOLEAN DEFAULT FALSE,
+    version INTEGER NOT NULL DEFAULT 1,
+    like_count INTEGER NOT NULL DEFAULT 0,
     created_at TIMESTAMP DEFAULT CURRENT_TIMESTAMP,
     updated_at TIMESTAMP DEFAULT CURRENT_TIMESTAMP,
     FOREIGN KEY (user_id) REFERENCES users(user_id) ON DELETE CASCADE,
@@ -65,12 +87,31 @@ CREATE TABLE IF NOT EXISTS rating_likes (
 );
 
 -- Create indexes for better query performance
-CREATE INDEX IF NOT EXISTS idx_ratings_media_id ON ratings(media_id);
 CREATE INDEX IF NOT EXISTS idx_ratings_user_id ON ratings(user_id);
 CREATE INDEX IF NOT EXISTS idx_favorites_user_id ON favorites(user_id);
 CREATE INDEX IF NOT EXISTS idx_favorites_media_id ON favorites(media_id);
 CREATE INDEX IF NOT EXISTS idx_rating_likes_rating_id ON rating_likes(rating_id);
 CREATE INDEX IF NOT EXISTS idx_rating_likes_user_id ON rating_likes(user_id);
 
+-- Keyset pagination of GET /rating?mediaId=: (media_id, sort key, rating_id) per sort mode,
+-- the recent index also serves every other lookup by media_id
+DROP INDEX IF EXISTS idx_ratings_media_id;
+CREATE INDEX IF NOT EXISTS idx_ratings_media_recent ON ratings (media_id, created_at DESC, rating_id DESC);
+CREATE INDEX IF NOT EXISTS idx_ratings_media_likes ON ratings (media_id, like_count DESC, rating_id DESC);
+CREATE INDEX IF NOT EXISTS idx_ratings_media_score ON ratings (media_id, rating_value DESC, rating_id DESC);
+
+
+
+-- Keyset pagination of GET /media: (sort key, media_id) per sort mode
+CREATE INDEX IF NOT EXISTS idx_media_title_keyset ON media (title, media_id);
+CREATE INDEX IF NOT EXISTS idx_media_score_keyset ON media ((COALESCE(rating_sum::float8 / NULLIF(rating_count, 0), 0)), media_id);
+CREATE INDEX IF NOT EXISTS idx_media_year_keyset ON media ((COALESCE(release_year, 0)), media_id);
 
+-- Exact genre filters: && (any of) and @> (all of)
+CREATE INDEX IF NOT EXISTS idx_media_genre_ids ON media USING GIN (genre_ids);
 
+-- Full-text search over title and description, trigram indexes for substring filters
+CREATE INDEX IF NOT EXISTS idx_media_search_vector ON media USING GIN (search_vector);
+CREATE EXTENSION IF NOT EXISTS pg_trgm;
+CREATE INDEX IF NOT EXISTS idx_media_title_trgm ON media USING GIN (LOWER(title) gin_trgm_ops);
+CREATE INDEX IF NOT EXISTS idx_media_description_trgm ON media USING GIN (LOWER(description) gin_trgm_ops);
@@ -7,6 +7,7 @@ DROP TABLE IF EXISTS rating_likes CASCADE;
 DROP TABLE IF EXISTS favorites CASCADE;
 DROP TABLE IF EXISTS ratings CASCADE;
 DROP TABLE IF EXISTS media CASCADE;
+DROP TABLE IF EXISTS genres CASCADE;
 DROP TABLE IF EXISTS users CASCADE;
 
 -- The application will recreate them with the correct schema on next start
@@ -0,0 +1,60 @@
+package at.technikum;
+
+import at.technikum.application.common.JsonCodec;
+import at.technikum.application.mrp.auth.AuthRepository;
+import at.technikum.application.mrp.database.DatabaseConnection;
+import at.technikum.application.mrp.database.DatabaseInitializer;
+import at.technikum.application.mrp.dataset.DatasetLoader;
+import at.technikum.application.mrp.dataset.dto.DatasetLoadResultDto;
+import at.technikum.application.mrp.media.MediaRepository;
+import at.technikum.application.mrp.rating.RatingRepository;
+
+import javax.sql.DataSource;
+import java.nio.file.Path;
+
+/**
+ * Loads a MovieLens-style dump from the command line, without the HTTP server:
+ * {@code DatasetLoad --movies <file> [--ratings <file>] [--prefix ml] [--threads n] [--chunk-mb n] [--batch-size n]}.
+ * Users are named prefix_userId, the movies belong to the user "prefix". Prints the load result as JSON.
+ */
+public class DatasetLoad {
+    public static void main(String[] args) throws Exception {
+        Path movies = null;
+        Path ratings = null;
+        String prefix = "ml";
+        int threads = Runtime.getRuntime().availableProcessors();
+        int chunkMb = 8;
+        // larger than for RatingImport: a dump sorted by user touches most movies in every batch, and each
+        // batch updates the aggregates of every movie it touches once
+        int batchSize = 50_000;
+        boolean unknownArgument = false;
+        for (int i = 0; i < args.length; i++) {
+            switch (args[i]) {
+                case "--movies" -> movies = Path.of(args[++i]);
+                case "--ratings" -> ratings = Path.of(args[++i]);
+                case "--prefix" -> prefix = args[++i];
+                case "--threads" -> threads = Integer.parseInt(args[++i]);
+                case "--chunk-mb" -> chunkMb = Integer.parseInt(args[++i]);
+                case "--batch-size" -> batchSize = Integer.parseInt(args[++i]);
+                default -> unknownArgument = true;
+            }
+        }
+        if (movies == null || unknownArgument) {
+            System.err.println("Usage: DatasetLoad --movies <file> [--ratings <file>] [--prefix ml] [--threads n]"
+                    + " [--chunk-mb n] [--batch-size n]");
+            System.exit(2);
+        }
+
+        DatabaseInitializer.initializeDatabase();
+        DataSource dataSource = DatabaseConnection.getInstance().getDataSource();
+        DatasetLoader loader = new DatasetLoader(new AuthRepository(dataSource), new MediaRepository(dataSource),
+                new RatingRepository(dataSource), threads, chunkMb * 1024 * 1024, batchSize);
+        try {
+            DatasetLoadResultDto result = loader.load(movies, ratings, prefix);
+            System.out.println(JsonCodec.shared().writerFor(DatasetLoadResultDto.class)
+                    .withDefaultPrettyPrinter().writeValueAsString(result));
+        } finally {
+            DatabaseConnection.getInstance().closeConnection();
+        }
+    }
+}
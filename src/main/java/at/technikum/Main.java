@@ -1,7 +1,9 @@
 package at.technikum;
 
+import at.technikum.application.mrp.database.DatabaseConnection;
 import at.technikum.application.mrp.database.DatabaseInitializer;
 import at.technikum.server.Server;
+import at.technikum.server.ServerConfig;
 import at.technikum.application.mrp.MrpApplication;
 
 public class Main {
@@ -12,9 +14,13 @@ public class Main {
         DatabaseInitializer.initializeDatabase();
         System.out.println("Database initialized successfully!");
 
-        Server server = new Server(8080, new MrpApplication());
+        MrpApplication application = new MrpApplication();
+        Server server = new Server(ServerConfig.fromEnvironment(), application);
         server.start();
+        Runtime.getRuntime().addShutdownHook(new Thread(() -> {
+            server.stop(2);
+            application.close();
+            DatabaseConnection.getInstance().closeConnection();
+        }));
     }
 }
-
-
@@ -0,0 +1,52 @@
+package at.technikum;
+
+import at.technikum.application.common.JsonCodec;
+import at.technikum.application.mrp.database.DatabaseConnection;
+import at.technikum.application.mrp.database.DatabaseInitializer;
+import at.technikum.application.mrp.media.MediaImporter;
+import at.technikum.application.mrp.media.MediaRepository;
+import at.technikum.application.mrp.media.dto.MediaImportResultDto;
+
+import java.io.InputStream;
+import java.nio.file.Files;
+import java.nio.file.Path;
+
+/**
+ * Bulk import from the command line, without the HTTP server:
+ * {@code MediaImport <file> --creator <userId> [--format ndjson|csv] [--batch-size n]}.
+ * The format defaults to the file extension (.csv, otherwise NDJSON). Prints the import result as JSON.
+ */
+public class MediaImport {
+    public static void main(String[] args) throws Exception {
+        Path file = null;
+        Integer creator = null;
+        String format = null;
+        int batchSize = MediaImporter.batchSizeFromEnvironment();
+        for (int i = 0; i < args.length; i++) {
+            switch (args[i]) {
+                case "--creator" -> creator = Integer.parseInt(args[++i]);
+                case "--format" -> format = args[++i];
+                case "--batch-size" -> batchSize = Integer.parseInt(args[++i]);
+                default -> file = Path.of(args[i]);
+            }
+        }
+        if (file == null || creator == null) {
+            System.err.println("Usage: MediaImport <file> --creator <userId> [--format ndjson|csv] [--batch-size n]");
+            System.exit(2);
+        }
+        if (format == null && file.toString().toLowerCase().endsWith(".csv")) {
+            format = "csv";
+        }
+
+        DatabaseInitializer.initializeDatabase();
+        MediaImporter importer = new MediaImporter(
+                new MediaRepository(DatabaseConnection.getInstance().getDataSource()), batchSize);
+        try (InputStream in = Files.newInputStream(file)) {
+            MediaImportResultDto result = importer.importFrom(in, MediaImporter.Format.from(format, null), creator);
+            System.out.println(JsonCodec.shared().writerFor(MediaImportResultDto.class)
+                    .withDefaultPrettyPrinter().writeValueAsString(result));
+        } finally {
+            DatabaseConnection.getInstance().closeConnection();
+        }
+    }
+}
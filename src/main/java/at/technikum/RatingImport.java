@@ -0,0 +1,52 @@
+package at.technikum;
+
+import at.technikum.application.common.JsonCodec;
+import at.technikum.application.mrp.database.DatabaseConnection;
+import at.technikum.application.mrp.database.DatabaseInitializer;
+import at.technikum.application.mrp.media.MediaImporter;
+import at.technikum.application.mrp.rating.RatingImporter;
+import at.technikum.application.mrp.rating.RatingRepository;
+import at.technikum.application.mrp.rating.dto.RatingImportResultDto;
+
+import java.io.InputStream;
+import java.nio.file.Files;
+import java.nio.file.Path;
+
+/**
+ * Bulk rating import from the command line, without the HTTP server:
+ * {@code RatingImport <file> [--format ndjson|csv] [--batch-size n]}. Unlike POST /rating/import every
+ * row names its user (userId). The format defaults to the file extension (.csv, otherwise NDJSON).
+ * Prints the import result as JSON.
+ */
+public class RatingImport {
+    public static void main(String[] args) throws Exception {
+        Path file = null;
+        String format = null;
+        int batchSize = RatingImporter.batchSizeFromEnvironment();
+        for (int i = 0; i < args.length; i++) {
+            switch (args[i]) {
+                case "--format" -> format = args[++i];
+                case "--batch-size" -> batchSize = Integer.parseInt(args[++i]);
+                default -> file = Path.of(args[i]);
+            }
+        }
+        if (file == null) {
+            System.err.println("Usage: RatingImport <file> [--format ndjson|csv] [--batch-size n]");
+            System.exit(2);
+        }
+        if (format == null && file.toString().toLowerCase().endsWith(".csv")) {
+            format = "csv";
+        }
+
+        DatabaseInitializer.initializeDatabase();
+        RatingImporter importer = new RatingImporter(
+                new RatingRepository(DatabaseConnection.getInstance().getDataSource()), batchSize);
+        try (InputStream in = Files.newInputStream(file)) {
+            RatingImportResultDto result = importer.importFrom(in, MediaImporter.Format.from(format, null), null);
+            System.out.println(JsonCodec.shared().writerFor(RatingImportResultDto.class)
+                    .withDefaultPrettyPrinter().writeValueAsString(result));
+        } finally {
+            DatabaseConnection.getInstance().closeConnection();
+        }
+    }
+}
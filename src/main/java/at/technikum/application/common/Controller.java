@@ -4,33 +4,36 @@ import at.technikum.server.http.ContentType;
 import at.technikum.server.http.Request;
 import at.technikum.server.http.Response;
 import at.technikum.server.http.Status;
-import com.fasterxml.jackson.databind.ObjectMapper;
-import com.fasterxml.jackson.databind.DeserializationFeature;
-import com.fasterxml.jackson.databind.SerializationFeature;
-import com.fasterxml.jackson.datatype.jsr310.JavaTimeModule;
 
 public abstract class Controller {
 
-    protected final ObjectMapper objectMapper = new ObjectMapper();
+    // one shared, pre-configured codec instead of an ObjectMapper per controller
+    protected final JsonCodec json = JsonCodec.shared();
 
-    // Configure object mapper to be lenient with unknown fields to prevent 500 on extra JSON fields
-    protected Controller() {
-        objectMapper.configure(DeserializationFeature.FAIL_ON_UNKNOWN_PROPERTIES, false);
-        objectMapper.registerModule(new JavaTimeModule());
-        objectMapper.disable(SerializationFeature.WRITE_DATES_AS_TIMESTAMPS);
-    }
+    private volatile RouteTable ownRoutes;
 
-    public abstract Response handle(Request request);
+    /**
+     * Registers this controller's handlers per (method, pattern), e.g. {@code GET /media/{id}}.
+     */
+    public abstract void registerRoutes(RouteTable routes);
 
+    // Dispatches through this controller's routes only; the application shares one RouteTable instead
+    public Response handle(Request request) {
+        RouteTable routes = ownRoutes;
+        if (routes == null) {
+            routes = new RouteTable();
+            registerRoutes(routes);
+            ownRoutes = routes;
+        }
+        return routes.dispatch(request);
+    }
+
+    // Serialization is deferred until the server writes the response, straight into the socket stream
     protected Response okJson(Object body) {
         Response response = new Response();
         response.setStatus(Status.OK);
         response.setContentType(ContentType.APPLICATION_JSON);
-        try {
-            response.setBody(objectMapper.writeValueAsString(body));
-        } catch (Exception e) {
-            return errorJson(Status.INTERNAL_SERVER_ERROR, "Failed to render JSON");
-        }
+        response.setBodyWriter(out -> json.write(out, body));
         return response;
     }
 
@@ -40,16 +43,53 @@ public abstract class Controller {
         response.setContentType(ContentType.APPLICATION_JSON);
         try {
             java.util.Map<String, String> errorMap = java.util.Map.of("error", message);
-            response.setBody(objectMapper.writeValueAsString(errorMap));
+            response.setBody(json.writeAsBytes(errorMap));
         } catch (Exception e) {
             response.setBody("{\"error\":\"Internal server error\"}");
         }
         return response;
     }
 
-    protected <T> T parseJson(String json, Class<T> clazz) {
+    // Strong ETag of a versioned resource, e.g. "3"
+    public static String etag(int version) {
+        return "\"" + version + "\"";
+    }
+
+    protected Response withETag(Response response, Integer version) {
+        if (version != null) {
+            response.setHeader("ETag", etag(version));
+        }
+        return response;
+    }
+
+    /**
+     * Version required by the If-Match header, null without the header or for "*" (any version).
+     * Only single strong ETags as sent by {@link #etag(int)} are accepted.
+     */
+    protected static Integer ifMatchVersion(Request request) {
+        String header = request.getHeader("If-Match");
+        if (header == null || header.isBlank() || header.trim().equals("*")) {
+            return null;
+        }
+        String value = header.trim();
+        if (value.length() > 2 && value.startsWith("\"") && value.endsWith("\"")) {
+            try {
+                return Integer.parseInt(value.substring(1, value.length() - 1));
+            } catch (NumberFormatException ignored) {
+                // fall through
+            }
+        }
+        throw new IllegalArgumentException("If-Match must be an ETag of this resource, e.g. \"3\"");
+    }
+
+    // 412 with the current ETag, so the client can re-read and retry
+    protected Response preconditionFailed(VersionConflictException conflict) {
+        return withETag(errorJson(Status.PRECONDITION_FAILED, conflict.getMessage()), conflict.getCurrentVersion());
+    }
+
+    protected <T> T parseJson(byte[] body, Class<T> clazz) {
         try {
-            return objectMapper.readValue(json, clazz);
+            return json.read(body, clazz);
         } catch (Exception e) {
             throw new RuntimeException("Failed to parse JSON: " + e.getMessage(), e);
         }
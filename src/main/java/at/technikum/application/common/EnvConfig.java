@@ -0,0 +1,35 @@
+package at.technikum.application.common;
+
+/**
+ * Numeric settings from environment variables. A missing or blank variable yields the default,
+ * a value that is not a number fails startup instead of being ignored.
+ */
+public final class EnvConfig {
+
+    private EnvConfig() {
+    }
+
+    public static int intFromEnv(String name, int defaultValue) {
+        String value = System.getenv(name);
+        if (value == null || value.isBlank()) {
+            return defaultValue;
+        }
+        try {
+            return Integer.parseInt(value.trim());
+        } catch (NumberFormatException e) {
+            throw new IllegalArgumentException("Invalid value for " + name + ": " + value);
+        }
+    }
+
+    public static long longFromEnv(String name, long defaultValue) {
+        String value = System.getenv(name);
+        if (value == null || value.isBlank()) {
+            return defaultValue;
+        }
+        try {
+            return Long.parseLong(value.trim());
+        } catch (NumberFormatException e) {
+            throw new IllegalArgumentException("Invalid value for " + name + ": " + value);
+        }
+    }
+}
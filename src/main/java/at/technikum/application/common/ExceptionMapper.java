@@ -13,6 +13,10 @@ public class ExceptionMapper {
         if (e instanceof IllegalArgumentException) {
             r.setStatus(Status.BAD_REQUEST);
             r.setBody("{\"error\":\"" + sanitize(e.getMessage()) + "\"}");
+        } else if (e instanceof VersionConflictException conflict) {
+            r.setStatus(Status.PRECONDITION_FAILED);
+            r.setHeader("ETag", Controller.etag(conflict.getCurrentVersion()));
+            r.setBody("{\"error\":\"" + sanitize(e.getMessage()) + "\"}");
         } else if (e instanceof SecurityException) {
             r.setStatus(Status.UNAUTHORIZED);
             r.setBody("{\"error\":\"" + sanitize(e.getMessage()) + "\"}");
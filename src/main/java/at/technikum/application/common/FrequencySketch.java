@@ -0,0 +1,88 @@
+package at.technikum.application.common;
+
+/**
+ * Approximate access frequency of keys for {@link WTinyLfuCache} (count-min sketch).
+ *
+ * Four rows of 4-bit counters (saturating at 15) are packed sixteen to a long; a key's frequency is
+ * the minimum of its four counters. After 10 × expectedEntries increments all counters are halved, so old
+ * popularity fades and recently hot keys can win admission.
+ */
+final class FrequencySketch {
+
+    private static final long[] SEEDS = {
+            0x9E3779B97F4A7C15L, 0xC2B2AE3D27D4EB4FL, 0x165667B19E3779F9L, 0xD6E8FEB86659FD93L};
+    private static final long HALF_MASK = 0x7777777777777777L;
+
+    private final long[][] rows = new long[4][];
+    private final int mask;
+    private final int sampleSize;
+    private int additions;
+
+    FrequencySketch(int expectedEntries) {
+        // counters per row: four per expected entry (rounded up to a power of two), which keeps
+        // collisions rare even when several times more distinct keys than entries pass through
+        int entries = Math.max(64, expectedEntries);
+        int width = Integer.highestOneBit((entries - 1) << 1) * 4;
+        for (int i = 0; i < rows.length; i++) {
+            rows[i] = new long[width / 16];
+        }
+        this.mask = width - 1;
+        this.sampleSize = 10 * entries;
+    }
+
+    int frequency(Object key) {
+        int hash = spread(key.hashCode());
+        int min = 15;
+        for (int i = 0; i < rows.length; i++) {
+            min = Math.min(min, counter(i, index(hash, i)));
+        }
+        return min;
+    }
+
+    void increment(Object key) {
+        int hash = spread(key.hashCode());
+        boolean added = false;
+        for (int i = 0; i < rows.length; i++) {
+            added |= incrementAt(i, index(hash, i));
+        }
+        if (added && ++additions >= sampleSize) {
+            reset();
+        }
+    }
+
+    private int counter(int row, int index) {
+        int shift = (index & 15) << 2;
+        return (int) ((rows[row][index >>> 4] >>> shift) & 0xF);
+    }
+
+    private boolean incrementAt(int row, int index) {
+        int shift = (index & 15) << 2;
+        long[] table = rows[row];
+        if (((table[index >>> 4] >>> shift) & 0xF) == 0xF) {
+            return false;
+        }
+        table[index >>> 4] += 1L << shift;
+        return true;
+    }
+
+    // Halves every counter (shift each 4-bit counter right by one)
+    private void reset() {
+        for (long[] table : rows) {
+            for (int i = 0; i < table.length; i++) {
+                table[i] = (table[i] >>> 1) & HALF_MASK;
+            }
+        }
+        additions /= 2;
+    }
+
+    private int index(int hash, int row) {
+        long h = (hash + SEEDS[row]) * SEEDS[row];
+        return (int) (h >>> 32) & mask;
+    }
+
+    private static int spread(int hash) {
+        hash ^= hash >>> 16;
+        hash *= 0x45d9f3b;
+        return hash ^ (hash >>> 16);
+    }
+}
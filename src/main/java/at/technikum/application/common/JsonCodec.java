@@ -0,0 +1,85 @@
+package at.technikum.application.common;
+
+import com.fasterxml.jackson.core.JsonGenerator;
+import com.fasterxml.jackson.databind.DeserializationFeature;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.ObjectReader;
+import com.fasterxml.jackson.databind.ObjectWriter;
+import com.fasterxml.jackson.databind.SerializationFeature;
+import com.fasterxml.jackson.datatype.jsr310.JavaTimeModule;
+import com.fasterxml.jackson.module.blackbird.BlackbirdModule;
+
+import java.io.IOException;
+import java.io.OutputStream;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * Application-wide JSON configuration shared by all controllers.
+ *
+ * Holds one configured ObjectMapper and caches an ObjectReader/ObjectWriter per type, so binding
+ * and serialization skip the per-call type resolution of {@code readValue}/{@code writeValue}.
+ * Unless JSON_BLACKBIRD=false, property access goes through generated lambdas instead of reflection.
+ */
+public final class JsonCodec {
+
+    private static final byte[] NULL_LITERAL = {'n', 'u', 'l', 'l'};
+    private static final JsonCodec SHARED = new JsonCodec(!"false".equalsIgnoreCase(System.getenv("JSON_BLACKBIRD")));
+
+    private final ObjectMapper mapper = new ObjectMapper();
+    private final ConcurrentHashMap<Class<?>, ObjectReader> readers = new ConcurrentHashMap<>();
+    private final ConcurrentHashMap<Class<?>, ObjectWriter> writers = new ConcurrentHashMap<>();
+
+    JsonCodec(boolean blackbird) {
+        // lenient with unknown fields to prevent 500 on extra JSON fields
+        mapper.configure(DeserializationFeature.FAIL_ON_UNKNOWN_PROPERTIES, false);
+        mapper.registerModule(new JavaTimeModule());
+        mapper.disable(SerializationFeature.WRITE_DATES_AS_TIMESTAMPS);
+        // the server owns the response stream and closes it after the body is written
+        mapper.disable(JsonGenerator.Feature.AUTO_CLOSE_TARGET);
+        if (blackbird) {
+            mapper.registerModule(new BlackbirdModule());
+        }
+    }
+
+    public static JsonCodec shared() {
+        return SHARED;
+    }
+
+    public ObjectReader readerFor(Class<?> type) {
+        return readers.computeIfAbsent(type, mapper::readerFor);
+    }
+
+    public ObjectWriter writerFor(Class<?> type) {
+        return writers.computeIfAbsent(type, mapper::writerFor);
+    }
+
+    // Binds raw UTF-8/16/32 request bytes without decoding them to a String first
+    public <T> T read(byte[] json, Class<T> type) throws IOException {
+        return readerFor(type).readValue(json);
+    }
+
+    public void write(OutputStream out, Object value) throws IOException {
+        if (value == null) {
+            out.write(NULL_LITERAL);
+            return;
+        }
+        writerFor(value.getClass()).writeValue(out, value);
+    }
+
+    public byte[] writeAsBytes(Object value) throws IOException {
+        return value == null ? NULL_LITERAL.clone() : writerFor(value.getClass()).writeValueAsBytes(value);
+    }
+
+    // true for null, empty and whitespace-only bodies
+    public static boolean isBlank(byte[] body) {
+        if (body == null) {
+            return true;
+        }
+        for (byte b : body) {
+            if (b != ' ' && b != '\t' && b != '\r' && b != '\n') {
+                return false;
+            }
+        }
+        return true;
+    }
+}
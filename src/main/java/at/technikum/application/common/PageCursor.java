@@ -0,0 +1,39 @@
+package at.technikum.application.common;
+
+import java.io.IOException;
+import java.util.Base64;
+
+/**
+ * Opaque continuation tokens for keyset pagination.
+ *
+ * A cursor is the sort key of the last row of a page (e.g. sort mode, title, id), written as a JSON
+ * string array and Base64url-encoded. Clients only pass it back; a malformed or foreign cursor is
+ * rejected with an IllegalArgumentException (400).
+ */
+public final class PageCursor {
+
+    private PageCursor() {
+    }
+
+    public static String encode(String... values) {
+        try {
+            return Base64.getUrlEncoder().withoutPadding().encodeToString(JsonCodec.shared().writeAsBytes(values));
+        } catch (IOException e) {
+            throw new IllegalStateException("Failed to encode cursor", e);
+        }
+    }
+
+    // Returns the cursor values; the first value must equal expectedKind and the count must match
+    public static String[] decode(String cursor, String expectedKind, int expectedLength) {
+        String[] values;
+        try {
+            values = JsonCodec.shared().read(Base64.getUrlDecoder().decode(cursor), String[].class);
+        } catch (IOException | IllegalArgumentException e) {
+            throw new IllegalArgumentException("Invalid cursor");
+        }
+        if (values == null || values.length != expectedLength || !expectedKind.equals(values[0])) {
+            throw new IllegalArgumentException("Invalid cursor");
+        }
+        return values;
+    }
+}
@@ -0,0 +1,45 @@
+package at.technikum.application.common;
+
+import com.fasterxml.jackson.annotation.JsonInclude;
+
+import java.util.List;
+import java.util.Map;
+import java.util.function.Function;
+
+/**
+ * One page of a keyset-paginated list. {@code nextCursor} is null on the last page;
+ * otherwise it is passed back as {@code cursor} to fetch the following page.
+ * {@code facets} (value counts per facet over all matches, not just this page) is only
+ * serialized when it was requested.
+ */
+public class PageDto<T> {
+    private List<T> items;
+    private String nextCursor;
+    private int limit;
+    @JsonInclude(JsonInclude.Include.NON_NULL)
+    private Map<String, Map<String, Long>> facets;
+
+    public PageDto() {}
+
+    public PageDto(List<T> items, String nextCursor, int limit) {
+        this.items = items;
+        this.nextCursor = nextCursor;
+        this.limit = limit;
+    }
+
+    public <R> PageDto<R> map(Function<? super T, ? extends R> mapper) {
+        List<R> mapped = items.stream().<R>map(mapper).toList();
+        PageDto<R> page = new PageDto<>(mapped, nextCursor, limit);
+        page.setFacets(facets);
+        return page;
+    }
+
+    public List<T> getItems() { return items; }
+    public void setItems(List<T> items) { this.items = items; }
+    public String getNextCursor() { return nextCursor; }
+    public void setNextCursor(String nextCursor) { this.nextCursor = nextCursor; }
+    public int getLimit() { return limit; }
+    public void setLimit(int limit) { this.limit = limit; }
+    public Map<String, Map<String, Long>> getFacets() { return facets; }
+    public void setFacets(Map<String, Map<String, Long>> facets) { this.facets = facets; }
+}
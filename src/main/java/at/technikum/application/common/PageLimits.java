@@ -0,0 +1,43 @@
+package at.technikum.application.common;
+
+/**
+ * Default and maximum page size of a paginated endpoint.
+ */
+public class PageLimits {
+
+    private final int defaultSize;
+    private final int maxSize;
+
+    public PageLimits(int defaultSize, int maxSize) {
+        if (defaultSize < 1 || maxSize < defaultSize) {
+            throw new IllegalArgumentException("Page sizes must satisfy 1 <= default <= max");
+        }
+        this.defaultSize = defaultSize;
+        this.maxSize = maxSize;
+    }
+
+    /**
+     * Reads {prefix}_DEFAULT_SIZE and {prefix}_MAX_SIZE, e.g. MEDIA_PAGE_DEFAULT_SIZE and MEDIA_PAGE_MAX_SIZE.
+     */
+    public static PageLimits fromEnvironment(String prefix, int defaultSize, int maxSize) {
+        return new PageLimits(
+                EnvConfig.intFromEnv(prefix + "_DEFAULT_SIZE", defaultSize),
+                EnvConfig.intFromEnv(prefix + "_MAX_SIZE", maxSize));
+    }
+
+    // Missing or non-positive values fall back to the default, larger ones are capped at the maximum
+    public int resolve(Integer requested) {
+        if (requested == null || requested < 1) {
+            return defaultSize;
+        }
+        return Math.min(requested, maxSize);
+    }
+
+    public int getDefaultSize() {
+        return defaultSize;
+    }
+
+    public int getMaxSize() {
+        return maxSize;
+    }
+}
@@ -0,0 +1,47 @@
+package at.technikum.application.common;
+
+import java.util.NoSuchElementException;
+
+/**
+ * Path parameters extracted by the {@link RouteTable}, e.g. {@code id} of {@code /media/{id}}.
+ * All parameters are non-negative ints; they are parsed while the path is matched.
+ */
+public final class PathParams {
+
+    public static final PathParams EMPTY = new PathParams(new String[0], new int[0]);
+
+    private final String[] names;
+    private final int[] values;
+
+    PathParams(String[] names, int[] values) {
+        this.names = names;
+        this.values = values;
+    }
+
+    public static PathParams of(String name, int value) {
+        return new PathParams(new String[]{name}, new int[]{value});
+    }
+
+    public int getInt(String name) {
+        for (int i = 0; i < names.length; i++) {
+            if (names[i].equals(name)) {
+                return values[i];
+            }
+        }
+        throw new NoSuchElementException("Unknown path parameter: " + name);
+    }
+
+    public int size() {
+        return names.length;
+    }
+
+    @Override
+    public String toString() {
+        StringBuilder sb = new StringBuilder("{");
+        for (int i = 0; i < names.length; i++) {
+            if (i > 0) sb.append(", ");
+            sb.append(names[i]).append('=').append(values[i]);
+        }
+        return sb.append('}').toString();
+    }
+}
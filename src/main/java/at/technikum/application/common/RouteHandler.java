@@ -0,0 +1,10 @@
+package at.technikum.application.common;
+
+import at.technikum.server.http.Request;
+import at.technikum.server.http.Response;
+
+@FunctionalInterface
+public interface RouteHandler {
+
+    Response handle(Request request, PathParams params);
+}
@@ -0,0 +1,191 @@
+package at.technikum.application.common;
+
+import at.technikum.server.http.ContentType;
+import at.technikum.server.http.Request;
+import at.technikum.server.http.Response;
+import at.technikum.server.http.Status;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Compiled routing table: a trie over path segments whose nodes hold the handlers per HTTP method.
+ *
+ * Patterns are literal segments and {@code {name}} placeholders, e.g. {@code /rating/{id}/like}.
+ * Placeholders only match non-negative ints and are parsed while walking the path, without regex
+ * or splitting the path. Literal segments win over placeholders. A path that matches a route but
+ * not its method is answered with 405 (plus Allow header), an unknown path with 404 — both without
+ * calling a controller.
+ */
+public class RouteTable {
+
+    private final Node root = new Node();
+    private int maxParams;
+
+    public RouteTable add(String method, String pattern, RouteHandler handler) {
+        if (method == null || method.isBlank()) throw new IllegalArgumentException("method is required");
+        if (pattern == null || !pattern.startsWith("/")) throw new IllegalArgumentException("pattern must start with '/': " + pattern);
+        if (handler == null) throw new IllegalArgumentException("handler is required");
+
+        Node node = root;
+        List<String> paramNames = new ArrayList<>();
+        for (String segment : segments(pattern)) {
+            if (segment.startsWith("{") && segment.endsWith("}")) {
+                String name = segment.substring(1, segment.length() - 1);
+                if (name.isEmpty()) throw new IllegalArgumentException("empty parameter name in " + pattern);
+                if (node.param == null) {
+                    node.param = new Node();
+                }
+                node = node.param;
+                paramNames.add(name);
+            } else {
+                node = node.literals.computeIfAbsent(segment, k -> new Node());
+            }
+        }
+
+        String[] names = paramNames.toArray(new String[0]);
+        if (node.paramNames != null && !Arrays.equals(node.paramNames, names)) {
+            throw new IllegalArgumentException("conflicting parameter names for " + pattern);
+        }
+        String key = method.toUpperCase();
+        if (node.handlers.putIfAbsent(key, handler) != null) {
+            throw new IllegalArgumentException("duplicate route " + key + " " + pattern);
+        }
+        node.paramNames = names;
+        node.allow = String.join(", ", node.handlers.keySet());
+        maxParams = Math.max(maxParams, names.length);
+        return this;
+    }
+
+    public Match match(String method, String path) {
+        if (path == null || path.isEmpty() || path.charAt(0) != '/') {
+            return Match.NOT_FOUND;
+        }
+        int[] values = new int[maxParams];
+        Node node = find(root, path, 1, values, 0);
+        if (node == null || node.handlers.isEmpty()) {
+            return Match.NOT_FOUND;
+        }
+        RouteHandler handler = method == null ? null : node.handlers.get(method);
+        if (handler == null) {
+            return new Match(null, PathParams.EMPTY, node.allow);
+        }
+        PathParams params = node.paramNames.length == 0
+                ? PathParams.EMPTY
+                : new PathParams(node.paramNames, Arrays.copyOf(values, node.paramNames.length));
+        return new Match(handler, params, node.allow);
+    }
+
+    public Response dispatch(Request request) {
+        Match match = match(request.getMethod(), request.getPath());
+        if (match.handler != null) {
+            return match.handler.handle(request, match.params);
+        }
+        if (match.allow != null) {
+            Response response = error(Status.METHOD_NOT_ALLOWED, "Method not allowed");
+            response.setHeader("Allow", match.allow);
+            return response;
+        }
+        return error(Status.NOT_FOUND, "Route not found");
+    }
+
+    // Walks one segment starting at pos; literal children first, then the int placeholder
+    private Node find(Node node, String path, int pos, int[] values, int depth) {
+        int length = path.length();
+        if (pos > length) {
+            return node;
+        }
+        int end = path.indexOf('/', pos);
+        if (end < 0) end = length;
+
+        if (!node.literals.isEmpty()) {
+            Node literal = node.literals.get(path.substring(pos, end));
+            if (literal != null) {
+                Node found = find(literal, path, end + 1, values, depth);
+                if (found != null && !found.handlers.isEmpty()) {
+                    return found;
+                }
+            }
+        }
+        if (node.param != null) {
+            int value = parseInt(path, pos, end);
+            if (value >= 0) {
+                values[depth] = value;
+                return find(node.param, path, end + 1, values, depth + 1);
+            }
+        }
+        return null;
+    }
+
+    // Digits only, at most Integer.MAX_VALUE; -1 if the segment is no valid id
+    private static int parseInt(String s, int from, int to) {
+        if (from >= to || to - from > 10) {
+            return -1;
+        }
+        long value = 0;
+        for (int i = from; i < to; i++) {
+            char c = s.charAt(i);
+            if (c < '0' || c > '9') {
+                return -1;
+            }
+            value = value * 10 + (c - '0');
+        }
+        return value > Integer.MAX_VALUE ? -1 : (int) value;
+    }
+
+    private static List<String> segments(String pattern) {
+        List<String> segments = new ArrayList<>();
+        int pos = 1;
+        while (pos <= pattern.length()) {
+            int end = pattern.indexOf('/', pos);
+            if (end < 0) end = pattern.length();
+            segments.add(pattern.substring(pos, end));
+            pos = end + 1;
+        }
+        return segments;
+    }
+
+    private static Response error(Status status, String message) {
+        Response response = new Response();
+        response.setStatus(status);
+        response.setContentType(ContentType.APPLICATION_JSON);
+        response.setBody("{\"error\":\"" + message + "\"}");
+        return response;
+    }
+
+    private static final class Node {
+        final Map<String, Node> literals = new HashMap<>();
+        Node param;
+        final Map<String, RouteHandler> handlers = new LinkedHashMap<>(4);
+        String[] paramNames;
+        String allow;
+    }
+
+    /**
+     * Result of {@link #match}: a handler with its parameters, a 405 (no handler, but allowed methods)
+     * or a 404 (neither).
+     */
+    public static final class Match {
+        static final Match NOT_FOUND = new Match(null, PathParams.EMPTY, null);
+
+        private final RouteHandler handler;
+        private final PathParams params;
+        private final String allow;
+
+        Match(RouteHandler handler, PathParams params, String allow) {
+            this.handler = handler;
+            this.params = params;
+            this.allow = allow;
+        }
+
+        public boolean isFound() { return handler != null; }
+        public boolean isMethodNotAllowed() { return handler == null && allow != null; }
+        public RouteHandler getHandler() { return handler; }
+        public PathParams getParams() { return params; }
+        public String getAllow() { return allow; }
+    }
+}
@@ -0,0 +1,21 @@
+package at.technikum.application.common;
+
+/**
+ * A conditional write (If-Match) found the row at another version than the client had read.
+ * Answered with 412 Precondition Failed and the current ETag.
+ */
+public class VersionConflictException extends RuntimeException {
+
+    private static final long serialVersionUID = 1L;
+
+    private final int currentVersion;
+
+    public VersionConflictException(String message, int currentVersion) {
+        super(message);
+        this.currentVersion = currentVersion;
+    }
+
+    public int getCurrentVersion() {
+        return currentVersion;
+    }
+}
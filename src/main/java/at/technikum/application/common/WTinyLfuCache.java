@@ -0,0 +1,340 @@
+package at.technikum.application.common;
+
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.concurrent.locks.ReentrantLock;
+import java.util.function.Function;
+import java.util.function.LongSupplier;
+import java.util.function.ToIntFunction;
+
+/**
+ * Read-through cache bounded by entry count and total weight, with W-TinyLFU eviction.
+ *
+ * New entries go into a small LRU window (1% of the weight). Entries leaving the window only enter
+ * the main area if their estimated access frequency ({@link FrequencySketch}) beats the entry that
+ * would be evicted for them, so a burst of one-off reads (a scan) cannot flush popular entries.
+ * The main area is a segmented LRU: entries hit again while on probation move to the protected
+ * segment (80% of the main weight).
+ *
+ * A loader result of null is cached as a negative entry with its own, usually shorter, TTL.
+ * Every access takes one lock; the loader runs outside of it.
+ */
+public class WTinyLfuCache<K, V> {
+
+    private static final int PROBATION = 0;
+    private static final int PROTECTED = 1;
+    private static final int WINDOW = 2;
+
+    private final int maxEntries;
+    private final long maxWeight;
+    private final long windowMaxWeight;
+    private final long protectedMaxWeight;
+    private final long ttlNanos;
+    private final long negativeTtlNanos;
+    private final ToIntFunction<V> weigher;
+    private final LongSupplier clock;
+
+    private final ReentrantLock lock = new ReentrantLock();
+    private final Map<K, Node<K, V>> nodes = new HashMap<>();
+    private final FrequencySketch sketch;
+    private final Queue<K, V> window = new Queue<>();
+    private final Queue<K, V> probation = new Queue<>();
+    private final Queue<K, V> protectedQueue = new Queue<>();
+    private long windowWeight;
+    private long mainWeight;
+    private long protectedWeight;
+
+    // bumped on every invalidation; a load that raced with one is not stored
+    private long generation;
+
+    private final LongAdder hits = new LongAdder();
+    private final LongAdder negativeHits = new LongAdder();
+    private final LongAdder misses = new LongAdder();
+    private final LongAdder evictions = new LongAdder();
+    private final LongAdder rejections = new LongAdder();
+
+    public WTinyLfuCache(int maxEntries, long maxWeight, long ttlMillis, long negativeTtlMillis, ToIntFunction<V> weigher) {
+        this(maxEntries, maxWeight, ttlMillis, negativeTtlMillis, weigher, System::nanoTime);
+    }
+
+    // package-private for tests with a manual clock
+    WTinyLfuCache(int maxEntries, long maxWeight, long ttlMillis, long negativeTtlMillis,
+                  ToIntFunction<V> weigher, LongSupplier clock) {
+        if (maxEntries < 1) throw new IllegalArgumentException("maxEntries must be at least 1");
+        if (maxWeight < 1) throw new IllegalArgumentException("maxWeight must be at least 1");
+        if (ttlMillis < 0 || negativeTtlMillis < 0) throw new IllegalArgumentException("TTL must not be negative");
+        this.maxEntries = maxEntries;
+        this.maxWeight = maxWeight;
+        this.windowMaxWeight = Math.max(1, maxWeight / 100);
+        this.protectedMaxWeight = (maxWeight - windowMaxWeight) * 8 / 10;
+        this.ttlNanos = ttlMillis * 1_000_000L;
+        this.negativeTtlNanos = negativeTtlMillis * 1_000_000L;
+        this.weigher = weigher;
+        this.clock = clock;
+        this.sketch = new FrequencySketch(maxEntries);
+    }
+
+    /**
+     * Returns the cached value or loads it (null = does not exist) and caches the result.
+     */
+    public V get(K key, Function<K, V> loader) {
+        long loadGeneration;
+        lock.lock();
+        try {
+            sketch.increment(key);
+            Node<K, V> node = nodes.get(key);
+            if (node != null) {
+                if (clock.getAsLong() - node.expiresAt < 0) {
+                    onHit(node);
+                    if (node.value == null) {
+                        negativeHits.increment();
+                    } else {
+                        hits.increment();
+                    }
+                    return node.value;
+                }
+                remove(node);
+            }
+            misses.increment();
+            loadGeneration = generation;
+        } finally {
+            lock.unlock();
+        }
+
+        V value = loader.apply(key);
+
+        lock.lock();
+        try {
+            if (generation == loadGeneration) {
+                put(key, value);
+            }
+        } finally {
+            lock.unlock();
+        }
+        return value;
+    }
+
+    public void invalidate(K key) {
+        lock.lock();
+        try {
+            generation++;
+            Node<K, V> node = nodes.get(key);
+            if (node != null) {
+                remove(node);
+            }
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    public void clear() {
+        lock.lock();
+        try {
+            generation++;
+            nodes.clear();
+            window.clear();
+            probation.clear();
+            protectedQueue.clear();
+            windowWeight = 0;
+            mainWeight = 0;
+            protectedWeight = 0;
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    private void put(K key, V value) {
+        int weight = value == null ? 1 : Math.max(1, weigher.applyAsInt(value));
+        Node<K, V> existing = nodes.get(key);
+        if (existing != null) {
+            remove(existing);
+        }
+        if (weight > maxWeight - windowMaxWeight) {
+            return; // could never be admitted to the main area
+        }
+        long ttl = value == null ? negativeTtlNanos : ttlNanos;
+        Node<K, V> node = new Node<>(key, value, weight, clock.getAsLong() + ttl);
+        nodes.put(key, node);
+        node.queue = WINDOW;
+        window.addLast(node);
+        windowWeight += weight;
+        // the window always keeps its newest entry, older ones move on to the admission check
+        while (window.first() != node && (windowWeight > windowMaxWeight || nodes.size() > maxEntries)) {
+            Node<K, V> candidate = window.first();
+            window.unlink(candidate);
+            windowWeight -= candidate.weight;
+            admit(candidate);
+        }
+        // the kept newest entry may still overshoot a bound (rejected candidate, heavy entry): trim main
+        while (nodes.size() > maxEntries || windowWeight + mainWeight > maxWeight) {
+            Node<K, V> victim = mainVictim();
+            if (victim == null) break;
+            remove(victim);
+            evictions.increment();
+        }
+    }
+
+    // TinyLFU admission: the candidate replaces main entries only while it is used more often than they are
+    private void admit(Node<K, V> candidate) {
+        while (mainWeight + candidate.weight > maxWeight - windowMaxWeight || nodes.size() > maxEntries) {
+            Node<K, V> victim = mainVictim();
+            if (victim == null || sketch.frequency(candidate.key) <= sketch.frequency(victim.key)) {
+                nodes.remove(candidate.key);
+                rejections.increment();
+                return;
+            }
+            remove(victim);
+            evictions.increment();
+        }
+        candidate.queue = PROBATION;
+        probation.addLast(candidate);
+        mainWeight += candidate.weight;
+    }
+
+    private Node<K, V> mainVictim() {
+        return probation.first() != null ? probation.first() : protectedQueue.first();
+    }
+
+    private void onHit(Node<K, V> node) {
+        switch (node.queue) {
+            case WINDOW -> window.moveToLast(node);
+            case PROTECTED -> protectedQueue.moveToLast(node);
+            default -> {
+                // second hit while on probation: promote, demoting the oldest protected entries if needed
+                probation.unlink(node);
+                node.queue = PROTECTED;
+                protectedQueue.addLast(node);
+                protectedWeight += node.weight;
+                while (protectedWeight > protectedMaxWeight && protectedQueue.first() != node) {
+                    Node<K, V> demoted = protectedQueue.first();
+                    protectedQueue.unlink(demoted);
+                    protectedWeight -= demoted.weight;
+                    demoted.queue = PROBATION;
+                    probation.addLast(demoted);
+                }
+            }
+        }
+    }
+
+    private void remove(Node<K, V> node) {
+        nodes.remove(node.key);
+        switch (node.queue) {
+            case WINDOW -> {
+                window.unlink(node);
+                windowWeight -= node.weight;
+            }
+            case PROTECTED -> {
+                protectedQueue.unlink(node);
+                protectedWeight -= node.weight;
+                mainWeight -= node.weight;
+            }
+            default -> {
+                probation.unlink(node);
+                mainWeight -= node.weight;
+            }
+        }
+    }
+
+    public int size() {
+        lock.lock();
+        try {
+            return nodes.size();
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    public long weight() {
+        lock.lock();
+        try {
+            return windowWeight + mainWeight;
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    public long getHits() { return hits.sum(); }
+    public long getNegativeHits() { return negativeHits.sum(); }
+    public long getMisses() { return misses.sum(); }
+    public long getEvictions() { return evictions.sum(); }
+    public long getRejections() { return rejections.sum(); }
+
+    public double getHitRatio() {
+        long hitCount = getHits() + getNegativeHits();
+        long total = hitCount + getMisses();
+        return total == 0 ? 0.0 : hitCount / (double) total;
+    }
+
+    public Map<String, Object> getStats() {
+        Map<String, Object> stats = new LinkedHashMap<>();
+        stats.put("size", size());
+        stats.put("weight", weight());
+        stats.put("maxWeight", maxWeight);
+        stats.put("hits", getHits());
+        stats.put("negativeHits", getNegativeHits());
+        stats.put("misses", getMisses());
+        stats.put("evictions", getEvictions());
+        stats.put("rejections", getRejections());
+        stats.put("hitRatio", getHitRatio());
+        return stats;
+    }
+
+    private static final class Node<K, V> {
+        final K key;
+        final V value; // null = negative entry
+        final int weight;
+        final long expiresAt;
+        int queue;
+        Node<K, V> prev;
+        Node<K, V> next;
+
+        Node(K key, V value, int weight, long expiresAt) {
+            this.key = key;
+            this.value = value;
+            this.weight = weight;
+            this.expiresAt = expiresAt;
+        }
+    }
+
+    // Doubly linked LRU list, oldest first; nodes are unlinked in O(1)
+    private static final class Queue<K, V> {
+        private Node<K, V> head;
+        private Node<K, V> tail;
+
+        Node<K, V> first() {
+            return head;
+        }
+
+        void addLast(Node<K, V> node) {
+            node.prev = tail;
+            node.next = null;
+            if (tail == null) {
+                head = node;
+            } else {
+                tail.next = node;
+            }
+            tail = node;
+        }
+
+        void unlink(Node<K, V> node) {
+            if (node.prev == null) head = node.next; else node.prev.next = node.next;
+            if (node.next == null) tail = node.prev; else node.next.prev = node.prev;
+            node.prev = null;
+            node.next = null;
+        }
+
+        void moveToLast(Node<K, V> node) {
+            if (tail != node) {
+                unlink(node);
+                addLast(node);
+            }
+        }
+
+        void clear() {
+            head = null;
+            tail = null;
+        }
+    }
+}
@@ -0,0 +1,36 @@
+package at.technikum.application.metrics;
+
+import at.technikum.application.common.Controller;
+import at.technikum.application.common.PathParams;
+import at.technikum.application.common.RouteTable;
+import at.technikum.server.http.Request;
+import at.technikum.server.http.Response;
+
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.function.Supplier;
+
+/**
+ * GET /metrics: runtime counters of registered components (caches, connection pool) as one JSON object.
+ * Like /ping it needs no authentication and exposes no user data.
+ */
+public class MetricsController extends Controller {
+
+    private final Map<String, Supplier<Map<String, Object>>> sources = new LinkedHashMap<>();
+
+    public MetricsController register(String name, Supplier<Map<String, Object>> source) {
+        sources.put(name, source);
+        return this;
+    }
+
+    @Override
+    public void registerRoutes(RouteTable routes) {
+        routes.add("GET", "/metrics", this::metrics);
+    }
+
+    public Response metrics(Request request, PathParams params) {
+        Map<String, Object> body = new LinkedHashMap<>();
+        sources.forEach((name, source) -> body.put(name, source.get()));
+        return okJson(body);
+    }
+}
@@ -1,18 +1,27 @@
 package at.technikum.application.mrp;
 import at.technikum.application.common.Application;
-import at.technikum.application.common.Router;
+import at.technikum.application.common.RouteTable;
 import at.technikum.application.common.ExceptionMapper;
+import at.technikum.application.common.PageLimits;
+import at.technikum.application.common.WTinyLfuCache;
 import at.technikum.application.mrp.auth.AuthController;
 import at.technikum.application.mrp.auth.AuthRepository;
 import at.technikum.application.mrp.auth.AuthService;
+import at.technikum.application.mrp.database.ConnectionPool;
+import at.technikum.application.mrp.database.DatabaseConnection;
 import at.technikum.application.mrp.favorites.FavoritesController;
 import at.technikum.application.mrp.favorites.FavoritesRepository;
 import at.technikum.application.mrp.favorites.FavoritesService;
 import at.technikum.application.mrp.leaderboard.LeaderboardController;
 import at.technikum.application.mrp.leaderboard.LeaderboardRepository;
 import at.technikum.application.mrp.leaderboard.LeaderboardService;
+import at.technikum.application.mrp.media.CachingMediaRepository;
+import at.technikum.application.mrp.media.InMemoryMediaIndex;
 import at.technikum.application.mrp.media.MediaRepository;
+import at.technikum.application.mrp.media.MediaSearchEngine;
 import at.technikum.application.mrp.media.MediaService;
+import at.technikum.application.mrp.media.entity.MediaEntryEntity;
+import at.technikum.application.mrp.rating.LikeWriteBuffer;
 import at.technikum.application.mrp.rating.RatingRepository;
 import at.technikum.application.mrp.rating.RatingService;
 import at.technikum.application.mrp.recommendation.RecommendationController;
@@ -21,55 +30,127 @@ import at.technikum.application.mrp.recommendation.RecommendationService;
 import at.technikum.application.mrp.user.UserController;
 import at.technikum.application.mrp.user.UserRepository;
 import at.technikum.application.mrp.user.UserService;
+import at.technikum.application.metrics.MetricsController;
 import at.technikum.application.ping.PingController;
 import at.technikum.application.mrp.media.MediaController;
 import at.technikum.application.mrp.rating.RatingController;
 import at.technikum.server.http.Request;
 import at.technikum.server.http.Response;
 
-public class MrpApplication implements Application {
+import javax.sql.DataSource;
+import java.util.LinkedHashMap;
+import java.util.Map;
 
-    private final Router router;
-    private final MediaRepository mediaRepository = new MediaRepository();
-    private final AuthRepository authRepository = new AuthRepository();
-    private final RatingRepository ratingRepository = new RatingRepository();
-    private final LeaderboardRepository leaderboardRepository = new LeaderboardRepository();
-    private final FavoritesRepository favoritesRepository = new FavoritesRepository();
+public class MrpApplication implements Application, AutoCloseable {
+
+    private final RouteTable routes;
+    // gemeinsamer Connection-Pool für alle Repositories
+    private final DataSource dataSource = DatabaseConnection.getInstance().getDataSource();
+    private final AuthRepository authRepository = new AuthRepository(dataSource);
+    private final RatingRepository ratingRepository = new RatingRepository(dataSource);
+    private final MediaRepository mediaRepository = createMediaRepository(dataSource, ratingRepository);
+    private final LeaderboardRepository leaderboardRepository = new LeaderboardRepository(dataSource);
+    private final FavoritesRepository favoritesRepository = new FavoritesRepository(dataSource);
     private final RecommendationRepository recommendationRepository = new RecommendationRepository();
+    // MEDIA_SEARCH_ENGINE=memory: GET /media aus dem In-Memory-Index statt per SQL
+    private final InMemoryMediaIndex mediaIndex = "memory".equalsIgnoreCase(System.getenv("MEDIA_SEARCH_ENGINE"))
+            ? InMemoryMediaIndex.load(mediaRepository, ratingRepository) : null;
+    private final MediaSearchEngine mediaSearchEngine = mediaIndex != null ? mediaIndex : mediaRepository;
+    // Facetten-Zähler je Filterkombination; MEDIA_FACET_CACHE_MAX_ENTRIES=0 schaltet den Cache ab
+    private final WTinyLfuCache<String, Map<String, Map<String, Long>>> facetCache = createFacetCache(mediaRepository);
+    // RATING_LIKE_WRITE_BEHIND=true: Likes im Speicher sammeln und gebündelt schreiben (null = direkt)
+    private final LikeWriteBuffer likeBuffer = LikeWriteBuffer.fromEnvironment(ratingRepository);
 
     // AuthService muss vor UserRepository initialisiert werden
-    private final AuthService authService = new AuthService(authRepository);
-    private final UserRepository userRepository = new UserRepository(authService);
+    private final AuthService authService = AuthService.create(authRepository);
+    private final UserRepository userRepository = new UserRepository(dataSource, authService);
 
     private final UserService userService = new UserService(userRepository);
-    private final MediaService mediaService = new MediaService(mediaRepository, userRepository);
-    private final RatingService ratingService = new RatingService(ratingRepository, mediaRepository, userRepository);
+    private final MediaService mediaService = new MediaService(mediaRepository, userRepository,
+            PageLimits.fromEnvironment("MEDIA_PAGE", 20, 100), mediaSearchEngine, facetCache);
+    private final RatingService ratingService = new RatingService(ratingRepository, mediaRepository, userRepository,
+            PageLimits.fromEnvironment("RATING_PAGE", 20, 100), likeBuffer);
     private final LeaderboardService leaderboardService = new LeaderboardService(leaderboardRepository);
     private final FavoritesService favoritesService = new FavoritesService(favoritesRepository, userRepository, mediaRepository);
     private final RecommendationService recommendationService = new RecommendationService(recommendationRepository, userRepository, mediaRepository, ratingRepository);
 
     public MrpApplication() {
-        this.router = new Router();
-        this.router.addRoute("/users", new UserController(userService));
-        this.router.addRoute("/auth", new AuthController(authService));
-        this.router.addRoute("/media", new MediaController(mediaService));
-        this.router.addRoute("/rating", new RatingController(ratingService));
-        this.router.addRoute("/favorite", new FavoritesController(favoritesService));
-        this.router.addRoute("/leaderboard", new LeaderboardController(leaderboardService));
-        this.router.addRoute("/rec", new RecommendationController(recommendationService));
-        this.router.addRoute("/ping", new PingController());
+        // Routen je (Methode, Pfad-Muster); 404/405 beantwortet die RouteTable selbst
+        this.routes = new RouteTable();
+        new UserController(userService).registerRoutes(routes);
+        new AuthController(authService).registerRoutes(routes);
+        new MediaController(mediaService).registerRoutes(routes);
+        new RatingController(ratingService).registerRoutes(routes);
+        new FavoritesController(favoritesService).registerRoutes(routes);
+        new LeaderboardController(leaderboardService).registerRoutes(routes);
+        new RecommendationController(recommendationService).registerRoutes(routes);
+
+        PingController ping = new PingController();
+        MetricsController metrics = new MetricsController()
+                .register("authTokenCache", authService.getTokenCache()::getStats)
+                .register("connectionPool", MrpApplication::poolStats);
+        if (mediaRepository instanceof CachingMediaRepository cachingRepository) {
+            metrics.register("mediaCache", cachingRepository.getCache()::getStats);
+        }
+        if (facetCache != null) {
+            metrics.register("mediaFacetCache", facetCache::getStats);
+        }
+        if (mediaIndex != null) {
+            metrics.register("mediaSearchIndex", mediaIndex::getStats);
+        }
+        if (likeBuffer != null) {
+            metrics.register("ratingLikeBuffer", likeBuffer::getStats);
+        }
+        this.routes.add("GET", "/ping", ping::ping)
+                .add("GET", "/metrics", metrics::metrics);
+    }
+
+    // Medien-Cache vor findById; MEDIA_CACHE_MAX_ENTRIES=0 schaltet ihn ab
+    private static MediaRepository createMediaRepository(DataSource dataSource, RatingRepository ratingRepository) {
+        WTinyLfuCache<Integer, MediaEntryEntity> cache = CachingMediaRepository.cacheFromEnvironment();
+        if (cache == null) {
+            return new MediaRepository(dataSource);
+        }
+        CachingMediaRepository repository = CachingMediaRepository.create(dataSource, cache);
+        // vor dem Laden des Such-Index registrieren, damit dessen refresh schon frische Daten liest
+        ratingRepository.addRatingChangeListener(repository::invalidate);
+        return repository;
+    }
+
+    // jede Medien-Änderung kann beliebige Zähler verschieben, daher wird der ganze Cache geleert
+    private static WTinyLfuCache<String, Map<String, Map<String, Long>>> createFacetCache(MediaRepository mediaRepository) {
+        WTinyLfuCache<String, Map<String, Map<String, Long>>> cache = MediaService.facetCacheFromEnvironment();
+        if (cache != null) {
+            mediaRepository.addSaveListener(entity -> cache.clear());
+            mediaRepository.addDeleteListener(id -> cache.clear());
+        }
+        return cache;
+    }
+
+    private static Map<String, Object> poolStats() {
+        ConnectionPool pool = DatabaseConnection.getInstance().getPool();
+        Map<String, Object> stats = new LinkedHashMap<>();
+        stats.put("total", pool.getTotalConnections());
+        stats.put("idle", pool.getIdleConnections());
+        stats.put("active", pool.getActiveConnections());
+        stats.put("waiting", pool.getWaitingThreads());
+        return stats;
+    }
+
+    // schreibt gepufferte Likes, bevor der Connection-Pool geschlossen wird
+    @Override
+    public void close() {
+        if (likeBuffer != null) {
+            likeBuffer.close();
+        }
     }
 
     @Override
     public Response handle(Request request) {
-        final String path = request.getPath();
-        return router.findController(path).map(controller -> {
-                    try {
-                        return controller.handle(request);
-                    } catch (Exception e) {
-                        return ExceptionMapper.toResponse(e);
-                    }
-                })
-                .orElseGet(() -> ExceptionMapper.toResponse(new java.util.NoSuchElementException("Route not found")));
+        try {
+            return routes.dispatch(request);
+        } catch (Exception e) {
+            return ExceptionMapper.toResponse(e);
+        }
     }
-}
\ No newline at end of file
+}
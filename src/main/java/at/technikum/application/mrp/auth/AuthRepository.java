@@ -1,18 +1,33 @@
 package at.technikum.application.mrp.auth;
 
-import at.technikum.application.mrp.database.DatabaseConnection;
 import at.technikum.application.mrp.user.entity.UserEntity;
 
+import javax.sql.DataSource;
 import java.sql.*;
+import java.util.List;
 import java.util.Optional;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.function.Consumer;
 
 public class AuthRepository {
 
+    private final DataSource dataSource;
+    // notified after a user row was inserted or updated (e.g. to invalidate cached tokens)
+    private final List<Consumer<UserEntity>> saveListeners = new CopyOnWriteArrayList<>();
+
+    public AuthRepository(DataSource dataSource) {
+        this.dataSource = dataSource;
+    }
+
+    public void addSaveListener(Consumer<UserEntity> listener) {
+        saveListeners.add(listener);
+    }
+
     public void save(UserEntity user) {
         if (user.getId() == null) {
             // INSERT new user
             String sql = "INSERT INTO users (username, email, password_hash) VALUES (?, ?, ?) RETURNING user_id";
-            try (Connection conn = DatabaseConnection.getInstance().getConnection();
+            try (Connection conn = dataSource.getConnection();
                  PreparedStatement stmt = conn.prepareStatement(sql)) {
 
                 stmt.setString(1, user.getUsername());
@@ -29,7 +44,7 @@ public class AuthRepository {
         } else {
             // UPDATE existing user
             String sql = "UPDATE users SET username = ?, email = ?, password_hash = ?, updated_at = CURRENT_TIMESTAMP WHERE user_id = ?";
-            try (Connection conn = DatabaseConnection.getInstance().getConnection();
+            try (Connection conn = dataSource.getConnection();
                  PreparedStatement stmt = conn.prepareStatement(sql)) {
 
                 stmt.setString(1, user.getUsername());
@@ -41,11 +56,48 @@ public class AuthRepository {
                 throw new RuntimeException("Failed to update user", e);
             }
         }
+        saveListeners.forEach(listener -> listener.accept(user));
+    }
+
+    /**
+     * Bulk variant for dataset loaders: inserts the usernames that do not exist yet (all with the same
+     * password) and returns the user ids in the order of the names, in one statement.
+     * Save listeners are not notified, a new user has nothing cached.
+     */
+    public int[] ensureUsers(List<String> usernames, String password) {
+        String sql = """
+            WITH names AS (
+                SELECT name, ord FROM unnest(?::text[]) WITH ORDINALITY AS t(name, ord)
+            ), created AS (
+                INSERT INTO users (username, password_hash)
+                SELECT DISTINCT name, ? FROM names
+                ON CONFLICT (username) DO NOTHING
+                RETURNING user_id, username
+            )
+            SELECT n.ord, COALESCE(c.user_id, u.user_id) AS user_id
+            FROM names n
+            LEFT JOIN created c ON c.username = n.name
+            LEFT JOIN users u ON u.username = n.name
+            """;
+        int[] ids = new int[usernames.size()];
+        try (Connection conn = dataSource.getConnection();
+             PreparedStatement stmt = conn.prepareStatement(sql)) {
+
+            stmt.setArray(1, conn.createArrayOf("text", usernames.toArray()));
+            stmt.setString(2, password);
+            ResultSet rs = stmt.executeQuery();
+            while (rs.next()) {
+                ids[rs.getInt("ord") - 1] = rs.getInt("user_id");
+            }
+            return ids;
+        } catch (SQLException e) {
+            throw new RuntimeException("Failed to create users", e);
+        }
     }
 
     public Optional<UserEntity> findByUsername(String username) {
         String sql = "SELECT user_id, username, email, password_hash, created_at, updated_at FROM users WHERE username = ?";
-        try (Connection conn = DatabaseConnection.getInstance().getConnection();
+        try (Connection conn = dataSource.getConnection();
              PreparedStatement stmt = conn.prepareStatement(sql)) {
 
             stmt.setString(1, username);
@@ -69,7 +121,7 @@ public class AuthRepository {
 
     public Optional<UserEntity> findById(int userId) {
         String sql = "SELECT user_id, username, email, password_hash, created_at, updated_at FROM users WHERE user_id = ?";
-        try (Connection conn = DatabaseConnection.getInstance().getConnection();
+        try (Connection conn = dataSource.getConnection();
              PreparedStatement stmt = conn.prepareStatement(sql)) {
 
             stmt.setInt(1, userId);
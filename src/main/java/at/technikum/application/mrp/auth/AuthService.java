@@ -8,9 +8,25 @@ public class AuthService {
     private static final String TOKEN_SUFFIX = "-mrpToken";
 
     private final AuthRepository authRepository;
+    private final TokenCache tokenCache;
 
     public AuthService(AuthRepository authRepository) {
+        this(authRepository, TokenCache.fromEnvironment());
+    }
+
+    public AuthService(AuthRepository authRepository, TokenCache tokenCache) {
         this.authRepository = authRepository;
+        this.tokenCache = tokenCache;
+    }
+
+    /**
+     * Creates the service and subscribes its token cache to user saves: a saved user may have a new
+     * username/email, and a new user turns a negative entry into a valid token.
+     */
+    public static AuthService create(AuthRepository authRepository) {
+        AuthService service = new AuthService(authRepository);
+        authRepository.addSaveListener(service::invalidateUser);
+        return service;
     }
 
     public void register(AuthRequestDto dto) {
@@ -32,9 +48,29 @@ public class AuthService {
         return authRepository.findByUsername(username).isPresent();
     }
 
+    // Resolved through the token cache; only misses reach the database
     public Optional<UserEntity> getUserByToken(String token) {
-        return extractUsernameFromToken(token)
-                .flatMap(authRepository::findByUsername);
+        if (extractUsernameFromToken(token).isEmpty()) {
+            return Optional.empty();
+        }
+        return tokenCache.get(token, t -> extractUsernameFromToken(t).flatMap(authRepository::findByUsername));
+    }
+
+    public void invalidateUser(UserEntity user) {
+        if (user.getUsername() != null) {
+            tokenCache.invalidateToken(generateToken(user.getUsername()));
+        }
+        if (user.getId() != null) {
+            tokenCache.invalidateUser(user.getId());
+        }
+    }
+
+    public void invalidateUser(int userId) {
+        tokenCache.invalidateUser(userId);
+    }
+
+    public TokenCache getTokenCache() {
+        return tokenCache;
     }
 
     private String generateToken(String username) {
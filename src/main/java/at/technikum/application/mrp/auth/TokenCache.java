@@ -0,0 +1,188 @@
+package at.technikum.application.mrp.auth;
+
+import at.technikum.application.common.EnvConfig;
+import at.technikum.application.mrp.user.entity.UserEntity;
+
+import java.util.Iterator;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.Optional;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.function.Function;
+import java.util.function.LongSupplier;
+
+/**
+ * Bounded token → user cache in front of the user lookup done for every authenticated request.
+ *
+ * Entries expire after a TTL. Unknown tokens are cached as negative entries with a shorter TTL so
+ * repeated bad tokens do not reach the database either. The cached principal is a copy without the
+ * password hash; every hit returns a fresh copy, so callers cannot modify the cached state.
+ */
+public class TokenCache {
+
+    private static final int EVICTION_SAMPLE_SIZE = 16;
+
+    private final ConcurrentHashMap<String, Entry> entries = new ConcurrentHashMap<>();
+    private final int maxEntries;
+    private final long ttlNanos;
+    private final long negativeTtlNanos;
+    private final LongSupplier clock;
+
+    // bumped on every invalidation; a load that raced with one is not stored
+    private final AtomicLong generation = new AtomicLong();
+
+    private final LongAdder hits = new LongAdder();
+    private final LongAdder negativeHits = new LongAdder();
+    private final LongAdder misses = new LongAdder();
+    private final LongAdder evictions = new LongAdder();
+
+    public TokenCache(int maxEntries, long ttlMillis, long negativeTtlMillis) {
+        this(maxEntries, ttlMillis, negativeTtlMillis, System::nanoTime);
+    }
+
+    // package-private for tests with a manual clock
+    TokenCache(int maxEntries, long ttlMillis, long negativeTtlMillis, LongSupplier clock) {
+        if (maxEntries < 1) throw new IllegalArgumentException("maxEntries must be at least 1");
+        if (ttlMillis < 0 || negativeTtlMillis < 0) throw new IllegalArgumentException("TTL must not be negative");
+        this.maxEntries = maxEntries;
+        this.ttlNanos = ttlMillis * 1_000_000L;
+        this.negativeTtlNanos = negativeTtlMillis * 1_000_000L;
+        this.clock = clock;
+    }
+
+    /**
+     * Reads AUTH_CACHE_MAX_ENTRIES (default 10000), AUTH_CACHE_TTL_MS (default 5 minutes)
+     * and AUTH_CACHE_NEGATIVE_TTL_MS (default 30 seconds).
+     */
+    public static TokenCache fromEnvironment() {
+        return new TokenCache(
+                (int) EnvConfig.longFromEnv("AUTH_CACHE_MAX_ENTRIES", 10_000),
+                EnvConfig.longFromEnv("AUTH_CACHE_TTL_MS", 300_000),
+                EnvConfig.longFromEnv("AUTH_CACHE_NEGATIVE_TTL_MS", 30_000));
+    }
+
+    /**
+     * Returns the cached principal for the token or resolves it with the loader and caches the result,
+     * including an empty result.
+     */
+    public Optional<UserEntity> get(String token, Function<String, Optional<UserEntity>> loader) {
+        long now = clock.getAsLong();
+        Entry entry = entries.get(token);
+        if (entry != null && now - entry.expiresAt < 0) {
+            if (entry.user == null) {
+                negativeHits.increment();
+                return Optional.empty();
+            }
+            hits.increment();
+            return Optional.of(copyOf(entry.user));
+        }
+
+        misses.increment();
+        long generationBeforeLoad = generation.get();
+        UserEntity principal = loader.apply(token).map(TokenCache::principalOf).orElse(null);
+
+        if (generation.get() == generationBeforeLoad) {
+            if (entries.size() >= maxEntries && !entries.containsKey(token)) {
+                evict(now);
+            }
+            long ttl = principal == null ? negativeTtlNanos : ttlNanos;
+            entries.put(token, new Entry(principal, now + ttl));
+        }
+        return principal == null ? Optional.empty() : Optional.of(copyOf(principal));
+    }
+
+    public void invalidateToken(String token) {
+        generation.incrementAndGet();
+        entries.remove(token);
+    }
+
+    // Removes every entry of the user, e.g. after the username or email changed
+    public void invalidateUser(int userId) {
+        generation.incrementAndGet();
+        entries.values().removeIf(e -> e.user != null && e.user.getId() != null && e.user.getId() == userId);
+    }
+
+    public void clear() {
+        generation.incrementAndGet();
+        entries.clear();
+    }
+
+    // Drops expired entries first; if none were expired, the entry closest to expiry in a small sample
+    private void evict(long now) {
+        int removed = 0;
+        for (Iterator<Map.Entry<String, Entry>> it = entries.entrySet().iterator(); it.hasNext(); ) {
+            if (now - it.next().getValue().expiresAt >= 0) {
+                it.remove();
+                removed++;
+            }
+        }
+        if (removed == 0) {
+            String victim = null;
+            long earliest = Long.MAX_VALUE;
+            int sampled = 0;
+            for (Map.Entry<String, Entry> e : entries.entrySet()) {
+                if (victim == null || e.getValue().expiresAt - earliest < 0) {
+                    victim = e.getKey();
+                    earliest = e.getValue().expiresAt;
+                }
+                if (++sampled >= EVICTION_SAMPLE_SIZE) break;
+            }
+            if (victim != null && entries.remove(victim) != null) {
+                removed++;
+            }
+        }
+        evictions.add(removed);
+    }
+
+    public int size() { return entries.size(); }
+    public long getHits() { return hits.sum(); }
+    public long getNegativeHits() { return negativeHits.sum(); }
+    public long getMisses() { return misses.sum(); }
+    public long getEvictions() { return evictions.sum(); }
+
+    public double getHitRatio() {
+        long hitCount = getHits() + getNegativeHits();
+        long total = hitCount + getMisses();
+        return total == 0 ? 0.0 : hitCount / (double) total;
+    }
+
+    public Map<String, Object> getStats() {
+        Map<String, Object> stats = new LinkedHashMap<>();
+        stats.put("size", size());
+        stats.put("hits", getHits());
+        stats.put("negativeHits", getNegativeHits());
+        stats.put("misses", getMisses());
+        stats.put("evictions", getEvictions());
+        stats.put("hitRatio", getHitRatio());
+        return stats;
+    }
+
+    private static UserEntity principalOf(UserEntity user) {
+        UserEntity principal = copyOf(user);
+        principal.setPassword(null);
+        return principal;
+    }
+
+    private static UserEntity copyOf(UserEntity user) {
+        UserEntity copy = new UserEntity();
+        copy.setId(user.getId());
+        copy.setUsername(user.getUsername());
+        copy.setEmail(user.getEmail());
+        copy.setPassword(user.getPassword());
+        copy.setCreatedAt(user.getCreatedAt());
+        copy.setUpdatedAt(user.getUpdatedAt());
+        return copy;
+    }
+
+    private static final class Entry {
+        final UserEntity user; // null = negative entry
+        final long expiresAt;
+
+        Entry(UserEntity user, long expiresAt) {
+            this.user = user;
+            this.expiresAt = expiresAt;
+        }
+    }
+}
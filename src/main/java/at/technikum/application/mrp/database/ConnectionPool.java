@@ -0,0 +1,380 @@
+package at.technikum.application.mrp.database;
+
+import javax.sql.DataSource;
+import java.io.PrintWriter;
+import java.lang.reflect.InvocationHandler;
+import java.lang.reflect.InvocationTargetException;
+import java.lang.reflect.Method;
+import java.lang.reflect.Proxy;
+import java.sql.Connection;
+import java.sql.DriverManager;
+import java.sql.SQLException;
+import java.sql.SQLFeatureNotSupportedException;
+import java.sql.SQLTimeoutException;
+import java.util.Iterator;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.Executors;
+import java.util.concurrent.LinkedBlockingDeque;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.Semaphore;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.logging.Logger;
+
+/**
+ * Small built-in JDBC connection pool.
+ *
+ * Callers use it like any DataSource: getConnection() borrows a connection and close() on the
+ * returned handle gives it back instead of closing the socket. At most maxSize connections are
+ * handed out at once; further callers wait up to acquireTimeoutMillis. Idle connections are
+ * validated on borrow, evicted after idleTimeoutMillis (down to minSize), and connections held
+ * longer than leakDetectionThresholdMillis are reported together with the stack trace of the caller
+ * that borrowed them. Eviction and leak detection run on a background thread started by
+ * {@link #startHousekeeping()}.
+ */
+public class ConnectionPool implements DataSource, AutoCloseable {
+
+    @FunctionalInterface
+    interface ConnectionFactory {
+        Connection open() throws SQLException;
+    }
+
+    private final ConnectionPoolConfig config;
+    private final ConnectionFactory factory;
+
+    // most recently returned connection first, so hot connections are reused and cold ones age out
+    private final LinkedBlockingDeque<PooledConnection> idle = new LinkedBlockingDeque<>();
+    private final Set<PooledConnection> borrowed = ConcurrentHashMap.newKeySet();
+    private final Semaphore permits;
+    private final AtomicInteger totalConnections = new AtomicInteger();
+    private final ScheduledExecutorService housekeeper;
+    private volatile boolean closed;
+
+    public ConnectionPool(ConnectionPoolConfig config) {
+        this(config, () -> DriverManager.getConnection(config.getUrl(), config.getUser(), config.getPassword()));
+    }
+
+    ConnectionPool(ConnectionPoolConfig config, ConnectionFactory factory) {
+        config.validate();
+        this.config = config;
+        this.factory = factory;
+        this.permits = new Semaphore(config.getMaxSize(), true);
+        try {
+            fillToMinimum();
+        } catch (SQLException e) {
+            closeIdleConnections();
+            throw new RuntimeException("Database connection failed", e);
+        }
+        this.housekeeper = Executors.newSingleThreadScheduledExecutor(runnable -> {
+            Thread thread = new Thread(runnable, "db-pool-housekeeper");
+            thread.setDaemon(true);
+            return thread;
+        });
+    }
+
+    // Starts eviction and leak detection; called once the pool is constructed
+    public void startHousekeeping() {
+        housekeeper.scheduleWithFixedDelay(this::housekeep,
+                config.getHousekeepingIntervalMillis(), config.getHousekeepingIntervalMillis(), TimeUnit.MILLISECONDS);
+    }
+
+    @Override
+    public Connection getConnection() throws SQLException {
+        if (closed) {
+            throw new SQLException("Connection pool is closed");
+        }
+        boolean acquired;
+        try {
+            acquired = permits.tryAcquire(config.getAcquireTimeoutMillis(), TimeUnit.MILLISECONDS);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new SQLException("Interrupted while waiting for a database connection", e);
+        }
+        if (!acquired) {
+            throw new SQLTimeoutException("Timed out after " + config.getAcquireTimeoutMillis()
+                    + " ms waiting for a database connection (active=" + getActiveConnections()
+                    + ", max=" + config.getMaxSize() + ")");
+        }
+        try {
+            PooledConnection pooled = takeValidIdleConnection();
+            if (pooled == null) {
+                pooled = openConnection();
+            }
+            pooled.borrowedAt = System.currentTimeMillis();
+            pooled.borrowSite = config.getLeakDetectionThresholdMillis() > 0
+                    ? new Throwable("Connection borrowed here")
+                    : null;
+            pooled.leakReported = false;
+            borrowed.add(pooled);
+            return (Connection) Proxy.newProxyInstance(
+                    ConnectionPool.class.getClassLoader(),
+                    new Class<?>[]{Connection.class},
+                    new ConnectionHandle(pooled)
+            );
+        } catch (SQLException | RuntimeException e) {
+            permits.release();
+            throw e;
+        }
+    }
+
+    @Override
+    public void close() {
+        if (closed) return;
+        closed = true;
+        housekeeper.shutdownNow();
+        closeIdleConnections();
+        // borrowed connections are closed when their holders give them back
+    }
+
+    public boolean isClosed() {
+        return closed;
+    }
+
+    public int getTotalConnections() {
+        return totalConnections.get();
+    }
+
+    public int getIdleConnections() {
+        return idle.size();
+    }
+
+    public int getActiveConnections() {
+        return borrowed.size();
+    }
+
+    public int getWaitingThreads() {
+        return permits.getQueueLength();
+    }
+
+    // ---------------------------------------------------------------- internals
+
+    private PooledConnection takeValidIdleConnection() {
+        PooledConnection pooled;
+        while ((pooled = idle.pollFirst()) != null) {
+            if (isUsable(pooled)) {
+                return pooled;
+            }
+            discard(pooled);
+        }
+        return null;
+    }
+
+    private boolean isUsable(PooledConnection pooled) {
+        long idleFor = System.currentTimeMillis() - pooled.lastReturnedAt;
+        if (idleFor < config.getValidationBypassMillis()) {
+            return true;
+        }
+        try {
+            return pooled.physical.isValid(config.getValidationTimeoutSeconds());
+        } catch (SQLException e) {
+            return false;
+        }
+    }
+
+    private PooledConnection openConnection() throws SQLException {
+        Connection physical = factory.open();
+        totalConnections.incrementAndGet();
+        return new PooledConnection(physical);
+    }
+
+    private void release(PooledConnection pooled) {
+        borrowed.remove(pooled);
+        try {
+            if (pooled.leakReported) {
+                System.err.println("Connection previously reported as leaked was returned after "
+                        + (System.currentTimeMillis() - pooled.borrowedAt) + " ms");
+            }
+            if (closed || pooled.broken || pooled.physical.isClosed()) {
+                discard(pooled);
+                return;
+            }
+            // never hand out a connection with an open transaction or changed auto-commit mode
+            if (!pooled.physical.getAutoCommit()) {
+                pooled.physical.rollback();
+                pooled.physical.setAutoCommit(true);
+            }
+            pooled.borrowSite = null;
+            pooled.lastReturnedAt = System.currentTimeMillis();
+            idle.offerFirst(pooled);
+        } catch (SQLException e) {
+            discard(pooled);
+        } finally {
+            permits.release();
+        }
+    }
+
+    private void discard(PooledConnection pooled) {
+        totalConnections.decrementAndGet();
+        try {
+            pooled.physical.close();
+        } catch (SQLException e) {
+            System.err.println("Failed to close pooled connection: " + e.getMessage());
+        }
+    }
+
+    private void fillToMinimum() throws SQLException {
+        while (!closed && totalConnections.get() < config.getMinSize()) {
+            PooledConnection pooled = openConnection();
+            pooled.lastReturnedAt = System.currentTimeMillis();
+            idle.offerLast(pooled);
+        }
+    }
+
+    private void closeIdleConnections() {
+        PooledConnection pooled;
+        while ((pooled = idle.pollFirst()) != null) {
+            discard(pooled);
+        }
+    }
+
+    void housekeep() {
+        if (closed) return;
+        long now = System.currentTimeMillis();
+
+        // idle eviction: oldest entries sit at the tail of the deque
+        Iterator<PooledConnection> it = idle.descendingIterator();
+        while (it.hasNext() && totalConnections.get() > config.getMinSize()) {
+            PooledConnection pooled = it.next();
+            if (now - pooled.lastReturnedAt > config.getIdleTimeoutMillis() && idle.remove(pooled)) {
+                discard(pooled);
+            }
+        }
+
+        // leak detection
+        long threshold = config.getLeakDetectionThresholdMillis();
+        if (threshold > 0) {
+            for (PooledConnection pooled : borrowed) {
+                if (!pooled.leakReported && now - pooled.borrowedAt > threshold) {
+                    pooled.leakReported = true;
+                    System.err.println("Possible connection leak: connection held for "
+                            + (now - pooled.borrowedAt) + " ms");
+                    if (pooled.borrowSite != null) {
+                        pooled.borrowSite.printStackTrace();
+                    }
+                }
+            }
+        }
+
+        try {
+            fillToMinimum();
+        } catch (SQLException e) {
+            System.err.println("Failed to refill connection pool: " + e.getMessage());
+        }
+    }
+
+    private static boolean isFatal(SQLException e) {
+        // SQLState class 08 = connection exception, 57P0x = server shutdown
+        String state = e.getSQLState();
+        return state != null && (state.startsWith("08") || state.startsWith("57P0"));
+    }
+
+    private static final class PooledConnection {
+        private final Connection physical;
+        private volatile long lastReturnedAt;
+        private volatile long borrowedAt;
+        private volatile Throwable borrowSite;
+        private volatile boolean leakReported;
+        private volatile boolean broken;
+
+        private PooledConnection(Connection physical) {
+            this.physical = physical;
+        }
+    }
+
+    /**
+     * The handle given to callers. Each borrow gets its own handle so a caller closing a
+     * connection twice (or using it after close) can never affect the next borrower.
+     */
+    private final class ConnectionHandle implements InvocationHandler {
+        private final PooledConnection pooled;
+        private boolean handleClosed;
+
+        private ConnectionHandle(PooledConnection pooled) {
+            this.pooled = pooled;
+        }
+
+        @Override
+        public Object invoke(Object proxy, Method method, Object[] args) throws Throwable {
+            switch (method.getName()) {
+                case "close":
+                    if (!handleClosed) {
+                        handleClosed = true;
+                        release(pooled);
+                    }
+                    return null;
+                case "isClosed":
+                    return handleClosed || pooled.physical.isClosed();
+                case "equals":
+                    return proxy == args[0];
+                case "hashCode":
+                    return System.identityHashCode(proxy);
+                case "toString":
+                    return "PooledConnection[" + pooled.physical + (handleClosed ? ", closed" : "") + "]";
+                case "unwrap":
+                    if (((Class<?>) args[0]).isInstance(proxy)) return proxy;
+                    break;
+                case "isWrapperFor":
+                    if (((Class<?>) args[0]).isInstance(proxy)) return true;
+                    break;
+                default:
+                    break;
+            }
+            if (handleClosed) {
+                throw new SQLException("Connection is closed");
+            }
+            try {
+                return method.invoke(pooled.physical, args);
+            } catch (InvocationTargetException e) {
+                Throwable cause = e.getCause();
+                if (cause instanceof SQLException sqlException && isFatal(sqlException)) {
+                    pooled.broken = true;
+                }
+                throw cause;
+            }
+        }
+    }
+
+    // ---------------------------------------------------------------- unsupported DataSource API
+
+    @Override
+    public Connection getConnection(String username, String password) throws SQLException {
+        throw new SQLFeatureNotSupportedException("Pool uses the configured credentials");
+    }
+
+    @Override
+    public PrintWriter getLogWriter() {
+        return null;
+    }
+
+    @Override
+    public void setLogWriter(PrintWriter out) {
+        // not used
+    }
+
+    @Override
+    public void setLoginTimeout(int seconds) {
+        // not used
+    }
+
+    @Override
+    public int getLoginTimeout() {
+        return 0;
+    }
+
+    @Override
+    public Logger getParentLogger() throws SQLFeatureNotSupportedException {
+        throw new SQLFeatureNotSupportedException();
+    }
+
+    @Override
+    public <T> T unwrap(Class<T> iface) throws SQLException {
+        if (iface.isInstance(this)) return iface.cast(this);
+        throw new SQLException("Not a wrapper for " + iface.getName());
+    }
+
+    @Override
+    public boolean isWrapperFor(Class<?> iface) {
+        return iface.isInstance(this);
+    }
+}
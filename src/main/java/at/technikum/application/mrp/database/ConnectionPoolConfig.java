@@ -0,0 +1,86 @@
+package at.technikum.application.mrp.database;
+
+import at.technikum.application.common.EnvConfig;
+
+public class ConnectionPoolConfig {
+
+    private String url;
+    private String user;
+    private String password;
+
+    private int minSize = 2;
+    private int maxSize = 10;
+    // how long getConnection() waits for a free connection before failing
+    private long acquireTimeoutMillis = 5_000;
+    // connections idle longer than this are closed (down to minSize)
+    private long idleTimeoutMillis = 300_000;
+    // a borrowed connection held longer than this is reported as a possible leak (0 = off)
+    private long leakDetectionThresholdMillis = 30_000;
+    // connections used more recently than this are handed out without a validation round trip
+    private long validationBypassMillis = 500;
+    private int validationTimeoutSeconds = 2;
+    private long housekeepingIntervalMillis = 30_000;
+
+    /**
+     * Reads DB_URL, DB_USER and DB_PASSWORD plus the optional pool settings DB_POOL_MIN, DB_POOL_MAX,
+     * DB_POOL_ACQUIRE_TIMEOUT_MS, DB_POOL_IDLE_TIMEOUT_MS and DB_POOL_LEAK_THRESHOLD_MS.
+     */
+    public static ConnectionPoolConfig fromEnvironment() {
+        ConnectionPoolConfig config = new ConnectionPoolConfig();
+        config.setUrl(System.getenv("DB_URL"));
+        config.setUser(System.getenv("DB_USER"));
+        config.setPassword(System.getenv("DB_PASSWORD"));
+        if (config.getUrl() == null || config.getUser() == null || config.getPassword() == null) {
+            throw new RuntimeException(
+                    "Database configuration is missing. Please set DB_URL, DB_USER, and DB_PASSWORD environment variables.");
+        }
+        config.setMinSize((int) EnvConfig.longFromEnv("DB_POOL_MIN", config.getMinSize()));
+        config.setMaxSize((int) EnvConfig.longFromEnv("DB_POOL_MAX", config.getMaxSize()));
+        config.setAcquireTimeoutMillis(EnvConfig.longFromEnv("DB_POOL_ACQUIRE_TIMEOUT_MS", config.getAcquireTimeoutMillis()));
+        config.setIdleTimeoutMillis(EnvConfig.longFromEnv("DB_POOL_IDLE_TIMEOUT_MS", config.getIdleTimeoutMillis()));
+        config.setLeakDetectionThresholdMillis(EnvConfig.longFromEnv("DB_POOL_LEAK_THRESHOLD_MS", config.getLeakDetectionThresholdMillis()));
+        config.validate();
+        return config;
+    }
+
+    public void validate() {
+        if (minSize < 0) throw new IllegalArgumentException("minSize must not be negative");
+        if (maxSize < 1) throw new IllegalArgumentException("maxSize must be at least 1");
+        if (minSize > maxSize) throw new IllegalArgumentException("minSize must not exceed maxSize");
+        if (acquireTimeoutMillis < 0) throw new IllegalArgumentException("acquireTimeoutMillis must not be negative");
+        if (housekeepingIntervalMillis < 1) throw new IllegalArgumentException("housekeepingIntervalMillis must be positive");
+    }
+
+    public String getUrl() { return url; }
+    public void setUrl(String url) { this.url = url; }
+
+    public String getUser() { return user; }
+    public void setUser(String user) { this.user = user; }
+
+    public String getPassword() { return password; }
+    public void setPassword(String password) { this.password = password; }
+
+    public int getMinSize() { return minSize; }
+    public void setMinSize(int minSize) { this.minSize = minSize; }
+
+    public int getMaxSize() { return maxSize; }
+    public void setMaxSize(int maxSize) { this.maxSize = maxSize; }
+
+    public long getAcquireTimeoutMillis() { return acquireTimeoutMillis; }
+    public void setAcquireTimeoutMillis(long acquireTimeoutMillis) { this.acquireTimeoutMillis = acquireTimeoutMillis; }
+
+    public long getIdleTimeoutMillis() { return idleTimeoutMillis; }
+    public void setIdleTimeoutMillis(long idleTimeoutMillis) { this.idleTimeoutMillis = idleTimeoutMillis; }
+
+    public long getLeakDetectionThresholdMillis() { return leakDetectionThresholdMillis; }
+    public void setLeakDetectionThresholdMillis(long leakDetectionThresholdMillis) { this.leakDetectionThresholdMillis = leakDetectionThresholdMillis; }
+
+    public long getValidationBypassMillis() { return validationBypassMillis; }
+    public void setValidationBypassMillis(long validationBypassMillis) { this.validationBypassMillis = validationBypassMillis; }
+
+    public int getValidationTimeoutSeconds() { return validationTimeoutSeconds; }
+    public void setValidationTimeoutSeconds(int validationTimeoutSeconds) { this.validationTimeoutSeconds = validationTimeoutSeconds; }
+
+    public long getHousekeepingIntervalMillis() { return housekeepingIntervalMillis; }
+    public void setHousekeepingIntervalMillis(long housekeepingIntervalMillis) { this.housekeepingIntervalMillis = housekeepingIntervalMillis; }
+}
@@ -1,31 +1,26 @@
 package at.technikum.application.mrp.database;
 
+import javax.sql.DataSource;
 import java.sql.Connection;
-import java.sql.DriverManager;
 import java.sql.SQLException;
 
 public class DatabaseConnection {
 
-    private static DatabaseConnection instance;
-    private Connection connection;
-
-    private static final String URL = System.getenv("DB_URL");
-    private static final String USER = System.getenv("DB_USER");
-    private static final String PASSWORD = System.getenv("DB_PASSWORD");
+    private static volatile DatabaseConnection instance;
+    private final ConnectionPool pool;
 
     private DatabaseConnection() {
-        if (URL == null || USER == null || PASSWORD == null) {
-            throw new RuntimeException(
-                    "Database configuration is missing. Please set DB_URL, DB_USER, and DB_PASSWORD environment variables.");
-        }
+        ConnectionPoolConfig config = ConnectionPoolConfig.fromEnvironment();
         try {
             Class.forName("org.postgresql.Driver");
-            this.connection = DriverManager.getConnection(URL, USER, PASSWORD);
-            System.out.println("Database connection established successfully");
-        } catch (ClassNotFoundException | SQLException e) {
-            System.err.println("Failed to establish database connection: " + e.getMessage());
+        } catch (ClassNotFoundException e) {
+            System.err.println("Failed to load database driver: " + e.getMessage());
             throw new RuntimeException("Database connection failed", e);
         }
+        this.pool = new ConnectionPool(config);
+        pool.startHousekeeping();
+        System.out.println("Database connection pool started (min=" + config.getMinSize()
+                + ", max=" + config.getMaxSize() + ")");
     }
 
     public static DatabaseConnection getInstance() {
@@ -39,27 +34,26 @@ public class DatabaseConnection {
         return instance;
     }
 
+    // Shared pooled DataSource; repositories get it injected and borrow one connection per operation
+    public DataSource getDataSource() {
+        return pool;
+    }
+
+    public ConnectionPool getPool() {
+        return pool;
+    }
+
     public Connection getConnection() {
         try {
-            if (connection == null || connection.isClosed()) {
-                connection = DriverManager.getConnection(URL, USER, PASSWORD);
-            }
+            return pool.getConnection();
         } catch (SQLException e) {
             System.err.println("Failed to get database connection: " + e.getMessage());
             throw new RuntimeException("Database connection failed", e);
         }
-        return connection;
     }
 
     public void closeConnection() {
-        if (connection != null) {
-            try {
-                connection.close();
-                System.out.println("Database connection closed");
-            } catch (SQLException e) {
-                System.err.println("Failed to close database connection: " + e.getMessage());
-            }
-        }
+        pool.close();
+        System.out.println("Database connection pool closed");
     }
 }
-
@@ -6,9 +6,22 @@ import java.sql.Statement;
 
 public class DatabaseInitializer {
 
+    // Title words weigh more than description words in ts_rank; 'simple' = no language-specific stemming
+    static final String SEARCH_VECTOR = "setweight(to_tsvector('simple', coalesce(title, '')), 'A') || "
+            + "setweight(to_tsvector('simple', coalesce(description, '')), 'B')";
+
     public static void initializeDatabase() {
-        try (Connection conn = DatabaseConnection.getInstance().getConnection();
-             Statement stmt = conn.createStatement()) {
+        try (Connection conn = DatabaseConnection.getInstance().getConnection()) {
+            initializeSchema(conn);
+        } catch (SQLException e) {
+            System.err.println("Failed to initialize database schema: " + e.getMessage());
+            throw new RuntimeException("Database initialization failed", e);
+        }
+    }
+
+    // Creates missing tables and indexes on the given connection (also used by the benchmarks on a scratch schema)
+    public static void initializeSchema(Connection conn) throws SQLException {
+        try (Statement stmt = conn.createStatement()) {
 
             System.out.println("Checking database schema...");
 
@@ -34,23 +47,42 @@ public class DatabaseInitializer {
                 )
                 """);
 
+            // Create GENRES table (dictionary for media.genre_ids, names are unique case-insensitively)
+            stmt.execute("""
+                CREATE TABLE IF NOT EXISTS genres (
+                    genre_id SERIAL PRIMARY KEY,
+                    name VARCHAR(100) NOT NULL
+                )
+                """);
+            stmt.execute("CREATE UNIQUE INDEX IF NOT EXISTS idx_genres_name ON genres (LOWER(name))");
+
             // Create MEDIA table
             stmt.execute("""
                 CREATE TABLE IF NOT EXISTS media (
                     media_id SERIAL PRIMARY KEY,
                     title VARCHAR(255) NOT NULL,
                     description TEXT,
-                    genre TEXT,
+                    genre_ids INTEGER[] NOT NULL DEFAULT '{}',
                     media_type VARCHAR(50),
                     release_year INTEGER,
                     director VARCHAR(255),
                     cast_members TEXT,
                     creator_user_id INTEGER,
                     age_restriction INTEGER,
+                    rating_count INTEGER NOT NULL DEFAULT 0,
+                    rating_sum INTEGER NOT NULL DEFAULT 0,
+                    stars_1 INTEGER NOT NULL DEFAULT 0,
+                    stars_2 INTEGER NOT NULL DEFAULT 0,
+                    stars_3 INTEGER NOT NULL DEFAULT 0,
+                    stars_4 INTEGER NOT NULL DEFAULT 0,
+                    stars_5 INTEGER NOT NULL DEFAULT 0,
+                    favorite_count INTEGER NOT NULL DEFAULT 0,
+                    version INTEGER NOT NULL DEFAULT 1,
+                    search_vector tsvector GENERATED ALWAYS AS (%s) STORED,
                     created_at TIMESTAMP DEFAULT CURRENT_TIMESTAMP,
                     updated_at TIMESTAMP DEFAULT CURRENT_TIMESTAMP
                 )
-                """);
+                """.formatted(SEARCH_VECTOR));
 
             // Create RATINGS table
             stmt.execute("""
@@ -61,6 +93,8 @@ public class DatabaseInitializer {
                     rating_value INTEGER NOT NULL CHECK (rating_value >= 1 AND rating_value <= 5),
                     comment TEXT,
                     confirmed BOOLEAN DEFAULT FALSE,
+                    version INTEGER NOT NULL DEFAULT 1,
+                    like_count INTEGER NOT NULL DEFAULT 0,
                     created_at TIMESTAMP DEFAULT CURRENT_TIMESTAMP,
                     updated_at TIMESTAMP DEFAULT CURRENT_TIMESTAMP,
                     FOREIGN KEY (user_id) REFERENCES users(user_id) ON DELETE CASCADE,
@@ -95,23 +129,204 @@ public class DatabaseInitializer {
                 )
                 """);
 
+            // Migrate media tables created before the rating aggregates existed
+            if (!columnExists(conn, "media", "rating_count")) {
+                System.out.println("→ Adding rating aggregates to media...");
+                stmt.execute("""
+                    ALTER TABLE media
+                        ADD COLUMN IF NOT EXISTS rating_count INTEGER NOT NULL DEFAULT 0,
+                        ADD COLUMN IF NOT EXISTS rating_sum INTEGER NOT NULL DEFAULT 0,
+                        ADD COLUMN IF NOT EXISTS stars_1 INTEGER NOT NULL DEFAULT 0,
+                        ADD COLUMN IF NOT EXISTS stars_2 INTEGER NOT NULL DEFAULT 0,
+                        ADD COLUMN IF NOT EXISTS stars_3 INTEGER NOT NULL DEFAULT 0,
+                        ADD COLUMN IF NOT EXISTS stars_4 INTEGER NOT NULL DEFAULT 0,
+                        ADD COLUMN IF NOT EXISTS stars_5 INTEGER NOT NULL DEFAULT 0
+                    """);
+                recomputeRatingAggregates(stmt);
+            }
+
+            // Migrate media tables created before full-text search; the generated column fills itself
+            if (!columnExists(conn, "media", "search_vector")) {
+                System.out.println("→ Adding full-text search column to media...");
+                stmt.execute("ALTER TABLE media ADD COLUMN IF NOT EXISTS search_vector tsvector GENERATED ALWAYS AS ("
+                        + SEARCH_VECTOR + ") STORED");
+            }
+
+            // Migrate the comma-joined genre column to genre ids
+            if (!columnExists(conn, "media", "genre_ids")) {
+                System.out.println("→ Moving media genres into the genres table...");
+                stmt.execute("ALTER TABLE media ADD COLUMN IF NOT EXISTS genre_ids INTEGER[] NOT NULL DEFAULT '{}'");
+                if (columnExists(conn, "media", "genre")) {
+                    migrateGenres(stmt);
+                }
+            }
+
+            // Migrate tables created before optimistic locking (ETag / If-Match)
+            if (!columnExists(conn, "media", "version")) {
+                System.out.println("→ Adding version column to media...");
+                stmt.execute("ALTER TABLE media ADD COLUMN IF NOT EXISTS version INTEGER NOT NULL DEFAULT 1");
+            }
+            if (!columnExists(conn, "ratings", "version")) {
+                System.out.println("→ Adding version column to ratings...");
+                stmt.execute("ALTER TABLE ratings ADD COLUMN IF NOT EXISTS version INTEGER NOT NULL DEFAULT 1");
+            }
+
+            // Migrate ratings created before the like counter (kept in step by addLike/removeLike)
+            if (!columnExists(conn, "ratings", "like_count")) {
+                System.out.println("→ Adding like counter to ratings...");
+                stmt.execute("ALTER TABLE ratings ADD COLUMN IF NOT EXISTS like_count INTEGER NOT NULL DEFAULT 0");
+                recomputeLikeCounts(stmt);
+            }
+
+            // Migrate media tables created before the favorite total (GET /media/{id}/stats)
+            if (!columnExists(conn, "media", "favorite_count")) {
+                System.out.println("→ Adding favorite total to media...");
+                stmt.execute("ALTER TABLE media ADD COLUMN IF NOT EXISTS favorite_count INTEGER NOT NULL DEFAULT 0");
+                recomputeMediaTotals(stmt);
+            }
+
+            // The like total is summed from ratings.like_count instead; keeping it on the media row made
+            // every like update that row
+            if (columnExists(conn, "media", "like_total")) {
+                System.out.println("→ Dropping like total from media...");
+                stmt.execute("ALTER TABLE media DROP COLUMN IF EXISTS like_total");
+            }
+
             // Create index for faster queries
-            stmt.execute("CREATE INDEX IF NOT EXISTS idx_ratings_media_id ON ratings(media_id)");
             stmt.execute("CREATE INDEX IF NOT EXISTS idx_ratings_user_id ON ratings(user_id)");
             stmt.execute("CREATE INDEX IF NOT EXISTS idx_favorites_user_id ON favorites(user_id)");
             stmt.execute("CREATE INDEX IF NOT EXISTS idx_favorites_media_id ON favorites(media_id)");
             stmt.execute("CREATE INDEX IF NOT EXISTS idx_rating_likes_rating_id ON rating_likes(rating_id)");
             stmt.execute("CREATE INDEX IF NOT EXISTS idx_rating_likes_user_id ON rating_likes(user_id)");
+            // Keyset pagination of GET /rating?mediaId=: (media_id, sort key, rating_id) per sort mode,
+            // the recent index also serves every other lookup by media_id
+            stmt.execute("DROP INDEX IF EXISTS idx_ratings_media_id");
+            stmt.execute("CREATE INDEX IF NOT EXISTS idx_ratings_media_recent ON ratings (media_id, created_at DESC, rating_id DESC)");
+            stmt.execute("CREATE INDEX IF NOT EXISTS idx_ratings_media_likes ON ratings (media_id, like_count DESC, rating_id DESC)");
+            stmt.execute("CREATE INDEX IF NOT EXISTS idx_ratings_media_score ON ratings (media_id, rating_value DESC, rating_id DESC)");
+            // Keyset pagination of GET /media: (sort key, media_id) per sort mode
+            stmt.execute("DROP INDEX IF EXISTS idx_media_avg_score");
+            stmt.execute("CREATE INDEX IF NOT EXISTS idx_media_title_keyset ON media (title, media_id)");
+            stmt.execute("CREATE INDEX IF NOT EXISTS idx_media_score_keyset ON media ((COALESCE(rating_sum::float8 / NULLIF(rating_count, 0), 0)), media_id)");
+            stmt.execute("CREATE INDEX IF NOT EXISTS idx_media_year_keyset ON media ((COALESCE(release_year, 0)), media_id)");
+
+            // Exact genre filters: && (any of) and @> (all of)
+            stmt.execute("CREATE INDEX IF NOT EXISTS idx_media_genre_ids ON media USING GIN (genre_ids)");
+
+            // Full-text search over title and description
+            stmt.execute("CREATE INDEX IF NOT EXISTS idx_media_search_vector ON media USING GIN (search_vector)");
+            createTrigramIndexes(conn);
 
             if (tablesExist) {
                 System.out.println("✓ Database schema verified - all tables present");
             } else {
                 System.out.println("✓ Database schema created successfully - tables and indexes ready");
             }
+        }
+    }
 
+    /**
+     * Trigram indexes let substring filters (LIKE '%x%') use an index. pg_trgm is a contrib extension
+     * and may be missing or not installable without superuser rights; substring search then still
+     * works, only as a sequential scan.
+     */
+    private static void createTrigramIndexes(Connection conn) {
+        try (Statement stmt = conn.createStatement()) {
+            stmt.execute("CREATE EXTENSION IF NOT EXISTS pg_trgm");
+            stmt.execute("CREATE INDEX IF NOT EXISTS idx_media_title_trgm ON media USING GIN (LOWER(title) gin_trgm_ops)");
+            stmt.execute("CREATE INDEX IF NOT EXISTS idx_media_description_trgm ON media USING GIN (LOWER(description) gin_trgm_ops)");
         } catch (SQLException e) {
-            System.err.println("Failed to initialize database schema: " + e.getMessage());
-            throw new RuntimeException("Database initialization failed", e);
+            System.err.println("Warning: pg_trgm not available, substring search runs without index: " + e.getMessage());
+        }
+    }
+
+    /**
+     * Fills genres and media.genre_ids from the old comma-joined media.genre column, then drops it.
+     * Names are trimmed, the first spelling of a genre wins, and each entry keeps its genre order.
+     */
+    private static void migrateGenres(Statement stmt) throws SQLException {
+        stmt.execute("""
+            INSERT INTO genres (name)
+            SELECT DISTINCT ON (LOWER(g.name)) g.name
+            FROM (SELECT TRIM(part) AS name, m.media_id, t.pos
+                  FROM media m, unnest(string_to_array(m.genre, ',')) WITH ORDINALITY AS t(part, pos)) g
+            WHERE g.name <> ''
+            ORDER BY LOWER(g.name), g.media_id, g.pos
+            ON CONFLICT DO NOTHING
+            """);
+        stmt.execute("""
+            UPDATE media m SET genre_ids = ARRAY(
+                SELECT gn.genre_id
+                FROM unnest(string_to_array(m.genre, ',')) WITH ORDINALITY AS t(part, pos)
+                JOIN genres gn ON LOWER(gn.name) = LOWER(TRIM(t.part))
+                GROUP BY gn.genre_id
+                ORDER BY MIN(t.pos))
+            WHERE m.genre IS NOT NULL
+            """);
+        stmt.execute("ALTER TABLE media DROP COLUMN genre");
+    }
+
+    // Full recompute of the media rating aggregates from the ratings table (idempotent)
+    public static void recomputeRatingAggregates(Statement stmt) throws SQLException {
+        stmt.execute("""
+            UPDATE media m SET
+                rating_count = COALESCE(a.cnt, 0),
+                rating_sum = COALESCE(a.total, 0),
+                stars_1 = COALESCE(a.s1, 0),
+                stars_2 = COALESCE(a.s2, 0),
+                stars_3 = COALESCE(a.s3, 0),
+                stars_4 = COALESCE(a.s4, 0),
+                stars_5 = COALESCE(a.s5, 0)
+            FROM media x
+            LEFT JOIN (
+                SELECT media_id,
+                       COUNT(*) AS cnt,
+                       SUM(rating_value) AS total,
+                       COUNT(*) FILTER (WHERE rating_value = 1) AS s1,
+                       COUNT(*) FILTER (WHERE rating_value = 2) AS s2,
+                       COUNT(*) FILTER (WHERE rating_value = 3) AS s3,
+                       COUNT(*) FILTER (WHERE rating_value = 4) AS s4,
+                       COUNT(*) FILTER (WHERE rating_value = 5) AS s5
+                FROM ratings GROUP BY media_id
+            ) a ON a.media_id = x.media_id
+            WHERE m.media_id = x.media_id
+            """);
+    }
+
+    // Full recompute of ratings.like_count from rating_likes (idempotent)
+    public static void recomputeLikeCounts(Statement stmt) throws SQLException {
+        stmt.execute("""
+            UPDATE ratings r SET like_count = COALESCE(l.cnt, 0)
+            FROM ratings x
+            LEFT JOIN (SELECT rating_id, COUNT(*) AS cnt FROM rating_likes GROUP BY rating_id) l
+                   ON l.rating_id = x.rating_id
+            WHERE r.rating_id = x.rating_id
+            """);
+    }
+
+    // Full recompute of media.favorite_count (idempotent)
+    public static void recomputeMediaTotals(Statement stmt) throws SQLException {
+        stmt.execute("""
+            UPDATE media m SET
+                favorite_count = (SELECT COUNT(*) FROM favorites f WHERE f.media_id = m.media_id)
+            """);
+    }
+
+    private static boolean columnExists(Connection conn, String table, String column) throws SQLException {
+        String query = """
+            SELECT EXISTS (
+                SELECT FROM information_schema.columns
+                WHERE table_schema = current_schema()
+                AND table_name = ? AND column_name = ?
+            )
+            """;
+
+        try (var stmt = conn.prepareStatement(query)) {
+            stmt.setString(1, table);
+            stmt.setString(2, column);
+            try (var rs = stmt.executeQuery()) {
+                return rs.next() && rs.getBoolean(1);
+            }
         }
     }
 
@@ -119,7 +334,7 @@ public class DatabaseInitializer {
         String query = """
             SELECT EXISTS (
                 SELECT FROM information_schema.tables
-                WHERE table_schema = 'public'
+                WHERE table_schema = current_schema()
                 AND table_name = 'users'
             )
             """;
@@ -0,0 +1,324 @@
+package at.technikum.application.mrp.dataset;
+
+import at.technikum.application.mrp.auth.AuthRepository;
+import at.technikum.application.mrp.dataset.dto.DatasetLoadResultDto;
+import at.technikum.application.mrp.media.MediaRepository;
+import at.technikum.application.mrp.media.entity.MediaEntryEntity;
+import at.technikum.application.mrp.rating.RatingImportBatch;
+import at.technikum.application.mrp.rating.RatingRepository;
+
+import java.io.IOException;
+import java.lang.management.ManagementFactory;
+import java.lang.management.MemoryPoolMXBean;
+import java.lang.management.MemoryType;
+import java.nio.ByteBuffer;
+import java.nio.file.Path;
+import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Deque;
+import java.util.HashMap;
+import java.util.Iterator;
+import java.util.List;
+import java.util.Map;
+import java.util.UUID;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.ForkJoinTask;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.function.Function;
+
+/**
+ * Loads a MovieLens-style dump (a movies file and optionally a ratings file, see {@link MovieLensFormat})
+ * into users, media and ratings.
+ *
+ * Each file is cut into line-aligned, memory-mapped chunks ({@link LineChunks}) that a ForkJoinPool parses
+ * into primitive columns ahead of the writer, at most threads + 1 chunks at a time, so the heap holds the
+ * columns of a few chunks and never a whole file. The writer (the calling thread) takes the chunks in file
+ * order and streams them through the bulk write paths: MediaRepository.createAll for the movies,
+ * AuthRepository.ensureUsers for users not seen before (named prefix_userId) and
+ * RatingRepository.importBatch for the ratings, batchSize rows per transaction.
+ * The movies are created by the user "prefix". Loading the same movies file twice creates them again.
+ */
+public class DatasetLoader {
+
+    // failed rows beyond this are only counted
+    static final int MAX_REPORTED_ERRORS = 100;
+    private static final int USER_BATCH_SIZE = 10_000;
+
+    private final AuthRepository authRepository;
+    private final MediaRepository mediaRepository;
+    private final RatingRepository ratingRepository;
+    private final int threads;
+    private final int chunkSize;
+    private final int batchSize;
+
+    public DatasetLoader(AuthRepository authRepository, MediaRepository mediaRepository,
+                         RatingRepository ratingRepository, int threads, int chunkSize, int batchSize) {
+        if (threads < 1) {
+            throw new IllegalArgumentException("threads must be at least 1");
+        }
+        if (chunkSize < 1 || chunkSize > LineChunks.MAX_CHUNK_SIZE) {
+            throw new IllegalArgumentException("chunkSize must be between 1 and " + LineChunks.MAX_CHUNK_SIZE);
+        }
+        if (batchSize < 1) {
+            throw new IllegalArgumentException("batchSize must be at least 1");
+        }
+        this.authRepository = authRepository;
+        this.mediaRepository = mediaRepository;
+        this.ratingRepository = ratingRepository;
+        this.threads = threads;
+        this.chunkSize = chunkSize;
+        this.batchSize = batchSize;
+    }
+
+    // ratingsFile may be null to load only the movies
+    public DatasetLoadResultDto load(Path moviesFile, Path ratingsFile, String prefix) throws IOException {
+        if (prefix == null || prefix.isBlank()) {
+            throw new IllegalArgumentException("prefix is required");
+        }
+        List<MemoryPoolMXBean> heapPools = ManagementFactory.getMemoryPoolMXBeans().stream()
+                .filter(pool -> pool.getType() == MemoryType.HEAP)
+                .toList();
+        heapPools.forEach(MemoryPoolMXBean::resetPeakUsage);
+        long start = System.nanoTime();
+
+        Run run = new Run(prefix);
+        run.result.setThreads(threads);
+        ForkJoinPool pool = new ForkJoinPool(threads);
+        try {
+            run.creatorId = authRepository.ensureUsers(List.of(prefix), run.password)[0];
+            run.file = moviesFile.getFileName().toString();
+            parse(pool, moviesFile, MovieLensFormat::parseMovies, run::writeMovies, run);
+            run.flushMedia();
+            if (ratingsFile != null) {
+                run.file = ratingsFile.getFileName().toString();
+                parse(pool, ratingsFile, MovieLensFormat::parseRatings, run::writeRatings, run);
+                run.flushRatings();
+            }
+        } finally {
+            pool.shutdownNow();
+        }
+
+        DatasetLoadResultDto result = run.result;
+        long durationNanos = System.nanoTime() - start;
+        result.setParseMs(run.parseNanos.sum() / 1_000_000);
+        result.setDurationMs(durationNanos / 1_000_000);
+        result.setRowsPerSecond(durationNanos > 0 ? result.getRatingsImported() * 1e9 / durationNanos : 0);
+        long peakHeap = 0;
+        for (MemoryPoolMXBean heapPool : heapPools) {
+            peakHeap += heapPool.getPeakUsage().getUsed();
+        }
+        result.setPeakHeapMb(peakHeap / (1024 * 1024));
+        return result;
+    }
+
+    private interface ChunkWriter<T> {
+        // linesBefore: lines of the file before this chunk, header included
+        void write(T chunk, long linesBefore);
+    }
+
+    // Keeps threads + 1 chunks parsing while the writer handles the oldest one
+    private <T extends MovieLensFormat.ParsedChunk> void parse(ForkJoinPool pool, Path file,
+                                                                Function<ByteBuffer, T> parser,
+                                                                ChunkWriter<T> writer, Run run) throws IOException {
+        try (LineChunks chunks = new LineChunks(file, chunkSize)) {
+            run.result.setChunks(run.result.getChunks() + chunks.chunks().size());
+            Iterator<LineChunks.Chunk> pending = chunks.chunks().iterator();
+            Deque<ForkJoinTask<T>> inFlight = new ArrayDeque<>();
+            long linesBefore = chunks.headerLines();
+            while (pending.hasNext() || !inFlight.isEmpty()) {
+                while (pending.hasNext() && inFlight.size() <= threads) {
+                    LineChunks.Chunk chunk = pending.next();
+                    inFlight.add(pool.submit(() -> {
+                        long parseStart = System.nanoTime();
+                        T parsed = parser.apply(chunks.map(chunk));
+                        run.parseNanos.add(System.nanoTime() - parseStart);
+                        return parsed;
+                    }));
+                }
+                T parsed = inFlight.poll().join();
+                writer.write(parsed, linesBefore);
+                linesBefore += parsed.lineCount;
+            }
+        }
+    }
+
+    // Writer state of one load: id mappings, pending batches and the result
+    private final class Run {
+        final DatasetLoadResultDto result = new DatasetLoadResultDto();
+        final LongAdder parseNanos = new LongAdder();
+        final String prefix;
+        // dataset users cannot log in with a password nobody knows
+        final String password = UUID.randomUUID().toString();
+        final IdMap mediaIds = new IdMap();
+        final IdMap userIds = new IdMap();
+        final List<MediaEntryEntity> mediaBatch = new ArrayList<>();
+        final List<PendingMovie> movieBatch = new ArrayList<>();
+        final RatingImportBatch ratingBatch;
+        int creatorId;
+        String file;
+
+        Run(String prefix) {
+            this.prefix = prefix;
+            this.ratingBatch = new RatingImportBatch(Math.min(batchSize, 10_000));
+        }
+
+        void writeMovies(MovieLensFormat.MovieChunk chunk, long linesBefore) {
+            result.setMoviesRead(result.getMoviesRead() + chunk.movies.size() + chunk.malformed);
+            reportMalformed(chunk, linesBefore);
+            for (MovieLensFormat.Movie movie : chunk.movies) {
+                MediaEntryEntity entity = new MediaEntryEntity();
+                entity.setTitle(movie.title());
+                entity.setMediaType("movie");
+                entity.setReleaseYear(movie.releaseYear());
+                entity.setGenres(new ArrayList<>(movie.genres()));
+                entity.setCreatorUserId(creatorId);
+                mediaBatch.add(entity);
+                movieBatch.add(new PendingMovie(movie.movieId(), linesBefore + movie.line() + 1));
+                if (mediaBatch.size() >= batchSize) {
+                    flushMedia();
+                }
+            }
+        }
+
+        void flushMedia() {
+            if (mediaBatch.isEmpty()) {
+                return;
+            }
+            try {
+                mediaRepository.createAll(mediaBatch);
+                for (int i = 0; i < mediaBatch.size(); i++) {
+                    mediaIds.put(movieBatch.get(i).movieId(), mediaBatch.get(i).getId());
+                }
+                result.setMediaCreated(result.getMediaCreated() + mediaBatch.size());
+            } catch (RuntimeException e) {
+                for (PendingMovie movie : movieBatch) {
+                    fail(movie.line(), "Batch rolled back: " + e.getMessage());
+                }
+            }
+            mediaBatch.clear();
+            movieBatch.clear();
+        }
+
+        void writeRatings(MovieLensFormat.RatingColumns chunk, long linesBefore) {
+            result.setRatingsRead(result.getRatingsRead() + chunk.size + chunk.malformed);
+            reportMalformed(chunk, linesBefore);
+            createUsers(chunk);
+            for (int i = 0; i < chunk.size; i++) {
+                long line = linesBefore + chunk.lines[i] + 1;
+                int mediaId = mediaIds.get(chunk.movieIds[i]);
+                int userId = userIds.get(chunk.userIds[i]);
+                if (mediaId <= 0) {
+                    fail(line, "Unknown movie " + chunk.movieIds[i]);
+                    continue;
+                }
+                if (userId <= 0) {
+                    fail(line, "Unknown user " + chunk.userIds[i]);
+                    continue;
+                }
+                int timestamp = chunk.timestamps[i];
+                ratingBatch.add(Math.toIntExact(line), userId, mediaId, chunk.scores[i], null,
+                        timestamp == MovieLensFormat.NO_TIMESTAMP ? RatingImportBatch.NO_TIMESTAMP : timestamp * 1000L);
+                if (ratingBatch.size() >= batchSize) {
+                    flushRatings();
+                }
+            }
+        }
+
+        // Users of the chunk that are not mapped yet, USER_BATCH_SIZE per statement
+        private void createUsers(MovieLensFormat.RatingColumns chunk) {
+            int[] pending = new int[64];
+            int count = 0;
+            for (int i = 0; i < chunk.size; i++) {
+                int datasetId = chunk.userIds[i];
+                if (userIds.get(datasetId) == 0) {
+                    userIds.put(datasetId, -1);
+                    if (count == pending.length) {
+                        pending = Arrays.copyOf(pending, count * 2);
+                    }
+                    pending[count++] = datasetId;
+                }
+            }
+            for (int from = 0; from < count; from += USER_BATCH_SIZE) {
+                int to = Math.min(count, from + USER_BATCH_SIZE);
+                List<String> names = new ArrayList<>(to - from);
+                for (int i = from; i < to; i++) {
+                    names.add(prefix + "_" + pending[i]);
+                }
+                int[] ids = authRepository.ensureUsers(names, password);
+                for (int i = from; i < to; i++) {
+                    userIds.put(pending[i], ids[i - from]);
+                    if (ids[i - from] > 0) {
+                        result.setUsers(result.getUsers() + 1);
+                    }
+                }
+            }
+        }
+
+        void flushRatings() {
+            if (ratingBatch.isEmpty()) {
+                return;
+            }
+            try {
+                RatingRepository.ImportOutcome outcome = ratingRepository.importBatch(ratingBatch);
+                for (Map.Entry<Integer, String> rejected : outcome.rejected().entrySet()) {
+                    fail(rejected.getKey(), rejected.getValue());
+                }
+                result.setInserted(result.getInserted() + outcome.inserted());
+                result.setUpdated(result.getUpdated() + outcome.updated());
+                result.setUnchanged(result.getUnchanged() + outcome.unchanged());
+                result.setRatingsImported(result.getInserted() + result.getUpdated() + result.getUnchanged());
+            } catch (RuntimeException e) {
+                for (int i = 0; i < ratingBatch.size(); i++) {
+                    fail(ratingBatch.line(i), "Batch rolled back: " + e.getMessage());
+                }
+            }
+            ratingBatch.clear();
+        }
+
+        private void reportMalformed(MovieLensFormat.ParsedChunk chunk, long linesBefore) {
+            for (int i = 0; i < chunk.reportedMalformed(); i++) {
+                fail(linesBefore + chunk.malformedLines[i] + 1, "Malformed line");
+            }
+            // the lines beyond MovieLensFormat.MAX_MALFORMED_LINES were not kept
+            result.setFailed(result.getFailed() + chunk.malformed - chunk.reportedMalformed());
+        }
+
+        private void fail(long line, String message) {
+            result.setFailed(result.getFailed() + 1);
+            if (result.getErrors().size() < MAX_REPORTED_ERRORS) {
+                result.getErrors().add(new DatasetLoadResultDto.RowError(file, line, message));
+            }
+        }
+    }
+
+    private record PendingMovie(int movieId, long line) {
+    }
+
+    // Dataset id -> database id, 0 for unknown ids. MovieLens ids are small and dense and index an array;
+    // ids from DENSE_LIMIT on (and negative ones) go to a map, so one stray id cannot allocate gigabytes
+    static final class IdMap {
+        static final int DENSE_LIMIT = 1 << 22;
+
+        private int[] ids = new int[1024];
+        private final Map<Integer, Integer> sparse = new HashMap<>();
+
+        int get(int key) {
+            if (key >= 0 && key < DENSE_LIMIT) {
+                return key < ids.length ? ids[key] : 0;
+            }
+            return sparse.getOrDefault(key, 0);
+        }
+
+        void put(int key, int value) {
+            if (key < 0 || key >= DENSE_LIMIT) {
+                sparse.put(key, value);
+                return;
+            }
+            if (key >= ids.length) {
+                ids = Arrays.copyOf(ids, Math.min(DENSE_LIMIT, Math.max(key + 1, ids.length * 2)));
+            }
+            ids[key] = value;
+        }
+    }
+}
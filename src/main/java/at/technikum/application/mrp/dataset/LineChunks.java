@@ -0,0 +1,90 @@
+package at.technikum.application.mrp.dataset;
+
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * A file cut into chunks of about chunkSize bytes that end on a line break. Each chunk is mapped
+ * read-only on its own, so no buffer hits the 2 GB limit of a MappedByteBuffer and the chunks can be
+ * parsed independently. A header line (first byte not a digit) belongs to no chunk.
+ */
+final class LineChunks implements AutoCloseable {
+
+    static final int MAX_CHUNK_SIZE = 1 << 30;
+
+    record Chunk(long offset, int length) {
+    }
+
+    private final FileChannel channel;
+    private final boolean header;
+    private final List<Chunk> chunks = new ArrayList<>();
+
+    LineChunks(Path file, int chunkSize) throws IOException {
+        if (chunkSize < 1 || chunkSize > MAX_CHUNK_SIZE) {
+            throw new IllegalArgumentException("chunkSize must be between 1 and " + MAX_CHUNK_SIZE);
+        }
+        channel = FileChannel.open(file, StandardOpenOption.READ);
+        try {
+            long size = channel.size();
+            ByteBuffer first = ByteBuffer.allocate(1);
+            header = size > 0 && channel.read(first, 0) == 1 && (first.get(0) < '0' || first.get(0) > '9');
+            long start = header ? nextLineStart(0, size) : 0;
+            while (start < size) {
+                long end = size - start <= chunkSize ? size : nextLineStart(start + chunkSize - 1, size);
+                if (end - start > Integer.MAX_VALUE) {
+                    throw new IOException("Line longer than 2 GB at offset " + start);
+                }
+                chunks.add(new Chunk(start, (int) (end - start)));
+                start = end;
+            }
+        } catch (IOException | RuntimeException e) {
+            channel.close();
+            throw e;
+        }
+    }
+
+    // 1 if the first line is a header, else 0
+    int headerLines() {
+        return header ? 1 : 0;
+    }
+
+    List<Chunk> chunks() {
+        return chunks;
+    }
+
+    // Safe to call from several threads; the mapping stays valid after close()
+    MappedByteBuffer map(Chunk chunk) throws IOException {
+        return channel.map(FileChannel.MapMode.READ_ONLY, chunk.offset(), chunk.length());
+    }
+
+    @Override
+    public void close() throws IOException {
+        channel.close();
+    }
+
+    // Position behind the first '\n' at or after from, or size if there is none
+    private long nextLineStart(long from, long size) throws IOException {
+        ByteBuffer buffer = ByteBuffer.allocate(8192);
+        long position = from;
+        while (position < size) {
+            buffer.clear();
+            int read = channel.read(buffer, position);
+            if (read <= 0) {
+                break;
+            }
+            for (int i = 0; i < read; i++) {
+                if (buffer.get(i) == '\n') {
+                    return position + i + 1;
+                }
+            }
+            position += read;
+        }
+        return size;
+    }
+}
@@ -0,0 +1,274 @@
+package at.technikum.application.mrp.dataset;
+
+import java.nio.ByteBuffer;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.regex.Matcher;
+import java.util.regex.Pattern;
+
+/**
+ * Parsers for one chunk (whole lines) of a MovieLens-style dump:
+ * ratings as userId, movieId, rating, timestamp (ratings.csv, u.data with tabs, ratings.dat with "::"),
+ * movies as movieId, title, genres (movies.csv with quoted titles, movies.dat with "::").
+ *
+ * Ratings are parsed straight from the bytes into primitive columns. Half stars are rounded up to the
+ * 1-5 scale of the ratings table (0.5 becomes 1, 3.5 becomes 4); timestamps are Unix seconds.
+ * Blank lines are skipped, lines that do not fit the layout are counted as malformed.
+ */
+final class MovieLensFormat {
+
+    // malformed lines beyond this are only counted
+    static final int MAX_MALFORMED_LINES = 100;
+    static final int NO_TIMESTAMP = -1;
+
+    private static final Pattern TITLE_WITH_YEAR = Pattern.compile("^(.*?)\\s*\\((\\d{4})\\)\\s*$");
+    private static final String NO_GENRES = "(no genres listed)";
+    private static final int MAX_TITLE_LENGTH = 255;
+
+    private MovieLensFormat() {
+    }
+
+    // Line count and malformed lines (0-based within the chunk) of a parsed chunk
+    abstract static class ParsedChunk {
+        int lineCount;
+        int malformed;
+        int[] malformedLines = new int[0];
+
+        void markMalformed(int line) {
+            if (malformed < MAX_MALFORMED_LINES) {
+                malformedLines = Arrays.copyOf(malformedLines, malformed + 1);
+                malformedLines[malformed] = line;
+            }
+            malformed++;
+        }
+
+        // Malformed lines that were kept (at most MAX_MALFORMED_LINES)
+        int reportedMalformed() {
+            return Math.min(malformed, MAX_MALFORMED_LINES);
+        }
+    }
+
+    static final class RatingColumns extends ParsedChunk {
+        int[] lines;
+        int[] userIds;
+        int[] movieIds;
+        byte[] scores;
+        int[] timestamps;
+        int size;
+
+        RatingColumns(int capacity) {
+            lines = new int[capacity];
+            userIds = new int[capacity];
+            movieIds = new int[capacity];
+            scores = new byte[capacity];
+            timestamps = new int[capacity];
+        }
+
+        void add(int line, int userId, int movieId, int score, int timestamp) {
+            if (size == lines.length) {
+                int capacity = size * 2;
+                lines = Arrays.copyOf(lines, capacity);
+                userIds = Arrays.copyOf(userIds, capacity);
+                movieIds = Arrays.copyOf(movieIds, capacity);
+                scores = Arrays.copyOf(scores, capacity);
+                timestamps = Arrays.copyOf(timestamps, capacity);
+            }
+            lines[size] = line;
+            userIds[size] = userId;
+            movieIds[size] = movieId;
+            scores[size] = (byte) score;
+            timestamps[size] = timestamp;
+            size++;
+        }
+    }
+
+    record Movie(int line, int movieId, String title, Integer releaseYear, List<String> genres) {
+    }
+
+    static final class MovieChunk extends ParsedChunk {
+        final List<Movie> movies = new ArrayList<>();
+    }
+
+    static RatingColumns parseRatings(ByteBuffer chunk) {
+        int limit = chunk.limit();
+        // about 25 bytes per line in ratings.csv
+        RatingColumns out = new RatingColumns(limit / 20 + 16);
+        Cursor cursor = new Cursor(chunk);
+        int start = 0;
+        int line = 0;
+        while (start < limit) {
+            int end = lineEnd(chunk, start, limit);
+            cursor.reset(start, end);
+            if (!cursor.atEnd()) {
+                parseRating(cursor, line, out);
+            }
+            line++;
+            start = end + 1;
+        }
+        out.lineCount = line;
+        return out;
+    }
+
+    private static void parseRating(Cursor cursor, int line, RatingColumns out) {
+        long userId = cursor.number();
+        long movieId = cursor.separator() ? cursor.number() : -1;
+        long whole = cursor.separator() ? cursor.number() : -1;
+        boolean fraction = cursor.fraction();
+        long timestamp = NO_TIMESTAMP;
+        if (cursor.separator() && !cursor.atEnd()) {
+            timestamp = cursor.number();
+        }
+        cursor.separator();
+        int score = (int) whole + (fraction ? 1 : 0);
+        if (userId <= 0 || movieId <= 0 || whole < 0 || score < 1 || score > 5 || timestamp < NO_TIMESTAMP
+                || !cursor.atEnd()) {
+            out.markMalformed(line);
+            return;
+        }
+        out.add(line, (int) userId, (int) movieId, score, (int) timestamp);
+    }
+
+    static MovieChunk parseMovies(ByteBuffer chunk) {
+        int limit = chunk.limit();
+        MovieChunk out = new MovieChunk();
+        byte[] bytes = new byte[256];
+        int start = 0;
+        int line = 0;
+        while (start < limit) {
+            int end = lineEnd(chunk, start, limit);
+            int length = end - start;
+            if (bytes.length < length) {
+                bytes = new byte[length];
+            }
+            chunk.get(start, bytes, 0, length);
+            String text = new String(bytes, 0, length, StandardCharsets.UTF_8).strip();
+            if (!text.isEmpty()) {
+                Movie movie = parseMovie(text, line);
+                if (movie == null) {
+                    out.markMalformed(line);
+                } else {
+                    out.movies.add(movie);
+                }
+            }
+            line++;
+            start = end + 1;
+        }
+        out.lineCount = line;
+        return out;
+    }
+
+    // null if the line does not have the movieId, title, genres layout
+    static Movie parseMovie(String text, int line) {
+        int i = 0;
+        while (i < text.length() && Character.isDigit(text.charAt(i))) {
+            i++;
+        }
+        if (i == 0 || i > 9 || i == text.length()) {
+            return null;
+        }
+        String delimiter = text.startsWith("::", i) ? "::" : text.substring(i, i + 1);
+        if (!delimiter.equals("::") && !",\t|;".contains(delimiter)) {
+            return null;
+        }
+        int genresStart = text.lastIndexOf(delimiter);
+        if (genresStart <= i) {
+            return null;
+        }
+        String title = text.substring(i + delimiter.length(), genresStart).strip();
+        if (title.length() >= 2 && title.startsWith("\"") && title.endsWith("\"")) {
+            title = title.substring(1, title.length() - 1).replace("\"\"", "\"");
+        }
+        Integer year = null;
+        Matcher matcher = TITLE_WITH_YEAR.matcher(title);
+        if (matcher.matches()) {
+            title = matcher.group(1);
+            year = Integer.parseInt(matcher.group(2));
+        }
+        if (title.isBlank() || title.length() > MAX_TITLE_LENGTH) {
+            return null;
+        }
+        List<String> genres = new ArrayList<>();
+        for (String genre : text.substring(genresStart + delimiter.length()).split("\\|")) {
+            String name = genre.strip();
+            if (!name.isEmpty() && !name.equals(NO_GENRES)) {
+                genres.add(name);
+            }
+        }
+        return new Movie(line, Integer.parseInt(text.substring(0, i)), title, year, genres);
+    }
+
+    private static int lineEnd(ByteBuffer chunk, int start, int limit) {
+        int end = start;
+        while (end < limit && chunk.get(end) != '\n') {
+            end++;
+        }
+        return end;
+    }
+
+    // Reads numbers and separators of one line (without the line break and a trailing '\r')
+    private static final class Cursor {
+        private final ByteBuffer buffer;
+        private int position;
+        private int end;
+
+        Cursor(ByteBuffer buffer) {
+            this.buffer = buffer;
+        }
+
+        void reset(int start, int lineEnd) {
+            position = start;
+            end = lineEnd > start && buffer.get(lineEnd - 1) == '\r' ? lineEnd - 1 : lineEnd;
+        }
+
+        boolean atEnd() {
+            return position == end;
+        }
+
+        // Unsigned number up to Integer.MAX_VALUE, -1 if there is none or it is larger
+        long number() {
+            int start = position;
+            long value = 0;
+            while (position < end) {
+                byte b = buffer.get(position);
+                if (b < '0' || b > '9') {
+                    break;
+                }
+                value = value * 10 + (b - '0');
+                if (value > Integer.MAX_VALUE) {
+                    return -1;
+                }
+                position++;
+            }
+            return position == start ? -1 : value;
+        }
+
+        // Skips a ".digits" part; true if any of the digits is not 0
+        boolean fraction() {
+            if (position == end || buffer.get(position) != '.') {
+                return false;
+            }
+            position++;
+            boolean nonZero = false;
+            while (position < end && buffer.get(position) >= '0' && buffer.get(position) <= '9') {
+                nonZero |= buffer.get(position) != '0';
+                position++;
+            }
+            return nonZero;
+        }
+
+        // Skips a run of field separators (',', tab, ':', ';', '|', blank); true if there was one
+        boolean separator() {
+            int start = position;
+            while (position < end) {
+                byte b = buffer.get(position);
+                if (b != ',' && b != '\t' && b != ':' && b != ';' && b != '|' && b != ' ') {
+                    break;
+                }
+                position++;
+            }
+            return position > start;
+        }
+    }
+}
@@ -0,0 +1,82 @@
+package at.technikum.application.mrp.dataset.dto;
+
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * Outcome of a dataset load: what was read and written per table, the first errors with file and line,
+ * and where the time went. parseMs is summed over the parser threads; rowsPerSecond counts imported
+ * ratings over the whole run; peakHeapMb is the peak of the heap pools during the run (an upper bound).
+ */
+public class DatasetLoadResultDto {
+    private int moviesRead;
+    private int mediaCreated;
+    private int users;
+    private long ratingsRead;
+    private long ratingsImported;
+    private long inserted;
+    private long updated;
+    private long unchanged;
+    private long failed;
+    private List<RowError> errors = new ArrayList<>();
+    private int chunks;
+    private int threads;
+    private long parseMs;
+    private long durationMs;
+    private double rowsPerSecond;
+    private long peakHeapMb;
+
+    public static class RowError {
+        private String file;
+        private long line;
+        private String message;
+
+        public RowError() {}
+
+        public RowError(String file, long line, String message) {
+            this.file = file;
+            this.line = line;
+            this.message = message;
+        }
+
+        public String getFile() { return file; }
+        public void setFile(String file) { this.file = file; }
+        public long getLine() { return line; }
+        public void setLine(long line) { this.line = line; }
+        public String getMessage() { return message; }
+        public void setMessage(String message) { this.message = message; }
+    }
+
+    public int getMoviesRead() { return moviesRead; }
+    public void setMoviesRead(int moviesRead) { this.moviesRead = moviesRead; }
+    public int getMediaCreated() { return mediaCreated; }
+    public void setMediaCreated(int mediaCreated) { this.mediaCreated = mediaCreated; }
+    public int getUsers() { return users; }
+    public void setUsers(int users) { this.users = users; }
+    public long getRatingsRead() { return ratingsRead; }
+    public void setRatingsRead(long ratingsRead) { this.ratingsRead = ratingsRead; }
+    public long getRatingsImported() { return ratingsImported; }
+    public void setRatingsImported(long ratingsImported) { this.ratingsImported = ratingsImported; }
+    public long getInserted() { return inserted; }
+    public void setInserted(long inserted) { this.inserted = inserted; }
+    public long getUpdated() { return updated; }
+    public void setUpdated(long updated) { this.updated = updated; }
+    public long getUnchanged() { return unchanged; }
+    public void setUnchanged(long unchanged) { this.unchanged = unchanged; }
+    public long getFailed() { return failed; }
+    public void setFailed(long failed) { this.failed = failed; }
+    public List<RowError> getErrors() { return errors; }
+    public void setErrors(List<RowError> errors) { this.errors = errors; }
+    public int getChunks() { return chunks; }
+    public void setChunks(int chunks) { this.chunks = chunks; }
+    public int getThreads() { return threads; }
+    public void setThreads(int threads) { this.threads = threads; }
+    public long getParseMs() { return parseMs; }
+    public void setParseMs(long parseMs) { this.parseMs = parseMs; }
+    public long getDurationMs() { return durationMs; }
+    public void setDurationMs(long durationMs) { this.durationMs = durationMs; }
+    public double getRowsPerSecond() { return rowsPerSecond; }
+    public void setRowsPerSecond(double rowsPerSecond) { this.rowsPerSecond = rowsPerSecond; }
+    public long getPeakHeapMb() { return peakHeapMb; }
+    public void setPeakHeapMb(long peakHeapMb) { this.peakHeapMb = peakHeapMb; }
+}
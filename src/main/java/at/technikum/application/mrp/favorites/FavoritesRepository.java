@@ -1,8 +1,8 @@
 package at.technikum.application.mrp.favorites;
 
-import at.technikum.application.mrp.database.DatabaseConnection;
 import at.technikum.application.mrp.favorites.entity.FavoriteEntity;
 
+import javax.sql.DataSource;
 import java.sql.*;
 import java.util.ArrayList;
 import java.util.List;
@@ -10,10 +10,25 @@ import java.util.Optional;
 
 public class FavoritesRepository {
 
-    public FavoriteEntity create(FavoriteEntity entity) {
-        String sql = "INSERT INTO favorites (user_id, media_id) VALUES (?, ?) RETURNING favorite_id";
+    private final DataSource dataSource;
+
+    public FavoritesRepository(DataSource dataSource) {
+        this.dataSource = dataSource;
+    }
 
-        try (Connection conn = DatabaseConnection.getInstance().getConnection();
+    public FavoriteEntity create(FavoriteEntity entity) {
+        // media.favorite_count moves in the same statement
+        String sql = """
+            WITH inserted AS (
+                INSERT INTO favorites (user_id, media_id) VALUES (?, ?) RETURNING favorite_id, media_id
+            ), counted AS (
+                UPDATE media SET favorite_count = favorite_count + 1
+                WHERE media_id = (SELECT media_id FROM inserted)
+            )
+            SELECT favorite_id FROM inserted
+            """;
+
+        try (Connection conn = dataSource.getConnection();
              PreparedStatement stmt = conn.prepareStatement(sql)) {
 
             stmt.setInt(1, entity.getUserId());
@@ -30,13 +45,22 @@ public class FavoritesRepository {
     }
 
     public boolean delete(int userId, int mediaId) {
-        String sql = "DELETE FROM favorites WHERE user_id = ? AND media_id = ?";
-        try (Connection conn = DatabaseConnection.getInstance().getConnection();
+        String sql = """
+            WITH deleted AS (
+                DELETE FROM favorites WHERE user_id = ? AND media_id = ? RETURNING media_id
+            ), counted AS (
+                UPDATE media SET favorite_count = favorite_count - 1
+                WHERE media_id = (SELECT media_id FROM deleted)
+            )
+            SELECT COUNT(*) FROM deleted
+            """;
+        try (Connection conn = dataSource.getConnection();
              PreparedStatement stmt = conn.prepareStatement(sql)) {
 
             stmt.setInt(1, userId);
             stmt.setInt(2, mediaId);
-            return stmt.executeUpdate() > 0;
+            ResultSet rs = stmt.executeQuery();
+            return rs.next() && rs.getInt(1) > 0;
         } catch (SQLException e) {
             throw new RuntimeException("Failed to delete favorite", e);
         }
@@ -46,7 +70,7 @@ public class FavoritesRepository {
         String sql = "SELECT * FROM favorites WHERE user_id = ? ORDER BY created_at DESC";
         List<FavoriteEntity> results = new ArrayList<>();
 
-        try (Connection conn = DatabaseConnection.getInstance().getConnection();
+        try (Connection conn = dataSource.getConnection();
              PreparedStatement stmt = conn.prepareStatement(sql)) {
 
             stmt.setInt(1, userId);
@@ -65,7 +89,7 @@ public class FavoritesRepository {
         String sql = "SELECT * FROM favorites WHERE media_id = ? ORDER BY created_at DESC";
         List<FavoriteEntity> results = new ArrayList<>();
 
-        try (Connection conn = DatabaseConnection.getInstance().getConnection();
+        try (Connection conn = dataSource.getConnection();
              PreparedStatement stmt = conn.prepareStatement(sql)) {
 
             stmt.setInt(1, mediaId);
@@ -82,7 +106,7 @@ public class FavoritesRepository {
 
     public Optional<FavoriteEntity> findByUserIdAndMediaId(int userId, int mediaId) {
         String sql = "SELECT * FROM favorites WHERE user_id = ? AND media_id = ?";
-        try (Connection conn = DatabaseConnection.getInstance().getConnection();
+        try (Connection conn = dataSource.getConnection();
              PreparedStatement stmt = conn.prepareStatement(sql)) {
 
             stmt.setInt(1, userId);
@@ -1,6 +1,8 @@
 package at.technikum.application.mrp.leaderboard;
 
 import at.technikum.application.common.Controller;
+import at.technikum.application.common.PathParams;
+import at.technikum.application.common.RouteTable;
 import at.technikum.server.http.Request;
 import at.technikum.server.http.Response;
 
@@ -12,16 +14,11 @@ public class LeaderboardController extends Controller {
     }
 
     @Override
-    public Response handle(Request request) {
-        String path = request.getPath();
-        String method = request.getMethod();
+    public void registerRoutes(RouteTable routes) {
+        routes.add("GET", "/leaderboard", this::getLeaderboard);
+    }
 
-        if ("/leaderboard".equals(path)) {
-            if ("GET".equals(method)) {
-                return okJson(leaderboardService.getLeaderboard(request.getQueryParams()));
-            }
-            throw new UnsupportedOperationException("Method not allowed");
-        }
-        throw new java.util.NoSuchElementException("Route not found");
+    public Response getLeaderboard(Request request, PathParams params) {
+        return okJson(leaderboardService.getLeaderboard(request.getQueryParams()));
     }
 }
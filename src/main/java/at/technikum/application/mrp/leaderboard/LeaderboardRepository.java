@@ -1,7 +1,6 @@
 package at.technikum.application.mrp.leaderboard;
 
-import at.technikum.application.mrp.database.DatabaseConnection;
-
+import javax.sql.DataSource;
 import java.sql.Connection;
 import java.sql.PreparedStatement;
 import java.sql.ResultSet;
@@ -13,6 +12,12 @@ import java.util.Map;
 
 public class LeaderboardRepository {
 
+    private final DataSource dataSource;
+
+    public LeaderboardRepository(DataSource dataSource) {
+        this.dataSource = dataSource;
+    }
+
     /**
      * Get top users by rating count
      * @param limit Maximum number of results to return
@@ -35,7 +40,7 @@ public class LeaderboardRepository {
             """;
 
         List<Map<String, Object>> results = new ArrayList<>();
-        try (Connection conn = DatabaseConnection.getInstance().getConnection();
+        try (Connection conn = dataSource.getConnection();
              PreparedStatement stmt = conn.prepareStatement(sql)) {
 
             stmt.setInt(1, limit);
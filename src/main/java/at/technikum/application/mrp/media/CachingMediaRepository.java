@@ -0,0 +1,108 @@
+package at.technikum.application.mrp.media;
+
+import at.technikum.application.common.EnvConfig;
+import at.technikum.application.common.WTinyLfuCache;
+import at.technikum.application.mrp.media.entity.MediaEntryEntity;
+import at.technikum.application.mrp.rating.entity.RatingEntity;
+
+import javax.sql.DataSource;
+import java.util.Optional;
+
+/**
+ * MediaRepository whose findById goes through a {@link WTinyLfuCache}. Rating, favorite and media
+ * services look up the same entries again and again, and every database load also reads all ratings.
+ *
+ * Entries weigh 1 + their number of ratings, so a few heavily rated entries cannot crowd out the
+ * rest. Unknown ids are cached negatively. Own media writes invalidate through the repository
+ * listeners; rating writes must be wired to {@link #invalidate(int)} (see MrpApplication).
+ * Callers get a copy on every hit and may modify it freely.
+ */
+public class CachingMediaRepository extends MediaRepository {
+
+    private final WTinyLfuCache<Integer, MediaEntryEntity> cache;
+
+    public CachingMediaRepository(DataSource dataSource, WTinyLfuCache<Integer, MediaEntryEntity> cache) {
+        super(dataSource);
+        this.cache = cache;
+    }
+
+    // Creates the repository with the cache invalidated by its own media writes
+    public static CachingMediaRepository create(DataSource dataSource, WTinyLfuCache<Integer, MediaEntryEntity> cache) {
+        CachingMediaRepository repository = new CachingMediaRepository(dataSource, cache);
+        // registered first, so later listeners (e.g. the search index) already read fresh rows
+        repository.addSaveListener(entity -> cache.invalidate(entity.getId()));
+        repository.addDeleteListener(cache::invalidate);
+        return repository;
+    }
+
+    /**
+     * Reads MEDIA_CACHE_MAX_ENTRIES (default 10000), MEDIA_CACHE_MAX_WEIGHT (default 200000),
+     * MEDIA_CACHE_TTL_MS (default 5 minutes) and MEDIA_CACHE_NEGATIVE_TTL_MS (default 30 seconds).
+     * Returns null if MEDIA_CACHE_MAX_ENTRIES is 0 (cache disabled).
+     */
+    public static WTinyLfuCache<Integer, MediaEntryEntity> cacheFromEnvironment() {
+        long maxEntries = EnvConfig.longFromEnv("MEDIA_CACHE_MAX_ENTRIES", 10_000);
+        if (maxEntries <= 0) {
+            return null;
+        }
+        return new WTinyLfuCache<>(
+                (int) Math.min(maxEntries, Integer.MAX_VALUE),
+                EnvConfig.longFromEnv("MEDIA_CACHE_MAX_WEIGHT", 200_000),
+                EnvConfig.longFromEnv("MEDIA_CACHE_TTL_MS", 300_000),
+                EnvConfig.longFromEnv("MEDIA_CACHE_NEGATIVE_TTL_MS", 30_000),
+                entity -> 1 + entity.getRatings().size());
+    }
+
+    @Override
+    public Optional<MediaEntryEntity> findById(int id) {
+        MediaEntryEntity cached = cache.get(id, key -> super.findById(key).orElse(null));
+        return Optional.ofNullable(cached).map(CachingMediaRepository::copyOf);
+    }
+
+    // Drops the cached entry, e.g. after one of its ratings changed
+    public void invalidate(int mediaId) {
+        cache.invalidate(mediaId);
+    }
+
+    public WTinyLfuCache<Integer, MediaEntryEntity> getCache() {
+        return cache;
+    }
+
+    // The entity setters copy lists, sets and arrays, so the copy shares no mutable state with the cache
+    private static MediaEntryEntity copyOf(MediaEntryEntity entity) {
+        MediaEntryEntity copy = new MediaEntryEntity();
+        copy.setId(entity.getId());
+        copy.setCreatorUserId(entity.getCreatorUserId());
+        copy.setTitle(entity.getTitle());
+        copy.setDescription(entity.getDescription());
+        copy.setMediaType(entity.getMediaType());
+        copy.setReleaseYear(entity.getReleaseYear());
+        copy.setGenres(entity.getGenres());
+        copy.setAgeRestriction(entity.getAgeRestriction());
+        copy.setFavoriteUserIds(entity.getFavoriteUserIds());
+        copy.setRatingCount(entity.getRatingCount());
+        copy.setRatingSum(entity.getRatingSum());
+        copy.setStarCounts(entity.getStarCounts());
+        copy.setLikeTotal(entity.getLikeTotal());
+        copy.setFavoriteCount(entity.getFavoriteCount());
+        copy.setVersion(entity.getVersion());
+        copy.setRatings(entity.getRatings().stream().map(CachingMediaRepository::copyOf).toList());
+        return copy;
+    }
+
+    private static RatingEntity copyOf(RatingEntity rating) {
+        RatingEntity copy = new RatingEntity();
+        copy.setId(rating.getId());
+        copy.setMediaId(rating.getMediaId());
+        copy.setUserId(rating.getUserId());
+        copy.setScore(rating.getScore());
+        copy.setComment(rating.getComment());
+        copy.setTimestamp(rating.getTimestamp());
+        copy.setConfirmed(rating.isConfirmed());
+        copy.setLikedByUserIds(rating.getLikedByUserIds());
+        copy.setLikeCount(rating.getLikeCount());
+        copy.setLikedByRequester(rating.getLikedByRequester());
+        copy.setVersion(rating.getVersion());
+        return copy;
+    }
+}
@@ -0,0 +1,141 @@
+package at.technikum.application.mrp.media;
+
+import java.sql.Array;
+import java.sql.Connection;
+import java.sql.PreparedStatement;
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.sql.Statement;
+import java.util.ArrayList;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * In-memory copy of the genres table. Media rows store their genres as small integer ids
+ * (media.genre_ids), this class translates between ids and names in both directions.
+ *
+ * Names match case-insensitively ("Sci-Fi" and "sci-fi" are one genre); the spelling used when the
+ * genre was first created is the one returned. Genres are never deleted, so cached entries cannot go
+ * stale: an unknown name or id only means another instance added it, and is answered by reloading.
+ */
+class GenreDictionary {
+
+    private final Map<String, Integer> idsByKey = new ConcurrentHashMap<>();
+    private final Map<Integer, String> namesById = new ConcurrentHashMap<>();
+
+    /**
+     * Ids of the given genre names in input order, creating genres that do not exist yet.
+     * Blank names are skipped and names differing only in case collapse to one id.
+     */
+    Integer[] idsFor(Connection conn, List<String> names) throws SQLException {
+        Set<String> keys = keys(names);
+        List<String> missing = new ArrayList<>();
+        for (String name : names == null ? List.<String>of() : names) {
+            if (name != null && !name.isBlank() && !idsByKey.containsKey(key(name))) {
+                missing.add(name.trim());
+            }
+        }
+        if (!missing.isEmpty()) {
+            // concurrent writers may insert the same genre; the unique index on LOWER(name) keeps one
+            try (PreparedStatement stmt = conn.prepareStatement(
+                    "INSERT INTO genres (name) SELECT unnest(?::text[]) ON CONFLICT DO NOTHING")) {
+                stmt.setArray(1, conn.createArrayOf("text", distinctByKey(missing).toArray()));
+                stmt.executeUpdate();
+            }
+            // the table holds a few dozen rows, reloading it whole is cheaper than matching keys in SQL
+            loadAll(conn);
+        }
+
+        List<Integer> ids = new ArrayList<>(keys.size());
+        for (String key : keys) {
+            Integer id = idsByKey.get(key);
+            if (id == null) {
+                throw new IllegalStateException("Genre was not created: " + key);
+            }
+            ids.add(id);
+        }
+        return ids.toArray(Integer[]::new);
+    }
+
+    /**
+     * Ids of existing genres for a filter, in input order; unknown names map to null. Never creates genres.
+     */
+    List<Integer> lookup(Connection conn, List<String> names) throws SQLException {
+        Set<String> keys = keys(names);
+        if (keys.stream().anyMatch(key -> !idsByKey.containsKey(key))) {
+            loadAll(conn);
+        }
+        List<Integer> ids = new ArrayList<>(keys.size());
+        for (String key : keys) {
+            ids.add(idsByKey.get(key));
+        }
+        return ids;
+    }
+
+    // Genre names of a media row's genre_ids array, in stored order
+    List<String> namesFor(Connection conn, Array genreIds) throws SQLException {
+        List<String> names = new ArrayList<>();
+        if (genreIds == null) {
+            return names;
+        }
+        Integer[] ids = (Integer[]) genreIds.getArray();
+        for (Integer id : ids) {
+            if (!namesById.containsKey(id)) {
+                loadAll(conn);
+                break;
+            }
+        }
+        for (Integer id : ids) {
+            String name = namesById.get(id);
+            if (name != null) {
+                names.add(name);
+            }
+        }
+        return names;
+    }
+
+    static String key(String name) {
+        return name.trim().toLowerCase(Locale.ROOT);
+    }
+
+    private static Set<String> keys(List<String> names) {
+        Set<String> keys = new LinkedHashSet<>();
+        if (names != null) {
+            for (String name : names) {
+                if (name != null && !name.isBlank()) {
+                    keys.add(key(name));
+                }
+            }
+        }
+        return keys;
+    }
+
+    private static List<String> distinctByKey(List<String> names) {
+        Set<String> seen = new LinkedHashSet<>();
+        List<String> distinct = new ArrayList<>();
+        for (String name : names) {
+            if (seen.add(key(name))) {
+                distinct.add(name);
+            }
+        }
+        return distinct;
+    }
+
+    private void loadAll(Connection conn) throws SQLException {
+        try (Statement stmt = conn.createStatement();
+             ResultSet rs = stmt.executeQuery("SELECT genre_id, name FROM genres")) {
+            while (rs.next()) {
+                put(rs.getInt("genre_id"), rs.getString("name"));
+            }
+        }
+    }
+
+    private void put(int id, String name) {
+        namesById.put(id, name);
+        idsByKey.put(key(name), id);
+    }
+}
@@ -0,0 +1,591 @@
+package at.technikum.application.mrp.media;
+
+import at.technikum.application.common.PageCursor;
+import at.technikum.application.common.PageDto;
+import at.technikum.application.mrp.media.entity.MediaEntryEntity;
+import at.technikum.application.mrp.rating.RatingRepository;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.BitSet;
+import java.util.Collection;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.NavigableMap;
+import java.util.PriorityQueue;
+import java.util.Set;
+import java.util.TreeMap;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.locks.ReadWriteLock;
+import java.util.concurrent.locks.ReentrantReadWriteLock;
+
+/**
+ * In-process search engine for GET /media, enabled with MEDIA_SEARCH_ENGINE=memory.
+ *
+ * Media ids are used directly as document numbers:
+ * <ul>
+ *   <li>title and description words map to compressed {@link PostingList}s (inverted index),</li>
+ *   <li>media type, release year, age restriction and genre map to a BitSet of matching ids,</li>
+ *   <li>title, average score and year sit in arrays indexed by id, so sorting needs no lookups.</li>
+ * </ul>
+ * A filtered query is the intersection of the bitmaps of its filters; the ids of the requested page
+ * are then selected from the sort arrays and only those rows are loaded with
+ * {@link MediaRepository#findByIds}, in the query's projection. Substring matches (text mode SUBSTRING and the title filter)
+ * are not indexed and go to the database.
+ *
+ * The index follows media writes through the repository listeners and re-reads a media row's rating
+ * aggregates after each rating change. Listeners of concurrent updates may run in any order, so an
+ * entry older than the indexed version of its row is ignored. Sort order and page cursors match the SQL engine, except that
+ * titles compare by Java string order instead of the database collation and relevance is a
+ * simplified ts_rank (title hit 1.0, description hit 0.4 per word).
+ */
+public class InMemoryMediaIndex implements MediaSearchEngine {
+
+    // default ts_rank weights of the A (title) and B (description) labels of media.search_vector
+    private static final float TITLE_WEIGHT = 1.0f;
+    private static final float DESCRIPTION_WEIGHT = 0.4f;
+
+    private final MediaRepository repository;
+    private final MediaSearchEngine fallback;
+    private final ReadWriteLock lock = new ReentrantReadWriteLock();
+
+    private final NavigableMap<String, PostingList> titleTerms = new TreeMap<>();
+    private final NavigableMap<String, PostingList> descriptionTerms = new TreeMap<>();
+    private final Map<String, BitSet> byMediaType = new HashMap<>();
+    private final Map<Integer, BitSet> byReleaseYear = new HashMap<>();
+    private final Map<Integer, BitSet> byAgeRestriction = new HashMap<>();
+    private final Map<String, BitSet> byGenre = new HashMap<>();
+    // genre key -> spelling of the genres table, for facet values
+    private final Map<String, String> genreNames = new HashMap<>();
+    private final BitSet live = new BitSet();
+    // what each media id was indexed with, to take it out again on update and delete
+    private final Map<Integer, Indexed> indexed = new HashMap<>();
+
+    // sort keys by media id
+    private String[] titles = new String[0];
+    private double[] scores = new double[0];
+    private int[] ratingCounts = new int[0];
+    private int[] ratingSums = new int[0];
+    private int[] years = new int[0];
+
+    private final AtomicLong queries = new AtomicLong();
+    private final AtomicLong fallbacks = new AtomicLong();
+
+    private record Indexed(Integer version, Set<String> titleWords, Set<String> descriptionWords, String mediaType,
+                           Integer releaseYear, Integer ageRestriction, Set<String> genres) {
+    }
+
+    public InMemoryMediaIndex(MediaRepository repository) {
+        this(repository, repository);
+    }
+
+    InMemoryMediaIndex(MediaRepository repository, MediaSearchEngine fallback) {
+        this.repository = repository;
+        this.fallback = fallback;
+    }
+
+    /**
+     * Creates the index, subscribes it to media and rating changes and loads the whole catalog.
+     * Listeners are registered before loading, so a write that races with the load is applied
+     * afterwards instead of being lost (indexing the same row twice is harmless).
+     */
+    public static InMemoryMediaIndex load(MediaRepository repository, RatingRepository ratingRepository) {
+        InMemoryMediaIndex index = new InMemoryMediaIndex(repository);
+        repository.addSaveListener(index::index);
+        repository.addDeleteListener(index::remove);
+        ratingRepository.addRatingChangeListener(index::refresh);
+        index.indexAll(repository.findAll());
+        return index;
+    }
+
+    public void indexAll(Collection<MediaEntryEntity> entries) {
+        lock.writeLock().lock();
+        try {
+            for (MediaEntryEntity entry : entries) {
+                put(entry);
+            }
+        } finally {
+            lock.writeLock().unlock();
+        }
+    }
+
+    // Adds the entry or replaces its previous version; an older version than the indexed one is ignored
+    public void index(MediaEntryEntity entry) {
+        lock.writeLock().lock();
+        try {
+            put(entry);
+        } finally {
+            lock.writeLock().unlock();
+        }
+    }
+
+    public void remove(int mediaId) {
+        lock.writeLock().lock();
+        try {
+            delete(mediaId);
+        } finally {
+            lock.writeLock().unlock();
+        }
+    }
+
+    // Re-reads one media row, e.g. after its rating aggregates changed
+    public void refresh(int mediaId) {
+        repository.findById(mediaId).ifPresentOrElse(this::index, () -> remove(mediaId));
+    }
+
+    @Override
+    public PageDto<MediaEntryEntity> search(MediaSearchQuery query) {
+        String text = query.getText();
+        boolean hasText = text != null && !text.isBlank();
+        boolean hasTitle = query.getTitle() != null && !query.getTitle().isBlank();
+        if (hasTitle || (hasText && query.getTextMode() != MediaSearchQuery.TextMode.FULL_TEXT)) {
+            fallbacks.incrementAndGet();
+            return fallback.search(query);
+        }
+        queries.incrementAndGet();
+
+        List<Integer> ids = new ArrayList<>();
+        String nextCursor = null;
+        lock.readLock().lock();
+        try {
+            List<String> words = hasText ? MediaSearchQuery.words(text) : List.of();
+            if (hasText && words.isEmpty()) {
+                throw new IllegalArgumentException("Search text contains no words");
+            }
+            BitSet[] titleHits = new BitSet[words.size()];
+            BitSet[] descriptionHits = new BitSet[words.size()];
+            BitSet candidates = candidates(query, words, titleHits, descriptionHits);
+
+            MediaSearchQuery.Sort sort = query.getSort();
+            if (sort == MediaSearchQuery.Sort.RELEVANCE && !hasText) {
+                sort = MediaSearchQuery.Sort.ID;
+            }
+            float[] relevance = sort == MediaSearchQuery.Sort.RELEVANCE
+                    ? relevance(candidates, titleHits, descriptionHits) : null;
+            SortKey key = new SortKey(sort, relevance);
+            if (query.getCursor() != null) {
+                key.decodeCursor(query.getCursor());
+            }
+
+            int[] page = key.select(candidates, query.getLimit() + 1);
+            for (int i = 0; i < Math.min(page.length, query.getLimit()); i++) {
+                ids.add(page[i]);
+            }
+            if (page.length > query.getLimit()) {
+                nextCursor = key.cursorAfter(page[query.getLimit() - 1]);
+            }
+        } finally {
+            lock.readLock().unlock();
+        }
+        return new PageDto<>(repository.findByIds(ids, query.getProjection()), nextCursor, query.getLimit());
+    }
+
+    /**
+     * Facet counts from one pass over the matching ids, reading each id's indexed values.
+     */
+    @Override
+    public Map<String, Map<String, Long>> facets(MediaSearchQuery query) {
+        String text = query.getText();
+        boolean hasText = text != null && !text.isBlank();
+        boolean hasTitle = query.getTitle() != null && !query.getTitle().isBlank();
+        if (hasTitle || (hasText && query.getTextMode() != MediaSearchQuery.TextMode.FULL_TEXT)) {
+            fallbacks.incrementAndGet();
+            return fallback.facets(query);
+        }
+        queries.incrementAndGet();
+
+        Set<MediaSearchQuery.Facet> requested = query.getFacets();
+        Map<String, Map<String, Long>> counts = new LinkedHashMap<>();
+        for (MediaSearchQuery.Facet facet : requested) {
+            counts.put(facet.getParamName(), new HashMap<>());
+        }
+        lock.readLock().lock();
+        try {
+            List<String> words = hasText ? MediaSearchQuery.words(text) : List.of();
+            if (hasText && words.isEmpty()) {
+                throw new IllegalArgumentException("Search text contains no words");
+            }
+            BitSet candidates = candidates(query, words, new BitSet[words.size()], new BitSet[words.size()]);
+            for (int id = candidates.nextSetBit(0); id >= 0; id = candidates.nextSetBit(id + 1)) {
+                Indexed doc = indexed.get(id);
+                for (MediaSearchQuery.Facet facet : requested) {
+                    Map<String, Long> values = counts.get(facet.getParamName());
+                    switch (facet) {
+                        case GENRE -> doc.genres().forEach(g -> values.merge(genreNames.getOrDefault(g, g), 1L, Long::sum));
+                        case MEDIA_TYPE -> count(values, doc.mediaType());
+                        case RELEASE_YEAR -> count(values, doc.releaseYear());
+                        case AGE_RESTRICTION -> count(values, doc.ageRestriction());
+                    }
+                }
+            }
+        } finally {
+            lock.readLock().unlock();
+        }
+
+        // same order as the SQL engine: most frequent first, ties by value
+        Map<String, Map<String, Long>> facets = new LinkedHashMap<>();
+        counts.forEach((facet, values) -> {
+            Map<String, Long> sorted = new LinkedHashMap<>();
+            values.entrySet().stream()
+                    .sorted(Map.Entry.<String, Long>comparingByValue().reversed().thenComparing(Map.Entry.comparingByKey()))
+                    .forEach(e -> sorted.put(e.getKey(), e.getValue()));
+            facets.put(facet, sorted);
+        });
+        return facets;
+    }
+
+    private static void count(Map<String, Long> values, Object value) {
+        if (value != null) {
+            values.merge(value.toString(), 1L, Long::sum);
+        }
+    }
+
+    public Map<String, Object> getStats() {
+        lock.readLock().lock();
+        try {
+            long postingBytes = 0;
+            long postings = 0;
+            for (PostingList list : titleTerms.values()) {
+                postingBytes += list.byteSize();
+                postings += list.size();
+            }
+            for (PostingList list : descriptionTerms.values()) {
+                postingBytes += list.byteSize();
+                postings += list.size();
+            }
+            Map<String, Object> stats = new LinkedHashMap<>();
+            stats.put("documents", live.cardinality());
+            stats.put("terms", titleTerms.size() + descriptionTerms.size());
+            stats.put("postings", postings);
+            stats.put("postingBytes", postingBytes);
+            stats.put("queries", queries.get());
+            stats.put("fallbacks", fallbacks.get());
+            return stats;
+        } finally {
+            lock.readLock().unlock();
+        }
+    }
+
+    // ==================== Query ====================
+
+    // Ids matching every filter; fills the per-word hit bitmaps for ranking
+    private BitSet candidates(MediaSearchQuery query, List<String> words, BitSet[] titleHits, BitSet[] descriptionHits) {
+        BitSet result = (BitSet) live.clone();
+        for (int i = 0; i < words.size(); i++) {
+            // the last word is a prefix, as in the SQL engine ("star wa" finds "Star Wars")
+            boolean prefix = i == words.size() - 1;
+            titleHits[i] = termHits(titleTerms, words.get(i), prefix);
+            descriptionHits[i] = termHits(descriptionTerms, words.get(i), prefix);
+            BitSet either = (BitSet) titleHits[i].clone();
+            either.or(descriptionHits[i]);
+            result.and(either);
+        }
+
+        if (query.getMediaType() != null && !query.getMediaType().isBlank()) {
+            result.and(bitmap(byMediaType, query.getMediaType().toLowerCase()));
+        }
+        if (query.getReleaseYear() != null) {
+            result.and(bitmap(byReleaseYear, query.getReleaseYear()));
+        }
+        if (query.getAgeRestriction() != null) {
+            result.and(bitmap(byAgeRestriction, query.getAgeRestriction()));
+        }
+        if (!query.getGenres().isEmpty()) {
+            result.and(genreBitmap(query));
+        }
+        if (query.getMinRating() != null) {
+            int minRating = query.getMinRating();
+            for (int id = result.nextSetBit(0); id >= 0; id = result.nextSetBit(id + 1)) {
+                // same as the SQL condition: rated and sum >= min * count
+                if (ratingCounts[id] == 0 || ratingSums[id] < (long) minRating * ratingCounts[id]) {
+                    result.clear(id);
+                }
+            }
+        }
+        return result;
+    }
+
+    private static BitSet termHits(NavigableMap<String, PostingList> terms, String word, boolean prefix) {
+        BitSet hits = new BitSet();
+        if (prefix) {
+            for (PostingList list : terms.subMap(word, true, word + Character.MAX_VALUE, false).values()) {
+                list.addTo(hits);
+            }
+        } else {
+            PostingList list = terms.get(word);
+            if (list != null) {
+                list.addTo(hits);
+            }
+        }
+        return hits;
+    }
+
+    private BitSet genreBitmap(MediaSearchQuery query) {
+        boolean all = query.getGenreMatch() == MediaSearchQuery.GenreMatch.ALL;
+        BitSet result = null;
+        for (String genre : query.getGenres()) {
+            BitSet ids = bitmap(byGenre, GenreDictionary.key(genre));
+            if (result == null) {
+                result = (BitSet) ids.clone();
+            } else if (all) {
+                result.and(ids);
+            } else {
+                result.or(ids);
+            }
+        }
+        return result;
+    }
+
+    private static <K> BitSet bitmap(Map<K, BitSet> index, K key) {
+        BitSet ids = index.get(key);
+        return ids != null ? ids : new BitSet();
+    }
+
+    private float[] relevance(BitSet candidates, BitSet[] titleHits, BitSet[] descriptionHits) {
+        float[] ranks = new float[candidates.length()];
+        for (int id = candidates.nextSetBit(0); id >= 0; id = candidates.nextSetBit(id + 1)) {
+            float rank = 0;
+            for (int i = 0; i < titleHits.length; i++) {
+                if (titleHits[i].get(id)) rank += TITLE_WEIGHT;
+                if (descriptionHits[i].get(id)) rank += DESCRIPTION_WEIGHT;
+            }
+            ranks[id] = rank;
+        }
+        return ranks;
+    }
+
+    /**
+     * Page order of one sort mode as (key, id) pairs: ascending for id and title, descending for
+     * score, year and relevance, like the ORDER BY clauses of MediaRepository.search.
+     */
+    private final class SortKey {
+        private final MediaSearchQuery.Sort sort;
+        private final float[] relevance;
+        private Comparable<?> cursorKey;
+        private int cursorId = -1;
+
+        SortKey(MediaSearchQuery.Sort sort, float[] relevance) {
+            this.sort = sort;
+            this.relevance = relevance;
+        }
+
+        private Comparable<?> keyOf(int id) {
+            return switch (sort) {
+                case TITLE -> titles[id];
+                case SCORE -> scores[id];
+                case YEAR -> years[id];
+                case RELEVANCE -> relevance[id];
+                default -> 0;
+            };
+        }
+
+        @SuppressWarnings({"unchecked", "rawtypes"})
+        private int compare(Comparable aKey, int aId, Comparable bKey, int bId) {
+            int cmp = aKey.compareTo(bKey);
+            if (cmp == 0) {
+                cmp = Integer.compare(aId, bId);
+            }
+            boolean descending = sort == MediaSearchQuery.Sort.SCORE || sort == MediaSearchQuery.Sort.YEAR
+                    || sort == MediaSearchQuery.Sort.RELEVANCE;
+            return descending ? -cmp : cmp;
+        }
+
+        private int compare(int a, int b) {
+            return compare(keyOf(a), a, keyOf(b), b);
+        }
+
+        private boolean afterCursor(int id) {
+            return cursorId < 0 || compare(keyOf(id), id, cursorKey, cursorId) > 0;
+        }
+
+        // The first n candidates after the cursor in page order
+        int[] select(BitSet candidates, int n) {
+            if (sort == MediaSearchQuery.Sort.ID) {
+                // bitmap order is id order, no sorting needed
+                int[] page = new int[n];
+                int count = 0;
+                for (int id = candidates.nextSetBit(cursorId + 1); id >= 0 && count < n; id = candidates.nextSetBit(id + 1)) {
+                    page[count++] = id;
+                }
+                return Arrays.copyOf(page, count);
+            }
+            // bounded heap whose head is the current worst of the best n
+            PriorityQueue<Integer> best = new PriorityQueue<>(n + 1, (a, b) -> compare(b, a));
+            for (int id = candidates.nextSetBit(0); id >= 0; id = candidates.nextSetBit(id + 1)) {
+                if (!afterCursor(id)) continue;
+                if (best.size() < n) {
+                    best.add(id);
+                } else if (compare(id, best.peek()) < 0) {
+                    best.poll();
+                    best.add(id);
+                }
+            }
+            return best.stream().sorted(this::compare).mapToInt(Integer::intValue).toArray();
+        }
+
+        void decodeCursor(String cursor) {
+            String kind = sort.name().toLowerCase();
+            try {
+                if (sort == MediaSearchQuery.Sort.ID) {
+                    cursorId = Integer.parseInt(PageCursor.decode(cursor, kind, 2)[1]);
+                } else {
+                    String[] key = PageCursor.decode(cursor, kind, 3);
+                    cursorKey = switch (sort) {
+                        case TITLE -> key[1];
+                        case SCORE -> Double.parseDouble(key[1]);
+                        case YEAR -> Integer.parseInt(key[1]);
+                        default -> Float.parseFloat(key[1]);
+                    };
+                    cursorId = Integer.parseInt(key[2]);
+                }
+            } catch (NumberFormatException | NullPointerException e) {
+                throw new IllegalArgumentException("Invalid cursor");
+            }
+            if (cursorId < 0) {
+                throw new IllegalArgumentException("Invalid cursor");
+            }
+        }
+
+        String cursorAfter(int id) {
+            String kind = sort.name().toLowerCase();
+            return switch (sort) {
+                case TITLE -> PageCursor.encode(kind, titles[id], String.valueOf(id));
+                case SCORE -> PageCursor.encode(kind, Double.toString(scores[id]), String.valueOf(id));
+                case YEAR -> PageCursor.encode(kind, String.valueOf(years[id]), String.valueOf(id));
+                case RELEVANCE -> PageCursor.encode(kind, Float.toString(relevance[id]), String.valueOf(id));
+                default -> PageCursor.encode(kind, String.valueOf(id));
+            };
+        }
+    }
+
+    // ==================== Maintenance (write lock held) ====================
+
+    private void put(MediaEntryEntity entry) {
+        int id = entry.getId();
+        if (isStale(entry)) {
+            return;
+        }
+        delete(id);
+        ensureCapacity(id + 1);
+
+        Indexed doc = new Indexed(
+                entry.getVersion(),
+                new LinkedHashSet<>(MediaSearchQuery.words(entry.getTitle())),
+                new LinkedHashSet<>(MediaSearchQuery.words(entry.getDescription())),
+                entry.getMediaType() != null ? entry.getMediaType().toLowerCase() : null,
+                entry.getReleaseYear(),
+                entry.getAgeRestriction(),
+                genreKeys(entry.getGenres()));
+
+        for (String word : doc.titleWords()) {
+            titleTerms.computeIfAbsent(word, w -> new PostingList()).add(id);
+        }
+        for (String word : doc.descriptionWords()) {
+            descriptionTerms.computeIfAbsent(word, w -> new PostingList()).add(id);
+        }
+        if (doc.mediaType() != null) {
+            byMediaType.computeIfAbsent(doc.mediaType(), k -> new BitSet()).set(id);
+        }
+        if (doc.releaseYear() != null) {
+            byReleaseYear.computeIfAbsent(doc.releaseYear(), k -> new BitSet()).set(id);
+        }
+        if (doc.ageRestriction() != null) {
+            byAgeRestriction.computeIfAbsent(doc.ageRestriction(), k -> new BitSet()).set(id);
+        }
+        for (String genre : doc.genres()) {
+            byGenre.computeIfAbsent(genre, k -> new BitSet()).set(id);
+        }
+        if (entry.getGenres() != null) {
+            for (String name : entry.getGenres()) {
+                if (name != null && !name.isBlank()) {
+                    genreNames.putIfAbsent(GenreDictionary.key(name), name.trim());
+                }
+            }
+        }
+
+        titles[id] = entry.getTitle() != null ? entry.getTitle() : "";
+        int count = entry.getRatingCount();
+        int sum = entry.getRatingSum() != null ? entry.getRatingSum() : 0;
+        ratingCounts[id] = count;
+        ratingSums[id] = sum;
+        // same expression as MediaRepository's SCORE_KEY, so cursors are interchangeable
+        scores[id] = count > 0 ? sum / (double) count : 0.0;
+        years[id] = entry.getReleaseYear() != null ? entry.getReleaseYear() : 0;
+
+        indexed.put(id, doc);
+        live.set(id);
+    }
+
+    // Equal versions are applied: rating changes update the aggregates without bumping the version
+    private boolean isStale(MediaEntryEntity entry) {
+        Indexed current = indexed.get(entry.getId());
+        return current != null && current.version() != null && entry.getVersion() != null
+                && entry.getVersion() < current.version();
+    }
+
+    private void delete(int id) {
+        Indexed doc = indexed.remove(id);
+        if (doc == null) {
+            return;
+        }
+        for (String word : doc.titleWords()) {
+            removePosting(titleTerms, word, id);
+        }
+        for (String word : doc.descriptionWords()) {
+            removePosting(descriptionTerms, word, id);
+        }
+        clearBit(byMediaType, doc.mediaType(), id);
+        clearBit(byReleaseYear, doc.releaseYear(), id);
+        clearBit(byAgeRestriction, doc.ageRestriction(), id);
+        for (String genre : doc.genres()) {
+            clearBit(byGenre, genre, id);
+        }
+        titles[id] = null;
+        live.clear(id);
+    }
+
+    private static void removePosting(Map<String, PostingList> terms, String word, int id) {
+        PostingList list = terms.get(word);
+        if (list != null && list.remove(id) && list.isEmpty()) {
+            terms.remove(word);
+        }
+    }
+
+    private static <K> void clearBit(Map<K, BitSet> index, K key, int id) {
+        if (key == null) return;
+        BitSet ids = index.get(key);
+        if (ids != null) {
+            ids.clear(id);
+            if (ids.isEmpty()) {
+                index.remove(key);
+            }
+        }
+    }
+
+    private static Set<String> genreKeys(List<String> genres) {
+        Set<String> keys = new LinkedHashSet<>();
+        if (genres != null) {
+            for (String genre : genres) {
+                if (genre != null && !genre.isBlank()) {
+                    keys.add(GenreDictionary.key(genre));
+                }
+            }
+        }
+        return keys;
+    }
+
+    private void ensureCapacity(int capacity) {
+        if (capacity <= titles.length) {
+            return;
+        }
+        int newCapacity = Math.max(capacity, titles.length + (titles.length >> 1) + 16);
+        titles = Arrays.copyOf(titles, newCapacity);
+        scores = Arrays.copyOf(scores, newCapacity);
+        ratingCounts = Arrays.copyOf(ratingCounts, newCapacity);
+        ratingSums = Arrays.copyOf(ratingSums, newCapacity);
+        years = Arrays.copyOf(years, newCapacity);
+    }
+}
@@ -1,81 +1,149 @@
 package at.technikum.application.mrp.media;
 
 import at.technikum.application.common.Controller;
+import at.technikum.application.common.JsonCodec;
+import at.technikum.application.common.PathParams;
+import at.technikum.application.common.RouteTable;
+import at.technikum.application.common.VersionConflictException;
 import at.technikum.server.http.Request;
 import at.technikum.server.http.Response;
 import at.technikum.server.http.Status;
+import com.fasterxml.jackson.databind.ObjectReader;
+import at.technikum.application.mrp.media.dto.MediaBatchRequestDto;
 import at.technikum.application.mrp.media.dto.MediaUpsertDto;
 
+import java.io.InputStream;
+import java.util.List;
 import java.util.Map;
 import java.util.Optional;
-import java.util.regex.Matcher;
-import java.util.regex.Pattern;
 
 public class MediaController extends Controller {
 
-    private final MediaService mediaService;
+    private static final ObjectReader UPSERT_READER = JsonCodec.shared().readerFor(MediaUpsertDto.class);
+    private static final ObjectReader BATCH_READER = JsonCodec.shared().readerFor(MediaBatchRequestDto.class);
 
-    // Regex Pattern für /media/{id}
-    private static final Pattern MEDIA_ID_PATTERN = Pattern.compile("^/media/(\\d+)$");
+    private final MediaService mediaService;
 
     public MediaController(MediaService mediaservice) {
         this.mediaService = mediaservice;
     }
 
     @Override
-    public Response handle(Request request){
-        String path = request.getPath();
-        String method = request.getMethod();
+    public void registerRoutes(RouteTable routes) {
+        routes.add("GET", "/media", this::search)
+                .add("POST", "/media", this::create)
+                .add("POST", "/media/batch", this::batch)
+                .add("POST", "/media/import", this::importMedia)
+                .add("GET", "/media/{id}", this::getById)
+                .add("GET", "/media/{id}/stats", this::getStats)
+                .add("PUT", "/media/{id}", this::update)
+                .add("DELETE", "/media/{id}", this::delete);
+    }
 
-        try {
-            // require auth for all media endpoints
-            Optional<Integer> userIdOpt = mediaService.getAuthorizedUserId(request.getAuthorization());
-            if (userIdOpt.isEmpty()) {
-                return errorJson(Status.UNAUTHORIZED, "Missing or invalid Authorization header");
+    public Response search(Request request, PathParams params) {
+        return withUser(request, userId -> {
+            Map<String, String> query = request.getQueryParams();
+            MediaProjection projection = projectionOf(query);
+            // ?ids=1,2,3 is a multi-get, not a search
+            if (query.get("ids") != null) {
+                return okJson(getByIds(MediaService.parseIds(query.get("ids")), projection));
             }
-            int userId = userIdOpt.get();
-
-            if ("/media".equals(path)) {
-                switch (method) {
-                    case "GET":
-                        return okJson(mediaService.search(request.getQueryParams()));
-                    case "POST":
-                        MediaUpsertDto createDto = readBodyAsUpsert(request.getBody());
-                        return okJson(mediaService.create(userId, createDto));
-                    default:
-                        return errorJson(Status.METHOD_NOT_ALLOWED, "Method not allowed");
-                }
+            return okJson(projection.isDetail()
+                    ? mediaService.search(query)
+                    : mediaService.search(query, projection));
+        });
+    }
+
+    public Response create(Request request, PathParams params) {
+        return withUser(request, userId -> {
+            MediaUpsertDto createDto = readBodyAsUpsert(request.getBodyBytes());
+            return okJson(mediaService.create(userId, createDto));
+        });
+    }
+
+    // Multi-get for id lists too long for the query string: {"ids": [1, 2, 3]}
+    public Response batch(Request request, PathParams params) {
+        return withUser(request, userId -> {
+            byte[] body = request.getBodyBytes();
+            if (JsonCodec.isBlank(body)) {
+                throw new IllegalArgumentException("Request body is empty");
             }
+            MediaBatchRequestDto batch = BATCH_READER.readValue(body);
+            return okJson(getByIds(batch.getIds(), projectionOf(request.getQueryParams())));
+        });
+    }
 
-            Matcher matcher = MEDIA_ID_PATTERN.matcher(path);
-            if (matcher.matches()) {
-                Integer id = parseIdWithRegex(matcher);
-                if (id == null) {
-                    return errorJson(Status.NOT_FOUND, "Invalid media ID");
-                }
-                switch (method) {
-                    case "GET":
-                        return mediaService.getById(id)
-                                .map(this::okJson)
-                                .orElseGet(() -> errorJson(Status.NOT_FOUND, "Media not found"));
-                    case "PUT":
-                        MediaUpsertDto updateDto = readBodyAsUpsert(request.getBody());
-                        return mediaService.update(userId, id, updateDto)
-                                .map(this::okJson)
-                                .orElseGet(() -> errorJson(Status.NOT_FOUND, "Media not found"));
-                    case "DELETE":
-                        boolean deleted = mediaService.delete(userId, id);
-                        if (deleted) {
-                            return okJson(Map.of("message", "Media deleted"));
-                        } else {
-                            return errorJson(Status.NOT_FOUND, "Media not found");
-                        }
-                    default:
-                        return errorJson(Status.METHOD_NOT_ALLOWED, "Method not allowed");
-                }
+    // Bulk import, body is NDJSON or CSV (?format=csv or Content-Type: text/csv), streamed row by row
+    public Response importMedia(Request request, PathParams params) {
+        return withUser(request, userId -> {
+            InputStream body = request.getBodyStream();
+            if (body == null) {
+                throw new IllegalArgumentException("Request body is empty");
             }
+            MediaImporter.Format format = MediaImporter.Format.from(
+                    request.getQueryParam("format"), request.getHeader("Content-Type"));
+            return okJson(mediaService.importMedia(userId, body, format));
+        });
+    }
 
-            return errorJson(Status.NOT_FOUND, "Route not found");
+    public Response getById(Request request, PathParams params) {
+        int id = params.getInt("id");
+        return withUser(request, userId -> {
+            MediaProjection projection = projectionOf(request.getQueryParams());
+            if (projection.isDetail()) {
+                // only the full representation, the one PUT replaces, carries an ETag
+                return mediaService.getById(id)
+                        .map(media -> withETag(okJson(media), media.getVersion()))
+                        .orElseGet(() -> errorJson(Status.NOT_FOUND, "Media not found"));
+            }
+            return mediaService.getById(id, projection)
+                    .map(this::okJson)
+                    .orElseGet(() -> errorJson(Status.NOT_FOUND, "Media not found"));
+        });
+    }
+
+    // Rating statistics only; for many entries at once use ?fields=id,stats on GET /media or the multi-get
+    public Response getStats(Request request, PathParams params) {
+        int id = params.getInt("id");
+        return withUser(request, userId -> mediaService.getStats(id)
+                .map(this::okJson)
+                .orElseGet(() -> errorJson(Status.NOT_FOUND, "Media not found")));
+    }
+
+    // If-Match: "<version>" makes the update conditional (412 if the entry changed in between)
+    public Response update(Request request, PathParams params) {
+        int id = params.getInt("id");
+        return withUser(request, userId -> {
+            Integer expectedVersion = ifMatchVersion(request);
+            MediaUpsertDto updateDto = readBodyAsUpsert(request.getBodyBytes());
+            return mediaService.update(userId, id, updateDto, expectedVersion)
+                    .map(media -> withETag(okJson(media), media.getVersion()))
+                    .orElseGet(() -> errorJson(Status.NOT_FOUND, "Media not found"));
+        });
+    }
+
+    public Response delete(Request request, PathParams params) {
+        int id = params.getInt("id");
+        return withUser(request, userId -> {
+            boolean deleted = mediaService.delete(userId, id);
+            if (deleted) {
+                return okJson(Map.of("message", "Media deleted"));
+            } else {
+                return errorJson(Status.NOT_FOUND, "Media not found");
+            }
+        });
+    }
+
+    // require auth for all media endpoints
+    private Response withUser(Request request, UserAction action) {
+        try {
+            Optional<Integer> userIdOpt = mediaService.getAuthorizedUserId(request.getAuthorization());
+            if (userIdOpt.isEmpty()) {
+                return errorJson(Status.UNAUTHORIZED, "Missing or invalid Authorization header");
+            }
+            return action.run(userIdOpt.get());
+        } catch (VersionConflictException conflict) {
+            return preconditionFailed(conflict);
         } catch (SecurityException se) {
             return errorJson(Status.UNAUTHORIZED, se.getMessage());
         } catch (IllegalArgumentException iae) {
@@ -85,19 +153,26 @@ public class MediaController extends Controller {
         }
     }
 
-    private MediaUpsertDto readBodyAsUpsert(String body) throws Exception {
-        if (body == null || body.isBlank()) {
-            throw new IllegalArgumentException("Request body is empty");
-        }
-        return objectMapper.readValue(body, MediaUpsertDto.class);
+    private Object getByIds(List<Integer> ids, MediaProjection projection) {
+        return projection.isDetail()
+                ? mediaService.getByIds(ids)
+                : mediaService.getByIds(ids, projection);
     }
 
-    // Neue Methode für Regex-Parsing
-    private Integer parseIdWithRegex(Matcher matcher) {
-        try {
-            return Integer.parseInt(matcher.group(1));
-        } catch (Exception e) {
-            return null;
+    // ?view=summary|detail or ?fields=id,title,...
+    private MediaProjection projectionOf(Map<String, String> query) {
+        return MediaProjection.fromQuery(query.get("view"), query.get("fields"));
+    }
+
+    @FunctionalInterface
+    private interface UserAction {
+        Response run(int userId) throws Exception;
+    }
+
+    private MediaUpsertDto readBodyAsUpsert(byte[] body) throws Exception {
+        if (JsonCodec.isBlank(body)) {
+            throw new IllegalArgumentException("Request body is empty");
         }
+        return UPSERT_READER.readValue(body);
     }
 }
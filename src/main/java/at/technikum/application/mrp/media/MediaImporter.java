@@ -0,0 +1,240 @@
+package at.technikum.application.mrp.media;
+
+import at.technikum.application.common.CsvRecordReader;
+import at.technikum.application.common.EnvConfig;
+import at.technikum.application.common.JsonCodec;
+import at.technikum.application.mrp.media.dto.MediaImportResultDto;
+import at.technikum.application.mrp.media.dto.MediaUpsertDto;
+import at.technikum.application.mrp.media.entity.MediaEntryEntity;
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.databind.ObjectReader;
+
+import java.io.BufferedReader;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.InputStreamReader;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.Locale;
+
+/**
+ * Bulk import of media entries from NDJSON (one media object per line, as for POST /media) or CSV
+ * (header row with any of title, description, mediaType, releaseYear, genres, ageRestriction;
+ * several genres separated by '|').
+ *
+ * Every row is validated like POST /media; invalid rows are skipped and reported with their line
+ * number. Valid rows are written in batches of batchSize, one transaction each (see
+ * MediaRepository.createAll); if the database rejects a batch, all of its rows are reported.
+ * The input is read as a stream, only the current batch is held in memory.
+ */
+public class MediaImporter {
+
+    public enum Format {
+        NDJSON, CSV;
+
+        // ?format= wins over the Content-Type; NDJSON is the default
+        public static Format from(String format, String contentType) {
+            if (format != null && !format.isBlank()) {
+                return switch (format.trim().toLowerCase(Locale.ROOT)) {
+                    case "ndjson", "jsonl" -> NDJSON;
+                    case "csv" -> CSV;
+                    default -> throw new IllegalArgumentException("format must be ndjson or csv");
+                };
+            }
+            return contentType != null && contentType.toLowerCase(Locale.ROOT).startsWith("text/csv") ? CSV : NDJSON;
+        }
+    }
+
+    // failed rows beyond this are only counted
+    static final int MAX_REPORTED_ERRORS = 100;
+
+    private static final ObjectReader ROW_READER = JsonCodec.shared().readerFor(MediaUpsertDto.class);
+    private static final List<String> CSV_COLUMNS =
+            List.of("title", "description", "mediatype", "releaseyear", "genres", "agerestriction");
+
+    private final MediaRepository repository;
+    private final int batchSize;
+
+    public MediaImporter(MediaRepository repository, int batchSize) {
+        if (batchSize < 1) {
+            throw new IllegalArgumentException("batchSize must be at least 1");
+        }
+        this.repository = repository;
+        this.batchSize = batchSize;
+    }
+
+    // Reads MEDIA_IMPORT_BATCH_SIZE (rows per transaction, default 1000)
+    public static int batchSizeFromEnvironment() {
+        return EnvConfig.intFromEnv("MEDIA_IMPORT_BATCH_SIZE", 1000);
+    }
+
+    public MediaImportResultDto importFrom(InputStream in, Format format, int creatorUserId) throws IOException {
+        long start = System.nanoTime();
+        MediaImportResultDto result = new MediaImportResultDto();
+        List<MediaEntryEntity> batch = new ArrayList<>(Math.min(batchSize, 10_000));
+        List<Integer> batchLines = new ArrayList<>(Math.min(batchSize, 10_000));
+
+        BufferedReader reader = new BufferedReader(new InputStreamReader(in, StandardCharsets.UTF_8));
+        RowSource rows = format == Format.CSV ? new CsvRows(reader) : new NdjsonRows(reader);
+        Row row;
+        while ((row = rows.next()) != null) {
+            result.setRowsRead(result.getRowsRead() + 1);
+            try {
+                MediaUpsertDto dto = row.dto();
+                MediaService.validateUpsert(dto);
+                MediaEntryEntity entity = new MediaEntryEntity();
+                entity.setCreatorUserId(creatorUserId);
+                MediaService.applyUpsert(entity, dto);
+                batch.add(entity);
+                batchLines.add(row.line());
+            } catch (IllegalArgumentException e) {
+                fail(result, row.line(), e.getMessage());
+            }
+            if (batch.size() >= batchSize) {
+                flush(batch, batchLines, result);
+            }
+        }
+        flush(batch, batchLines, result);
+
+        long durationNanos = System.nanoTime() - start;
+        result.setDurationMs(durationNanos / 1_000_000);
+        result.setRowsPerSecond(durationNanos > 0 ? result.getImported() * 1e9 / durationNanos : 0);
+        return result;
+    }
+
+    private void flush(List<MediaEntryEntity> batch, List<Integer> batchLines, MediaImportResultDto result) {
+        if (batch.isEmpty()) {
+            return;
+        }
+        try {
+            repository.createAll(batch);
+            result.setImported(result.getImported() + batch.size());
+        } catch (RuntimeException e) {
+            for (int line : batchLines) {
+                fail(result, line, "Batch rolled back: " + e.getMessage());
+            }
+        }
+        batch.clear();
+        batchLines.clear();
+    }
+
+    private static void fail(MediaImportResultDto result, int line, String message) {
+        result.setFailed(result.getFailed() + 1);
+        if (result.getErrors().size() < MAX_REPORTED_ERRORS) {
+            result.getErrors().add(new MediaImportResultDto.RowError(line, message));
+        }
+    }
+
+    // A parsed row; dto() throws IllegalArgumentException for rows that could not be parsed
+    private record Row(int line, MediaUpsertDto parsed, String error) {
+        MediaUpsertDto dto() {
+            if (error != null) {
+                throw new IllegalArgumentException(error);
+            }
+            return parsed;
+        }
+    }
+
+    private interface RowSource {
+        // null at the end of the input
+        Row next() throws IOException;
+    }
+
+    private static final class NdjsonRows implements RowSource {
+        private final BufferedReader reader;
+        private int lineNumber;
+
+        NdjsonRows(BufferedReader reader) {
+            this.reader = reader;
+        }
+
+        @Override
+        public Row next() throws IOException {
+            String line;
+            while ((line = reader.readLine()) != null) {
+                lineNumber++;
+                if (line.isBlank()) {
+                    continue;
+                }
+                try {
+                    return new Row(lineNumber, ROW_READER.readValue(line), null);
+                } catch (JsonProcessingException e) {
+                    return new Row(lineNumber, null, "Invalid JSON: " + e.getOriginalMessage());
+                }
+            }
+            return null;
+        }
+    }
+
+    // CSV with a header row naming the columns, see CsvRecordReader
+    private static final class CsvRows implements RowSource {
+        private final CsvRecordReader reader;
+        private final int[] columns;
+
+        CsvRows(BufferedReader reader) throws IOException {
+            this.reader = new CsvRecordReader(reader);
+            List<String> header = this.reader.next();
+            if (header == null) {
+                this.columns = new int[0];
+                return;
+            }
+            this.columns = new int[header.size()];
+            for (int i = 0; i < header.size(); i++) {
+                String name = header.get(i) == null ? "" : header.get(i).trim().toLowerCase(Locale.ROOT);
+                columns[i] = CSV_COLUMNS.indexOf(name);
+                if (columns[i] < 0) {
+                    throw new IllegalArgumentException("Unknown CSV column: " + header.get(i));
+                }
+            }
+        }
+
+        @Override
+        public Row next() throws IOException {
+            List<String> fields;
+            int line;
+            do {
+                line = reader.getLineNumber() + 1;
+                fields = reader.next();
+                if (fields == null) {
+                    return null;
+                }
+            } while (fields.size() == 1 && fields.get(0) == null);
+
+            if (fields.size() != columns.length) {
+                return new Row(line, null, "Expected " + columns.length + " fields, got " + fields.size());
+            }
+            MediaUpsertDto dto = new MediaUpsertDto();
+            try {
+                for (int i = 0; i < columns.length; i++) {
+                    String value = fields.get(i);
+                    switch (columns[i]) {
+                        case 0 -> dto.setTitle(value);
+                        case 1 -> dto.setDescription(value);
+                        case 2 -> dto.setMediaType(value);
+                        case 3 -> dto.setReleaseYear(parseInt(value, "releaseYear"));
+                        case 4 -> dto.setGenres(value == null ? List.of() : Arrays.stream(value.split("\\|"))
+                                .map(String::trim).filter(g -> !g.isEmpty()).toList());
+                        case 5 -> dto.setAgeRestriction(parseInt(value, "ageRestriction"));
+                        default -> throw new IllegalStateException();
+                    }
+                }
+            } catch (IllegalArgumentException e) {
+                return new Row(line, null, e.getMessage());
+            }
+            return new Row(line, dto, null);
+        }
+
+        private static Integer parseInt(String value, String field) {
+            if (value == null) {
+                return null;
+            }
+            try {
+                return Integer.parseInt(value.trim());
+            } catch (NumberFormatException e) {
+                throw new IllegalArgumentException(field + " must be a number");
+            }
+        }
+    }
+}
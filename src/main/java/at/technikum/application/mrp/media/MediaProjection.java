@@ -0,0 +1,166 @@
+package at.technikum.application.mrp.media;
+
+import at.technikum.application.mrp.media.dto.MediaStatsDto;
+import at.technikum.application.mrp.media.entity.MediaEntryEntity;
+import at.technikum.application.mrp.rating.dto.RatingDto;
+
+import java.util.EnumSet;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.Set;
+
+/**
+ * Which fields of a media entry a response contains ({@code view=summary|detail} or {@code fields=a,b}).
+ *
+ * MediaRepository only selects the columns of the included fields and skips the ratings query unless
+ * RATINGS is included, so list responses do not load data nobody asked for.
+ */
+public final class MediaProjection {
+
+    public enum Field {
+        ID("id"),
+        TITLE("title"),
+        DESCRIPTION("description"),
+        MEDIA_TYPE("mediaType"),
+        RELEASE_YEAR("releaseYear"),
+        GENRES("genres"),
+        AGE_RESTRICTION("ageRestriction"),
+        RATINGS("ratings"),
+        AVERAGE_SCORE("averageScore"),
+        RATING_COUNT("ratingCount"),
+        STATS("stats");
+
+        private final String jsonName;
+
+        Field(String jsonName) {
+            this.jsonName = jsonName;
+        }
+
+        public String getJsonName() {
+            return jsonName;
+        }
+
+        static Field fromJsonName(String name) {
+            for (Field field : values()) {
+                if (field.jsonName.equalsIgnoreCase(name)) {
+                    return field;
+                }
+            }
+            throw new IllegalArgumentException("Unknown field: " + name);
+        }
+    }
+
+    // every column, including the creator that no response field exposes
+    public static final MediaProjection DETAIL = new MediaProjection(EnumSet.allOf(Field.class), true);
+    public static final MediaProjection SUMMARY = new MediaProjection(EnumSet.of(
+            Field.ID, Field.TITLE, Field.MEDIA_TYPE, Field.RELEASE_YEAR, Field.AVERAGE_SCORE, Field.RATING_COUNT), false);
+
+    private final Set<Field> fields;
+    private final boolean detail;
+
+    private MediaProjection(Set<Field> fields, boolean detail) {
+        this.fields = fields;
+        this.detail = detail;
+    }
+
+    public static MediaProjection of(Field first, Field... rest) {
+        return new MediaProjection(EnumSet.of(first, rest), false);
+    }
+
+    /**
+     * Parses the query parameters; {@code fields} wins over {@code view}, neither means DETAIL.
+     * The id is always included so clients can follow up on an entry.
+     */
+    public static MediaProjection fromQuery(String view, String fields) {
+        if (fields != null && !fields.isBlank()) {
+            EnumSet<Field> selected = EnumSet.of(Field.ID);
+            for (String part : fields.split(",")) {
+                if (!part.isBlank()) {
+                    selected.add(Field.fromJsonName(part.trim()));
+                }
+            }
+            return new MediaProjection(selected, false);
+        }
+        if (view == null || view.isBlank()) {
+            return DETAIL;
+        }
+        return switch (view.trim().toLowerCase(Locale.ROOT)) {
+            case "summary" -> SUMMARY;
+            case "detail" -> DETAIL;
+            default -> throw new IllegalArgumentException("view must be summary or detail");
+        };
+    }
+
+    public boolean isDetail() {
+        return detail;
+    }
+
+    public boolean includes(Field field) {
+        return fields.contains(field);
+    }
+
+    // This projection plus one more field, e.g. the sort key a search needs for its cursor
+    MediaProjection with(Field field) {
+        if (fields.contains(field)) {
+            return this;
+        }
+        EnumSet<Field> extended = EnumSet.copyOf(fields);
+        extended.add(field);
+        return new MediaProjection(extended, detail);
+    }
+
+    // Response object with the included fields, in declaration order
+    public Map<String, Object> render(MediaEntryEntity entity) {
+        Map<String, Object> map = new LinkedHashMap<>();
+        for (Field field : fields) {
+            map.put(field.jsonName, switch (field) {
+                case ID -> entity.getId();
+                case TITLE -> entity.getTitle();
+                case DESCRIPTION -> entity.getDescription();
+                case MEDIA_TYPE -> entity.getMediaType();
+                case RELEASE_YEAR -> entity.getReleaseYear();
+                case GENRES -> entity.getGenres();
+                case AGE_RESTRICTION -> entity.getAgeRestriction();
+                case RATINGS -> ratings(entity);
+                case AVERAGE_SCORE -> entity.getAverageScore();
+                case RATING_COUNT -> entity.getRatingCount();
+                case STATS -> stats(entity);
+            });
+        }
+        return map;
+    }
+
+    private static List<RatingDto> ratings(MediaEntryEntity entity) {
+        return entity.getRatings() == null ? List.of() : entity.getRatings().stream()
+                .map(r -> new RatingDto(r.getUserId(), r.getScore()))
+                .toList();
+    }
+
+    // Rating statistics from the counters of the media row
+    static MediaStatsDto stats(MediaEntryEntity entity) {
+        int[] stars = entity.getStarCounts();
+        Map<String, Integer> histogram = new LinkedHashMap<>();
+        for (int i = 0; i < stars.length; i++) {
+            histogram.put(String.valueOf(i + 1), stars[i]);
+        }
+        return new MediaStatsDto(entity.getId(), entity.getRatingCount(), entity.getAverageScore(), histogram,
+                entity.getLikeTotal(), entity.getFavoriteCount());
+    }
+
+    @Override
+    public boolean equals(Object o) {
+        return o instanceof MediaProjection other && detail == other.detail && fields.equals(other.fields);
+    }
+
+    @Override
+    public int hashCode() {
+        return fields.hashCode() * 31 + Boolean.hashCode(detail);
+    }
+
+    @Override
+    public String toString() {
+        return detail ? "detail" : fields.toString();
+    }
+}
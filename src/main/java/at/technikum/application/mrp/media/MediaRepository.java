@@ -1,27 +1,66 @@
 package at.technikum.application.mrp.media;
 
-import at.technikum.application.mrp.database.DatabaseConnection;
+import at.technikum.application.common.PageCursor;
+import at.technikum.application.common.PageDto;
+import at.technikum.application.common.VersionConflictException;
 import at.technikum.application.mrp.media.entity.MediaEntryEntity;
 import at.technikum.application.mrp.rating.entity.RatingEntity;
+import org.postgresql.PGConnection;
+import org.postgresql.copy.CopyIn;
 
+import javax.sql.DataSource;
+import java.nio.charset.StandardCharsets;
 import java.sql.*;
 import java.util.*;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.function.Consumer;
+import java.util.function.IntConsumer;
+
+public class MediaRepository implements MediaSearchEngine {
+
+    // Sort keys, same expressions as idx_media_score_keyset / idx_media_year_keyset so sorting and
+    // keyset conditions use the index. Unrated media score 0 and media without a year count as 0,
+    // both sort last in the descending orders.
+    private static final String SCORE_KEY = "COALESCE(m.rating_sum::float8 / NULLIF(m.rating_count, 0), 0)";
+    private static final String YEAR_KEY = "COALESCE(m.release_year, 0)";
+
+    // Everything the entity needs; leaves out search_vector, which is only used inside queries
+    private static final String MEDIA_COLUMNS = """
+            m.media_id, m.title, m.description, m.genre_ids, m.media_type, m.release_year, m.creator_user_id,
+            m.age_restriction, m.rating_count, m.rating_sum, m.stars_1, m.stars_2, m.stars_3, m.stars_4, m.stars_5,
+            m.favorite_count, m.version""";
+
+    private final DataSource dataSource;
+    private final GenreDictionary genres = new GenreDictionary();
+    // notified after a media row was inserted, updated or deleted (e.g. to keep InMemoryMediaIndex current)
+    private final List<Consumer<MediaEntryEntity>> saveListeners = new CopyOnWriteArrayList<>();
+    private final List<IntConsumer> deleteListeners = new CopyOnWriteArrayList<>();
+
+    public MediaRepository(DataSource dataSource) {
+        this.dataSource = dataSource;
+    }
 
-public class MediaRepository {
+    public void addSaveListener(Consumer<MediaEntryEntity> listener) {
+        saveListeners.add(listener);
+    }
+
+    public void addDeleteListener(IntConsumer listener) {
+        deleteListeners.add(listener);
+    }
 
     public MediaEntryEntity create(MediaEntryEntity entity) {
         String sql = """
-            INSERT INTO media (title, description, genre, media_type, release_year, 
+            INSERT INTO media (title, description, genre_ids, media_type, release_year, 
                                director, cast_members, creator_user_id, age_restriction)
             VALUES (?, ?, ?, ?, ?, ?, ?, ?, ?) RETURNING media_id
             """;
 
-        try (Connection conn = DatabaseConnection.getInstance().getConnection();
+        try (Connection conn = dataSource.getConnection();
              PreparedStatement stmt = conn.prepareStatement(sql)) {
 
             stmt.setString(1, entity.getTitle());
             stmt.setString(2, entity.getDescription());
-            stmt.setString(3, entity.getGenres() != null ? String.join(",", entity.getGenres()) : null);
+            stmt.setArray(3, conn.createArrayOf("integer", genres.idsFor(conn, entity.getGenres())));
             stmt.setString(4, entity.getMediaType());
             stmt.setObject(5, entity.getReleaseYear(), Types.INTEGER);
             stmt.setString(6, null); // director - not in current entity
@@ -33,22 +72,116 @@ public class MediaRepository {
             if (rs.next()) {
                 entity.setId(rs.getInt("media_id"));
             }
-            return entity;
         } catch (SQLException e) {
             throw new RuntimeException("Failed to create media entry", e);
         }
+        saveListeners.forEach(listener -> listener.accept(entity));
+        return entity;
+    }
+
+    /**
+     * Bulk insert for imports, all entries or none in one transaction. Ids are reserved from the
+     * media_id sequence first, so the rows can be streamed with COPY (which returns nothing) and the
+     * entities still get their ids. Unknown genres are created before the transaction starts, because
+     * GenreDictionary caches ids and must not see genres of a rolled back batch.
+     * Save listeners fire per entry after the commit, as for create().
+     */
+    public List<MediaEntryEntity> createAll(List<MediaEntryEntity> entities) {
+        if (entities.isEmpty()) {
+            return entities;
+        }
+        String copySql = "COPY media (media_id, title, description, genre_ids, media_type, release_year,"
+                + " creator_user_id, age_restriction) FROM STDIN (FORMAT csv)";
+
+        try (Connection conn = dataSource.getConnection()) {
+            List<String> allGenres = new ArrayList<>();
+            entities.forEach(e -> allGenres.addAll(e.getGenres()));
+            genres.idsFor(conn, allGenres);
+
+            conn.setAutoCommit(false);
+            try {
+                try (PreparedStatement stmt = conn.prepareStatement(
+                        "SELECT nextval(pg_get_serial_sequence('media', 'media_id')) FROM generate_series(1, ?)")) {
+                    stmt.setInt(1, entities.size());
+                    ResultSet rs = stmt.executeQuery();
+                    for (MediaEntryEntity entity : entities) {
+                        rs.next();
+                        entity.setId(rs.getInt(1));
+                    }
+                }
+
+                CopyIn copy = conn.unwrap(PGConnection.class).getCopyAPI().copyIn(copySql);
+                try {
+                    StringBuilder row = new StringBuilder(256);
+                    for (MediaEntryEntity entity : entities) {
+                        row.setLength(0);
+                        row.append(entity.getId()).append(',');
+                        appendCsv(row, entity.getTitle()).append(',');
+                        appendCsv(row, entity.getDescription()).append(',');
+                        row.append('"').append(arrayLiteral(genres.idsFor(conn, entity.getGenres()))).append("\",");
+                        appendCsv(row, entity.getMediaType()).append(',');
+                        appendCsv(row, entity.getReleaseYear()).append(',');
+                        appendCsv(row, entity.getCreatorUserId()).append(',');
+                        appendCsv(row, entity.getAgeRestriction()).append('\n');
+                        byte[] bytes = row.toString().getBytes(StandardCharsets.UTF_8);
+                        copy.writeToCopy(bytes, 0, bytes.length);
+                    }
+                    copy.endCopy();
+                } finally {
+                    if (copy.isActive()) {
+                        copy.cancelCopy();
+                    }
+                }
+                conn.commit();
+            } catch (SQLException | RuntimeException e) {
+                conn.rollback();
+                entities.forEach(entity -> entity.setId(null));
+                throw e;
+            }
+        } catch (SQLException e) {
+            throw new RuntimeException("Failed to import media entries: " + e.getMessage(), e);
+        }
+        for (MediaEntryEntity entity : entities) {
+            entity.setRatingCount(0);
+            entity.setRatingSum(0);
+            saveListeners.forEach(listener -> listener.accept(entity));
+        }
+        return entities;
+    }
+
+    // CSV field for COPY: null is the empty unquoted field, everything else is quoted
+    private static StringBuilder appendCsv(StringBuilder row, Object value) {
+        if (value == null) {
+            return row;
+        }
+        return row.append('"').append(value.toString().replace("\"", "\"\"")).append('"');
+    }
+
+    private static String arrayLiteral(Integer[] ids) {
+        StringJoiner joiner = new StringJoiner(",", "{", "}");
+        for (Integer id : ids) {
+            joiner.add(id.toString());
+        }
+        return joiner.toString();
     }
 
     public Optional<MediaEntryEntity> findById(int id) {
-        String sql = "SELECT * FROM media WHERE media_id = ?";
-        try (Connection conn = DatabaseConnection.getInstance().getConnection();
+        return findById(id, MediaProjection.DETAIL);
+    }
+
+    // Only the columns of the projected fields; ratings are loaded only if the projection includes them
+    public Optional<MediaEntryEntity> findById(int id, MediaProjection projection) {
+        String sql = "SELECT " + columnsFor(projection) + " FROM media m WHERE m.media_id = ?";
+        try (Connection conn = dataSource.getConnection();
              PreparedStatement stmt = conn.prepareStatement(sql)) {
 
             stmt.setInt(1, id);
             ResultSet rs = stmt.executeQuery();
 
             if (rs.next()) {
-                return Optional.of(mapResultSetToEntity(rs));
+                MediaEntryEntity entity = mapResultSetToEntity(conn, rs, projection);
+                attachRatings(conn, List.of(entity), projection);
+                return Optional.of(entity);
             }
             return Optional.empty();
         } catch (SQLException e) {
@@ -56,124 +189,206 @@ public class MediaRepository {
         }
     }
 
-    public MediaEntryEntity update(MediaEntryEntity entity) {
-        if (entity.getId() == null) {
-            return null;
-        }
-
+    /**
+     * Update without reading the row first: the creator check and, with an expectedVersion (If-Match),
+     * the version check are part of the WHERE clause, and RETURNING yields the stored row. Only when
+     * no row matched is the row read again to tell why: empty = no such entry, SecurityException =
+     * someone else's entry, VersionConflictException = modified since the client read it.
+     */
+    public Optional<MediaEntryEntity> updateIfMatch(MediaEntryEntity entity, int userId, Integer expectedVersion) {
         String sql = """
-            UPDATE media SET title = ?, description = ?, genre = ?, media_type = ?,
-                           release_year = ?, age_restriction = ?, updated_at = CURRENT_TIMESTAMP
-            WHERE media_id = ?
-            """;
-
-        try (Connection conn = DatabaseConnection.getInstance().getConnection();
+            UPDATE media AS m SET title = ?, description = ?, genre_ids = ?, media_type = ?,
+                                  release_year = ?, age_restriction = ?, version = m.version + 1,
+                                  updated_at = CURRENT_TIMESTAMP
+            WHERE m.media_id = ? AND m.creator_user_id = ? AND (?::integer IS NULL OR m.version = ?)
+            RETURNING\s""" + MEDIA_COLUMNS;
+
+        MediaEntryEntity updated;
+        try (Connection conn = dataSource.getConnection();
              PreparedStatement stmt = conn.prepareStatement(sql)) {
 
             stmt.setString(1, entity.getTitle());
             stmt.setString(2, entity.getDescription());
-            stmt.setString(3, entity.getGenres() != null ? String.join(",", entity.getGenres()) : null);
+            stmt.setArray(3, conn.createArrayOf("integer", genres.idsFor(conn, entity.getGenres())));
             stmt.setString(4, entity.getMediaType());
             stmt.setObject(5, entity.getReleaseYear(), Types.INTEGER);
             stmt.setObject(6, entity.getAgeRestriction(), Types.INTEGER);
             stmt.setInt(7, entity.getId());
+            stmt.setInt(8, userId);
+            stmt.setObject(9, expectedVersion, Types.INTEGER);
+            stmt.setObject(10, expectedVersion, Types.INTEGER);
 
-            int rowsAffected = stmt.executeUpdate();
-            return rowsAffected > 0 ? entity : null;
+            ResultSet rs = stmt.executeQuery();
+            if (!rs.next()) {
+                return explainFailedUpdate(conn, entity.getId(), userId);
+            }
+            updated = mapResultSetToEntity(conn, rs, MediaProjection.DETAIL);
+            try {
+                attachRatings(conn, List.of(updated), MediaProjection.DETAIL);
+            } catch (SQLException e) {
+                // the update is stored (autocommit), so caches and the search index must still hear of it
+                saveListeners.forEach(listener -> listener.accept(updated));
+                throw e;
+            }
         } catch (SQLException e) {
             throw new RuntimeException("Failed to update media entry", e);
         }
+        saveListeners.forEach(listener -> listener.accept(updated));
+        return Optional.of(updated);
+    }
+
+    private static Optional<MediaEntryEntity> explainFailedUpdate(Connection conn, int mediaId, int userId)
+            throws SQLException {
+        try (PreparedStatement stmt = conn.prepareStatement(
+                "SELECT creator_user_id, version FROM media WHERE media_id = ?")) {
+            stmt.setInt(1, mediaId);
+            ResultSet rs = stmt.executeQuery();
+            if (!rs.next()) {
+                return Optional.empty();
+            }
+            if (rs.getInt("creator_user_id") != userId) {
+                throw new SecurityException("Only creator can update this entry");
+            }
+            int version = rs.getInt("version");
+            throw new VersionConflictException("Media entry was modified (current version " + version + ")", version);
+        }
     }
 
     public boolean delete(int id) {
         String sql = "DELETE FROM media WHERE media_id = ?";
-        try (Connection conn = DatabaseConnection.getInstance().getConnection();
+        try (Connection conn = dataSource.getConnection();
              PreparedStatement stmt = conn.prepareStatement(sql)) {
 
             stmt.setInt(1, id);
-            return stmt.executeUpdate() > 0;
+            if (stmt.executeUpdate() == 0) {
+                return false;
+            }
         } catch (SQLException e) {
             throw new RuntimeException("Failed to delete media entry", e);
         }
+        deleteListeners.forEach(listener -> listener.accept(id));
+        return true;
+    }
+
+    // Entries with the given ids in the given order (ids that do not exist are skipped), one query for all
+    public List<MediaEntryEntity> findByIds(List<Integer> ids) {
+        return findByIds(ids, MediaProjection.DETAIL);
+    }
+
+    public List<MediaEntryEntity> findByIds(List<Integer> ids, MediaProjection projection) {
+        if (ids.isEmpty()) {
+            return new ArrayList<>();
+        }
+        String sql = "SELECT " + columnsFor(projection) + " FROM media m WHERE m.media_id = ANY(?)";
+        Map<Integer, MediaEntryEntity> byId = new HashMap<>();
+
+        try (Connection conn = dataSource.getConnection();
+             PreparedStatement stmt = conn.prepareStatement(sql)) {
+
+            stmt.setArray(1, conn.createArrayOf("integer", ids.toArray()));
+            ResultSet rs = stmt.executeQuery();
+            while (rs.next()) {
+                MediaEntryEntity entity = mapResultSetToEntity(conn, rs, projection);
+                byId.put(entity.getId(), entity);
+            }
+
+            List<MediaEntryEntity> results = new ArrayList<>(byId.size());
+            for (Integer id : ids) {
+                MediaEntryEntity entity = byId.get(id);
+                if (entity != null) {
+                    results.add(entity);
+                }
+            }
+            attachRatings(conn, results, projection);
+            return results;
+        } catch (SQLException e) {
+            throw new RuntimeException("Failed to find media by ids", e);
+        }
     }
 
     public Collection<MediaEntryEntity> findAll() {
-        String sql = "SELECT * FROM media ORDER BY media_id";
+        String sql = "SELECT " + MEDIA_COLUMNS + " FROM media m ORDER BY m.media_id";
         List<MediaEntryEntity> results = new ArrayList<>();
 
-        try (Connection conn = DatabaseConnection.getInstance().getConnection();
+        try (Connection conn = dataSource.getConnection();
              Statement stmt = conn.createStatement();
              ResultSet rs = stmt.executeQuery(sql)) {
 
             while (rs.next()) {
-                results.add(mapResultSetToEntity(rs));
+                results.add(mapResultSetToEntity(conn, rs, MediaProjection.DETAIL));
             }
+            attachRatings(conn, results, MediaProjection.DETAIL);
             return results;
         } catch (SQLException e) {
             throw new RuntimeException("Failed to find all media", e);
         }
     }
 
-    public List<MediaEntryEntity> search(String title, String genre, String mediaType,
-                                         Integer releaseYear, Integer ageRestriction,
-                                         Integer minAverageRating, String sortBy) {
-        StringBuilder sql = new StringBuilder("SELECT m.* FROM media m");
-
-        // Always include the rating join for filtering and sorting
-        sql.append(" LEFT JOIN ratings r ON m.media_id = r.media_id");
+    /**
+     * Returns one page of media matching the query, ordered by the query's sort mode.
+     *
+     * Keyset pagination: the cursor holds the (sort key, media_id) of the previous page's last row and
+     * the next page starts strictly after it, so every page is a range scan on the matching index
+     * (idx_media_*_keyset) no matter how deep it is. Descending sorts break ties by media_id descending
+     * so one row comparison covers both columns.
+     */
+    @Override
+    public PageDto<MediaEntryEntity> search(MediaSearchQuery query) {
+        try (Connection conn = dataSource.getConnection()) {
+            return search(conn, query);
+        } catch (SQLException e) {
+            throw new RuntimeException("Failed to search media: " + e.getMessage(), e);
+        }
+    }
 
+    private PageDto<MediaEntryEntity> search(Connection conn, MediaSearchQuery query) throws SQLException {
         List<String> conditions = new ArrayList<>();
         List<Object> params = new ArrayList<>();
 
-        if (title != null && !title.isBlank()) {
-            conditions.add("LOWER(m.title) LIKE ?");
-            params.add("%" + title.toLowerCase() + "%");
+        String text = query.getText();
+        boolean fullText = text != null && !text.isBlank()
+                && query.getTextMode() == MediaSearchQuery.TextMode.FULL_TEXT;
+        MediaSearchQuery.Sort sort = query.getSort();
+        if (sort == MediaSearchQuery.Sort.RELEVANCE && !fullText) {
+            sort = MediaSearchQuery.Sort.ID; // nothing to rank without a full-text match
         }
-        if (genre != null && !genre.isBlank()) {
-            conditions.add("LOWER(m.genre) LIKE ?");
-            params.add("%" + genre.toLowerCase() + "%");
+        // the cursor of the next page is built from the sort key, so it is selected even if not projected
+        MediaProjection projection = switch (sort) {
+            case TITLE -> query.getProjection().with(MediaProjection.Field.TITLE);
+            case SCORE -> query.getProjection().with(MediaProjection.Field.AVERAGE_SCORE);
+            case YEAR -> query.getProjection().with(MediaProjection.Field.RELEASE_YEAR);
+            default -> query.getProjection();
+        };
+
+        // Rating filter and score sort read the aggregates on the media row, no join with ratings needed
+        StringBuilder sql = new StringBuilder("SELECT " + columnsFor(projection));
+        if (fullText) {
+            sql.append(", ts_rank(m.search_vector, fts.query) AS relevance");
         }
-        if (mediaType != null && !mediaType.isBlank()) {
-            conditions.add("LOWER(m.media_type) = ?");
-            params.add(mediaType.toLowerCase());
-        }
-        if (releaseYear != null) {
-            conditions.add("m.release_year = ?");
-            params.add(releaseYear);
-        }
-        if (ageRestriction != null) {
-            conditions.add("m.age_restriction = ?");
-            params.add(ageRestriction);
+        sql.append(" FROM ").append(addFilters(conn, query, fullText, conditions, params));
+
+        if (query.getCursor() != null) {
+            addKeysetCondition(sort, query.getCursor(), conditions, params);
         }
 
         if (!conditions.isEmpty()) {
             sql.append(" WHERE ").append(String.join(" AND ", conditions));
         }
 
-        // Group by primary key to support aggregate functions without listing all columns
-        sql.append(" GROUP BY m.media_id");
-
-        // Add HAVING clause for rating filter
-        if (minAverageRating != null) {
-            sql.append(" HAVING AVG(r.rating_value) >= ?");
-            params.add(minAverageRating);
-        }
-
-        // Sorting
-        if (sortBy != null && !sortBy.isBlank()) {
-            switch (sortBy.toLowerCase()) {
-                case "title" -> sql.append(" ORDER BY m.title");
-                case "score" -> sql.append(" ORDER BY AVG(r.rating_value) DESC NULLS LAST");
-                case "year" -> sql.append(" ORDER BY m.release_year DESC");
-                default -> sql.append(" ORDER BY m.media_id");
-            }
-        } else {
-            sql.append(" ORDER BY m.media_id");
+        switch (sort) {
+            case TITLE -> sql.append(" ORDER BY m.title, m.media_id");
+            case SCORE -> sql.append(" ORDER BY " + SCORE_KEY + " DESC, m.media_id DESC");
+            case YEAR -> sql.append(" ORDER BY " + YEAR_KEY + " DESC, m.media_id DESC");
+            case RELEVANCE -> sql.append(" ORDER BY relevance DESC, m.media_id DESC");
+            default -> sql.append(" ORDER BY m.media_id");
         }
+        // one extra row tells whether there is a next page
+        sql.append(" LIMIT ?");
+        params.add(query.getLimit() + 1);
 
         List<MediaEntryEntity> results = new ArrayList<>();
-        try (Connection conn = DatabaseConnection.getInstance().getConnection();
-             PreparedStatement stmt = conn.prepareStatement(sql.toString())) {
+        List<Float> relevance = new ArrayList<>();
+        try (PreparedStatement stmt = conn.prepareStatement(sql.toString())) {
 
             for (int i = 0; i < params.size(); i++) {
                 stmt.setObject(i + 1, params.get(i));
@@ -181,44 +396,327 @@ public class MediaRepository {
 
             ResultSet rs = stmt.executeQuery();
             while (rs.next()) {
-                results.add(mapResultSetToEntity(rs));
+                results.add(mapResultSetToEntity(conn, rs, projection));
+                if (fullText) {
+                    relevance.add(rs.getFloat("relevance"));
+                }
             }
-            return results;
+
+            String nextCursor = null;
+            if (results.size() > query.getLimit()) {
+                results.remove(results.size() - 1);
+                int last = results.size() - 1;
+                nextCursor = sort == MediaSearchQuery.Sort.RELEVANCE
+                        ? PageCursor.encode("relevance", Float.toString(relevance.get(last)), String.valueOf(results.get(last).getId()))
+                        : cursorAfter(sort, results.get(last));
+            }
+            attachRatings(conn, results, projection);
+            return new PageDto<>(results, nextCursor, query.getLimit());
+        }
+    }
+
+    /**
+     * Adds the conditions of all filters of the query (not the cursor) and returns the FROM clause.
+     * Must be called while params is still empty: with full-text search the tsquery is the first
+     * parameter, it is parsed once and shared by the match, the ranking and the keyset condition.
+     */
+    private String addFilters(Connection conn, MediaSearchQuery query, boolean fullText,
+                              List<String> conditions, List<Object> params) throws SQLException {
+        String from = "media m";
+        String text = query.getText();
+        if (fullText) {
+            from = "media m CROSS JOIN to_tsquery('simple', ?) AS fts(query)";
+            params.add(toPrefixTsQuery(text));
+            conditions.add("m.search_vector @@ fts.query");
+        } else if (text != null && !text.isBlank()) {
+            conditions.add("(LOWER(m.title) LIKE ? OR LOWER(m.description) LIKE ?)");
+            params.add(likePattern(text));
+            params.add(likePattern(text));
+        }
+
+        if (query.getTitle() != null && !query.getTitle().isBlank()) {
+            conditions.add("LOWER(m.title) LIKE ?");
+            params.add(likePattern(query.getTitle()));
+        }
+        if (!query.getGenres().isEmpty()) {
+            addGenreCondition(conn, query, conditions, params);
+        }
+        if (query.getMediaType() != null && !query.getMediaType().isBlank()) {
+            conditions.add("LOWER(m.media_type) = ?");
+            params.add(query.getMediaType().toLowerCase());
+        }
+        if (query.getReleaseYear() != null) {
+            conditions.add("m.release_year = ?");
+            params.add(query.getReleaseYear());
+        }
+        if (query.getAgeRestriction() != null) {
+            conditions.add("m.age_restriction = ?");
+            params.add(query.getAgeRestriction());
+        }
+
+        if (query.getMinRating() != null) {
+            // sum >= min * count is the exact form of avg >= min (unrated media never match)
+            conditions.add("m.rating_count > 0 AND m.rating_sum >= ? * m.rating_count");
+            params.add(query.getMinRating());
+        }
+        return from;
+    }
+
+    /**
+     * All requested facet histograms in one statement: the matching rows are collected once in a
+     * materialized CTE, then each facet is one GROUP BY branch of a UNION ALL over it. Genres are
+     * counted per element of genre_ids and named through the genres table. Ties are ordered by value
+     * in byte order (COLLATE "C"), the same order the in-memory index uses.
+     */
+    @Override
+    public Map<String, Map<String, Long>> facets(MediaSearchQuery query) {
+        Map<String, Map<String, Long>> facets = new LinkedHashMap<>();
+        for (MediaSearchQuery.Facet facet : query.getFacets()) {
+            facets.put(facet.getParamName(), new LinkedHashMap<>());
+        }
+        if (facets.isEmpty()) {
+            return facets;
+        }
+
+        String text = query.getText();
+        boolean fullText = text != null && !text.isBlank()
+                && query.getTextMode() == MediaSearchQuery.TextMode.FULL_TEXT;
+        List<String> conditions = new ArrayList<>();
+        List<Object> params = new ArrayList<>();
+
+        try (Connection conn = dataSource.getConnection()) {
+            StringBuilder sql = new StringBuilder("WITH matched AS MATERIALIZED (")
+                    .append("SELECT m.genre_ids, m.media_type, m.release_year, m.age_restriction FROM ")
+                    .append(addFilters(conn, query, fullText, conditions, params));
+            if (!conditions.isEmpty()) {
+                sql.append(" WHERE ").append(String.join(" AND ", conditions));
+            }
+            sql.append(") ");
+
+            List<String> branches = new ArrayList<>();
+            for (MediaSearchQuery.Facet facet : query.getFacets()) {
+                branches.add(switch (facet) {
+                    case GENRE -> "SELECT 'genre' AS facet, g.name AS value, COUNT(*) AS n FROM matched"
+                            + " CROSS JOIN LATERAL unnest(matched.genre_ids) AS gid(id)"
+                            + " JOIN genres g ON g.genre_id = gid.id GROUP BY g.name";
+                    case MEDIA_TYPE -> "SELECT 'mediaType' AS facet, LOWER(media_type) AS value, COUNT(*) AS n FROM matched"
+                            + " WHERE media_type IS NOT NULL GROUP BY LOWER(media_type)";
+                    case RELEASE_YEAR -> "SELECT 'releaseYear' AS facet, release_year::text AS value, COUNT(*) AS n FROM matched"
+                            + " WHERE release_year IS NOT NULL GROUP BY release_year";
+                    case AGE_RESTRICTION -> "SELECT 'ageRestriction' AS facet, age_restriction::text AS value, COUNT(*) AS n"
+                            + " FROM matched"
+                            + " WHERE age_restriction IS NOT NULL GROUP BY age_restriction";
+                });
+            }
+            sql.append("SELECT * FROM (").append(String.join(" UNION ALL ", branches))
+                    .append(") counts ORDER BY n DESC, value COLLATE \"C\"");
+
+            try (PreparedStatement stmt = conn.prepareStatement(sql.toString())) {
+                for (int i = 0; i < params.size(); i++) {
+                    stmt.setObject(i + 1, params.get(i));
+                }
+                ResultSet rs = stmt.executeQuery();
+                while (rs.next()) {
+                    facets.get(rs.getString("facet")).put(rs.getString("value"), rs.getLong("n"));
+                }
+            }
+            return facets;
         } catch (SQLException e) {
-            throw new RuntimeException("Failed to search media: " + e.getMessage(), e);
+            throw new RuntimeException("Failed to count media facets: " + e.getMessage(), e);
         }
     }
 
-    private MediaEntryEntity mapResultSetToEntity(ResultSet rs) throws SQLException {
-        MediaEntryEntity entity = new MediaEntryEntity();
-        entity.setId(rs.getInt("media_id"));
-        entity.setTitle(rs.getString("title"));
-        entity.setDescription(rs.getString("description"));
+    /**
+     * Exact genre filter on the genre_ids GIN index: ANY is array overlap (&&), ALL is containment (@>).
+     * Unknown genre names match nothing, so ALL with an unknown name and ANY with only unknown names
+     * return no rows without touching the media table.
+     */
+    private void addGenreCondition(Connection conn, MediaSearchQuery query,
+                                   List<String> conditions, List<Object> params) throws SQLException {
+        List<Integer> ids = genres.lookup(conn, query.getGenres());
+        boolean all = query.getGenreMatch() == MediaSearchQuery.GenreMatch.ALL;
+        List<Integer> known = ids.stream().filter(Objects::nonNull).toList();
+        if (known.isEmpty() || (all && known.size() < ids.size())) {
+            conditions.add("FALSE");
+            return;
+        }
+        conditions.add(all ? "m.genre_ids @> ?" : "m.genre_ids && ?");
+        params.add(conn.createArrayOf("integer", known.toArray()));
+    }
+
+    private void addKeysetCondition(MediaSearchQuery.Sort sort, String cursor,
+                                    List<String> conditions, List<Object> params) {
+        String kind = sort.name().toLowerCase();
+        try {
+            switch (sort) {
+                case TITLE -> {
+                    String[] key = PageCursor.decode(cursor, kind, 3);
+                    conditions.add("(m.title, m.media_id) > (?, ?)");
+                    params.add(key[1]);
+                    params.add(Integer.parseInt(key[2]));
+                }
+                case SCORE -> {
+                    String[] key = PageCursor.decode(cursor, kind, 3);
+                    conditions.add("(" + SCORE_KEY + ", m.media_id) < (?, ?)");
+                    params.add(Double.parseDouble(key[1]));
+                    params.add(Integer.parseInt(key[2]));
+                }
+                case YEAR -> {
+                    String[] key = PageCursor.decode(cursor, kind, 3);
+                    conditions.add("(" + YEAR_KEY + ", m.media_id) < (?, ?)");
+                    params.add(Integer.parseInt(key[1]));
+                    params.add(Integer.parseInt(key[2]));
+                }
+                case RELEVANCE -> {
+                    // ts_rank is a real; the cursor holds the exact float of the previous row
+                    String[] key = PageCursor.decode(cursor, kind, 3);
+                    conditions.add("(ts_rank(m.search_vector, fts.query), m.media_id) < (?, ?)");
+                    params.add(Float.parseFloat(key[1]));
+                    params.add(Integer.parseInt(key[2]));
+                }
+                default -> {
+                    String[] key = PageCursor.decode(cursor, kind, 2);
+                    conditions.add("m.media_id > ?");
+                    params.add(Integer.parseInt(key[1]));
+                }
+            }
+        } catch (NumberFormatException | NullPointerException e) {
+            throw new IllegalArgumentException("Invalid cursor");
+        }
+    }
 
-        String genreStr = rs.getString("genre");
-        if (genreStr != null && !genreStr.isBlank()) {
-            entity.setGenres(Arrays.asList(genreStr.split(",")));
+    /**
+     * Turns free text into a tsquery of its words, the last one as prefix ("star wa" -> 'star & wa:*'),
+     * so results appear while typing. Only letters and digits are kept, which also means user input
+     * can never inject tsquery operators.
+     */
+    static String toPrefixTsQuery(String text) {
+        List<String> words = MediaSearchQuery.words(text);
+        if (words.isEmpty()) {
+            throw new IllegalArgumentException("Search text contains no words");
         }
+        return String.join(" & ", words) + ":*";
+    }
 
-        entity.setMediaType(rs.getString("media_type"));
-        entity.setReleaseYear((Integer) rs.getObject("release_year"));
-        entity.setCreatorUserId((Integer) rs.getObject("creator_user_id"));
-        entity.setAgeRestriction((Integer) rs.getObject("age_restriction"));
+    // Case-insensitive substring pattern; %, _ and \ in the input are matched literally
+    private static String likePattern(String value) {
+        String escaped = value.toLowerCase()
+                .replace("\\", "\\\\")
+                .replace("%", "\\%")
+                .replace("_", "\\_");
+        return "%" + escaped + "%";
+    }
 
-        // Load ratings for this media
-        entity.setRatings(loadRatingsForMedia(entity.getId()));
+    // Sort key of the given row, computed the same way as SCORE_KEY / YEAR_KEY in SQL
+    private String cursorAfter(MediaSearchQuery.Sort sort, MediaEntryEntity last) {
+        String kind = sort.name().toLowerCase();
+        String id = String.valueOf(last.getId());
+        return switch (sort) {
+            case TITLE -> PageCursor.encode(kind, last.getTitle(), id);
+            case SCORE -> {
+                int count = last.getRatingCount();
+                double score = count > 0 ? last.getRatingSum() / (double) count : 0.0;
+                yield PageCursor.encode(kind, Double.toString(score), id);
+            }
+            case YEAR -> PageCursor.encode(kind,
+                    String.valueOf(last.getReleaseYear() != null ? last.getReleaseYear() : 0), id);
+            default -> PageCursor.encode(kind, id);
+        };
+    }
+
+    // Select list of a projection; DETAIL reads every column the entity has, only STATS sums the like total
+    private static String columnsFor(MediaProjection projection) {
+        if (projection.isDetail()) {
+            return MEDIA_COLUMNS;
+        }
+        StringBuilder columns = new StringBuilder("m.media_id");
+        if (projection.includes(MediaProjection.Field.TITLE)) columns.append(", m.title");
+        if (projection.includes(MediaProjection.Field.DESCRIPTION)) columns.append(", m.description");
+        if (projection.includes(MediaProjection.Field.GENRES)) columns.append(", m.genre_ids");
+        if (projection.includes(MediaProjection.Field.MEDIA_TYPE)) columns.append(", m.media_type");
+        if (projection.includes(MediaProjection.Field.RELEASE_YEAR)) columns.append(", m.release_year");
+        if (projection.includes(MediaProjection.Field.AGE_RESTRICTION)) columns.append(", m.age_restriction");
+        if (hasAggregates(projection)) columns.append(", m.rating_count, m.rating_sum");
+        if (projection.includes(MediaProjection.Field.STATS)) {
+            columns.append(", m.stars_1, m.stars_2, m.stars_3, m.stars_4, m.stars_5, m.favorite_count")
+                    // index-only scan of idx_ratings_media_likes, likes never write the media row
+                    .append(", (SELECT COALESCE(SUM(r.like_count), 0) FROM ratings r WHERE r.media_id = m.media_id)")
+                    .append(" AS like_total");
+        }
+        return columns.toString();
+    }
 
+    private static boolean hasAggregates(MediaProjection projection) {
+        return projection.includes(MediaProjection.Field.AVERAGE_SCORE)
+                || projection.includes(MediaProjection.Field.RATING_COUNT)
+                || projection.includes(MediaProjection.Field.STATS);
+    }
+
+    private MediaEntryEntity mapResultSetToEntity(Connection conn, ResultSet rs, MediaProjection projection) throws SQLException {
+        MediaEntryEntity entity = new MediaEntryEntity();
+        entity.setId(rs.getInt("media_id"));
+        if (projection.includes(MediaProjection.Field.TITLE)) {
+            entity.setTitle(rs.getString("title"));
+        }
+        if (projection.includes(MediaProjection.Field.DESCRIPTION)) {
+            entity.setDescription(rs.getString("description"));
+        }
+        if (projection.includes(MediaProjection.Field.GENRES)) {
+            entity.setGenres(genres.namesFor(conn, rs.getArray("genre_ids")));
+        }
+        if (projection.includes(MediaProjection.Field.MEDIA_TYPE)) {
+            entity.setMediaType(rs.getString("media_type"));
+        }
+        if (projection.includes(MediaProjection.Field.RELEASE_YEAR)) {
+            entity.setReleaseYear((Integer) rs.getObject("release_year"));
+        }
+        if (projection.includes(MediaProjection.Field.AGE_RESTRICTION)) {
+            entity.setAgeRestriction((Integer) rs.getObject("age_restriction"));
+        }
+        if (hasAggregates(projection)) {
+            entity.setRatingCount(rs.getInt("rating_count"));
+            entity.setRatingSum(rs.getInt("rating_sum"));
+        }
+        if (projection.includes(MediaProjection.Field.STATS)) {
+            entity.setStarCounts(new int[]{
+                    rs.getInt("stars_1"), rs.getInt("stars_2"), rs.getInt("stars_3"),
+                    rs.getInt("stars_4"), rs.getInt("stars_5")
+            });
+            entity.setFavoriteCount(rs.getInt("favorite_count"));
+            if (!projection.isDetail()) {
+                entity.setLikeTotal(rs.getInt("like_total"));
+            }
+        }
+        if (projection.isDetail()) {
+            entity.setCreatorUserId((Integer) rs.getObject("creator_user_id"));
+            entity.setVersion(rs.getInt("version"));
+        }
         return entity;
     }
 
-    private List<RatingEntity> loadRatingsForMedia(int mediaId) {
-        String sql = "SELECT rating_id, user_id, media_id, rating_value, comment, confirmed, created_at FROM ratings WHERE media_id = ?";
-        List<RatingEntity> ratings = new ArrayList<>();
+    /**
+     * Loads the ratings of all given media entries with a single query (media_id = ANY(?))
+     * instead of one query per entry, and attaches them to the entities. Skipped entirely if the
+     * projection does not include the ratings.
+     * Uses the caller's connection so a single operation never holds two pooled connections.
+     * A failed load fails the whole read, so no caller (or cache) takes the entries for unrated ones.
+     */
+    private void attachRatings(Connection conn, List<MediaEntryEntity> entries, MediaProjection projection)
+            throws SQLException {
+        if (entries.isEmpty() || !projection.includes(MediaProjection.Field.RATINGS)) {
+            return;
+        }
+        String sql = """
+            SELECT rating_id, user_id, media_id, rating_value, comment, confirmed, created_at
+            FROM ratings WHERE media_id = ANY(?) ORDER BY media_id, rating_id
+            """;
 
-        try (Connection conn = DatabaseConnection.getInstance().getConnection();
-             PreparedStatement stmt = conn.prepareStatement(sql)) {
+        Integer[] mediaIds = entries.stream().map(MediaEntryEntity::getId).toArray(Integer[]::new);
+        Map<Integer, List<RatingEntity>> ratingsByMedia = new HashMap<>();
 
-            stmt.setInt(1, mediaId);
+        try (PreparedStatement stmt = conn.prepareStatement(sql)) {
+
+            stmt.setArray(1, conn.createArrayOf("integer", mediaIds));
             ResultSet rs = stmt.executeQuery();
 
             while (rs.next()) {
@@ -235,13 +733,12 @@ public class MediaRepository {
                     rating.setTimestamp(ts.getTime());
                 }
 
-                ratings.add(rating);
+                ratingsByMedia.computeIfAbsent(rating.getMediaId(), k -> new ArrayList<>()).add(rating);
             }
-        } catch (SQLException e) {
-            // Log error but don't fail the whole operation
-            System.err.println("Warning: Failed to load ratings for media " + mediaId + ": " + e.getMessage());
         }
 
-        return ratings;
+        for (MediaEntryEntity entry : entries) {
+            entry.setRatings(ratingsByMedia.getOrDefault(entry.getId(), List.of()));
+        }
     }
 }
@@ -0,0 +1,22 @@
+package at.technikum.application.mrp.media;
+
+import at.technikum.application.common.PageDto;
+import at.technikum.application.mrp.media.entity.MediaEntryEntity;
+
+import java.util.Map;
+
+/**
+ * Answers GET /media searches. {@link MediaRepository} runs them as SQL against PostgreSQL,
+ * {@link InMemoryMediaIndex} from an in-process index (MEDIA_SEARCH_ENGINE=memory).
+ */
+public interface MediaSearchEngine {
+
+    PageDto<MediaEntryEntity> search(MediaSearchQuery query);
+
+    /**
+     * Counts per value of each facet in {@code query.getFacets()} over all media matching the query's
+     * filters (cursor and limit are ignored), keyed by the facet's parameter name. Values are ordered by
+     * count, most frequent first; media without a value for a facet are not counted in it.
+     */
+    Map<String, Map<String, Long>> facets(MediaSearchQuery query);
+}
@@ -0,0 +1,185 @@
+package at.technikum.application.mrp.media;
+
+import java.util.ArrayList;
+import java.util.EnumSet;
+import java.util.List;
+import java.util.Locale;
+import java.util.Set;
+import java.util.TreeSet;
+
+/**
+ * Filter, sort order and page position of a media search. Null filters are ignored.
+ */
+public class MediaSearchQuery {
+
+    /**
+     * Sort modes. Every mode ends with media_id as tie-breaker, so the order is total and a page
+     * can continue after the (sort key, media_id) of the previous page's last row.
+     */
+    public enum Sort {
+        ID, TITLE, SCORE, YEAR,
+        // ts_rank of the full-text match, only meaningful with TextMode.FULL_TEXT
+        RELEVANCE;
+
+        // Unknown or missing values sort by id; "rating" is accepted as an alias for score
+        public static Sort fromString(String value) {
+            if (value == null) return ID;
+            return switch (value.trim().toLowerCase()) {
+                case "title" -> TITLE;
+                case "score", "rating" -> SCORE;
+                case "year" -> YEAR;
+                case "relevance" -> RELEVANCE;
+                default -> ID;
+            };
+        }
+    }
+
+    /**
+     * How the free-text {@code text} is matched against title and description.
+     */
+    public enum TextMode {
+        // word/prefix match on the search_vector GIN index, can be ranked
+        FULL_TEXT,
+        // case-insensitive LIKE '%text%', backed by the pg_trgm indexes where available
+        SUBSTRING
+    }
+
+    /**
+     * How a multi-genre filter combines: ANY matches media with at least one of the genres, ALL only
+     * media that have every one of them.
+     */
+    public enum GenreMatch {
+        ANY, ALL;
+
+        public static GenreMatch fromString(String value) {
+            return value != null && value.trim().equalsIgnoreCase("all") ? ALL : ANY;
+        }
+    }
+
+    /**
+     * Histograms that can be requested next to a result page ({@code facets=genre,mediaType}).
+     * The names are the query parameters of the matching filters.
+     */
+    public enum Facet {
+        GENRE("genre"), MEDIA_TYPE("mediaType"), RELEASE_YEAR("releaseYear"), AGE_RESTRICTION("ageRestriction");
+
+        private final String paramName;
+
+        Facet(String paramName) {
+            this.paramName = paramName;
+        }
+
+        public String getParamName() {
+            return paramName;
+        }
+
+        // "genre, mediaType" -> [GENRE, MEDIA_TYPE]; unknown names are rejected
+        public static Set<Facet> parseList(String value) {
+            Set<Facet> facets = EnumSet.noneOf(Facet.class);
+            if (value == null) return facets;
+            for (String part : value.split(",")) {
+                if (part.isBlank()) continue;
+                Facet facet = null;
+                for (Facet candidate : values()) {
+                    if (candidate.paramName.equalsIgnoreCase(part.trim())) facet = candidate;
+                }
+                if (facet == null) {
+                    throw new IllegalArgumentException("Unknown facet: " + part.trim());
+                }
+                facets.add(facet);
+            }
+            return facets;
+        }
+    }
+
+    private String text;
+    private TextMode textMode = TextMode.SUBSTRING;
+    private String title;
+    private List<String> genres = List.of();
+    private GenreMatch genreMatch = GenreMatch.ANY;
+    private String mediaType;
+    private Integer releaseYear;
+    private Integer ageRestriction;
+    private Integer minRating;
+    private Sort sort = Sort.ID;
+    private String cursor;
+    private int limit = 20;
+    private MediaProjection projection = MediaProjection.DETAIL;
+    private Set<Facet> facets = EnumSet.noneOf(Facet.class);
+
+    public String getText() { return text; }
+    public MediaSearchQuery setText(String text) { this.text = text; return this; }
+    public TextMode getTextMode() { return textMode; }
+    public MediaSearchQuery setTextMode(TextMode textMode) { this.textMode = textMode != null ? textMode : TextMode.SUBSTRING; return this; }
+    public String getTitle() { return title; }
+    public MediaSearchQuery setTitle(String title) { this.title = title; return this; }
+    public List<String> getGenres() { return genres; }
+    public MediaSearchQuery setGenres(List<String> genres) { this.genres = genres != null ? List.copyOf(genres) : List.of(); return this; }
+    public GenreMatch getGenreMatch() { return genreMatch; }
+    public MediaSearchQuery setGenreMatch(GenreMatch genreMatch) { this.genreMatch = genreMatch != null ? genreMatch : GenreMatch.ANY; return this; }
+    public String getMediaType() { return mediaType; }
+    public MediaSearchQuery setMediaType(String mediaType) { this.mediaType = mediaType; return this; }
+    public Integer getReleaseYear() { return releaseYear; }
+    public MediaSearchQuery setReleaseYear(Integer releaseYear) { this.releaseYear = releaseYear; return this; }
+    public Integer getAgeRestriction() { return ageRestriction; }
+    public MediaSearchQuery setAgeRestriction(Integer ageRestriction) { this.ageRestriction = ageRestriction; return this; }
+    public Integer getMinRating() { return minRating; }
+    public MediaSearchQuery setMinRating(Integer minRating) { this.minRating = minRating; return this; }
+    public Sort getSort() { return sort; }
+    public MediaSearchQuery setSort(Sort sort) { this.sort = sort != null ? sort : Sort.ID; return this; }
+    public String getCursor() { return cursor; }
+    public MediaSearchQuery setCursor(String cursor) { this.cursor = cursor; return this; }
+    public int getLimit() { return limit; }
+
+    public MediaSearchQuery setLimit(int limit) {
+        if (limit < 1) {
+            throw new IllegalArgumentException("limit must be at least 1");
+        }
+        this.limit = limit;
+        return this;
+    }
+
+    public MediaProjection getProjection() { return projection; }
+    public MediaSearchQuery setProjection(MediaProjection projection) { this.projection = projection != null ? projection : MediaProjection.DETAIL; return this; }
+
+    public Set<Facet> getFacets() { return facets; }
+    public MediaSearchQuery setFacets(Set<Facet> facets) { this.facets = facets != null && !facets.isEmpty() ? EnumSet.copyOf(facets) : EnumSet.noneOf(Facet.class); return this; }
+
+    /**
+     * Cache key of the facet counts of this query: the filters in normalized form (case, blanks and
+     * genre order do not matter) plus the requested facets. Sort, cursor, limit and projection do not
+     * change the counts and are left out.
+     */
+    public String facetKey() {
+        Set<String> genreKeys = new TreeSet<>();
+        for (String genre : genres) {
+            genreKeys.add(GenreDictionary.key(genre));
+        }
+        return String.join("|",
+                String.valueOf(normalized(text)), String.valueOf(textMode), String.valueOf(normalized(title)),
+                String.join(",", genreKeys), genreKeys.size() > 1 ? String.valueOf(genreMatch) : "",
+                String.valueOf(normalized(mediaType)), String.valueOf(releaseYear), String.valueOf(ageRestriction),
+                String.valueOf(minRating), facets.toString());
+    }
+
+    private static String normalized(String value) {
+        return value == null || value.isBlank() ? null : value.trim().toLowerCase(Locale.ROOT);
+    }
+
+    // Lower-cased runs of letters and digits, the unit both text modes agree on
+    static List<String> words(String text) {
+        List<String> words = new ArrayList<>();
+        if (text == null) return words;
+        for (String part : text.toLowerCase(Locale.ROOT).split("[^\\p{L}\\p{N}]+")) {
+            if (!part.isEmpty()) words.add(part);
+        }
+        return words;
+    }
+
+    @Override
+    public String toString() {
+        return "MediaSearchQuery{text=" + text + ", textMode=" + textMode + ", title=" + title
+                + ", genres=" + genres + ", genreMatch=" + genreMatch + ", mediaType=" + mediaType + ", releaseYear=" + releaseYear + ", ageRestriction=" + ageRestriction + ", minRating=" + minRating
+                + ", sort=" + sort + ", cursor=" + cursor + ", limit=" + limit + ", projection=" + projection + ", facets=" + facets + "}";
+    }
+}
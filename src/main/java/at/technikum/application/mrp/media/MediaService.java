@@ -1,26 +1,89 @@
 package at.technikum.application.mrp.media;
 
+import at.technikum.application.common.EnvConfig;
+import at.technikum.application.common.PageDto;
+import at.technikum.application.common.PageLimits;
+import at.technikum.application.common.WTinyLfuCache;
+import at.technikum.application.mrp.media.dto.MediaBatchDto;
 import at.technikum.application.mrp.media.dto.MediaDetailDto;
+import at.technikum.application.mrp.media.dto.MediaImportResultDto;
+import at.technikum.application.mrp.media.dto.MediaStatsDto;
 import at.technikum.application.mrp.media.dto.MediaUpsertDto;
 import at.technikum.application.mrp.rating.dto.RatingDto;
 import at.technikum.application.mrp.media.entity.MediaEntryEntity;
 import at.technikum.application.mrp.user.UserRepository;
 import at.technikum.application.mrp.user.entity.UserEntity;
 
+import java.io.IOException;
+import java.io.InputStream;
 import java.util.ArrayList;
+import java.util.HashSet;
+import java.util.LinkedHashSet;
 import java.util.List;
 import java.util.Map;
 import java.util.Optional;
+import java.util.Set;
+import java.util.function.Function;
+import java.util.regex.Pattern;
 import java.util.stream.Collectors;
 
 public class MediaService {
 
+    // upper bound for one multi-get, GET ?ids=... or POST /media/batch
+    static final int MAX_BATCH_IDS = 1000;
+
+    // words with the punctuation of ordinary titles and sentences
+    private static final Pattern PLAIN_TEXT = Pattern.compile("[\\p{L}\\p{N}\\s'’:,.!?&-]+");
+
+    private static final MediaProjection STATS = MediaProjection.of(MediaProjection.Field.STATS);
+
     private final MediaRepository mediaRepository;
     private final UserRepository userRepository;
+    private final PageLimits pageLimits;
+    private final MediaSearchEngine searchEngine;
+    // facet counts by MediaSearchQuery.facetKey(), null = facets are computed on every request
+    private final WTinyLfuCache<String, Map<String, Map<String, Long>>> facetCache;
+    private final MediaImporter importer;
 
     public MediaService(MediaRepository mediaRepository, UserRepository userRepository) {
+        this(mediaRepository, userRepository, PageLimits.fromEnvironment("MEDIA_PAGE", 20, 100));
+    }
+
+    public MediaService(MediaRepository mediaRepository, UserRepository userRepository, PageLimits pageLimits) {
+        this(mediaRepository, userRepository, pageLimits, mediaRepository);
+    }
+
+    // searchEngine answers search(); everything else always goes to the repository
+    public MediaService(MediaRepository mediaRepository, UserRepository userRepository, PageLimits pageLimits,
+                        MediaSearchEngine searchEngine) {
+        this(mediaRepository, userRepository, pageLimits, searchEngine, null);
+    }
+
+    // facetCache must be cleared on media writes (see MrpApplication)
+    public MediaService(MediaRepository mediaRepository, UserRepository userRepository, PageLimits pageLimits,
+                        MediaSearchEngine searchEngine,
+                        WTinyLfuCache<String, Map<String, Map<String, Long>>> facetCache) {
         this.mediaRepository = mediaRepository;
         this.userRepository = userRepository;
+        this.pageLimits = pageLimits;
+        this.searchEngine = searchEngine;
+        this.facetCache = facetCache;
+        this.importer = new MediaImporter(mediaRepository, MediaImporter.batchSizeFromEnvironment());
+    }
+
+    /**
+     * Reads MEDIA_FACET_CACHE_MAX_ENTRIES (default 1000) and MEDIA_FACET_CACHE_TTL_MS (default 60 seconds).
+     * Returns null if MEDIA_FACET_CACHE_MAX_ENTRIES is 0 (cache disabled).
+     */
+    public static WTinyLfuCache<String, Map<String, Map<String, Long>>> facetCacheFromEnvironment() {
+        long maxEntries = EnvConfig.longFromEnv("MEDIA_FACET_CACHE_MAX_ENTRIES", 1_000);
+        if (maxEntries <= 0) {
+            return null;
+        }
+        long ttlMs = EnvConfig.longFromEnv("MEDIA_FACET_CACHE_TTL_MS", 60_000);
+        // weight = number of facet values, so a few broad searches cannot take the whole cache
+        return new WTinyLfuCache<>((int) Math.min(maxEntries, Integer.MAX_VALUE), maxEntries * 50, ttlMs, ttlMs,
+                facets -> 1 + facets.values().stream().mapToInt(Map::size).sum());
     }
 
     // Auth helpers
@@ -48,23 +111,95 @@ public class MediaService {
         return toDetailDto(saved);
     }
 
+    // Bulk import (NDJSON or CSV); the importing user becomes the creator of every entry
+    public MediaImportResultDto importMedia(int userId, InputStream in, MediaImporter.Format format) throws IOException {
+        return importer.importFrom(in, format, userId);
+    }
+
     // Get by id (auth already checked in controller)
     public Optional<MediaDetailDto> getById(int id) {
         return mediaRepository.findById(id).map(this::toDetailDto);
     }
 
+    // Get by id with only the projected fields, read without the cache and the columns nobody asked for
+    public Optional<Map<String, Object>> getById(int id, MediaProjection projection) {
+        return mediaRepository.findById(id, projection).map(projection::render);
+    }
+
+    // Count, average, star histogram, like and favorite totals from the counters on the media row
+    public Optional<MediaStatsDto> getStats(int id) {
+        return mediaRepository.findById(id, STATS).map(MediaProjection::stats);
+    }
+
+    // Multi-get in one batched query; unknown ids are reported in "missing" instead of failing the batch
+    public MediaBatchDto<MediaDetailDto> getByIds(List<Integer> ids) {
+        return getByIds(ids, MediaProjection.DETAIL, this::toDetailDto);
+    }
+
+    public MediaBatchDto<Map<String, Object>> getByIds(List<Integer> ids, MediaProjection projection) {
+        return getByIds(ids, projection, projection::render);
+    }
+
+    private <T> MediaBatchDto<T> getByIds(List<Integer> ids, MediaProjection projection,
+                                          Function<MediaEntryEntity, T> mapper) {
+        List<Integer> distinct = validateBatchIds(ids);
+        List<MediaEntryEntity> found = mediaRepository.findByIds(distinct, projection);
+        // findByIds keeps the request order and skips unknown ids
+        List<T> items = new ArrayList<>(found.size());
+        Set<Integer> foundIds = new HashSet<>();
+        for (MediaEntryEntity entity : found) {
+            items.add(mapper.apply(entity));
+            foundIds.add(entity.getId());
+        }
+        List<Integer> missing = distinct.stream().filter(id -> !foundIds.contains(id)).toList();
+        return new MediaBatchDto<>(items, missing);
+    }
+
+    // Parses "1,2,3" from GET /media?ids=...
+    public static List<Integer> parseIds(String value) {
+        List<Integer> ids = new ArrayList<>();
+        for (String part : value.split(",")) {
+            if (part.isBlank()) continue;
+            try {
+                ids.add(Integer.parseInt(part.trim()));
+            } catch (NumberFormatException e) {
+                throw new IllegalArgumentException("Invalid media id: " + part.trim());
+            }
+        }
+        return ids;
+    }
+
+    // Drops duplicates (first occurrence wins) and enforces MAX_BATCH_IDS
+    private static List<Integer> validateBatchIds(List<Integer> ids) {
+        if (ids == null || ids.isEmpty()) {
+            throw new IllegalArgumentException("ids must contain at least one media id");
+        }
+        LinkedHashSet<Integer> distinct = new LinkedHashSet<>();
+        for (Integer id : ids) {
+            if (id == null || id < 0) {
+                throw new IllegalArgumentException("Invalid media id: " + id);
+            }
+            distinct.add(id);
+        }
+        if (distinct.size() > MAX_BATCH_IDS) {
+            throw new IllegalArgumentException("At most " + MAX_BATCH_IDS + " ids per request");
+        }
+        return new ArrayList<>(distinct);
+    }
+
     // Update (only by owner)
     public Optional<MediaDetailDto> update(int userId, int id, MediaUpsertDto dto) {
+        return update(userId, id, dto, null);
+    }
+
+    // Conditional update: expectedVersion (from If-Match) must still be current, null = unconditional.
+    // Owner and version are checked by the UPDATE itself, there is no read before the write.
+    public Optional<MediaDetailDto> update(int userId, int id, MediaUpsertDto dto, Integer expectedVersion) {
         validateUpsert(dto);
-        Optional<MediaEntryEntity> existingOpt = mediaRepository.findById(id);
-        if (existingOpt.isEmpty()) return Optional.empty();
-        MediaEntryEntity existing = existingOpt.get();
-        if (!existing.getCreatorUserId().equals(userId)) {
-            throw new SecurityException("Only creator can update this entry");
-        }
-        applyUpsert(existing, dto);
-        MediaEntryEntity updated = mediaRepository.update(existing);
-        return Optional.ofNullable(updated).map(this::toDetailDto);
+        MediaEntryEntity changes = new MediaEntryEntity();
+        changes.setId(id);
+        applyUpsert(changes, dto);
+        return mediaRepository.updateIfMatch(changes, userId, expectedVersion).map(this::toDetailDto);
     }
 
     // Delete (only by owner)
@@ -78,20 +213,83 @@ public class MediaService {
         return mediaRepository.delete(id);
     }
 
-    // Search & filter
-    public List<MediaDetailDto> search(Map<String, String> query) {
-        String title = normalize(query.get("title"));
-        String genre = normalize(query.get("genre"));
-        String mediaType = normalize(query.get("mediaType"));
-        Integer releaseYear = parseInt(query.get("releaseYear"));
-        Integer ageRestriction = parseInt(query.get("ageRestriction"));
-        Integer minRating = parseInt(query.get("rating"));
+    // Search & filter, one page at a time (limit is capped, cursor comes from the previous page)
+    public PageDto<MediaDetailDto> search(Map<String, String> query) {
+        MediaSearchQuery searchQuery = toSearchQuery(query);
+        return withFacets(searchEngine.search(searchQuery).map(this::toDetailDto), searchQuery);
+    }
+
+    // Search with only the projected fields in each item (view=summary, fields=...)
+    public PageDto<Map<String, Object>> search(Map<String, String> query, MediaProjection projection) {
+        MediaSearchQuery searchQuery = toSearchQuery(query).setProjection(projection);
+        return withFacets(searchEngine.search(searchQuery).map(projection::render), searchQuery);
+    }
+
+    /**
+     * Adds the requested facet counts. They do not depend on cursor, limit, sort or projection, so all
+     * pages of a search share one cache entry. Searches with a minimum rating are not cached because
+     * every rating can change their counts.
+     */
+    private <T> PageDto<T> withFacets(PageDto<T> page, MediaSearchQuery query) {
+        if (query.getFacets().isEmpty()) {
+            return page;
+        }
+        if (facetCache == null || query.getMinRating() != null) {
+            page.setFacets(searchEngine.facets(query));
+        } else {
+            page.setFacets(facetCache.get(query.facetKey(), key -> searchEngine.facets(query)));
+        }
+        return page;
+    }
+
+    private MediaSearchQuery toSearchQuery(Map<String, String> query) {
+        String text = normalize(query.get("q"));
+        MediaSearchQuery.TextMode textMode = chooseTextMode(text);
         String sortBy = normalize(query.get("sortBy"));
+        MediaSearchQuery.Sort sort = sortBy == null && textMode == MediaSearchQuery.TextMode.FULL_TEXT
+                ? MediaSearchQuery.Sort.RELEVANCE
+                : MediaSearchQuery.Sort.fromString(sortBy);
 
-        return mediaRepository.search(title, genre, mediaType, releaseYear, ageRestriction, minRating, sortBy)
-                .stream()
-                .map(this::toDetailDto)
-                .collect(Collectors.toList());
+        return new MediaSearchQuery()
+                .setText(text)
+                .setTextMode(textMode)
+                .setTitle(normalize(query.get("title")))
+                .setGenres(parseGenres(query.get("genre")))
+                .setGenreMatch(MediaSearchQuery.GenreMatch.fromString(query.get("genreMatch")))
+                .setMediaType(normalize(query.get("mediaType")))
+                .setReleaseYear(parseInt(query.get("releaseYear")))
+                .setAgeRestriction(parseInt(query.get("ageRestriction")))
+                .setMinRating(parseInt(query.get("rating")))
+                .setSort(sort)
+                .setFacets(MediaSearchQuery.Facet.parseList(query.get("facets")))
+                .setCursor(normalize(query.get("cursor")))
+                .setLimit(pageLimits.resolve(parseInt(query.get("limit"))));
+    }
+
+    /**
+     * Picks the matching strategy from the shape of the search text: plain words, at least one of them
+     * three characters or longer, go through the full-text index and can be ranked. Only short fragments
+     * ("up"), text without letters or digits and text with symbols that only make sense literally
+     * ("100%", "#1", "c++") are matched as substring instead (trigram index).
+     */
+    static MediaSearchQuery.TextMode chooseTextMode(String text) {
+        if (text == null || !PLAIN_TEXT.matcher(text).matches()) {
+            return MediaSearchQuery.TextMode.SUBSTRING;
+        }
+        List<String> words = MediaSearchQuery.words(text);
+        boolean wholeWords = words.stream().anyMatch(w -> w.length() >= 3);
+        return wholeWords ? MediaSearchQuery.TextMode.FULL_TEXT : MediaSearchQuery.TextMode.SUBSTRING;
+    }
+
+    // "Action, Sci-Fi" -> [Action, Sci-Fi]; blank entries are dropped
+    private List<String> parseGenres(String value) {
+        if (value == null) return List.of();
+        List<String> genres = new ArrayList<>();
+        for (String part : value.split(",")) {
+            String genre = normalize(part);
+            if (genre != null) genres.add(genre);
+        }
+        return genres;
     }
 
     private String normalize(String v) {
@@ -109,7 +307,8 @@ public class MediaService {
         }
     }
 
-    private void validateUpsert(MediaUpsertDto dto) {
+    // also used by MediaImporter for every imported row
+    static void validateUpsert(MediaUpsertDto dto) {
         if (dto == null) throw new IllegalArgumentException("Body is required");
         if (dto.getTitle() == null || dto.getTitle().isBlank()) {
             throw new IllegalArgumentException("title is required");
@@ -124,7 +323,7 @@ public class MediaService {
         // Optional: further field validations can be added here
     }
 
-    private void applyUpsert(MediaEntryEntity e, MediaUpsertDto dto) {
+    static void applyUpsert(MediaEntryEntity e, MediaUpsertDto dto) {
         e.setTitle(dto.getTitle());
         e.setDescription(dto.getDescription());
         e.setMediaType(dto.getMediaType());
@@ -137,7 +336,7 @@ public class MediaService {
         List<RatingDto> ratings = e.getRatings() == null ? List.of() : e.getRatings().stream()
                 .map(r -> new RatingDto(r.getUserId(), r.getScore()))
                 .collect(Collectors.toList());
-        return new MediaDetailDto(
+        MediaDetailDto dto = new MediaDetailDto(
                 e.getId(),
                 e.getTitle(),
                 e.getDescription(),
@@ -148,5 +347,7 @@ public class MediaService {
                 ratings,
                 e.getAverageScore()
         );
+        dto.setVersion(e.getVersion());
+        return dto;
     }
 }
@@ -0,0 +1,157 @@
+package at.technikum.application.mrp.media;
+
+import java.util.Arrays;
+import java.util.BitSet;
+
+/**
+ * Sorted set of media ids in compressed form: every id is stored as the gap to its predecessor,
+ * written as a varint (7 bits per byte, high bit = more bytes follow). Media ids are dense, so the
+ * gaps of common terms fit in one byte instead of four.
+ *
+ * Appending an id larger than the current last one is O(1), which is the normal case because new
+ * media get increasing ids. Inserting or removing elsewhere re-encodes the list.
+ * Not thread-safe; InMemoryMediaIndex only touches it under its lock.
+ */
+final class PostingList {
+
+    private byte[] bytes = new byte[4];
+    private int length;
+    private int size;
+    private int last = -1;
+
+    boolean add(int id) {
+        if (id < 0) {
+            throw new IllegalArgumentException("id must not be negative");
+        }
+        if (id > last) {
+            append(id);
+            return true;
+        }
+        int[] ids = toArray();
+        int pos = Arrays.binarySearch(ids, id);
+        if (pos >= 0) {
+            return false;
+        }
+        int insertAt = -pos - 1;
+        int[] updated = new int[ids.length + 1];
+        System.arraycopy(ids, 0, updated, 0, insertAt);
+        updated[insertAt] = id;
+        System.arraycopy(ids, insertAt, updated, insertAt + 1, ids.length - insertAt);
+        rebuild(updated);
+        return true;
+    }
+
+    boolean remove(int id) {
+        if (id > last) {
+            return false;
+        }
+        int[] ids = toArray();
+        int pos = Arrays.binarySearch(ids, id);
+        if (pos < 0) {
+            return false;
+        }
+        int[] updated = new int[ids.length - 1];
+        System.arraycopy(ids, 0, updated, 0, pos);
+        System.arraycopy(ids, pos + 1, updated, pos, ids.length - pos - 1);
+        rebuild(updated);
+        return true;
+    }
+
+    boolean contains(int id) {
+        if (id > last) {
+            return false;
+        }
+        int pos = 0;
+        int current = 0;
+        while (pos < length) {
+            int gap = 0;
+            int shift = 0;
+            byte b;
+            do {
+                b = bytes[pos++];
+                gap |= (b & 0x7F) << shift;
+                shift += 7;
+            } while (b < 0);
+            current += gap;
+            if (current >= id) {
+                return current == id;
+            }
+        }
+        return false;
+    }
+
+    // Sets the bit of every id in the list
+    void addTo(BitSet bits) {
+        int pos = 0;
+        int current = 0;
+        while (pos < length) {
+            int gap = 0;
+            int shift = 0;
+            byte b;
+            do {
+                b = bytes[pos++];
+                gap |= (b & 0x7F) << shift;
+                shift += 7;
+            } while (b < 0);
+            current += gap;
+            bits.set(current);
+        }
+    }
+
+    int[] toArray() {
+        int[] ids = new int[size];
+        int pos = 0;
+        int current = 0;
+        for (int i = 0; i < size; i++) {
+            int gap = 0;
+            int shift = 0;
+            byte b;
+            do {
+                b = bytes[pos++];
+                gap |= (b & 0x7F) << shift;
+                shift += 7;
+            } while (b < 0);
+            current += gap;
+            ids[i] = current;
+        }
+        return ids;
+    }
+
+    int size() {
+        return size;
+    }
+
+    boolean isEmpty() {
+        return size == 0;
+    }
+
+    // Encoded size in bytes
+    int byteSize() {
+        return length;
+    }
+
+    private void append(int id) {
+        // the first gap is the id itself (distance from 0)
+        int gap = size == 0 ? id : id - last;
+        if (length + 5 > bytes.length) {
+            bytes = Arrays.copyOf(bytes, Math.max(bytes.length * 2, length + 5));
+        }
+        while ((gap & ~0x7F) != 0) {
+            bytes[length++] = (byte) ((gap & 0x7F) | 0x80);
+            gap >>>= 7;
+        }
+        bytes[length++] = (byte) gap;
+        last = id;
+        size++;
+    }
+
+    private void rebuild(int[] ids) {
+        bytes = new byte[Math.max(4, ids.length + 4)];
+        length = 0;
+        size = 0;
+        last = -1;
+        for (int id : ids) {
+            append(id);
+        }
+    }
+}
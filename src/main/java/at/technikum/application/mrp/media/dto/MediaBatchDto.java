@@ -0,0 +1,23 @@
+package at.technikum.application.mrp.media.dto;
+
+import java.util.List;
+
+/**
+ * Result of a multi-get: the found entries in request order plus the requested ids that do not exist.
+ */
+public class MediaBatchDto<T> {
+    private List<T> items;
+    private List<Integer> missing;
+
+    public MediaBatchDto() {}
+
+    public MediaBatchDto(List<T> items, List<Integer> missing) {
+        this.items = items;
+        this.missing = missing;
+    }
+
+    public List<T> getItems() { return items; }
+    public void setItems(List<T> items) { this.items = items; }
+    public List<Integer> getMissing() { return missing; }
+    public void setMissing(List<Integer> missing) { this.missing = missing; }
+}
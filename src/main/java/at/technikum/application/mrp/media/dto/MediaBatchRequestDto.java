@@ -0,0 +1,10 @@
+package at.technikum.application.mrp.media.dto;
+
+import java.util.List;
+
+public class MediaBatchRequestDto {
+    private List<Integer> ids;
+
+    public List<Integer> getIds() { return ids; }
+    public void setIds(List<Integer> ids) { this.ids = ids; }
+}
@@ -1,6 +1,7 @@
 package at.technikum.application.mrp.media.dto;
 
 import at.technikum.application.mrp.rating.dto.RatingDto;
+import com.fasterxml.jackson.annotation.JsonIgnore;
 
 import java.util.List;
 
@@ -14,6 +15,7 @@ public class MediaDetailDto {
     private Integer ageRestriction;
     private List<RatingDto> ratings;
     private double averageScore;
+    private Integer version;
 
     public MediaDetailDto() {}
 
@@ -48,5 +50,9 @@ public class MediaDetailDto {
     public void setRatings(List<RatingDto> ratings) { this.ratings = ratings; }
     public double getAverageScore() { return averageScore; }
     public void setAverageScore(double averageScore) { this.averageScore = averageScore; }
-}
 
+    // sent as ETag header, not in the body
+    @JsonIgnore
+    public Integer getVersion() { return version; }
+    public void setVersion(Integer version) { this.version = version; }
+}
@@ -0,0 +1,41 @@
+package at.technikum.application.mrp.media.dto;
+
+import java.util.Map;
+
+/**
+ * Rating statistics of a media entry, built from the counters on the media row (no ratings are read).
+ * The histogram maps "1".."5" to the number of ratings with that many stars.
+ */
+public class MediaStatsDto {
+    private Integer mediaId;
+    private int ratingCount;
+    private double averageScore;
+    private Map<String, Integer> histogram;
+    private int likeCount;
+    private int favoriteCount;
+
+    public MediaStatsDto() {}
+
+    public MediaStatsDto(Integer mediaId, int ratingCount, double averageScore, Map<String, Integer> histogram,
+                         int likeCount, int favoriteCount) {
+        this.mediaId = mediaId;
+        this.ratingCount = ratingCount;
+        this.averageScore = averageScore;
+        this.histogram = histogram;
+        this.likeCount = likeCount;
+        this.favoriteCount = favoriteCount;
+    }
+
+    public Integer getMediaId() { return mediaId; }
+    public void setMediaId(Integer mediaId) { this.mediaId = mediaId; }
+    public int getRatingCount() { return ratingCount; }
+    public void setRatingCount(int ratingCount) { this.ratingCount = ratingCount; }
+    public double getAverageScore() { return averageScore; }
+    public void setAverageScore(double averageScore) { this.averageScore = averageScore; }
+    public Map<String, Integer> getHistogram() { return histogram; }
+    public void setHistogram(Map<String, Integer> histogram) { this.histogram = histogram; }
+    public int getLikeCount() { return likeCount; }
+    public void setLikeCount(int likeCount) { this.likeCount = likeCount; }
+    public int getFavoriteCount() { return favoriteCount; }
+    public void setFavoriteCount(int favoriteCount) { this.favoriteCount = favoriteCount; }
+}
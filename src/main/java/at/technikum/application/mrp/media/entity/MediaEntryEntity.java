@@ -21,6 +21,17 @@ public class MediaEntryEntity {
     private List<RatingEntity> ratings = new ArrayList<>();
     private Set<Integer> favoriteUserIds = new HashSet<>();
 
+    // Rating aggregates kept on the media row; null when the entity was not loaded from the database
+    private Integer ratingCount;
+    private Integer ratingSum;
+    private int[] starCounts = new int[5];
+    // likes on all ratings of the entry, summed from the ratings (only read for the stats field, not DETAIL)
+    private int likeTotal;
+    // number of users who favorited it, also kept on the media row
+    private int favoriteCount;
+    // optimistic locking: incremented by every update, sent as ETag
+    private Integer version;
+
     public Integer getId() { return id; }
     public void setId(Integer id) { this.id = id; }
 
@@ -51,7 +62,30 @@ public class MediaEntryEntity {
     public Set<Integer> getFavoriteUserIds() { return favoriteUserIds; }
     public void setFavoriteUserIds(Set<Integer> favoriteUserIds) { this.favoriteUserIds = favoriteUserIds != null ? new HashSet<>(favoriteUserIds) : new HashSet<>(); }
 
+    // Falls back to the attached ratings when no aggregates were loaded
+    public int getRatingCount() { return ratingCount != null ? ratingCount : (ratings == null ? 0 : ratings.size()); }
+    public void setRatingCount(Integer ratingCount) { this.ratingCount = ratingCount; }
+
+    public Integer getRatingSum() { return ratingSum; }
+    public void setRatingSum(Integer ratingSum) { this.ratingSum = ratingSum; }
+
+    // Number of ratings per star, index 0 = 1 star
+    public int[] getStarCounts() { return starCounts; }
+    public void setStarCounts(int[] starCounts) { this.starCounts = starCounts != null ? starCounts.clone() : new int[5]; }
+
+    public int getLikeTotal() { return likeTotal; }
+    public void setLikeTotal(int likeTotal) { this.likeTotal = likeTotal; }
+
+    public int getFavoriteCount() { return favoriteCount; }
+    public void setFavoriteCount(int favoriteCount) { this.favoriteCount = favoriteCount; }
+
+    public Integer getVersion() { return version; }
+    public void setVersion(Integer version) { this.version = version; }
+
     public double getAverageScore() {
+        if (ratingCount != null && ratingSum != null) {
+            return ratingCount == 0 ? 0.0 : ratingSum / (double) ratingCount;
+        }
         if (ratings == null || ratings.isEmpty()) return 0.0;
         int sum = 0;
         for (RatingEntity r : ratings) {
@@ -60,4 +94,3 @@ public class MediaEntryEntity {
         return sum / (double) ratings.size();
     }
 }
-
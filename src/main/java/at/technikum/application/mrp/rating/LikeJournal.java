@@ -0,0 +1,158 @@
+package at.technikum.application.mrp.rating;
+
+import java.io.BufferedReader;
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.nio.file.StandardOpenOption;
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.locks.ReentrantLock;
+
+/**
+ * Append-only file of the like toggles that LikeWriteBuffer holds in memory, one line
+ * "ratingId userId 1|0" per toggle. Every append is written to the file right away (no user-space
+ * buffer), so a killed process loses nothing.
+ *
+ * When a flush takes the pending toggles, startFlush() moves the file aside to "<file>.flushing" and
+ * new toggles go to a fresh file. Once the flush is stored in the database, flushed() deletes the
+ * moved file; if it fails, flushFailed() puts the newer toggles after it again. A crash in between
+ * leaves both files, which readChanges() reads oldest first.
+ */
+final class LikeJournal implements AutoCloseable {
+
+    private final Path file;
+    private final Path flushingFile;
+    private final ReentrantLock lock = new ReentrantLock();
+    private FileChannel channel;
+
+    LikeJournal(Path file) throws IOException {
+        this.file = file;
+        this.flushingFile = file.resolveSibling(file.getFileName() + ".flushing");
+        Path parent = file.toAbsolutePath().getParent();
+        if (parent != null) {
+            Files.createDirectories(parent);
+        }
+        this.channel = open(file);
+    }
+
+    /**
+     * Final state per (rating, user) of all toggles in the files, in order of first appearance.
+     * A torn last line (crash in the middle of a write) is ignored.
+     */
+    List<RatingRepository.LikeChange> readChanges() throws IOException {
+        Map<Long, RatingRepository.LikeChange> changes = new LinkedHashMap<>();
+        if (Files.exists(flushingFile)) {
+            readChanges(flushingFile, changes);
+        }
+        readChanges(file, changes);
+        return new ArrayList<>(changes.values());
+    }
+
+    void append(int ratingId, int userId, boolean liked) {
+        byte[] line = (ratingId + " " + userId + (liked ? " 1\n" : " 0\n")).getBytes(StandardCharsets.US_ASCII);
+        lock.lock();
+        try {
+            ByteBuffer buffer = ByteBuffer.wrap(line);
+            while (buffer.hasRemaining()) {
+                channel.write(buffer);
+            }
+        } catch (IOException e) {
+            throw new RuntimeException("Failed to write like journal", e);
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    // Sets the toggles written so far aside for a flush; later appends go to a new file
+    void startFlush() throws IOException {
+        lock.lock();
+        try {
+            channel.close();
+            try {
+                Files.move(file, flushingFile, StandardCopyOption.REPLACE_EXISTING);
+            } finally {
+                channel = open(file);
+            }
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    // The toggles set aside by startFlush() are stored in the database
+    void flushed() throws IOException {
+        Files.deleteIfExists(flushingFile);
+    }
+
+    // The flush did not reach the database: its toggles become the head of the journal again
+    void flushFailed() throws IOException {
+        lock.lock();
+        try {
+            channel.close();
+            try (FileChannel flushing = FileChannel.open(flushingFile, StandardOpenOption.WRITE,
+                    StandardOpenOption.APPEND)) {
+                ByteBuffer newer = ByteBuffer.wrap(Files.readAllBytes(file));
+                while (newer.hasRemaining()) {
+                    flushing.write(newer);
+                }
+                flushing.force(false);
+            }
+            Files.move(flushingFile, file, StandardCopyOption.REPLACE_EXISTING);
+            channel = open(file);
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    // Called once everything in the journal is stored in the database
+    void truncate() throws IOException {
+        lock.lock();
+        try {
+            Files.deleteIfExists(flushingFile);
+            channel.truncate(0);
+            channel.force(false);
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    @Override
+    public void close() throws IOException {
+        lock.lock();
+        try {
+            channel.close();
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    private static FileChannel open(Path file) throws IOException {
+        return FileChannel.open(file, StandardOpenOption.CREATE, StandardOpenOption.WRITE, StandardOpenOption.APPEND);
+    }
+
+    private static void readChanges(Path file, Map<Long, RatingRepository.LikeChange> changes) throws IOException {
+        try (BufferedReader reader = Files.newBufferedReader(file, StandardCharsets.US_ASCII)) {
+            String line;
+            while ((line = reader.readLine()) != null) {
+                String[] parts = line.split(" ");
+                if (parts.length != 3) {
+                    continue;
+                }
+                try {
+                    int ratingId = Integer.parseInt(parts[0]);
+                    int userId = Integer.parseInt(parts[1]);
+                    changes.put(LikeWriteBuffer.key(ratingId, userId),
+                            new RatingRepository.LikeChange(ratingId, userId, parts[2].equals("1")));
+                } catch (NumberFormatException ignored) {
+                    // torn line
+                }
+            }
+        }
+    }
+}
@@ -0,0 +1,522 @@
+package at.technikum.application.mrp.rating;
+
+import at.technikum.application.common.EnvConfig;
+import at.technikum.application.common.PageDto;
+import at.technikum.application.mrp.rating.entity.RatingEntity;
+
+import java.io.IOException;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+import java.util.concurrent.Executors;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.locks.Condition;
+import java.util.concurrent.locks.ReentrantLock;
+import java.util.function.Supplier;
+
+/**
+ * Write-behind buffer for likes. like/unlike only record the toggle in memory and in a local
+ * journal; a background thread writes all pending toggles with one statement per batch
+ * (RatingRepository.applyLikeChanges) every flushIntervalMillis, or earlier once flushThreshold
+ * (rating, user) pairs are pending.
+ *
+ * Toggles are kept per rating in one of STRIPES lock-protected maps, so likes on different ratings
+ * do not contend. Toggles of the same (rating, user) coalesce: like + unlike before a flush writes
+ * nothing. Like counts and "liked by me" are served as database state plus the buffered toggles.
+ *
+ * A flush takes the pending toggles as in-flight toggles, which reads keep adding to the database
+ * state until the commit, while new toggles are recorded as pending again; nobody waits for the
+ * database write. A flush sequence number tells a read whether its database read saw the in-flight
+ * toggles: a read redoes its database read if a flush moved on meanwhile, and only a read of a rating
+ * with in-flight toggles that overlaps the commit itself waits for it to return. On startup, toggles
+ * left in the journal by a crash are applied before anything else. After close, toggles are written
+ * straight to the database, as without the buffer.
+ */
+public class LikeWriteBuffer implements AutoCloseable {
+
+    private static final int STRIPES = 16;
+
+    // flushSeq % 3 is 0 while no flush runs, 1 while its toggles are taken but not committed and
+    // COMMITTING from sending the commit until it returned
+    private static final int COMMITTING = 2;
+
+    private final RatingRepository repository;
+    private final LikeJournal journal;
+    private final long flushIntervalMillis;
+    private final int flushThreshold;
+    private final Stripe[] stripes = new Stripe[STRIPES];
+    private final ScheduledExecutorService flusher;
+    private final AtomicInteger pendingPairs = new AtomicInteger();
+    private final AtomicBoolean flushRequested = new AtomicBoolean();
+    private final ReentrantLock flushLock = new ReentrantLock();
+    private final ReentrantLock flushSeqLock = new ReentrantLock();
+    private final Condition flushSeqChanged = flushSeqLock.newCondition();
+    private volatile long flushSeq;
+    private volatile boolean closed;
+
+    private final AtomicLong toggles = new AtomicLong();
+    private final AtomicLong flushes = new AtomicLong();
+    private final AtomicLong flushedChanges = new AtomicLong();
+    private final AtomicLong failedFlushes = new AtomicLong();
+
+    // Buffered toggles of one (rating, user): the state they are written over and the state to write
+    private static final class Toggle {
+        final boolean persisted;
+        boolean liked;
+
+        Toggle(boolean persisted) {
+            this.persisted = persisted;
+        }
+    }
+
+    // Buffered toggles of one rating and their net effect on its like count
+    private static final class RatingToggles {
+        final Map<Integer, Toggle> byUser = new HashMap<>();
+        int countDelta;
+    }
+
+    // inFlight holds the toggles of the running flush, pending those recorded since
+    private static final class Stripe {
+        final ReentrantLock lock = new ReentrantLock();
+        Map<Integer, RatingToggles> pending = new HashMap<>();
+        Map<Integer, RatingToggles> inFlight = new HashMap<>();
+    }
+
+    /**
+     * Applies toggles left in the journal. The flush timer (flushIntervalMillis <= 0: no timer, only
+     * the threshold and explicit flush()/close() write) runs once start() is called.
+     */
+    public LikeWriteBuffer(RatingRepository repository, Path journalFile, long flushIntervalMillis, int flushThreshold)
+            throws IOException {
+        if (flushThreshold < 1) {
+            throw new IllegalArgumentException("flushThreshold must be at least 1");
+        }
+        this.repository = repository;
+        this.flushIntervalMillis = flushIntervalMillis;
+        this.flushThreshold = flushThreshold;
+        for (int i = 0; i < STRIPES; i++) {
+            stripes[i] = new Stripe();
+        }
+        this.journal = new LikeJournal(journalFile);
+        List<RatingRepository.LikeChange> recovered = journal.readChanges();
+        if (!recovered.isEmpty()) {
+            System.out.println("→ Applying " + recovered.size() + " likes from " + journalFile + "...");
+            repository.applyLikeChanges(recovered);
+        }
+        journal.truncate();
+
+        this.flusher = Executors.newSingleThreadScheduledExecutor(runnable -> {
+            Thread thread = new Thread(runnable, "rating-like-flusher");
+            thread.setDaemon(true);
+            return thread;
+        });
+    }
+
+    /**
+     * RATING_LIKE_WRITE_BEHIND=true enables the buffer (default off: likes are written directly);
+     * RATING_LIKE_FLUSH_INTERVAL_MS (default 1000), RATING_LIKE_FLUSH_THRESHOLD (pending pairs,
+     * default 10000) and RATING_LIKE_JOURNAL (default like-journal.log) configure it.
+     * Returns null when disabled, otherwise a started buffer.
+     */
+    public static LikeWriteBuffer fromEnvironment(RatingRepository repository) {
+        if (!"true".equalsIgnoreCase(System.getenv("RATING_LIKE_WRITE_BEHIND"))) {
+            return null;
+        }
+        String journal = System.getenv("RATING_LIKE_JOURNAL");
+        try {
+            LikeWriteBuffer buffer = new LikeWriteBuffer(repository,
+                    Path.of(journal == null || journal.isBlank() ? "like-journal.log" : journal.trim()),
+                    EnvConfig.longFromEnv("RATING_LIKE_FLUSH_INTERVAL_MS", 1000),
+                    EnvConfig.intFromEnv("RATING_LIKE_FLUSH_THRESHOLD", 10_000));
+            buffer.start();
+            return buffer;
+        } catch (IOException e) {
+            throw new RuntimeException("Failed to open like journal", e);
+        }
+    }
+
+    // Starts the flush timer; called once the buffer is constructed
+    public void start() {
+        if (flushIntervalMillis > 0) {
+            flusher.scheduleWithFixedDelay(this::flushQuietly, flushIntervalMillis, flushIntervalMillis,
+                    TimeUnit.MILLISECONDS);
+        }
+    }
+
+    static long key(int ratingId, int userId) {
+        return ((long) ratingId << 32) | (userId & 0xffffffffL);
+    }
+
+    /**
+     * Records a like (liked = true) or unlike of userId and returns the rating as userId now sees it,
+     * or empty if there is no such rating. load reads the rating with its stored like summary for userId.
+     */
+    public Optional<RatingEntity> toggle(int ratingId, int userId, boolean liked, Supplier<Optional<RatingEntity>> load) {
+        Stripe stripe = stripeOf(ratingId);
+        while (true) {
+            if (closed) {
+                return writeThrough(ratingId, userId, liked, load);
+            }
+            long seq = flushSeq;
+            Optional<RatingEntity> loaded = load.get();
+            if (loaded.isEmpty()) {
+                return loaded;
+            }
+            RatingEntity rating = loaded.get();
+            boolean committing = false;
+            stripe.lock.lock();
+            try {
+                if (flushSeq != seq || closed) {
+                    continue; // a flush moved on since the load, which may or may not include its toggles
+                }
+                RatingToggles flying = stripe.inFlight.get(ratingId);
+                if (flying != null && phase(seq) == COMMITTING) {
+                    committing = true;
+                    continue;
+                }
+                RatingToggles ratingToggles = stripe.pending.computeIfAbsent(ratingId, id -> new RatingToggles());
+                Toggle toggle = ratingToggles.byUser.get(userId);
+                if (toggle == null) {
+                    // over an in-flight toggle of the same pair, the state it writes counts as stored
+                    Toggle flyingToggle = flying == null ? null : flying.byUser.get(userId);
+                    toggle = new Toggle(flyingToggle != null
+                            ? flyingToggle.liked
+                            : Boolean.TRUE.equals(rating.getLikedByRequester()));
+                    toggle.liked = toggle.persisted;
+                    ratingToggles.byUser.put(userId, toggle);
+                    pendingPairs.incrementAndGet();
+                }
+                if (toggle.liked != liked) {
+                    ratingToggles.countDelta += liked ? 1 : -1;
+                    toggle.liked = liked;
+                    journal.append(ratingId, userId, liked);
+                }
+                if (toggle.liked == toggle.persisted) {
+                    // coalesced back to the stored state, nothing to write
+                    ratingToggles.byUser.remove(userId);
+                    pendingPairs.decrementAndGet();
+                    if (ratingToggles.byUser.isEmpty()) {
+                        stripe.pending.remove(ratingId);
+                    }
+                }
+                int flyingDelta = flying == null ? 0 : flying.countDelta;
+                rating.setLikeCount(rating.getLikeCount() + flyingDelta + ratingToggles.countDelta);
+                rating.setLikedByRequester(liked);
+            } finally {
+                stripe.lock.unlock();
+                if (committing) {
+                    awaitFlushSeqChange(seq);
+                }
+            }
+            toggles.incrementAndGet();
+            if (pendingPairs.get() >= flushThreshold && flushRequested.compareAndSet(false, true)) {
+                try {
+                    flusher.execute(this::flushQuietly);
+                } catch (RejectedExecutionException e) {
+                    // closed meanwhile: close() flushes everything recorded before it took the stripe locks
+                }
+            }
+            return loaded;
+        }
+    }
+
+    // A rating read from the database (like summary for requesterUserId) with the buffered toggles applied
+    public Optional<RatingEntity> read(int requesterUserId, Supplier<Optional<RatingEntity>> load) {
+        while (true) {
+            long seq = flushSeq;
+            Optional<RatingEntity> loaded = load.get();
+            if (loaded.isEmpty() || overlay(loaded.get(), requesterUserId, seq)) {
+                return loaded;
+            }
+        }
+    }
+
+    // Same for a page of ratings; the page order (e.g. sort=likes) is that of the stored counts
+    public Optional<PageDto<RatingEntity>> readPage(int requesterUserId, Supplier<Optional<PageDto<RatingEntity>>> load) {
+        while (true) {
+            long seq = flushSeq;
+            Optional<PageDto<RatingEntity>> loaded = load.get();
+            if (loaded.isEmpty() || loaded.get().getItems().stream()
+                    .allMatch(rating -> overlay(rating, requesterUserId, seq))) {
+                return loaded;
+            }
+        }
+    }
+
+    /**
+     * Writes all pending toggles to the database and truncates the journal. Returns the number of
+     * (rating, user) pairs written. If the database write fails, the toggles stay pending.
+     */
+    public int flush() {
+        flushLock.lock();
+        try {
+            flushRequested.set(false);
+            List<RatingRepository.LikeChange> changes = takePending();
+            if (changes.isEmpty()) {
+                return 0;
+            }
+            try {
+                repository.applyLikeChanges(changes, () -> setFlushSeq(flushSeq + 1));
+            } catch (RuntimeException e) {
+                failedFlushes.incrementAndGet();
+                restoreInFlight(e);
+                throw new RuntimeException("Failed to flush likes", e);
+            }
+            finishInFlight();
+            pendingPairs.addAndGet(-changes.size());
+            flushes.incrementAndGet();
+            flushedChanges.addAndGet(changes.size());
+            try {
+                journal.flushed();
+            } catch (IOException e) {
+                // replaying stored toggles is harmless, the next flush replaces the file
+                System.err.println("Failed to delete flushed like journal: " + e.getMessage());
+            }
+            return changes.size();
+        } finally {
+            flushLock.unlock();
+        }
+    }
+
+    public Map<String, Object> getStats() {
+        Map<String, Object> stats = new LinkedHashMap<>();
+        stats.put("pending", pendingPairs.get());
+        stats.put("toggles", toggles.get());
+        stats.put("flushes", flushes.get());
+        stats.put("flushedChanges", flushedChanges.get());
+        stats.put("failedFlushes", failedFlushes.get());
+        return stats;
+    }
+
+    /**
+     * Stops the timer and writes what is still pending. Toggles that got past the closed check hold
+     * their stripe lock until recorded, so taking every stripe lock once lets them finish first.
+     */
+    @Override
+    public void close() {
+        closed = true;
+        flusher.shutdownNow();
+        for (Stripe stripe : stripes) {
+            stripe.lock.lock();
+            stripe.lock.unlock();
+        }
+        try {
+            flush();
+            journal.close();
+        } catch (RuntimeException | IOException e) {
+            System.err.println("Failed to flush likes on shutdown, they stay in the journal: " + e.getMessage());
+            e.printStackTrace();
+        }
+    }
+
+    private void flushQuietly() {
+        try {
+            flush();
+        } catch (RuntimeException e) {
+            // the toggles stay pending, the next flush retries them
+            System.err.println(e.getMessage() + ", retrying with the next flush");
+            e.printStackTrace();
+        }
+    }
+
+    private Optional<RatingEntity> writeThrough(int ratingId, int userId, boolean liked,
+                                                Supplier<Optional<RatingEntity>> load) {
+        Optional<RatingEntity> loaded = load.get();
+        loaded.ifPresent(rating -> {
+            rating.setLikeCount(liked ? repository.addLike(ratingId, userId) : repository.removeLike(ratingId, userId));
+            rating.setLikedByRequester(liked);
+        });
+        return loaded;
+    }
+
+    /**
+     * Applies the buffered toggles of the rating to its database state, read since flush sequence seq.
+     * Returns false if the read has to be redone: a flush moved on meanwhile, or the read overlaps the
+     * commit of in-flight toggles of this rating (then after that commit returned).
+     */
+    private boolean overlay(RatingEntity rating, int requesterUserId, long seq) {
+        Stripe stripe = stripeOf(rating.getId());
+        boolean committing = false;
+        stripe.lock.lock();
+        try {
+            if (flushSeq != seq) {
+                return false;
+            }
+            RatingToggles flying = stripe.inFlight.get(rating.getId());
+            if (flying != null && phase(seq) == COMMITTING) {
+                committing = true;
+                return false;
+            }
+            apply(rating, requesterUserId, flying);
+            apply(rating, requesterUserId, stripe.pending.get(rating.getId()));
+            return true;
+        } finally {
+            stripe.lock.unlock();
+            if (committing) {
+                awaitFlushSeqChange(seq);
+            }
+        }
+    }
+
+    private static void apply(RatingEntity rating, int requesterUserId, RatingToggles ratingToggles) {
+        if (ratingToggles == null) {
+            return;
+        }
+        if (rating.getLikeCount() != null) {
+            rating.setLikeCount(rating.getLikeCount() + ratingToggles.countDelta);
+        }
+        Toggle toggle = ratingToggles.byUser.get(requesterUserId);
+        if (toggle != null) {
+            rating.setLikedByRequester(toggle.liked);
+        }
+    }
+
+    // Moves the pending toggles in flight and sets the journal aside, all stripes locked so no toggle is in between
+    private List<RatingRepository.LikeChange> takePending() {
+        List<RatingRepository.LikeChange> changes = new ArrayList<>();
+        lockAll();
+        try {
+            for (Stripe stripe : stripes) {
+                stripe.pending.forEach((ratingId, ratingToggles) -> ratingToggles.byUser.forEach((userId, toggle) ->
+                        changes.add(new RatingRepository.LikeChange(ratingId, userId, toggle.liked))));
+            }
+            if (changes.isEmpty()) {
+                return changes;
+            }
+            try {
+                journal.startFlush();
+            } catch (IOException e) {
+                failedFlushes.incrementAndGet();
+                throw new RuntimeException("Failed to flush likes", e);
+            }
+            for (Stripe stripe : stripes) {
+                stripe.inFlight = stripe.pending;
+                stripe.pending = new HashMap<>();
+            }
+            setFlushSeq(flushSeq + 1);
+            return changes;
+        } finally {
+            unlockAll();
+        }
+    }
+
+    // The in-flight toggles are committed, from now on the database state contains them
+    private void finishInFlight() {
+        lockAll();
+        try {
+            for (Stripe stripe : stripes) {
+                stripe.inFlight = new HashMap<>();
+            }
+            setFlushSeq(nextIdle(flushSeq));
+        } finally {
+            unlockAll();
+        }
+    }
+
+    // Puts the toggles of a failed flush back in front of those recorded meanwhile
+    private void restoreInFlight(RuntimeException failure) {
+        lockAll();
+        try {
+            for (Stripe stripe : stripes) {
+                Map<Integer, RatingToggles> newer = stripe.pending;
+                stripe.pending = stripe.inFlight;
+                stripe.inFlight = new HashMap<>();
+                newer.forEach((ratingId, ratingToggles) -> merge(stripe.pending, ratingId, ratingToggles));
+            }
+            try {
+                journal.flushFailed();
+            } catch (IOException e) {
+                failure.addSuppressed(e);
+            }
+            setFlushSeq(nextIdle(flushSeq));
+        } finally {
+            unlockAll();
+        }
+    }
+
+    private void merge(Map<Integer, RatingToggles> pending, int ratingId, RatingToggles newer) {
+        RatingToggles older = pending.get(ratingId);
+        if (older == null) {
+            pending.put(ratingId, newer);
+            return;
+        }
+        older.countDelta += newer.countDelta;
+        newer.byUser.forEach((userId, toggle) -> {
+            Toggle first = older.byUser.get(userId);
+            if (first == null) {
+                older.byUser.put(userId, toggle);
+                return;
+            }
+            // both were counted as pending pairs, now one is left at most
+            pendingPairs.decrementAndGet();
+            first.liked = toggle.liked;
+            if (first.liked == first.persisted) {
+                older.byUser.remove(userId);
+                pendingPairs.decrementAndGet();
+            }
+        });
+        if (older.byUser.isEmpty()) {
+            pending.remove(ratingId);
+        }
+    }
+
+    // rating ids are sequential, so consecutive ratings land on different stripes
+    private Stripe stripeOf(int ratingId) {
+        return stripes[Math.floorMod(ratingId, STRIPES)];
+    }
+
+    private void lockAll() {
+        for (Stripe stripe : stripes) {
+            stripe.lock.lock();
+        }
+    }
+
+    private void unlockAll() {
+        for (Stripe stripe : stripes) {
+            stripe.lock.unlock();
+        }
+    }
+
+    private static int phase(long seq) {
+        return (int) (seq % 3);
+    }
+
+    // No flush running again, also when the statement itself failed before the commit
+    private static long nextIdle(long seq) {
+        return seq - phase(seq) + 3;
+    }
+
+    private void setFlushSeq(long seq) {
+        flushSeqLock.lock();
+        try {
+            flushSeq = seq;
+            flushSeqChanged.signalAll();
+        } finally {
+            flushSeqLock.unlock();
+        }
+    }
+
+    // Waits until the flush sequence number moved on from seq, i.e. the commit returned
+    private void awaitFlushSeqChange(long seq) {
+        flushSeqLock.lock();
+        try {
+            while (flushSeq == seq) {
+                flushSeqChanged.await();
+            }
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new RuntimeException("Interrupted while waiting for like flush", e);
+        } finally {
+            flushSeqLock.unlock();
+        }
+    }
+}
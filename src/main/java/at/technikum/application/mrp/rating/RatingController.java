@@ -1,124 +1,148 @@
 package at.technikum.application.mrp.rating;
 
 import at.technikum.application.common.Controller;
+import at.technikum.application.common.JsonCodec;
+import at.technikum.application.common.PathParams;
+import at.technikum.application.common.RouteTable;
+import at.technikum.application.common.VersionConflictException;
+import at.technikum.application.mrp.media.MediaImporter;
 import at.technikum.application.mrp.rating.dto.RatingUpsertDto;
 import at.technikum.server.http.Request;
 import at.technikum.server.http.Response;
 import at.technikum.server.http.Status;
+import com.fasterxml.jackson.databind.ObjectReader;
 
+import java.io.InputStream;
 import java.util.Map;
 import java.util.Optional;
-import java.util.regex.Matcher;
-import java.util.regex.Pattern;
 
 public class RatingController extends Controller {
 
-    private final RatingService ratingService;
+    private static final ObjectReader UPSERT_READER = JsonCodec.shared().readerFor(RatingUpsertDto.class);
 
-    private static final Pattern MEDIA_PATTERN = Pattern.compile("^/rating/media/(\\d+)$");
-    private static final Pattern ID_PATTERN = Pattern.compile("^/rating/(\\d+)$");
-    private static final Pattern LIKE_PATTERN = Pattern.compile("^/rating/(\\d+)/like$");
-    private static final Pattern CONFIRM_PATTERN = Pattern.compile("^/rating/(\\d+)/confirm$");
+    private final RatingService ratingService;
 
     public RatingController(RatingService ratingService) {
         this.ratingService = ratingService;
     }
 
     @Override
-    public Response handle(Request request) {
-        String path = request.getPath();
-        String method = request.getMethod();
+    public void registerRoutes(RouteTable routes) {
+        routes.add("POST", "/rating/media/{mediaId}", this::createForMedia)
+                .add("GET", "/rating", this::listByMedia)
+                .add("POST", "/rating", this::create)
+                .add("POST", "/rating/import", this::importRatings)
+                .add("POST", "/rating/{id}/like", this::like)
+                .add("DELETE", "/rating/{id}/like", this::unlike)
+                .add("POST", "/rating/{id}/confirm", this::confirm)
+                .add("GET", "/rating/{id}", this::getById)
+                .add("PUT", "/rating/{id}", this::update)
+                .add("DELETE", "/rating/{id}", this::delete);
+    }
 
-        try {
-            Optional<Integer> userIdOpt = ratingService.getAuthorizedUserId(request.getAuthorization());
-            if (userIdOpt.isEmpty()) {
-                return errorJson(Status.UNAUTHORIZED, "Missing or invalid Authorization header");
-            }
-            int userId = userIdOpt.get();
-
-            // Create via: POST /rating/media/{mediaId}
-            Matcher mMedia = MEDIA_PATTERN.matcher(path);
-            if (mMedia.matches()) {
-                if (!"POST".equals(method)) return errorJson(Status.METHOD_NOT_ALLOWED, "Method not allowed");
-                Integer mediaIdFromPath = parseId(mMedia);
-                if (mediaIdFromPath == null) return errorJson(Status.BAD_REQUEST, "Invalid media id");
-                RatingUpsertDto createDto = readBodyAsUpsert(request.getBody());
-                if (createDto.getMediaId() == null) {
-                    createDto.setMediaId(mediaIdFromPath);
-                }
-                return okJson(ratingService.create(userId, createDto));
+    // Create via: POST /rating/media/{mediaId}
+    public Response createForMedia(Request request, PathParams params) {
+        int mediaIdFromPath = params.getInt("mediaId");
+        return withUser(request, userId -> {
+            RatingUpsertDto createDto = readBodyAsUpsert(request.getBodyBytes());
+            if (createDto.getMediaId() == null) {
+                createDto.setMediaId(mediaIdFromPath);
             }
+            return okJson(ratingService.create(userId, createDto));
+        });
+    }
 
-            // List or create via body on base path "/rating" (optional convenience)
-            if ("/rating".equals(path)) {
-                switch (method) {
-                    case "GET":
-                        Map<String, String> qp = request.getQueryParams();
-                        Integer mediaId = parseInt(qp.get("mediaId"));
-                        if (mediaId == null) {
-                            return errorJson(Status.BAD_REQUEST, "mediaId query parameter is required");
-                        }
-                        return okJson(ratingService.listByMedia(userId, mediaId));
-                    case "POST":
-                        RatingUpsertDto createDto = readBodyAsUpsert(request.getBody());
-                        return okJson(ratingService.create(userId, createDto));
-                    default:
-                        return errorJson(Status.METHOD_NOT_ALLOWED, "Method not allowed");
-                }
+    // List or create via body on base path "/rating" (optional convenience);
+    // GET /rating?mediaId=&sort=recent|likes|score&limit=&cursor= pages through the ratings of a media entry
+    public Response listByMedia(Request request, PathParams params) {
+        return withUser(request, userId -> {
+            Map<String, String> qp = request.getQueryParams();
+            Integer mediaId = parseInt(qp.get("mediaId"));
+            if (mediaId == null) {
+                return errorJson(Status.BAD_REQUEST, "mediaId query parameter is required");
             }
+            return okJson(ratingService.listByMedia(userId, mediaId, qp));
+        });
+    }
 
-            Matcher mLike = LIKE_PATTERN.matcher(path);
-            if (mLike.matches()) {
-                Integer id = parseId(mLike);
-                if (id == null) return errorJson(Status.BAD_REQUEST, "Invalid id");
-                switch (method) {
-                    case "POST":
-                        return ratingService.like(userId, id)
-                                .map(this::okJson)
-                                .orElseGet(() -> errorJson(Status.NOT_FOUND, "Rating not found"));
-                    case "DELETE":
-                        return ratingService.unlike(userId, id)
-                                .map(this::okJson)
-                                .orElseGet(() -> errorJson(Status.NOT_FOUND, "Rating not found"));
-                    default:
-                        return errorJson(Status.METHOD_NOT_ALLOWED, "Method not allowed");
-                }
-            }
+    public Response create(Request request, PathParams params) {
+        return withUser(request, userId -> {
+            RatingUpsertDto createDto = readBodyAsUpsert(request.getBodyBytes());
+            return okJson(ratingService.create(userId, createDto));
+        });
+    }
 
-            Matcher mConfirm = CONFIRM_PATTERN.matcher(path);
-            if (mConfirm.matches()) {
-                Integer id = parseId(mConfirm);
-                if (id == null) return errorJson(Status.BAD_REQUEST, "Invalid id");
-                if (!"POST".equals(method)) return errorJson(Status.METHOD_NOT_ALLOWED, "Method not allowed");
-                return ratingService.confirm(userId, id)
-                        .map(this::okJson)
-                        .orElseGet(() -> errorJson(Status.NOT_FOUND, "Rating not found"));
+    // Bulk import of the caller's ratings, body is NDJSON or CSV (?format=csv or Content-Type: text/csv), streamed row by row
+    public Response importRatings(Request request, PathParams params) {
+        return withUser(request, userId -> {
+            InputStream body = request.getBodyStream();
+            if (body == null) {
+                throw new IllegalArgumentException("Request body is empty");
             }
+            MediaImporter.Format format = MediaImporter.Format.from(
+                    request.getQueryParam("format"), request.getHeader("Content-Type"));
+            return okJson(ratingService.importRatings(userId, body, format));
+        });
+    }
 
-            Matcher mId = ID_PATTERN.matcher(path);
-            if (mId.matches()) {
-                Integer id = parseId(mId);
-                if (id == null) return errorJson(Status.BAD_REQUEST, "Invalid id");
-                switch (method) {
-                    case "GET":
-                        return ratingService.getById(userId, id)
-                                .map(this::okJson)
-                                .orElseGet(() -> errorJson(Status.NOT_FOUND, "Rating not found"));
-                    case "PUT":
-                        RatingUpsertDto updateDto = readBodyAsUpsert(request.getBody());
-                        return ratingService.update(userId, id, updateDto)
-                                .map(this::okJson)
-                                .orElseGet(() -> errorJson(Status.NOT_FOUND, "Rating not found"));
-                    case "DELETE":
-                        boolean deleted = ratingService.delete(userId, id);
-                        if (deleted) return okJson(java.util.Map.of("message", "Rating deleted"));
-                        return errorJson(Status.NOT_FOUND, "Rating not found");
-                    default:
-                        return errorJson(Status.METHOD_NOT_ALLOWED, "Method not allowed");
-                }
-            }
+    public Response like(Request request, PathParams params) {
+        int id = params.getInt("id");
+        return withUser(request, userId -> ratingService.like(userId, id)
+                .map(this::okJson)
+                .orElseGet(() -> errorJson(Status.NOT_FOUND, "Rating not found")));
+    }
+
+    public Response unlike(Request request, PathParams params) {
+        int id = params.getInt("id");
+        return withUser(request, userId -> ratingService.unlike(userId, id)
+                .map(this::okJson)
+                .orElseGet(() -> errorJson(Status.NOT_FOUND, "Rating not found")));
+    }
+
+    public Response confirm(Request request, PathParams params) {
+        int id = params.getInt("id");
+        return withUser(request, userId -> ratingService.confirm(userId, id)
+                .map(this::okJson)
+                .orElseGet(() -> errorJson(Status.NOT_FOUND, "Rating not found")));
+    }
+
+    public Response getById(Request request, PathParams params) {
+        int id = params.getInt("id");
+        return withUser(request, userId -> ratingService.getById(userId, id)
+                .map(rating -> withETag(okJson(rating), rating.getVersion()))
+                .orElseGet(() -> errorJson(Status.NOT_FOUND, "Rating not found")));
+    }
+
+    // If-Match: "<version>" makes the update conditional (412 if the rating changed in between)
+    public Response update(Request request, PathParams params) {
+        int id = params.getInt("id");
+        return withUser(request, userId -> {
+            Integer expectedVersion = ifMatchVersion(request);
+            RatingUpsertDto updateDto = readBodyAsUpsert(request.getBodyBytes());
+            return ratingService.update(userId, id, updateDto, expectedVersion)
+                    .map(rating -> withETag(okJson(rating), rating.getVersion()))
+                    .orElseGet(() -> errorJson(Status.NOT_FOUND, "Rating not found"));
+        });
+    }
 
-            return errorJson(Status.NOT_FOUND, "Route not found");
+    public Response delete(Request request, PathParams params) {
+        int id = params.getInt("id");
+        return withUser(request, userId -> {
+            boolean deleted = ratingService.delete(userId, id);
+            if (deleted) return okJson(Map.of("message", "Rating deleted"));
+            return errorJson(Status.NOT_FOUND, "Rating not found");
+        });
+    }
+
+    private Response withUser(Request request, UserAction action) {
+        try {
+            Optional<Integer> userIdOpt = ratingService.getAuthorizedUserId(request.getAuthorization());
+            if (userIdOpt.isEmpty()) {
+                return errorJson(Status.UNAUTHORIZED, "Missing or invalid Authorization header");
+            }
+            return action.run(userIdOpt.get());
+        } catch (VersionConflictException conflict) {
+            return preconditionFailed(conflict);
         } catch (SecurityException se) {
             return errorJson(Status.UNAUTHORIZED, se.getMessage());
         } catch (IllegalArgumentException iae) {
@@ -128,19 +152,16 @@ public class RatingController extends Controller {
         }
     }
 
-    private RatingUpsertDto readBodyAsUpsert(String body) throws Exception {
-        if (body == null || body.isBlank()) {
-            throw new IllegalArgumentException("Request body is empty");
-        }
-        return objectMapper.readValue(body, RatingUpsertDto.class);
+    @FunctionalInterface
+    private interface UserAction {
+        Response run(int userId) throws Exception;
     }
 
-    private Integer parseId(Matcher matcher) {
-        try {
-            return Integer.parseInt(matcher.group(1));
-        } catch (Exception e) {
-            return null;
+    private RatingUpsertDto readBodyAsUpsert(byte[] body) throws Exception {
+        if (JsonCodec.isBlank(body)) {
+            throw new IllegalArgumentException("Request body is empty");
         }
+        return UPSERT_READER.readValue(body);
     }
 
     private Integer parseInt(String s) {
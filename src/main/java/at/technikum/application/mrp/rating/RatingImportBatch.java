@@ -0,0 +1,66 @@
+package at.technikum.application.mrp.rating;
+
+import java.util.Arrays;
+
+/**
+ * Rows for {@link RatingRepository#importBatch} in parallel primitive arrays, so loaders of large dumps
+ * do not allocate an object per rating. Each row keeps its input line for error reports; createdAt is
+ * epoch millis or {@link #NO_TIMESTAMP} for "now".
+ */
+public final class RatingImportBatch {
+
+    public static final long NO_TIMESTAMP = Long.MIN_VALUE;
+
+    private int[] lines;
+    private int[] userIds;
+    private int[] mediaIds;
+    private int[] scores;
+    private String[] comments;
+    private long[] createdAt;
+    private int size;
+
+    public RatingImportBatch(int capacity) {
+        int initial = Math.max(16, capacity);
+        lines = new int[initial];
+        userIds = new int[initial];
+        mediaIds = new int[initial];
+        scores = new int[initial];
+        comments = new String[initial];
+        createdAt = new long[initial];
+    }
+
+    public void add(int line, int userId, int mediaId, int score, String comment, long createdAtMillis) {
+        if (size == lines.length) {
+            int capacity = size * 2;
+            lines = Arrays.copyOf(lines, capacity);
+            userIds = Arrays.copyOf(userIds, capacity);
+            mediaIds = Arrays.copyOf(mediaIds, capacity);
+            scores = Arrays.copyOf(scores, capacity);
+            comments = Arrays.copyOf(comments, capacity);
+            createdAt = Arrays.copyOf(createdAt, capacity);
+        }
+        lines[size] = line;
+        userIds[size] = userId;
+        mediaIds[size] = mediaId;
+        scores[size] = score;
+        comments[size] = comment;
+        createdAt[size] = createdAtMillis;
+        size++;
+    }
+
+    public int size() { return size; }
+    public boolean isEmpty() { return size == 0; }
+
+    // Keeps the arrays for the next batch
+    public void clear() {
+        Arrays.fill(comments, 0, size, null);
+        size = 0;
+    }
+
+    public int line(int i) { return lines[i]; }
+    public int userId(int i) { return userIds[i]; }
+    public int mediaId(int i) { return mediaIds[i]; }
+    public int score(int i) { return scores[i]; }
+    public String comment(int i) { return comments[i]; }
+    public long createdAt(int i) { return createdAt[i]; }
+}
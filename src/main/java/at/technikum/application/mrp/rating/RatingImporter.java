@@ -0,0 +1,272 @@
+package at.technikum.application.mrp.rating;
+
+import at.technikum.application.common.CsvRecordReader;
+import at.technikum.application.common.EnvConfig;
+import at.technikum.application.common.JsonCodec;
+import at.technikum.application.mrp.media.MediaImporter;
+import at.technikum.application.mrp.rating.dto.RatingImportResultDto;
+import at.technikum.application.mrp.rating.dto.RatingImportRowDto;
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.databind.ObjectReader;
+
+import java.io.BufferedReader;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.InputStreamReader;
+import java.nio.charset.StandardCharsets;
+import java.time.Instant;
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.time.OffsetDateTime;
+import java.time.ZoneId;
+import java.time.format.DateTimeParseException;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+
+/**
+ * Bulk import of ratings from NDJSON (one object per line with userId, mediaId, score, comment and an
+ * optional createdAt) or CSV (header row with any of userId, mediaId, score, comment, createdAt).
+ *
+ * Every row is validated like POST /rating; invalid rows are skipped and reported with their line
+ * number. Valid rows are written in batches of batchSize with {@link RatingRepository#importBatch}: COPY
+ * into a staging table, one set-based upsert on (user, media) and one aggregate update per changed
+ * media entry. If the database rejects a batch, all of its rows are reported.
+ * The input is read as a stream, only the current batch is held in memory.
+ */
+public class RatingImporter {
+
+    // failed rows beyond this are only counted
+    static final int MAX_REPORTED_ERRORS = 100;
+
+    private static final ObjectReader ROW_READER = JsonCodec.shared().readerFor(RatingImportRowDto.class);
+    private static final List<String> CSV_COLUMNS = List.of("userid", "mediaid", "score", "comment", "createdat");
+
+    private final RatingRepository repository;
+    private final int batchSize;
+
+    public RatingImporter(RatingRepository repository, int batchSize) {
+        if (batchSize < 1) {
+            throw new IllegalArgumentException("batchSize must be at least 1");
+        }
+        this.repository = repository;
+        this.batchSize = batchSize;
+    }
+
+    // Reads RATING_IMPORT_BATCH_SIZE (rows per transaction, default 5000)
+    public static int batchSizeFromEnvironment() {
+        return EnvConfig.intFromEnv("RATING_IMPORT_BATCH_SIZE", 5000);
+    }
+
+    /**
+     * importingUserId set (POST /rating/import): every row is a rating of that user, rows naming another
+     * user fail. null (command line): every row must name its user.
+     */
+    public RatingImportResultDto importFrom(InputStream in, MediaImporter.Format format, Integer importingUserId)
+            throws IOException {
+        long start = System.nanoTime();
+        RatingImportResultDto result = new RatingImportResultDto();
+        RatingImportBatch batch = new RatingImportBatch(Math.min(batchSize, 10_000));
+
+        BufferedReader reader = new BufferedReader(new InputStreamReader(in, StandardCharsets.UTF_8));
+        RowSource rows = format == MediaImporter.Format.CSV ? new CsvRows(reader) : new NdjsonRows(reader);
+        Row row;
+        while ((row = rows.next()) != null) {
+            result.setRowsRead(result.getRowsRead() + 1);
+            try {
+                RatingImportRowDto dto = row.dto();
+                RatingService.validateUpsert(dto, true);
+                int userId = resolveUser(dto.getUserId(), importingUserId);
+                batch.add(row.line(), userId, dto.getMediaId(), dto.getScore(), dto.getComment(),
+                        parseCreatedAt(dto.getCreatedAt()));
+            } catch (IllegalArgumentException e) {
+                fail(result, row.line(), e.getMessage());
+            }
+            if (batch.size() >= batchSize) {
+                flush(batch, result);
+            }
+        }
+        flush(batch, result);
+
+        long durationNanos = System.nanoTime() - start;
+        result.setDurationMs(durationNanos / 1_000_000);
+        result.setRowsPerSecond(durationNanos > 0 ? result.getImported() * 1e9 / durationNanos : 0);
+        return result;
+    }
+
+    private static int resolveUser(Integer rowUserId, Integer importingUserId) {
+        if (importingUserId == null) {
+            if (rowUserId == null || rowUserId <= 0) {
+                throw new IllegalArgumentException("userId is required");
+            }
+            return rowUserId;
+        }
+        if (rowUserId != null && !rowUserId.equals(importingUserId)) {
+            throw new IllegalArgumentException("Ratings can only be imported for the authenticated user");
+        }
+        return importingUserId;
+    }
+
+    // ISO-8601 instant ("2019-05-01T12:00:00Z"), local date-time or date, in the server's time zone
+    static long parseCreatedAt(String value) {
+        if (value == null || value.isBlank()) {
+            return RatingImportBatch.NO_TIMESTAMP;
+        }
+        String text = value.trim();
+        try {
+            if (text.length() == 10) {
+                return LocalDate.parse(text).atStartOfDay(ZoneId.systemDefault()).toInstant().toEpochMilli();
+            }
+            if (text.endsWith("Z") || text.endsWith("z")) {
+                return Instant.parse(text.toUpperCase(Locale.ROOT)).toEpochMilli();
+            }
+            if (text.matches(".*[+-]\\d{2}:\\d{2}$")) {
+                return OffsetDateTime.parse(text).toInstant().toEpochMilli();
+            }
+            return LocalDateTime.parse(text).atZone(ZoneId.systemDefault()).toInstant().toEpochMilli();
+        } catch (DateTimeParseException e) {
+            throw new IllegalArgumentException("createdAt must be an ISO-8601 date or timestamp");
+        }
+    }
+
+    private void flush(RatingImportBatch batch, RatingImportResultDto result) {
+        if (batch.isEmpty()) {
+            return;
+        }
+        try {
+            RatingRepository.ImportOutcome outcome = repository.importBatch(batch);
+            for (Map.Entry<Integer, String> rejected : outcome.rejected().entrySet()) {
+                fail(result, rejected.getKey(), rejected.getValue());
+            }
+            result.setInserted(result.getInserted() + outcome.inserted());
+            result.setUpdated(result.getUpdated() + outcome.updated());
+            result.setUnchanged(result.getUnchanged() + outcome.unchanged());
+            result.setImported(result.getInserted() + result.getUpdated() + result.getUnchanged());
+            result.setMediaUpdated(result.getMediaUpdated() + outcome.mediaUpdated());
+        } catch (RuntimeException e) {
+            for (int i = 0; i < batch.size(); i++) {
+                fail(result, batch.line(i), "Batch rolled back: " + e.getMessage());
+            }
+        }
+        batch.clear();
+    }
+
+    private static void fail(RatingImportResultDto result, int line, String message) {
+        result.setFailed(result.getFailed() + 1);
+        if (result.getErrors().size() < MAX_REPORTED_ERRORS) {
+            result.getErrors().add(new RatingImportResultDto.RowError(line, message));
+        }
+    }
+
+    // A parsed row; dto() throws IllegalArgumentException for rows that could not be parsed
+    private record Row(int line, RatingImportRowDto parsed, String error) {
+        RatingImportRowDto dto() {
+            if (error != null) {
+                throw new IllegalArgumentException(error);
+            }
+            return parsed;
+        }
+    }
+
+    private interface RowSource {
+        // null at the end of the input
+        Row next() throws IOException;
+    }
+
+    private static final class NdjsonRows implements RowSource {
+        private final BufferedReader reader;
+        private int lineNumber;
+
+        NdjsonRows(BufferedReader reader) {
+            this.reader = reader;
+        }
+
+        @Override
+        public Row next() throws IOException {
+            String line;
+            while ((line = reader.readLine()) != null) {
+                lineNumber++;
+                if (line.isBlank()) {
+                    continue;
+                }
+                try {
+                    return new Row(lineNumber, ROW_READER.readValue(line), null);
+                } catch (JsonProcessingException e) {
+                    return new Row(lineNumber, null, "Invalid JSON: " + e.getOriginalMessage());
+                }
+            }
+            return null;
+        }
+    }
+
+    // CSV with a header row naming the columns ("stars" is accepted for score), see CsvRecordReader
+    private static final class CsvRows implements RowSource {
+        private final CsvRecordReader reader;
+        private final int[] columns;
+
+        CsvRows(BufferedReader reader) throws IOException {
+            this.reader = new CsvRecordReader(reader);
+            List<String> header = this.reader.next();
+            if (header == null) {
+                this.columns = new int[0];
+                return;
+            }
+            this.columns = new int[header.size()];
+            for (int i = 0; i < header.size(); i++) {
+                String name = header.get(i) == null ? "" : header.get(i).trim().toLowerCase(Locale.ROOT);
+                columns[i] = CSV_COLUMNS.indexOf(name.equals("stars") ? "score" : name);
+                if (columns[i] < 0) {
+                    throw new IllegalArgumentException("Unknown CSV column: " + header.get(i));
+                }
+            }
+        }
+
+        @Override
+        public Row next() throws IOException {
+            List<String> fields;
+            int line;
+            do {
+                line = reader.getLineNumber() + 1;
+                fields = reader.next();
+                if (fields == null) {
+                    return null;
+                }
+            } while (fields.size() == 1 && fields.get(0) == null);
+
+            if (fields.size() != columns.length) {
+                return new Row(line, null, "Expected " + columns.length + " fields, got " + fields.size());
+            }
+            RatingImportRowDto dto = new RatingImportRowDto();
+            try {
+                for (int i = 0; i < columns.length; i++) {
+                    String value = fields.get(i);
+                    switch (columns[i]) {
+                        case 0 -> dto.setUserId(parseInt(value, "userId"));
+                        case 1 -> dto.setMediaId(parseInt(value, "mediaId"));
+                        case 2 -> {
+                            Integer score = parseInt(value, "score");
+                            dto.setScore(score == null ? 0 : score);
+                        }
+                        case 3 -> dto.setComment(value);
+                        case 4 -> dto.setCreatedAt(value);
+                        default -> throw new IllegalStateException();
+                    }
+                }
+            } catch (IllegalArgumentException e) {
+                return new Row(line, null, e.getMessage());
+            }
+            return new Row(line, dto, null);
+        }
+
+        private static Integer parseInt(String value, String field) {
+            if (value == null) {
+                return null;
+            }
+            try {
+                return Integer.parseInt(value.trim());
+            } catch (NumberFormatException e) {
+                throw new IllegalArgumentException(field + " must be a number");
+            }
+        }
+    }
+}
@@ -1,48 +1,84 @@
 package at.technikum.application.mrp.rating;
 
-import at.technikum.application.mrp.database.DatabaseConnection;
+import at.technikum.application.common.PageCursor;
+import at.technikum.application.common.PageDto;
+import at.technikum.application.common.VersionConflictException;
 import at.technikum.application.mrp.rating.entity.RatingEntity;
+import org.postgresql.PGConnection;
+import org.postgresql.copy.CopyIn;
 
+import javax.sql.DataSource;
+import java.nio.charset.StandardCharsets;
 import java.sql.*;
 import java.util.*;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.function.IntConsumer;
 
 public class RatingRepository {
 
+    // like_count is a column of ratings; first parameter: requester user id
+    private static final String LIKED_BY_REQUESTER = """
+            EXISTS (SELECT 1 FROM rating_likes l
+                    WHERE l.rating_id = r.rating_id AND l.user_id = ?) AS liked_by_requester""";
+
+    private final DataSource dataSource;
+    // notified with the media id after a committed insert, update or delete of one of its ratings
+    // (e.g. to invalidate cached media entries, which carry their ratings and aggregates)
+    private final List<IntConsumer> ratingChangeListeners = new CopyOnWriteArrayList<>();
+
+    public RatingRepository(DataSource dataSource) {
+        this.dataSource = dataSource;
+    }
+
+    public void addRatingChangeListener(IntConsumer listener) {
+        ratingChangeListeners.add(listener);
+    }
+
     public RatingEntity create(RatingEntity e) {
         String sql = """
             INSERT INTO ratings (user_id, media_id, rating_value, comment, confirmed)
             VALUES (?, ?, ?, ?, ?) RETURNING rating_id
             """;
 
-        try (Connection conn = DatabaseConnection.getInstance().getConnection();
-             PreparedStatement stmt = conn.prepareStatement(sql)) {
+        try (Connection conn = dataSource.getConnection()) {
+            conn.setAutoCommit(false);
+            try (PreparedStatement stmt = conn.prepareStatement(sql)) {
 
-            stmt.setInt(1, e.getUserId());
-            stmt.setInt(2, e.getMediaId());
-            stmt.setInt(3, e.getScore());
-            stmt.setString(4, e.getComment());
-            stmt.setBoolean(5, e.isConfirmed());
+                stmt.setInt(1, e.getUserId());
+                stmt.setInt(2, e.getMediaId());
+                stmt.setInt(3, e.getScore());
+                stmt.setString(4, e.getComment());
+                stmt.setBoolean(5, e.isConfirmed());
 
-            ResultSet rs = stmt.executeQuery();
-            if (rs.next()) {
-                e.setId(rs.getInt("rating_id"));
+                ResultSet rs = stmt.executeQuery();
+                if (rs.next()) {
+                    e.setId(rs.getInt("rating_id"));
+                }
+                applyAggregateDelta(conn, e.getMediaId(), null, e.getScore());
+                conn.commit();
+            } catch (SQLException ex) {
+                conn.rollback();
+                throw ex;
             }
-            return e;
         } catch (SQLException ex) {
             throw new RuntimeException("Failed to create rating", ex);
         }
+        ratingsChanged(e.getMediaId());
+        return e;
     }
 
     public Optional<RatingEntity> findById(int id) {
         String sql = "SELECT * FROM ratings WHERE rating_id = ?";
-        try (Connection conn = DatabaseConnection.getInstance().getConnection();
+        try (Connection conn = dataSource.getConnection();
              PreparedStatement stmt = conn.prepareStatement(sql)) {
 
             stmt.setInt(1, id);
             ResultSet rs = stmt.executeQuery();
 
             if (rs.next()) {
-                return Optional.of(mapResultSetToEntity(rs));
+                RatingEntity entity = mapResultSetToEntity(rs);
+                attachLikes(conn, List.of(entity));
+                return Optional.of(entity);
             }
             return Optional.empty();
         } catch (SQLException ex) {
@@ -50,104 +86,559 @@ public class RatingRepository {
         }
     }
 
-    public RatingEntity update(RatingEntity e) {
-        if (e.getId() == null) {
-            return null;
+    /**
+     * Like findById, but instead of the full set of liking users only the like count and whether
+     * the requester liked the rating are loaded, both computed in SQL.
+     */
+    public Optional<RatingEntity> findById(int id, int requesterUserId) {
+        String sql = "SELECT r.*, " + LIKED_BY_REQUESTER + " FROM ratings r WHERE r.rating_id = ?";
+        try (Connection conn = dataSource.getConnection();
+             PreparedStatement stmt = conn.prepareStatement(sql)) {
+
+            stmt.setInt(1, requesterUserId);
+            stmt.setInt(2, id);
+            ResultSet rs = stmt.executeQuery();
+
+            if (rs.next()) {
+                return Optional.of(mapLikeSummary(rs));
+            }
+            return Optional.empty();
+        } catch (SQLException ex) {
+            throw new RuntimeException("Failed to find rating by id", ex);
         }
+    }
 
+    /**
+     * Sets the confirmed flag and nothing else: score, comment and updated_at stay as they are.
+     * The version is bumped only if the flag changed, so confirming twice keeps the ETag.
+     * Returns the stored version, empty if there is no such rating.
+     */
+    public Optional<Integer> confirm(int id) {
         String sql = """
-            UPDATE ratings SET rating_value = ?, comment = ?, confirmed = ?,
-                             updated_at = CURRENT_TIMESTAMP
+            UPDATE ratings SET confirmed = TRUE,
+                             version = CASE WHEN confirmed THEN version ELSE version + 1 END
             WHERE rating_id = ?
+            RETURNING media_id, version
             """;
-
-        try (Connection conn = DatabaseConnection.getInstance().getConnection();
+        int mediaId;
+        int version;
+        try (Connection conn = dataSource.getConnection();
              PreparedStatement stmt = conn.prepareStatement(sql)) {
 
-            stmt.setInt(1, e.getScore());
-            stmt.setString(2, e.getComment());
-            stmt.setBoolean(3, e.isConfirmed());
-            stmt.setInt(4, e.getId());
-
-            int rowsAffected = stmt.executeUpdate();
-
-            // Update likes in database
-            if (rowsAffected > 0) {
-                updateLikes(e.getId(), e.getLikedByUserIds());
+            stmt.setInt(1, id);
+            ResultSet rs = stmt.executeQuery();
+            if (!rs.next()) {
+                return Optional.empty();
             }
+            mediaId = rs.getInt("media_id");
+            version = rs.getInt("version");
+        } catch (SQLException ex) {
+            throw new RuntimeException("Failed to confirm rating", ex);
+        }
+        ratingsChanged(mediaId);
+        return Optional.of(version);
+    }
 
-            return rowsAffected > 0 ? e : null;
+    /**
+     * Owner update of score and comment in one statement, without reading the rating first. The CTE
+     * locks the row only if it belongs to userId and, with an expectedVersion (If-Match), still has
+     * that version; it also yields the old score for the media aggregates. A changed comment needs
+     * moderation again (confirmed = false). Only when no row matched is the rating read again to
+     * tell why: empty = no such rating, SecurityException = someone else's rating,
+     * VersionConflictException = modified since the client read it.
+     * Returns the stored rating with its like summary for userId.
+     */
+    public Optional<RatingEntity> updateIfMatch(int id, int userId, int score, String comment, Integer expectedVersion) {
+        String sql = """
+            WITH old AS (
+                SELECT rating_id, rating_value FROM ratings
+                WHERE rating_id = ? AND user_id = ? AND (?::integer IS NULL OR version = ?)
+                FOR UPDATE
+            )
+            UPDATE ratings AS r SET rating_value = ?, comment = ?,
+                   confirmed = CASE WHEN r.comment IS DISTINCT FROM ? THEN FALSE ELSE r.confirmed END,
+                   version = r.version + 1, updated_at = CURRENT_TIMESTAMP
+            FROM old
+            WHERE r.rating_id = old.rating_id
+            RETURNING r.*, old.rating_value AS old_value,\s""" + LIKED_BY_REQUESTER;
+
+        RatingEntity updated;
+        try (Connection conn = dataSource.getConnection()) {
+            conn.setAutoCommit(false);
+            try (PreparedStatement stmt = conn.prepareStatement(sql)) {
+                stmt.setInt(1, id);
+                stmt.setInt(2, userId);
+                stmt.setObject(3, expectedVersion, Types.INTEGER);
+                stmt.setObject(4, expectedVersion, Types.INTEGER);
+                stmt.setInt(5, score);
+                stmt.setString(6, comment);
+                stmt.setString(7, comment);
+                stmt.setInt(8, userId);
+
+                ResultSet rs = stmt.executeQuery();
+                if (!rs.next()) {
+                    conn.rollback();
+                    return explainFailedUpdate(conn, id, userId);
+                }
+                updated = mapLikeSummary(rs);
+                int oldScore = rs.getInt("old_value");
+                if (oldScore != score) {
+                    applyAggregateDelta(conn, updated.getMediaId(), oldScore, score);
+                }
+                conn.commit();
+            } catch (SQLException | RuntimeException ex) {
+                conn.rollback();
+                throw ex;
+            }
         } catch (SQLException ex) {
             throw new RuntimeException("Failed to update rating", ex);
         }
+        ratingsChanged(updated.getMediaId());
+        return Optional.of(updated);
     }
 
-    private void updateLikes(int ratingId, Set<Integer> likedByUserIds) {
-        // Remove all existing likes
-        String deleteSql = "DELETE FROM rating_likes WHERE rating_id = ?";
-        // Insert new likes
-        String insertSql = "INSERT INTO rating_likes (rating_id, user_id) VALUES (?, ?) ON CONFLICT DO NOTHING";
-
-        try (Connection conn = DatabaseConnection.getInstance().getConnection()) {
-            // Delete existing likes
-            try (PreparedStatement deleteStmt = conn.prepareStatement(deleteSql)) {
-                deleteStmt.setInt(1, ratingId);
-                deleteStmt.executeUpdate();
+    private static Optional<RatingEntity> explainFailedUpdate(Connection conn, int ratingId, int userId)
+            throws SQLException {
+        try (PreparedStatement stmt = conn.prepareStatement("SELECT user_id, version FROM ratings WHERE rating_id = ?")) {
+            stmt.setInt(1, ratingId);
+            ResultSet rs = stmt.executeQuery();
+            if (!rs.next()) {
+                return Optional.empty();
             }
-
-            // Insert new likes
-            if (likedByUserIds != null && !likedByUserIds.isEmpty()) {
-                try (PreparedStatement insertStmt = conn.prepareStatement(insertSql)) {
-                    for (Integer userId : likedByUserIds) {
-                        insertStmt.setInt(1, ratingId);
-                        insertStmt.setInt(2, userId);
-                        insertStmt.addBatch();
-                    }
-                    insertStmt.executeBatch();
-                }
+            if (rs.getInt("user_id") != userId) {
+                throw new SecurityException("Only creator can update this rating");
             }
+            int version = rs.getInt("version");
+            throw new VersionConflictException("Rating was modified (current version " + version + ")", version);
+        }
+    }
+
+    /**
+     * Likes a rating with one idempotent statement and returns the resulting like count.
+     * Liking twice is a no-op; only a new like row updates ratings.like_count, otherwise the count is
+     * read without writing the rating row. The media row is not touched, so likers of different ratings
+     * of the same entry do not queue up behind each other.
+     */
+    public int addLike(int ratingId, int userId) {
+        String sql = """
+            WITH inserted AS (
+                INSERT INTO rating_likes (rating_id, user_id)
+                SELECT rating_id, ? FROM ratings WHERE rating_id = ?
+                ON CONFLICT (rating_id, user_id) DO NOTHING
+                RETURNING 1
+            )
+            UPDATE ratings SET like_count = like_count + 1
+            WHERE rating_id = ? AND EXISTS (SELECT 1 FROM inserted)
+            RETURNING like_count
+            """;
+
+        try (Connection conn = dataSource.getConnection();
+             PreparedStatement stmt = conn.prepareStatement(sql)) {
+
+            stmt.setInt(1, userId);
+            stmt.setInt(2, ratingId);
+            stmt.setInt(3, ratingId);
+            ResultSet rs = stmt.executeQuery();
+            return rs.next() ? rs.getInt("like_count") : likeCount(conn, ratingId);
         } catch (SQLException ex) {
-            throw new RuntimeException("Failed to update likes", ex);
+            throw new RuntimeException("Failed to add like", ex);
         }
     }
 
-    private Set<Integer> loadLikes(int ratingId) {
-        String sql = "SELECT user_id FROM rating_likes WHERE rating_id = ?";
-        Set<Integer> likes = new HashSet<>();
+    /**
+     * Removes a like with one idempotent statement and returns the resulting like count.
+     * Removing a missing like writes nothing and only reads the count.
+     */
+    public int removeLike(int ratingId, int userId) {
+        String sql = """
+            WITH deleted AS (
+                DELETE FROM rating_likes WHERE rating_id = ? AND user_id = ?
+                RETURNING 1
+            )
+            UPDATE ratings SET like_count = like_count - 1
+            WHERE rating_id = ? AND EXISTS (SELECT 1 FROM deleted)
+            RETURNING like_count
+            """;
 
-        try (Connection conn = DatabaseConnection.getInstance().getConnection();
+        try (Connection conn = dataSource.getConnection();
              PreparedStatement stmt = conn.prepareStatement(sql)) {
 
             stmt.setInt(1, ratingId);
+            stmt.setInt(2, userId);
+            stmt.setInt(3, ratingId);
+            ResultSet rs = stmt.executeQuery();
+            return rs.next() ? rs.getInt("like_count") : likeCount(conn, ratingId);
+        } catch (SQLException ex) {
+            throw new RuntimeException("Failed to remove like", ex);
+        }
+    }
+
+    // Like count of a rating whose likes did not change; 0 if there is no such rating
+    private static int likeCount(Connection conn, int ratingId) throws SQLException {
+        try (PreparedStatement stmt = conn.prepareStatement("SELECT like_count FROM ratings WHERE rating_id = ?")) {
+            stmt.setInt(1, ratingId);
+            ResultSet rs = stmt.executeQuery();
+            return rs.next() ? rs.getInt("like_count") : 0;
+        }
+    }
+
+    // Final like state of one (rating, user) pair, as collected by LikeWriteBuffer
+    public record LikeChange(int ratingId, int userId, boolean liked) {
+    }
+
+    /**
+     * Applies many like/unlike changes in one transaction and one statement: the like rows are inserted
+     * or deleted from unnest()ed arrays, and like_count moves by the rows that actually changed, so applying the same changes twice (e.g. replaying a journal after
+     * a crash) is harmless. Changes for ratings or users that no longer exist are skipped.
+     */
+    public void applyLikeChanges(Collection<LikeChange> changes) {
+        applyLikeChanges(changes, () -> { });
+    }
+
+    // Same, running beforeCommit once the statement went through and right before the commit is sent
+    public void applyLikeChanges(Collection<LikeChange> changes, Runnable beforeCommit) {
+        if (changes.isEmpty()) {
+            return;
+        }
+        String sql = """
+            WITH ins AS (
+                INSERT INTO rating_likes (rating_id, user_id)
+                SELECT c.rating_id, c.user_id
+                FROM unnest(?::integer[], ?::integer[]) AS c(rating_id, user_id)
+                JOIN ratings r ON r.rating_id = c.rating_id
+                JOIN users u ON u.user_id = c.user_id
+                ON CONFLICT (rating_id, user_id) DO NOTHING
+                RETURNING rating_id
+            ), del AS (
+                DELETE FROM rating_likes l
+                USING unnest(?::integer[], ?::integer[]) AS c(rating_id, user_id)
+                WHERE l.rating_id = c.rating_id AND l.user_id = c.user_id
+                RETURNING l.rating_id
+            ), delta AS (
+                SELECT rating_id, SUM(d) AS d
+                FROM (SELECT rating_id, 1 AS d FROM ins UNION ALL SELECT rating_id, -1 FROM del) x
+                GROUP BY rating_id
+            )
+            UPDATE ratings r SET like_count = r.like_count + delta.d
+            FROM delta
+            WHERE r.rating_id = delta.rating_id AND delta.d <> 0
+            """;
+        // rows in rating id order, so concurrent writers lock ratings in the same order
+        List<LikeChange> sorted = changes.stream()
+                .sorted(Comparator.comparingInt(LikeChange::ratingId).thenComparingInt(LikeChange::userId))
+                .toList();
+        List<Integer> likeRatings = new ArrayList<>(), likeUsers = new ArrayList<>();
+        List<Integer> unlikeRatings = new ArrayList<>(), unlikeUsers = new ArrayList<>();
+        for (LikeChange change : sorted) {
+            (change.liked() ? likeRatings : unlikeRatings).add(change.ratingId());
+            (change.liked() ? likeUsers : unlikeUsers).add(change.userId());
+        }
+
+        try (Connection conn = dataSource.getConnection()) {
+            conn.setAutoCommit(false);
+            try (PreparedStatement stmt = conn.prepareStatement(sql)) {
+                stmt.setArray(1, conn.createArrayOf("integer", likeRatings.toArray()));
+                stmt.setArray(2, conn.createArrayOf("integer", likeUsers.toArray()));
+                stmt.setArray(3, conn.createArrayOf("integer", unlikeRatings.toArray()));
+                stmt.setArray(4, conn.createArrayOf("integer", unlikeUsers.toArray()));
+                stmt.executeUpdate();
+                beforeCommit.run();
+                conn.commit();
+            } catch (SQLException ex) {
+                conn.rollback();
+                throw ex;
+            }
+        } catch (SQLException ex) {
+            throw new RuntimeException("Failed to apply like changes", ex);
+        }
+    }
+
+    /**
+     * Loads the likes of all given ratings with one query (rating_id = ANY(?)) and attaches them.
+     */
+    private void attachLikes(Connection conn, List<RatingEntity> ratings) {
+        if (ratings.isEmpty()) {
+            return;
+        }
+        String sql = "SELECT rating_id, user_id FROM rating_likes WHERE rating_id = ANY(?)";
+        Integer[] ratingIds = ratings.stream().map(RatingEntity::getId).toArray(Integer[]::new);
+        Map<Integer, Set<Integer>> likesByRating = new HashMap<>();
+
+        try (PreparedStatement stmt = conn.prepareStatement(sql)) {
+
+            stmt.setArray(1, conn.createArrayOf("integer", ratingIds));
             ResultSet rs = stmt.executeQuery();
 
             while (rs.next()) {
-                likes.add(rs.getInt("user_id"));
+                likesByRating.computeIfAbsent(rs.getInt("rating_id"), k -> new HashSet<>()).add(rs.getInt("user_id"));
             }
-            return likes;
         } catch (SQLException ex) {
             throw new RuntimeException("Failed to load likes", ex);
         }
+
+        for (RatingEntity rating : ratings) {
+            rating.setLikedByUserIds(likesByRating.get(rating.getId()));
+        }
     }
 
     public boolean delete(int id) {
         // Likes will be automatically deleted due to ON DELETE CASCADE in the database
-        String sql = "DELETE FROM ratings WHERE rating_id = ?";
-        try (Connection conn = DatabaseConnection.getInstance().getConnection();
-             PreparedStatement stmt = conn.prepareStatement(sql)) {
-
-            stmt.setInt(1, id);
-            return stmt.executeUpdate() > 0;
+        String sql = "DELETE FROM ratings WHERE rating_id = ? RETURNING media_id, rating_value";
+        int mediaId;
+        try (Connection conn = dataSource.getConnection()) {
+            conn.setAutoCommit(false);
+            try (PreparedStatement stmt = conn.prepareStatement(sql)) {
+
+                stmt.setInt(1, id);
+                ResultSet rs = stmt.executeQuery();
+                if (!rs.next()) {
+                    conn.rollback();
+                    return false;
+                }
+                mediaId = rs.getInt("media_id");
+                applyAggregateDelta(conn, mediaId, rs.getInt("rating_value"), null);
+                conn.commit();
+            } catch (SQLException ex) {
+                conn.rollback();
+                throw ex;
+            }
         } catch (SQLException e) {
             throw new RuntimeException("Failed to delete rating", e);
         }
+        ratingsChanged(mediaId);
+        return true;
+    }
+
+    // called after the connection is returned, listeners may query the database themselves
+    private void ratingsChanged(int mediaId) {
+        ratingChangeListeners.forEach(listener -> listener.accept(mediaId));
+    }
+
+    /**
+     * Applies a rating change to the aggregates on the media row (rating_count, rating_sum, stars_1..stars_5)
+     * as a delta. Runs inside the caller's transaction so rating row and aggregates never diverge.
+     * A null oldScore means a new rating, a null newScore a removed one.
+     */
+    private void applyAggregateDelta(Connection conn, int mediaId, Integer oldScore, Integer newScore) throws SQLException {
+        String sql = """
+            UPDATE media SET rating_count = rating_count + ?, rating_sum = rating_sum + ?,
+                             stars_1 = stars_1 + ?, stars_2 = stars_2 + ?, stars_3 = stars_3 + ?,
+                             stars_4 = stars_4 + ?, stars_5 = stars_5 + ?
+            WHERE media_id = ?
+            """;
+
+        int countDelta = 0;
+        int sumDelta = 0;
+        int[] starDeltas = new int[5];
+        if (oldScore != null) {
+            countDelta--;
+            sumDelta -= oldScore;
+            starDeltas[oldScore - 1]--;
+        }
+        if (newScore != null) {
+            countDelta++;
+            sumDelta += newScore;
+            starDeltas[newScore - 1]++;
+        }
+
+        try (PreparedStatement stmt = conn.prepareStatement(sql)) {
+            stmt.setInt(1, countDelta);
+            stmt.setInt(2, sumDelta);
+            for (int i = 0; i < starDeltas.length; i++) {
+                stmt.setInt(3 + i, starDeltas[i]);
+            }
+            stmt.setInt(8, mediaId);
+            stmt.executeUpdate();
+        }
+    }
+
+    // What importBatch did: rows inserted, updated and left as they were (identical to the stored rating or
+    // superseded by a later row for the same user and media), rejected lines with the reason, media updated
+    public record ImportOutcome(int inserted, int updated, int unchanged, Map<Integer, String> rejected,
+                                int mediaUpdated) {
+    }
+
+    /**
+     * Bulk upsert of ratings in one transaction: the rows are streamed with COPY into a temporary staging
+     * table, rows for unknown users or media are removed (and reported), and one INSERT ... ON CONFLICT
+     * merges the rest, the last row per (user, media) winning. An update only happens if score or comment
+     * differ, and like PUT it resets the confirmation when the comment changed.
+     * The same statement sums old and new scores per media entry and moves each entry's aggregates once
+     * per batch instead of once per row. The existing ratings are locked first, so the old scores are
+     * exact; an entry whose old score could not be known (a concurrent insert of the same user and media)
+     * is recomputed from its ratings instead.
+     */
+    public ImportOutcome importBatch(RatingImportBatch batch) {
+        if (batch.isEmpty()) {
+            return new ImportOutcome(0, 0, 0, Map.of(), 0);
+        }
+        String rejectSql = """
+            DELETE FROM rating_import_stage s
+            WHERE NOT EXISTS (SELECT 1 FROM users u WHERE u.user_id = s.user_id)
+               OR NOT EXISTS (SELECT 1 FROM media m WHERE m.media_id = s.media_id)
+            RETURNING s.line, EXISTS (SELECT 1 FROM users u WHERE u.user_id = s.user_id) AS user_exists
+            """;
+        String lockSql = """
+            SELECT r.rating_id FROM ratings r
+            JOIN rating_import_stage s ON s.user_id = r.user_id AND s.media_id = r.media_id
+            ORDER BY r.rating_id
+            FOR UPDATE OF r
+            """;
+        String mergeSql = """
+            WITH src AS (
+                SELECT DISTINCT ON (user_id, media_id) user_id, media_id, rating_value, comment, created_at
+                FROM rating_import_stage
+                ORDER BY user_id, media_id, line DESC
+            ), old AS (
+                SELECT r.user_id, r.media_id, r.rating_value
+                FROM ratings r JOIN src ON src.user_id = r.user_id AND src.media_id = r.media_id
+            ), merged AS (
+                INSERT INTO ratings AS r (user_id, media_id, rating_value, comment, confirmed, created_at)
+                SELECT user_id, media_id, rating_value, comment, FALSE, COALESCE(created_at, CURRENT_TIMESTAMP)
+                FROM src
+                ON CONFLICT (user_id, media_id) DO UPDATE
+                SET rating_value = EXCLUDED.rating_value, comment = EXCLUDED.comment,
+                    confirmed = CASE WHEN r.comment IS DISTINCT FROM EXCLUDED.comment THEN FALSE ELSE r.confirmed END,
+                    version = r.version + 1, updated_at = CURRENT_TIMESTAMP
+                WHERE r.rating_value IS DISTINCT FROM EXCLUDED.rating_value OR r.comment IS DISTINCT FROM EXCLUDED.comment
+                RETURNING r.user_id, r.media_id, r.rating_value, (r.xmax = 0) AS inserted
+            ), delta AS (
+                SELECT m.media_id,
+                       COUNT(*) FILTER (WHERE m.inserted) AS inserted,
+                       COUNT(*) FILTER (WHERE NOT m.inserted) AS updated,
+                       BOOL_OR(NOT m.inserted AND o.rating_value IS NULL) AS old_unknown,
+                       SUM(m.rating_value) - COALESCE(SUM(o.rating_value), 0) AS sum_delta,
+                       COUNT(*) FILTER (WHERE m.rating_value = 1) - COUNT(*) FILTER (WHERE o.rating_value = 1) AS d1,
+                       COUNT(*) FILTER (WHERE m.rating_value = 2) - COUNT(*) FILTER (WHERE o.rating_value = 2) AS d2,
+                       COUNT(*) FILTER (WHERE m.rating_value = 3) - COUNT(*) FILTER (WHERE o.rating_value = 3) AS d3,
+                       COUNT(*) FILTER (WHERE m.rating_value = 4) - COUNT(*) FILTER (WHERE o.rating_value = 4) AS d4,
+                       COUNT(*) FILTER (WHERE m.rating_value = 5) - COUNT(*) FILTER (WHERE o.rating_value = 5) AS d5
+                FROM merged m
+                LEFT JOIN old o ON o.user_id = m.user_id AND o.media_id = m.media_id
+                GROUP BY m.media_id
+            )
+            UPDATE media SET rating_count = rating_count + d.inserted, rating_sum = rating_sum + d.sum_delta,
+                             stars_1 = stars_1 + d.d1, stars_2 = stars_2 + d.d2, stars_3 = stars_3 + d.d3,
+                             stars_4 = stars_4 + d.d4, stars_5 = stars_5 + d.d5
+            FROM delta d
+            WHERE media.media_id = d.media_id
+            RETURNING d.media_id, d.inserted, d.updated, d.old_unknown
+            """;
+
+        Map<Integer, String> rejected = new TreeMap<>();
+        Set<Integer> changedMedia = new TreeSet<>();
+        Set<Integer> recompute = new TreeSet<>();
+        int inserted = 0;
+        int updated = 0;
+        try (Connection conn = dataSource.getConnection()) {
+            conn.setAutoCommit(false);
+            try (Statement stmt = conn.createStatement()) {
+                stmt.execute("""
+                    CREATE TEMP TABLE rating_import_stage (
+                        line INTEGER, user_id INTEGER, media_id INTEGER, rating_value INTEGER,
+                        comment TEXT, created_at TIMESTAMP
+                    ) ON COMMIT DROP
+                    """);
+                copyToStage(conn, batch);
+
+                ResultSet rs = stmt.executeQuery(rejectSql);
+                while (rs.next()) {
+                    rejected.put(rs.getInt("line"), rs.getBoolean("user_exists") ? "Unknown media" : "Unknown user");
+                }
+                stmt.executeQuery(lockSql);
+                rs = stmt.executeQuery(mergeSql);
+                while (rs.next()) {
+                    inserted += rs.getInt("inserted");
+                    updated += rs.getInt("updated");
+                    changedMedia.add(rs.getInt("media_id"));
+                    if (rs.getBoolean("old_unknown")) {
+                        recompute.add(rs.getInt("media_id"));
+                    }
+                }
+                recomputeAggregates(conn, recompute);
+                conn.commit();
+            } catch (SQLException ex) {
+                conn.rollback();
+                throw ex;
+            }
+        } catch (SQLException ex) {
+            throw new RuntimeException("Failed to import ratings: " + ex.getMessage(), ex);
+        }
+        changedMedia.forEach(this::ratingsChanged);
+        int unchanged = batch.size() - rejected.size() - inserted - updated;
+        return new ImportOutcome(inserted, updated, unchanged, rejected, changedMedia.size());
+    }
+
+    private static void copyToStage(Connection conn, RatingImportBatch batch) throws SQLException {
+        CopyIn copy = conn.unwrap(PGConnection.class).getCopyAPI().copyIn(
+                "COPY rating_import_stage (line, user_id, media_id, rating_value, comment, created_at) FROM STDIN (FORMAT csv)");
+        try {
+            StringBuilder row = new StringBuilder(128);
+            for (int i = 0; i < batch.size(); i++) {
+                row.setLength(0);
+                row.append(batch.line(i)).append(',')
+                        .append(batch.userId(i)).append(',')
+                        .append(batch.mediaId(i)).append(',')
+                        .append(batch.score(i)).append(',');
+                String comment = batch.comment(i);
+                if (comment != null) {
+                    row.append('"').append(comment.replace("\"", "\"\"")).append('"');
+                }
+                row.append(',');
+                // same zone as rs.getTimestamp() when reading created_at back
+                if (batch.createdAt(i) != RatingImportBatch.NO_TIMESTAMP) {
+                    row.append(new Timestamp(batch.createdAt(i)));
+                }
+                row.append('\n');
+                byte[] bytes = row.toString().getBytes(StandardCharsets.UTF_8);
+                copy.writeToCopy(bytes, 0, bytes.length);
+            }
+            copy.endCopy();
+        } finally {
+            if (copy.isActive()) {
+                copy.cancelCopy();
+            }
+        }
+    }
+
+    // Lock the media rows in id order, then set their aggregates from the ratings table; the lock makes
+    // concurrent rating writes wait and apply their deltas on top of the recomputed values
+    private static void recomputeAggregates(Connection conn, Set<Integer> mediaIds) throws SQLException {
+        if (mediaIds.isEmpty()) {
+            return;
+        }
+        Array ids = conn.createArrayOf("integer", mediaIds.toArray());
+        try (PreparedStatement lock = conn.prepareStatement(
+                "SELECT media_id FROM media WHERE media_id = ANY(?) ORDER BY media_id FOR UPDATE")) {
+            lock.setArray(1, ids);
+            lock.executeQuery();
+        }
+        try (PreparedStatement stmt = conn.prepareStatement("""
+                UPDATE media m SET rating_count = a.cnt, rating_sum = a.total,
+                                   stars_1 = a.s1, stars_2 = a.s2, stars_3 = a.s3, stars_4 = a.s4, stars_5 = a.s5
+                FROM (
+                    SELECT media_id,
+                           COUNT(*) AS cnt,
+                           SUM(rating_value) AS total,
+                           COUNT(*) FILTER (WHERE rating_value = 1) AS s1,
+                           COUNT(*) FILTER (WHERE rating_value = 2) AS s2,
+                           COUNT(*) FILTER (WHERE rating_value = 3) AS s3,
+                           COUNT(*) FILTER (WHERE rating_value = 4) AS s4,
+                           COUNT(*) FILTER (WHERE rating_value = 5) AS s5
+                    FROM ratings WHERE media_id = ANY(?) GROUP BY media_id
+                ) a
+                WHERE m.media_id = a.media_id
+                """)) {
+            stmt.setArray(1, ids);
+            stmt.executeUpdate();
+        }
     }
 
     public List<RatingEntity> findByMediaId(int mediaId) {
         String sql = "SELECT * FROM ratings WHERE media_id = ? ORDER BY created_at DESC";
         List<RatingEntity> results = new ArrayList<>();
 
-        try (Connection conn = DatabaseConnection.getInstance().getConnection();
+        try (Connection conn = dataSource.getConnection();
              PreparedStatement stmt = conn.prepareStatement(sql)) {
 
             stmt.setInt(1, mediaId);
@@ -156,17 +647,92 @@ public class RatingRepository {
             while (rs.next()) {
                 results.add(mapResultSetToEntity(rs));
             }
+            attachLikes(conn, results);
             return results;
         } catch (SQLException e) {
             throw new RuntimeException("Failed to find ratings by media id", e);
         }
     }
 
+    /**
+     * One page of the ratings of a media entry with like count and "liked by requester", or empty if
+     * the media entry does not exist. Existence check and page are one statement: the media row is
+     * joined with a LATERAL subquery that reads the (media_id, sort key, rating_id) index from the
+     * cursor on, so a media entry without (further) ratings still yields one row, with NULL ratings.
+     */
+    public Optional<PageDto<RatingEntity>> findPageByMediaId(int mediaId, int requesterUserId,
+                                                             RatingSort sort, String cursor, int limit) {
+        String kind = sort.name().toLowerCase();
+        String key = switch (sort) {
+            case RECENT -> "created_at";
+            case LIKES -> "like_count";
+            case SCORE -> "rating_value";
+        };
+        List<Object> params = new ArrayList<>();
+        params.add(requesterUserId);
+        String keyset = "";
+        if (cursor != null) {
+            String[] values = PageCursor.decode(cursor, kind, 3);
+            try {
+                params.add(sort == RatingSort.RECENT ? Timestamp.valueOf(values[1]) : Integer.parseInt(values[1]));
+                params.add(Integer.parseInt(values[2]));
+            } catch (IllegalArgumentException | NullPointerException e) {
+                throw new IllegalArgumentException("Invalid cursor");
+            }
+            keyset = " AND (x." + key + ", x.rating_id) < (?, ?)";
+        }
+        // one extra row tells whether there is a next page
+        params.add(limit + 1);
+        params.add(mediaId);
+        String sql = "SELECT r.*, " + LIKED_BY_REQUESTER + """
+             FROM media m
+            LEFT JOIN LATERAL (
+                SELECT x.* FROM ratings x
+                WHERE x.media_id = m.media_id""" + keyset + """
+
+                ORDER BY x.%1$s DESC, x.rating_id DESC
+                LIMIT ?
+            ) r ON TRUE
+            WHERE m.media_id = ?
+            ORDER BY r.%1$s DESC, r.rating_id DESC
+            """.formatted(key);
+
+        try (Connection conn = dataSource.getConnection();
+             PreparedStatement stmt = conn.prepareStatement(sql)) {
+
+            for (int i = 0; i < params.size(); i++) {
+                stmt.setObject(i + 1, params.get(i));
+            }
+            ResultSet rs = stmt.executeQuery();
+
+            boolean mediaExists = false;
+            List<RatingEntity> results = new ArrayList<>();
+            String lastKey = null;
+            String nextCursor = null;
+            while (rs.next()) {
+                mediaExists = true;
+                if (rs.getObject("rating_id") == null) {
+                    break;
+                }
+                if (results.size() == limit) {
+                    nextCursor = PageCursor.encode(kind, lastKey, String.valueOf(results.get(limit - 1).getId()));
+                    break;
+                }
+                results.add(mapLikeSummary(rs));
+                // the exact created_at (microseconds), not the millisecond timestamp of the entity
+                lastKey = sort == RatingSort.RECENT ? rs.getTimestamp(key).toString() : rs.getString(key);
+            }
+            return mediaExists ? Optional.of(new PageDto<>(results, nextCursor, limit)) : Optional.empty();
+        } catch (SQLException e) {
+            throw new RuntimeException("Failed to find ratings by media id", e);
+        }
+    }
+
     public List<RatingEntity> findByUserId(int userId) {
         String sql = "SELECT * FROM ratings WHERE user_id = ? ORDER BY created_at DESC";
         List<RatingEntity> results = new ArrayList<>();
 
-        try (Connection conn = DatabaseConnection.getInstance().getConnection();
+        try (Connection conn = dataSource.getConnection();
              PreparedStatement stmt = conn.prepareStatement(sql)) {
 
             stmt.setInt(1, userId);
@@ -175,6 +741,7 @@ public class RatingRepository {
             while (rs.next()) {
                 results.add(mapResultSetToEntity(rs));
             }
+            attachLikes(conn, results);
             return results;
         } catch (SQLException e) {
             throw new RuntimeException("Failed to find ratings by user id", e);
@@ -183,7 +750,7 @@ public class RatingRepository {
 
     public Optional<RatingEntity> findByUserIdAndMediaId(int userId, int mediaId) {
         String sql = "SELECT * FROM ratings WHERE user_id = ? AND media_id = ?";
-        try (Connection conn = DatabaseConnection.getInstance().getConnection();
+        try (Connection conn = dataSource.getConnection();
              PreparedStatement stmt = conn.prepareStatement(sql)) {
 
             stmt.setInt(1, userId);
@@ -191,7 +758,9 @@ public class RatingRepository {
             ResultSet rs = stmt.executeQuery();
 
             if (rs.next()) {
-                return Optional.of(mapResultSetToEntity(rs));
+                RatingEntity entity = mapResultSetToEntity(rs);
+                attachLikes(conn, List.of(entity));
+                return Optional.of(entity);
             }
             return Optional.empty();
         } catch (SQLException e) {
@@ -207,15 +776,20 @@ public class RatingRepository {
         entity.setScore(rs.getInt("rating_value"));
         entity.setComment(rs.getString("comment"));
         entity.setConfirmed(rs.getBoolean("confirmed"));
+        entity.setVersion(rs.getInt("version"));
 
         Timestamp created = rs.getTimestamp("created_at");
         if (created != null) {
             entity.setTimestamp(created.getTime());
         }
 
-        // Load likes from database
-        entity.setLikedByUserIds(loadLikes(entity.getId()));
+        return entity;
+    }
 
+    private RatingEntity mapLikeSummary(ResultSet rs) throws SQLException {
+        RatingEntity entity = mapResultSetToEntity(rs);
+        entity.setLikeCount(rs.getInt("like_count"));
+        entity.setLikedByRequester(rs.getBoolean("liked_by_requester"));
         return entity;
     }
 }
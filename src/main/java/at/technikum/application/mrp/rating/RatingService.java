@@ -1,28 +1,49 @@
 package at.technikum.application.mrp.rating;
 
+import at.technikum.application.common.PageDto;
+import at.technikum.application.common.PageLimits;
+import at.technikum.application.mrp.media.MediaImporter;
 import at.technikum.application.mrp.media.MediaRepository;
 import at.technikum.application.mrp.media.entity.MediaEntryEntity;
 import at.technikum.application.mrp.rating.dto.RatingDetailDto;
+import at.technikum.application.mrp.rating.dto.RatingImportResultDto;
 import at.technikum.application.mrp.rating.dto.RatingUpsertDto;
 import at.technikum.application.mrp.rating.entity.RatingEntity;
 import at.technikum.application.mrp.user.UserRepository;
 import at.technikum.application.mrp.user.entity.UserEntity;
 
-import java.util.ArrayList;
-import java.util.List;
+import java.io.IOException;
+import java.io.InputStream;
+import java.util.Map;
 import java.util.Optional;
-import java.util.stream.Collectors;
 
 public class RatingService {
 
     private final RatingRepository ratingRepository;
     private final MediaRepository mediaRepository;
     private final UserRepository userRepository;
+    private final PageLimits pageLimits;
+    // null: likes are written to the database directly
+    private final LikeWriteBuffer likeBuffer;
+    private final RatingImporter importer;
 
     public RatingService(RatingRepository ratingRepository, MediaRepository mediaRepository, UserRepository userRepository) {
+        this(ratingRepository, mediaRepository, userRepository, PageLimits.fromEnvironment("RATING_PAGE", 20, 100));
+    }
+
+    public RatingService(RatingRepository ratingRepository, MediaRepository mediaRepository, UserRepository userRepository,
+                         PageLimits pageLimits) {
+        this(ratingRepository, mediaRepository, userRepository, pageLimits, null);
+    }
+
+    public RatingService(RatingRepository ratingRepository, MediaRepository mediaRepository, UserRepository userRepository,
+                         PageLimits pageLimits, LikeWriteBuffer likeBuffer) {
         this.ratingRepository = ratingRepository;
         this.mediaRepository = mediaRepository;
         this.userRepository = userRepository;
+        this.pageLimits = pageLimits;
+        this.likeBuffer = likeBuffer;
+        this.importer = new RatingImporter(ratingRepository, RatingImporter.batchSizeFromEnvironment());
     }
 
     // Auth helpers
@@ -54,43 +75,53 @@ public class RatingService {
         e.setConfirmed(false); // moderation required for comments
         e.setTimestamp(System.currentTimeMillis());
 
+        // media rating aggregates are updated by the repository in the same transaction
         RatingEntity saved = ratingRepository.create(e);
-        syncMediaRatings(saved.getMediaId());
         return toDetailDto(saved, userId);
     }
 
+    // Bulk import (NDJSON or CSV) of the importing user's own ratings, upserted on (user, media)
+    public RatingImportResultDto importRatings(int userId, InputStream in, MediaImporter.Format format) throws IOException {
+        return importer.importFrom(in, format, userId);
+    }
+
     public Optional<RatingDetailDto> getById(int requesterUserId, int id) {
-        return ratingRepository.findById(id).map(r -> toDetailDto(r, requesterUserId));
+        Optional<RatingEntity> rating = likeBuffer != null
+                ? likeBuffer.read(requesterUserId, () -> ratingRepository.findById(id, requesterUserId))
+                : ratingRepository.findById(id, requesterUserId);
+        return rating.map(r -> toDetailDto(r, requesterUserId));
     }
 
-    public List<RatingDetailDto> listByMedia(int requesterUserId, int mediaId) {
-        // verify media exists
-        mediaRepository.findById(mediaId).orElseThrow(() -> new IllegalArgumentException("Media not found"));
-        return ratingRepository.findByMediaId(mediaId).stream()
-                .map(r -> toDetailDto(r, requesterUserId))
-                .collect(Collectors.toList());
+    // One page of the ratings of a media entry (sort=recent|likes|score, limit is capped, cursor comes
+    // from the previous page); whether the media entry exists is answered by the same query
+    public PageDto<RatingDetailDto> listByMedia(int requesterUserId, int mediaId, Map<String, String> query) {
+        RatingSort sort = RatingSort.fromString(query.get("sort"));
+        String cursor = query.get("cursor");
+        if (cursor != null && cursor.isBlank()) cursor = null;
+        int limit = pageLimits.resolve(parseInt(query.get("limit")));
+        String pageCursor = cursor;
+        Optional<PageDto<RatingEntity>> page = likeBuffer != null
+                ? likeBuffer.readPage(requesterUserId,
+                        () -> ratingRepository.findPageByMediaId(mediaId, requesterUserId, sort, pageCursor, limit))
+                : ratingRepository.findPageByMediaId(mediaId, requesterUserId, sort, cursor, limit);
+        return page.orElseThrow(() -> new IllegalArgumentException("Media not found"))
+                .map(r -> toDetailDto(r, requesterUserId));
     }
 
     // Update only by owner
     public Optional<RatingDetailDto> update(int userId, int id, RatingUpsertDto dto) {
+        return update(userId, id, dto, null);
+    }
+
+    // Conditional update: expectedVersion (from If-Match) must still be current, null = unconditional.
+    // Owner, version and the "changed comment needs moderation again" rule are all handled by one UPDATE.
+    public Optional<RatingDetailDto> update(int userId, int id, RatingUpsertDto dto, Integer expectedVersion) {
         validateUpsert(dto, false);
-        Optional<RatingEntity> existingOpt = ratingRepository.findById(id);
-        if (existingOpt.isEmpty()) return Optional.empty();
-        RatingEntity existing = existingOpt.get();
-        if (!existing.getUserId().equals(userId)) {
-            throw new SecurityException("Only creator can update this rating");
-        }
-        boolean commentChanged = (dto.getComment() != null && !dto.getComment().equals(existing.getComment()))
-                || (dto.getComment() == null && existing.getComment() != null);
-        existing.setScore(dto.getScore());
-        existing.setComment(dto.getComment());
-        if (commentChanged) {
-            existing.setConfirmed(false);
-        }
-        existing.setTimestamp(System.currentTimeMillis());
-        RatingEntity updated = ratingRepository.update(existing);
-        syncMediaRatings(existing.getMediaId());
-        return Optional.ofNullable(updated).map(r -> toDetailDto(r, userId));
+        return ratingRepository.updateIfMatch(id, userId, dto.getScore(), dto.getComment(), expectedVersion)
+                .map(updated -> {
+                    updated.setTimestamp(System.currentTimeMillis());
+                    return toDetailDto(updated, userId);
+                });
     }
 
     // Delete only by owner
@@ -101,28 +132,34 @@ public class RatingService {
         if (!existing.getUserId().equals(userId)) {
             throw new SecurityException("Only creator can delete this rating");
         }
-        boolean ok = ratingRepository.delete(id);
-        if (ok) syncMediaRatings(existing.getMediaId());
-        return ok;
+        return ratingRepository.delete(id);
     }
 
+    // Like/unlike only touch the single rating_likes row and the like counter of the rating;
+    // with the write-behind buffer they are only recorded in memory and written in batches
     public Optional<RatingDetailDto> like(int userId, int id) {
-        Optional<RatingEntity> existingOpt = ratingRepository.findById(id);
+        if (likeBuffer != null) {
+            return likeBuffer.toggle(id, userId, true, () -> ratingRepository.findById(id, userId))
+                    .map(r -> toDetailDto(r, userId));
+        }
+        Optional<RatingEntity> existingOpt = ratingRepository.findById(id, userId);
         if (existingOpt.isEmpty()) return Optional.empty();
         RatingEntity existing = existingOpt.get();
-        existing.getLikedByUserIds().add(userId);
-        existing.setTimestamp(System.currentTimeMillis());
-        ratingRepository.update(existing);
+        existing.setLikeCount(ratingRepository.addLike(id, userId));
+        existing.setLikedByRequester(true);
         return Optional.of(toDetailDto(existing, userId));
     }
 
     public Optional<RatingDetailDto> unlike(int userId, int id) {
-        Optional<RatingEntity> existingOpt = ratingRepository.findById(id);
+        if (likeBuffer != null) {
+            return likeBuffer.toggle(id, userId, false, () -> ratingRepository.findById(id, userId))
+                    .map(r -> toDetailDto(r, userId));
+        }
+        Optional<RatingEntity> existingOpt = ratingRepository.findById(id, userId);
         if (existingOpt.isEmpty()) return Optional.empty();
         RatingEntity existing = existingOpt.get();
-        existing.getLikedByUserIds().remove(userId);
-
-        ratingRepository.update(existing);
+        existing.setLikeCount(ratingRepository.removeLike(id, userId));
+        existing.setLikedByRequester(false);
         return Optional.of(toDetailDto(existing, userId));
     }
 
@@ -133,13 +170,24 @@ public class RatingService {
         if (!existing.getUserId().equals(userId)) {
             throw new SecurityException("Only creator can confirm this rating");
         }
+        Optional<Integer> version = ratingRepository.confirm(id);
+        if (version.isEmpty()) return Optional.empty();
         existing.setConfirmed(true);
-                // Do not update timestamp when confirming
-        ratingRepository.update(existing);
+        existing.setVersion(version.get());
         return Optional.of(toDetailDto(existing, userId));
     }
 
-    private void validateUpsert(RatingUpsertDto dto, boolean requireMediaId) {
+    private Integer parseInt(String s) {
+        try {
+            if (s == null || s.isBlank()) return null;
+            return Integer.parseInt(s.trim());
+        } catch (Exception e) {
+            return null;
+        }
+    }
+
+    // also used by RatingImporter for every imported row
+    static void validateUpsert(RatingUpsertDto dto, boolean requireMediaId) {
         if (dto == null) throw new IllegalArgumentException("Body is required");
         if (requireMediaId && (dto.getMediaId() == null || dto.getMediaId() <= 0)) {
             throw new IllegalArgumentException("mediaId is required");
@@ -162,8 +210,18 @@ public class RatingService {
         dto.setComment(c);
         dto.setConfirmed(e.isConfirmed());
         dto.setTimestamp(e.getTimestamp());
-        dto.setLikes(e.getLikedByUserIds() == null ? 0 : e.getLikedByUserIds().size());
-        dto.setLikedByMe(e.getLikedByUserIds() != null && e.getLikedByUserIds().contains(requesterUserId));
+        dto.setVersion(e.getVersion());
+        // prefer the like summary computed in SQL; fall back to the loaded like set
+        if (e.getLikeCount() != null) {
+            dto.setLikes(e.getLikeCount());
+        } else {
+            dto.setLikes(e.getLikedByUserIds() == null ? 0 : e.getLikedByUserIds().size());
+        }
+        if (e.getLikedByRequester() != null) {
+            dto.setLikedByMe(e.getLikedByRequester());
+        } else {
+            dto.setLikedByMe(e.getLikedByUserIds() != null && e.getLikedByUserIds().contains(requesterUserId));
+        }
         return dto;
     }
 
@@ -176,18 +234,4 @@ public class RatingService {
         }
         return null;
     }
-
-    private void syncMediaRatings(int mediaId) {
-        mediaRepository.findById(mediaId).ifPresent(media -> {
-            List<RatingEntity> ratings = ratingRepository.findByMediaId(mediaId);
-            // keep only userId + score in media to compute average
-            List<RatingEntity> compact = new ArrayList<>();
-            for (RatingEntity r : ratings) {
-                RatingEntity x = new RatingEntity(r.getUserId(), r.getScore());
-                compact.add(x);
-            }
-            media.setRatings(compact);
-            mediaRepository.update(media);
-        });
-    }
 }
@@ -0,0 +1,25 @@
+package at.technikum.application.mrp.rating;
+
+/**
+ * Sort modes of the rating list of a media entry. Every mode ends with rating_id as tie-breaker, so
+ * the order is total and a page can continue after the (sort key, rating_id) of the previous page's
+ * last row. Each mode has its own (media_id, sort key, rating_id) index.
+ */
+public enum RatingSort {
+    // newest first
+    RECENT,
+    // most liked first
+    LIKES,
+    // highest score first
+    SCORE;
+
+    // Unknown or missing values sort by recent
+    public static RatingSort fromString(String value) {
+        if (value == null) return RECENT;
+        return switch (value.trim().toLowerCase()) {
+            case "likes" -> LIKES;
+            case "score", "rating" -> SCORE;
+            default -> RECENT;
+        };
+    }
+}
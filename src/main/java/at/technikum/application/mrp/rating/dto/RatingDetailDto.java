@@ -1,5 +1,7 @@
 package at.technikum.application.mrp.rating.dto;
 
+import com.fasterxml.jackson.annotation.JsonIgnore;
+
 public class RatingDetailDto {
     private Integer id;
     private Integer mediaId;
@@ -10,6 +12,7 @@ public class RatingDetailDto {
     private long timestamp;
     private int likes;
     private boolean likedByMe;
+    private Integer version;
 
     public RatingDetailDto() {}
 
@@ -31,5 +34,9 @@ public class RatingDetailDto {
     public void setLikes(int likes) { this.likes = likes; }
     public boolean isLikedByMe() { return likedByMe; }
     public void setLikedByMe(boolean likedByMe) { this.likedByMe = likedByMe; }
-}
 
+    // sent as ETag header, not in the body
+    @JsonIgnore
+    public Integer getVersion() { return version; }
+    public void setVersion(Integer version) { this.version = version; }
+}
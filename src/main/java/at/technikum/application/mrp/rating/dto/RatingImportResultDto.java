@@ -0,0 +1,60 @@
+package at.technikum.application.mrp.rating.dto;
+
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * Outcome of a bulk rating import: row counts, the first errors with their line numbers and the throughput.
+ * imported = inserted + updated + unchanged; unchanged rows matched the stored rating or were superseded
+ * by a later row for the same user and media entry.
+ */
+public class RatingImportResultDto {
+    private int rowsRead;
+    private int imported;
+    private int inserted;
+    private int updated;
+    private int unchanged;
+    private int failed;
+    private int mediaUpdated;
+    private List<RowError> errors = new ArrayList<>();
+    private long durationMs;
+    private double rowsPerSecond;
+
+    public static class RowError {
+        private int line;
+        private String message;
+
+        public RowError() {}
+
+        public RowError(int line, String message) {
+            this.line = line;
+            this.message = message;
+        }
+
+        public int getLine() { return line; }
+        public void setLine(int line) { this.line = line; }
+        public String getMessage() { return message; }
+        public void setMessage(String message) { this.message = message; }
+    }
+
+    public int getRowsRead() { return rowsRead; }
+    public void setRowsRead(int rowsRead) { this.rowsRead = rowsRead; }
+    public int getImported() { return imported; }
+    public void setImported(int imported) { this.imported = imported; }
+    public int getInserted() { return inserted; }
+    public void setInserted(int inserted) { this.inserted = inserted; }
+    public int getUpdated() { return updated; }
+    public void setUpdated(int updated) { this.updated = updated; }
+    public int getUnchanged() { return unchanged; }
+    public void setUnchanged(int unchanged) { this.unchanged = unchanged; }
+    public int getFailed() { return failed; }
+    public void setFailed(int failed) { this.failed = failed; }
+    public int getMediaUpdated() { return mediaUpdated; }
+    public void setMediaUpdated(int mediaUpdated) { this.mediaUpdated = mediaUpdated; }
+    public List<RowError> getErrors() { return errors; }
+    public void setErrors(List<RowError> errors) { this.errors = errors; }
+    public long getDurationMs() { return durationMs; }
+    public void setDurationMs(long durationMs) { this.durationMs = durationMs; }
+    public double getRowsPerSecond() { return rowsPerSecond; }
+    public void setRowsPerSecond(double rowsPerSecond) { this.rowsPerSecond = rowsPerSecond; }
+}
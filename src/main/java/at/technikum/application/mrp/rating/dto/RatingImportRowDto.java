@@ -0,0 +1,18 @@
+package at.technikum.application.mrp.rating.dto;
+
+/**
+ * One row of a bulk rating import: a rating as for POST /rating plus the author and, for historical
+ * reviews, when it was written (ISO-8601 date or timestamp, optional).
+ */
+public class RatingImportRowDto extends RatingUpsertDto {
+    private Integer userId;
+    private String createdAt;
+
+    public RatingImportRowDto() {}
+
+    public Integer getUserId() { return userId; }
+    public void setUserId(Integer userId) { this.userId = userId; }
+
+    public String getCreatedAt() { return createdAt; }
+    public void setCreatedAt(String createdAt) { this.createdAt = createdAt; }
+}
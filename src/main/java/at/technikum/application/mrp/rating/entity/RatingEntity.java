@@ -1,5 +1,7 @@
 package at.technikum.application.mrp.rating.entity;
 
+import com.fasterxml.jackson.annotation.JsonIgnore;
+
 import java.util.HashSet;
 import java.util.Set;
 
@@ -12,6 +14,11 @@ public class RatingEntity {
     private long timestamp; // epoch millis (created/last updated)
     private boolean confirmed; // comment visible when true
     private Set<Integer> likedByUserIds = new HashSet<>();
+    // Like summary computed in SQL; null when the full like set was loaded instead
+    private Integer likeCount;
+    private Boolean likedByRequester;
+    // optimistic locking: incremented by every update, sent as ETag
+    private Integer version;
 
     public RatingEntity() {}
 
@@ -43,4 +50,16 @@ public class RatingEntity {
 
     public Set<Integer> getLikedByUserIds() { return likedByUserIds; }
     public void setLikedByUserIds(Set<Integer> likedByUserIds) { this.likedByUserIds = likedByUserIds != null ? new HashSet<>(likedByUserIds) : new HashSet<>(); }
+
+    @JsonIgnore
+    public Integer getLikeCount() { return likeCount; }
+    public void setLikeCount(Integer likeCount) { this.likeCount = likeCount; }
+
+    @JsonIgnore
+    public Boolean getLikedByRequester() { return likedByRequester; }
+    public void setLikedByRequester(Boolean likedByRequester) { this.likedByRequester = likedByRequester; }
+
+    @JsonIgnore
+    public Integer getVersion() { return version; }
+    public void setVersion(Integer version) { this.version = version; }
 }
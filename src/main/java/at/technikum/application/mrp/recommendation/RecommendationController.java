@@ -1,10 +1,12 @@
 package at.technikum.application.mrp.recommendation;
 
 import at.technikum.application.common.Controller;
+import at.technikum.application.common.PathParams;
+import at.technikum.application.common.RouteTable;
+import at.technikum.application.mrp.media.MediaProjection;
 import at.technikum.server.http.Request;
 import at.technikum.server.http.Response;
 import java.util.Map;
-import java.util.NoSuchElementException;
 
 public class RecommendationController extends Controller {
 
@@ -15,30 +17,25 @@ public class RecommendationController extends Controller {
     }
 
     @Override
-    public Response handle(Request request) {
-        final String path = request.getPath();
-        final String method = request.getMethod();
-
-        if (!"/rec".equals(path)) {
-            throw new NoSuchElementException("Route not found");
-        }
-        if (!"GET".equals(method)) {
-            throw new UnsupportedOperationException("Method not allowed");
-        }
+    public void registerRoutes(RouteTable routes) {
+        routes.add("GET", "/rec", this::recommendations);
+    }
 
+    public Response recommendations(Request request, PathParams params) {
         Map<String, String> qp = request.getQueryParams();
         String type = normalize(qp.get("type"));
+        MediaProjection projection = MediaProjection.fromQuery(qp.get("view"), qp.get("fields"));
 
         if ("genre".equalsIgnoreCase(type)) {
             String genre = normalize(qp.get("genre"));
-            return okJson(recommendationService.recommendationsByGenre(request.getAuthorization(), genre));
+            return okJson(recommendationService.recommendationsByGenre(request.getAuthorization(), genre, projection));
         }
 
         if ("movie".equalsIgnoreCase(type) || "series".equalsIgnoreCase(type)) {
-            return okJson(recommendationService.recommendationsByMediaType(request.getAuthorization(), type));
+            return okJson(recommendationService.recommendationsByMediaType(request.getAuthorization(), type, projection));
         }
 
-        return okJson(recommendationService.recommendationsForUser(request.getAuthorization()));
+        return okJson(recommendationService.recommendationsForUser(request.getAuthorization(), projection));
     }
 
     private String normalize(String v) {
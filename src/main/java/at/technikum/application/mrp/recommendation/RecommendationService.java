@@ -1,15 +1,26 @@
 package at.technikum.application.mrp.recommendation;
 
+import at.technikum.application.common.PageDto;
+import at.technikum.application.mrp.media.MediaProjection;
 import at.technikum.application.mrp.media.MediaRepository;
+import at.technikum.application.mrp.media.MediaSearchQuery;
 import at.technikum.application.mrp.media.entity.MediaEntryEntity;
 import at.technikum.application.mrp.rating.RatingRepository;
-import at.technikum.application.mrp.rating.entity.RatingEntity;
 import at.technikum.application.mrp.user.UserRepository;
 import at.technikum.application.mrp.user.entity.UserEntity;
 import java.util.*;
+import java.util.function.Function;
 import java.util.stream.Collectors;
 
 public class RecommendationService {
+    // Seitengröße beim Durchblättern aller Genre-/Typ-Treffer (bestbewertete zuerst)
+    private static final int PAGE_SIZE = 500;
+    // Felder von mediaToMap; die Ratings selbst werden für Empfehlungen nie gelesen
+    private static final MediaProjection DEFAULT_FIELDS = MediaProjection.of(
+            MediaProjection.Field.ID, MediaProjection.Field.TITLE, MediaProjection.Field.DESCRIPTION,
+            MediaProjection.Field.GENRES, MediaProjection.Field.MEDIA_TYPE, MediaProjection.Field.RELEASE_YEAR,
+            MediaProjection.Field.AGE_RESTRICTION, MediaProjection.Field.AVERAGE_SCORE, MediaProjection.Field.RATING_COUNT);
+
     private final RecommendationRepository recommendationRepository;
     private final UserRepository userRepository;
     private final MediaRepository mediaRepository;
@@ -26,43 +37,76 @@ public class RecommendationService {
 
     // Empfehlungen basierend auf Genre
     public List<Map<String, Object>> recommendationsByGenre(String authorizationHeader, String genre) {
+        return recommendationsByGenre(authorizationHeader, genre, MediaProjection.DETAIL);
+    }
+
+    public List<Map<String, Object>> recommendationsByGenre(String authorizationHeader, String genre, MediaProjection projection) {
         int userId = requireAuthorizedUserId(authorizationHeader);
         if (genre == null || genre.isBlank()) {
             throw new IllegalArgumentException("genre query parameter is required for type=genre");
         }
 
         // Suche nach Media mit dem angegebenen Genre
-        List<MediaEntryEntity> mediaList = mediaRepository.search(null, genre, null, null, null, null, "score");
+        List<MediaEntryEntity> mediaList = allMatches(cursor -> new MediaSearchQuery().setGenres(List.of(genre))
+                .setSort(MediaSearchQuery.Sort.SCORE).setLimit(PAGE_SIZE).setCursor(cursor)
+                .setProjection(queryFields(projection)));
 
         // In Map-Format konvertieren und Bewertungen einschließen
-        return mediaList.stream()
-                .map(this::mediaToMap)
-                .collect(Collectors.toList());
+        return toMaps(mediaList, projection);
     }
 
     // Empfehlungen basierend auf Media-Type (movie oder series)
     public List<Map<String, Object>> recommendationsByMediaType(String authorizationHeader, String mediaType) {
+        return recommendationsByMediaType(authorizationHeader, mediaType, MediaProjection.DETAIL);
+    }
+
+    public List<Map<String, Object>> recommendationsByMediaType(String authorizationHeader, String mediaType, MediaProjection projection) {
         int userId = requireAuthorizedUserId(authorizationHeader);
 
         // Suche nach Media mit dem angegebenen Type
-        List<MediaEntryEntity> mediaList = mediaRepository.search(null, null, mediaType, null, null, null, "score");
+        List<MediaEntryEntity> mediaList = allMatches(cursor -> new MediaSearchQuery().setMediaType(mediaType)
+                .setSort(MediaSearchQuery.Sort.SCORE).setLimit(PAGE_SIZE).setCursor(cursor)
+                .setProjection(queryFields(projection)));
 
-        return mediaList.stream()
-                .map(this::mediaToMap)
-                .collect(Collectors.toList());
+        return toMaps(mediaList, projection);
     }
 
     // Allgemeine Empfehlungen für User (basierend auf höchsten Bewertungen)
     public List<Map<String, Object>> recommendationsForUser(String authorizationHeader) {
+        return recommendationsForUser(authorizationHeader, MediaProjection.DETAIL);
+    }
+
+    public List<Map<String, Object>> recommendationsForUser(String authorizationHeader, MediaProjection projection) {
         int userId = requireAuthorizedUserId(authorizationHeader);
 
-        // Hole alle Media sortiert nach Score
-        List<MediaEntryEntity> mediaList = mediaRepository.search(null, null, null, null, null, null, "score");
+        // Top 10 nach Score, die Datenbank liefert nur diese Seite
+        List<MediaEntryEntity> mediaList = mediaRepository.search(
+                new MediaSearchQuery().setSort(MediaSearchQuery.Sort.SCORE).setLimit(10)
+                        .setProjection(queryFields(projection))).getItems();
+
+        return toMaps(mediaList, projection);
+    }
+
+    // alle Treffer wie vor der Paginierung, Seite für Seite über den Cursor gelesen
+    private List<MediaEntryEntity> allMatches(Function<String, MediaSearchQuery> pageQuery) {
+        List<MediaEntryEntity> all = new ArrayList<>();
+        String cursor = null;
+        do {
+            PageDto<MediaEntryEntity> page = mediaRepository.search(pageQuery.apply(cursor));
+            all.addAll(page.getItems());
+            cursor = page.getNextCursor();
+        } while (cursor != null);
+        return all;
+    }
+
+    // detail = bisheriges Format (mediaToMap), sonst nur die angefragten Felder
+    private static MediaProjection queryFields(MediaProjection projection) {
+        return projection.isDetail() ? DEFAULT_FIELDS : projection;
+    }
 
-        // Limitiere auf Top 10 Empfehlungen
+    private List<Map<String, Object>> toMaps(List<MediaEntryEntity> mediaList, MediaProjection projection) {
         return mediaList.stream()
-                .limit(10)
-                .map(this::mediaToMap)
+                .map(media -> projection.isDetail() ? mediaToMap(media) : projection.render(media))
                 .collect(Collectors.toList());
     }
 
@@ -77,14 +121,11 @@ public class RecommendationService {
         map.put("releaseYear", media.getReleaseYear());
         map.put("ageRestriction", media.getAgeRestriction());
 
-        // Durchschnittliche Bewertung berechnen
-        if (media.getRatings() != null && !media.getRatings().isEmpty()) {
-            double avgRating = media.getRatings().stream()
-                    .mapToInt(RatingEntity::getScore)
-                    .average()
-                    .orElse(0.0);
+        // Durchschnittliche Bewertung aus den Aggregaten der Media-Zeile
+        if (media.getRatingCount() > 0) {
+            double avgRating = media.getAverageScore();
             map.put("averageRating", Math.round(avgRating * 100.0) / 100.0);
-            map.put("ratingCount", media.getRatings().size());
+            map.put("ratingCount", media.getRatingCount());
         } else {
             map.put("averageRating", null);
             map.put("ratingCount", 0);
@@ -1,20 +1,22 @@
 package at.technikum.application.mrp.user;
 
 import at.technikum.application.mrp.auth.AuthService;
-import at.technikum.application.mrp.database.DatabaseConnection;
 import at.technikum.application.mrp.favorites.entity.FavoriteEntity;
 import at.technikum.application.mrp.rating.entity.RatingEntity;
 import at.technikum.application.mrp.user.entity.UserEntity;
 
+import javax.sql.DataSource;
 import java.sql.*;
 import java.util.ArrayList;
 import java.util.List;
 import java.util.Optional;
 
 public class UserRepository {
+    private final DataSource dataSource;
     private final AuthService authService;
 
-    public UserRepository(AuthService authService) {
+    public UserRepository(DataSource dataSource, AuthService authService) {
+        this.dataSource = dataSource;
         this.authService = authService;
     }
 
@@ -26,7 +28,7 @@ public class UserRepository {
         String sql = "SELECT * FROM ratings WHERE user_id = ? ORDER BY created_at DESC";
         List<RatingEntity> results = new ArrayList<>();
 
-        try (Connection conn = DatabaseConnection.getInstance().getConnection();
+        try (Connection conn = dataSource.getConnection();
              PreparedStatement stmt = conn.prepareStatement(sql)) {
 
             stmt.setInt(1, userId);
@@ -58,7 +60,7 @@ public class UserRepository {
         String sql = "SELECT * FROM favorites WHERE user_id = ? ORDER BY created_at DESC";
         List<FavoriteEntity> results = new ArrayList<>();
 
-        try (Connection conn = DatabaseConnection.getInstance().getConnection();
+        try (Connection conn = dataSource.getConnection();
              PreparedStatement stmt = conn.prepareStatement(sql)) {
 
             stmt.setInt(1, userId);
@@ -86,13 +88,17 @@ public class UserRepository {
     public boolean updateProfile(Integer userId, String email) {
         String sql = "UPDATE users SET email = ?, updated_at = CURRENT_TIMESTAMP WHERE user_id = ?";
 
-        try (Connection conn = DatabaseConnection.getInstance().getConnection();
+        try (Connection conn = dataSource.getConnection();
              PreparedStatement stmt = conn.prepareStatement(sql)) {
 
             stmt.setString(1, email);
             stmt.setInt(2, userId);
 
             int rowsAffected = stmt.executeUpdate();
+            if (rowsAffected > 0) {
+                // cached principals still carry the old email
+                authService.invalidateUser(userId);
+            }
             return rowsAffected > 0;
         } catch (SQLException e) {
             throw new RuntimeException("Failed to update user profile", e);
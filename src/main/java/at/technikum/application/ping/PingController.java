@@ -1,6 +1,8 @@
 package at.technikum.application.ping;
 
 import at.technikum.application.common.Controller;
+import at.technikum.application.common.PathParams;
+import at.technikum.application.common.RouteTable;
 import at.technikum.server.http.Request;
 import at.technikum.server.http.Response;
 import at.technikum.server.http.Status;
@@ -8,7 +10,11 @@ import at.technikum.server.http.ContentType;
 
 public class PingController extends Controller {
     @Override
-    public Response handle(Request request) {
+    public void registerRoutes(RouteTable routes) {
+        routes.add("GET", "/ping", this::ping);
+    }
+
+    public Response ping(Request request, PathParams params) {
         Response response = new Response();
         response.setStatus(Status.OK);
         response.setContentType(ContentType.TEXT_PLAIN);
@@ -0,0 +1,26 @@
+package at.technikum.server;
+
+public enum ExecutionMode {
+    // jede Anfrage bekommt einen eigenen virtuellen Thread
+    VIRTUAL_THREADS,
+    // fester Pool aus Plattform-Threads mit begrenzter Warteschlange
+    THREAD_POOL,
+    // alles läuft auf dem Dispatcher-Thread des HttpServers (altes Verhalten)
+    DISPATCHER;
+
+    public static ExecutionMode fromString(String value) {
+        if (value == null || value.isBlank()) {
+            return VIRTUAL_THREADS;
+        }
+        switch (value.trim().toLowerCase()) {
+            case "virtual", "virtual_threads":
+                return VIRTUAL_THREADS;
+            case "pool", "thread_pool":
+                return THREAD_POOL;
+            case "dispatcher", "single":
+                return DISPATCHER;
+            default:
+                throw new IllegalArgumentException("Unknown execution mode: " + value);
+        }
+    }
+}
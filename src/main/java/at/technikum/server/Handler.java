@@ -5,6 +5,7 @@ import at.technikum.application.common.ExceptionMapper;
 import at.technikum.server.http.Request;
 import at.technikum.server.http.Response;
 import at.technikum.server.util.RequestMapper;
+import at.technikum.server.util.ResponseBodyStream;
 import com.sun.net.httpserver.HttpExchange;
 import com.sun.net.httpserver.HttpHandler;
 
@@ -15,10 +16,17 @@ public class Handler implements HttpHandler {
 
     private final Application application;
     private final RequestMapper requestMapper;
+    // Bodies bis zu dieser Größe bekommen Content-Length, größere werden chunked gestreamt
+    private final int responseBufferSize;
 
     public Handler(Application application, RequestMapper requestMapper) {
+        this(application, requestMapper, ServerConfig.DEFAULT_RESPONSE_BUFFER_SIZE);
+    }
+
+    public Handler(Application application, RequestMapper requestMapper, int responseBufferSize) {
         this.application = application;
         this.requestMapper = requestMapper;
+        this.responseBufferSize = responseBufferSize;
     }
 
     @Override
@@ -39,6 +47,11 @@ public class Handler implements HttpHandler {
 
     private void send(HttpExchange exchange, Response response) throws IOException {
         exchange.getResponseHeaders().set("Content-Type", response.getContentType());
+        response.getHeaders().forEach((name, value) -> exchange.getResponseHeaders().set(name, value));
+        if (response.getBodyWriter() != null) {
+            stream(exchange, response);
+            return;
+        }
         byte[] bytes = response.getBodyBytes(); // nutzt nun Bytes direkt
         if (bytes == null) {
             bytes = new byte[0];
@@ -48,4 +61,27 @@ public class Handler implements HttpHandler {
             os.write(bytes);
         }
     }
+
+    // Serialisiert direkt in den Socket, ohne den Body vorher als String/byte[] aufzubauen
+    private void stream(HttpExchange exchange, Response response) throws IOException {
+        int status = response.getStatusCode();
+        ResponseBodyStream out = new ResponseBodyStream(responseBufferSize, length -> {
+            exchange.sendResponseHeaders(status, length);
+            return exchange.getResponseBody();
+        });
+        try {
+            response.getBodyWriter().writeTo(out);
+        } catch (IOException | RuntimeException e) {
+            if (out.isCommitted()) {
+                // Status und Header sind schon gesendet; der Client bekommt einen abgebrochenen Body
+                System.err.println("Failed to stream response: " + e.getMessage());
+                exchange.close();
+                return;
+            }
+            exchange.getResponseHeaders().clear();
+            send(exchange, ExceptionMapper.toResponse(new IllegalStateException("Failed to render JSON", e)));
+            return;
+        }
+        out.close();
+    }
 }
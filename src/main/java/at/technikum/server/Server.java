@@ -6,15 +6,27 @@ import com.sun.net.httpserver.HttpServer;
 
 import java.io.IOException;
 import java.net.InetSocketAddress;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ThreadFactory;
+import java.util.concurrent.ThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
 
 public class Server {
 
     private HttpServer httpServer;
-    private final int port;
+    private ExecutorService executor;
+    private final ServerConfig config;
     private final Application application;
 
     public Server(int port, Application application) {
-        this.port = port;
+        this(defaultConfig(port), application);
+    }
+
+    public Server(ServerConfig config, Application application) {
+        this.config = config;
         this.application = application;
     }
 
@@ -23,18 +35,77 @@ public class Server {
             this.httpServer = HttpServer.
                     create(
                             new InetSocketAddress(
-                                    "localhost",
-                                    this.port
+                                    this.config.getHost(),
+                                    this.config.getPort()
                             ),
-                            0
+                            this.config.getBacklog()
                     );
             this.httpServer.createContext(
                     "/",
-                new Handler(this.application, new RequestMapper())
+                new Handler(this.application, new RequestMapper(), this.config.getResponseBufferSize())
             );
+            this.executor = createExecutor();
+            // null = Dispatcher-Thread des HttpServers
+            this.httpServer.setExecutor(this.executor);
             this.httpServer.start();
+            System.out.println("Server listening on " + this.config);
         } catch (IOException e) {
             e.printStackTrace();
         }
     }
+
+    public void stop(int delaySeconds) {
+        if (this.httpServer != null) {
+            this.httpServer.stop(delaySeconds);
+        }
+        if (this.executor != null) {
+            this.executor.shutdown();
+            try {
+                if (!this.executor.awaitTermination(Math.max(1, delaySeconds), TimeUnit.SECONDS)) {
+                    this.executor.shutdownNow();
+                }
+            } catch (InterruptedException e) {
+                this.executor.shutdownNow();
+                Thread.currentThread().interrupt();
+            }
+        }
+    }
+
+    private ExecutorService createExecutor() {
+        switch (this.config.getExecutionMode()) {
+            case VIRTUAL_THREADS:
+                return Executors.newThreadPerTaskExecutor(
+                        Thread.ofVirtual().name("http-virtual-", 0).factory()
+                );
+            case THREAD_POOL:
+                // Bounded queue; when it is full the dispatcher thread runs the request itself,
+                // which stops it from accepting new connections until the pool catches up.
+                return new ThreadPoolExecutor(
+                        this.config.getPoolSize(),
+                        this.config.getPoolSize(),
+                        60L, TimeUnit.SECONDS,
+                        new ArrayBlockingQueue<>(this.config.getPoolQueueCapacity()),
+                        platformThreadFactory(),
+                        new ThreadPoolExecutor.CallerRunsPolicy()
+                );
+            case DISPATCHER:
+            default:
+                return null;
+        }
+    }
+
+    private static ThreadFactory platformThreadFactory() {
+        AtomicInteger counter = new AtomicInteger();
+        return runnable -> {
+            Thread thread = new Thread(runnable, "http-worker-" + counter.getAndIncrement());
+            thread.setDaemon(true);
+            return thread;
+        };
+    }
+
+    private static ServerConfig defaultConfig(int port) {
+        ServerConfig config = new ServerConfig();
+        config.setPort(port);
+        return config;
+    }
 }
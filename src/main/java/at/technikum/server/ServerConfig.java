@@ -0,0 +1,114 @@
+package at.technikum.server;
+
+import at.technikum.application.common.EnvConfig;
+
+public class ServerConfig {
+
+    public static final int DEFAULT_RESPONSE_BUFFER_SIZE = 8192;
+
+    private String host = "localhost";
+    private int port = 8080;
+    // 0 = Standardwert des Betriebssystems
+    private int backlog = 0;
+    private ExecutionMode executionMode = ExecutionMode.VIRTUAL_THREADS;
+    // nur relevant für THREAD_POOL
+    private int poolSize = Runtime.getRuntime().availableProcessors() * 2;
+    private int poolQueueCapacity = 1000;
+    // Streamed bodies up to this size are sent with Content-Length, larger ones chunked
+    private int responseBufferSize = DEFAULT_RESPONSE_BUFFER_SIZE;
+
+    /**
+     * Reads the server configuration from environment variables, falling back to the defaults above:
+     * SERVER_HOST, SERVER_PORT, SERVER_BACKLOG, SERVER_EXECUTION_MODE (virtual|pool|dispatcher),
+     * SERVER_POOL_SIZE, SERVER_POOL_QUEUE and SERVER_RESPONSE_BUFFER.
+     */
+    public static ServerConfig fromEnvironment() {
+        ServerConfig config = new ServerConfig();
+        String host = System.getenv("SERVER_HOST");
+        if (host != null && !host.isBlank()) {
+            config.setHost(host.trim());
+        }
+        config.setPort(EnvConfig.intFromEnv("SERVER_PORT", config.getPort()));
+        config.setBacklog(EnvConfig.intFromEnv("SERVER_BACKLOG", config.getBacklog()));
+        config.setExecutionMode(ExecutionMode.fromString(System.getenv("SERVER_EXECUTION_MODE")));
+        config.setPoolSize(EnvConfig.intFromEnv("SERVER_POOL_SIZE", config.getPoolSize()));
+        config.setPoolQueueCapacity(EnvConfig.intFromEnv("SERVER_POOL_QUEUE", config.getPoolQueueCapacity()));
+        config.setResponseBufferSize(EnvConfig.intFromEnv("SERVER_RESPONSE_BUFFER", config.getResponseBufferSize()));
+        return config;
+    }
+
+    public String getHost() {
+        return host;
+    }
+
+    public void setHost(String host) {
+        this.host = host;
+    }
+
+    public int getPort() {
+        return port;
+    }
+
+    public void setPort(int port) {
+        if (port < 0 || port > 65535) {
+            throw new IllegalArgumentException("port must be between 0 and 65535");
+        }
+        this.port = port;
+    }
+
+    public int getBacklog() {
+        return backlog;
+    }
+
+    public void setBacklog(int backlog) {
+        this.backlog = Math.max(0, backlog);
+    }
+
+    public ExecutionMode getExecutionMode() {
+        return executionMode;
+    }
+
+    public void setExecutionMode(ExecutionMode executionMode) {
+        this.executionMode = executionMode != null ? executionMode : ExecutionMode.VIRTUAL_THREADS;
+    }
+
+    public int getPoolSize() {
+        return poolSize;
+    }
+
+    public void setPoolSize(int poolSize) {
+        if (poolSize < 1) {
+            throw new IllegalArgumentException("poolSize must be at least 1");
+        }
+        this.poolSize = poolSize;
+    }
+
+    public int getPoolQueueCapacity() {
+        return poolQueueCapacity;
+    }
+
+    public void setPoolQueueCapacity(int poolQueueCapacity) {
+        if (poolQueueCapacity < 1) {
+            throw new IllegalArgumentException("poolQueueCapacity must be at least 1");
+        }
+        this.poolQueueCapacity = poolQueueCapacity;
+    }
+
+    public int getResponseBufferSize() {
+        return responseBufferSize;
+    }
+
+    public void setResponseBufferSize(int responseBufferSize) {
+        if (responseBufferSize < 0) {
+            throw new IllegalArgumentException("responseBufferSize must not be negative");
+        }
+        this.responseBufferSize = responseBufferSize;
+    }
+
+    @Override
+    public String toString() {
+        return host + ":" + port + " (backlog=" + backlog + ", mode=" + executionMode
+                + (executionMode == ExecutionMode.THREAD_POOL ? ", poolSize=" + poolSize + ", queue=" + poolQueueCapacity : "")
+                + ")";
+    }
+}
@@ -1,5 +1,12 @@
 package at.technikum.server.http;
 
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.PushbackInputStream;
+import java.nio.charset.Charset;
+import java.nio.charset.StandardCharsets;
 import java.util.Collections;
 import java.util.HashMap;
 import java.util.Map;
@@ -10,7 +17,12 @@ public class Request {
 
     private String path;
 
-    private String body; // roher Request-Body (z. B. JSON)
+    private byte[] body; // roher Request-Body (z. B. JSON), UTF-8
+
+    // Noch ungelesener Body der Exchange; wird erst beim ersten Zugriff gelesen
+    private InputStream bodySource;
+
+    private Charset bodyCharset = StandardCharsets.UTF_8;
 
     // Neu: Header (normalisiert auf lower-case Keys, erster Wert)
     private Map<String, String> headers = new HashMap<>();
@@ -34,12 +46,56 @@ public class Request {
         this.path = path;
     }
 
-    public String getBody() {
+    // Raw body bytes; controllers bind JSON directly from these. Reads the body source on first access
+    public byte[] getBodyBytes() {
+        if (bodySource != null) {
+            body = readBody(bodySource, bodyCharset);
+            bodySource = null;
+        }
         return body;
     }
 
-    public void setBody(String body) {
+    // Body as a stream for uploads of any size: an unread UTF-8 body is handed over without buffering it,
+    // anything else comes from the body bytes. null when there is no body, like getBodyBytes()
+    public InputStream getBodyStream() {
+        if (bodySource == null || !bodyCharset.equals(StandardCharsets.UTF_8)) {
+            byte[] bytes = getBodyBytes();
+            return bytes == null ? null : new ByteArrayInputStream(bytes);
+        }
+        InputStream source = bodySource;
+        bodySource = null;
+        try {
+            PushbackInputStream in = new PushbackInputStream(source);
+            int first = in.read();
+            if (first == -1) {
+                in.close();
+                return null;
+            }
+            in.unread(first);
+            return in;
+        } catch (IOException e) {
+            return null;
+        }
+    }
+
+    public String getBody() {
+        return body == null ? null : new String(body, StandardCharsets.UTF_8);
+    }
+
+    public void setBody(byte[] body) {
         this.body = body;
+        this.bodySource = null;
+    }
+
+    public void setBody(String body) {
+        setBody(body == null ? null : body.getBytes(StandardCharsets.UTF_8));
+    }
+
+    // Body still to be read, in the charset of the Content-Type
+    public void setBodySource(InputStream source, Charset charset) {
+        this.body = null;
+        this.bodySource = source;
+        this.bodyCharset = charset;
     }
 
     // Header-API
@@ -87,7 +143,35 @@ public class Request {
                 "  Pfad: " + path + "\n" +
                 "  Query: " + queryParams + "\n" +
                 "  Headers: " + headers + "\n" +
-                "  Body: " + (body != null ? body : "<leer>") + "\n" +
+                "  Body: " + (bodySource != null ? "<ungelesen>" : body != null ? getBody() : "<leer>") + "\n" +
                 "}";
     }
+
+    // Keeps the raw bytes; only bodies in another charset than UTF-8 are transcoded once
+    private static byte[] readBody(InputStream source, Charset charset) {
+        // If there is no body, return null (keep prior semantics of showing <leer>)
+        try (InputStream is = source;
+             ByteArrayOutputStream buffer = new ByteArrayOutputStream()) {
+            byte[] data = new byte[4096];
+            int nRead;
+            boolean hasData = false;
+            while ((nRead = is.read(data, 0, data.length)) != -1) {
+                if (nRead > 0) {
+                    hasData = true;
+                    buffer.write(data, 0, nRead);
+                }
+            }
+            if (!hasData) {
+                return null; // no body sent
+            }
+            byte[] bytes = buffer.toByteArray();
+            if (!charset.equals(StandardCharsets.UTF_8)) {
+                bytes = new String(bytes, charset).getBytes(StandardCharsets.UTF_8);
+            }
+            return bytes;
+        } catch (IOException e) {
+            // On read errors, return null to avoid breaking the request handling
+            return null;
+        }
+    }
 }
@@ -1,6 +1,13 @@
 package at.technikum.server.http;
 
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.io.UncheckedIOException;
 import java.nio.charset.StandardCharsets;
+import java.util.Collections;
+import java.util.LinkedHashMap;
+import java.util.Map;
 
 public class Response {
 
@@ -10,6 +17,12 @@ public class Response {
 
     private byte[] body; // war vorher String
 
+    // alternativ zu body: schreibt direkt in den Response-Stream (z.B. JSON ohne String-Zwischenschritt)
+    private BodyWriter bodyWriter;
+
+    // zusätzliche Header (Content-Type wird separat gesetzt)
+    private final Map<String, String> headers = new LinkedHashMap<>();
+
     public void setStatus(Status status) {
         this.status = status;
     }
@@ -30,19 +43,66 @@ public class Response {
         this.contentType = contentType;
     }
 
+    /**
+     * Returns the body as bytes. A body writer is run once into a buffer and replaced by its output;
+     * the server streams writer bodies directly and does not go through this method.
+     */
     public byte[] getBodyBytes() {
+        if (body == null && bodyWriter != null) {
+            ByteArrayOutputStream buffer = new ByteArrayOutputStream();
+            try {
+                bodyWriter.writeTo(buffer);
+            } catch (IOException e) {
+                throw new UncheckedIOException("Failed to render response body", e);
+            }
+            body = buffer.toByteArray();
+            bodyWriter = null;
+        }
         return body;
     }
 
     public String getBody() {
-        return body == null ? null : new String(body, StandardCharsets.UTF_8);
+        byte[] bytes = getBodyBytes();
+        return bytes == null ? null : new String(bytes, StandardCharsets.UTF_8);
     }
 
     public void setBody(String body) {
         this.body = body == null ? null : body.getBytes(StandardCharsets.UTF_8);
+        this.bodyWriter = null;
     }
 
     public void setBody(byte[] body) {
         this.body = body;
+        this.bodyWriter = null;
+    }
+
+    public BodyWriter getBodyWriter() {
+        return bodyWriter;
+    }
+
+    public void setBodyWriter(BodyWriter bodyWriter) {
+        this.bodyWriter = bodyWriter;
+        this.body = null;
+    }
+
+    public void setHeader(String name, String value) {
+        headers.put(name, value);
+    }
+
+    public String getHeader(String name) {
+        return headers.get(name);
+    }
+
+    public Map<String, String> getHeaders() {
+        return Collections.unmodifiableMap(headers);
+    }
+
+    /**
+     * Writes the body into the given stream. Must not close the stream; the server decides
+     * between Content-Length and chunked encoding depending on how much is written.
+     */
+    @FunctionalInterface
+    public interface BodyWriter {
+        void writeTo(OutputStream out) throws IOException;
     }
 }
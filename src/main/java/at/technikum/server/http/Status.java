@@ -8,6 +8,7 @@ public enum Status {
     BAD_REQUEST(400, "Bad Request"),
     UNAUTHORIZED(401, "Unauthorized"),
     CONFLICT(409, "Conflict"),
+    PRECONDITION_FAILED(412, "Precondition Failed"),
     INTERNAL_SERVER_ERROR(500, "Internal Server Error");
 
     private final int code;
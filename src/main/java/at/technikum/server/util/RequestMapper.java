@@ -3,8 +3,6 @@ package at.technikum.server.util;
 import at.technikum.server.http.Request;
 import com.sun.net.httpserver.HttpExchange;
 
-import java.io.ByteArrayOutputStream;
-import java.io.IOException;
 import java.io.InputStream;
 import java.net.URLDecoder;
 import java.nio.charset.Charset;
@@ -36,9 +34,11 @@ public class RequestMapper {
         Map<String, String> queryParams = parseQuery(exchange.getRequestURI().getRawQuery());
         request.setQueryParams(queryParams);
 
-        // Read body safely (also fine for GET with empty body)
-        String body = readBody(exchange);
-        request.setBody(body);
+        // Body is read lazily (also fine for GET with empty body); imports stream it instead of buffering
+        InputStream body = exchange.getRequestBody();
+        if (body != null) {
+            request.setBodySource(body, charsetFromContentType(exchange));
+        }
 
         return request;
     }
@@ -70,35 +70,6 @@ public class RequestMapper {
         return map;
     }
 
-    private String readBody(HttpExchange exchange) {
-        // Determine charset from Content-Type header, default to UTF-8
-        Charset charset = charsetFromContentType(exchange);
-        // If there is no body, return null (keep prior semantics of showing <leer>)
-        try (InputStream is = exchange.getRequestBody();
-             ByteArrayOutputStream buffer = new ByteArrayOutputStream()) {
-            if (is == null) {
-                return null;
-            }
-            byte[] data = new byte[4096];
-            int nRead;
-            boolean hasData = false;
-            while ((nRead = is.read(data, 0, data.length)) != -1) {
-                if (nRead > 0) {
-                    hasData = true;
-                    buffer.write(data, 0, nRead);
-                }
-            }
-            if (!hasData) {
-                return null; // no body sent
-            }
-            byte[] bytes = buffer.toByteArray();
-            return new String(bytes, charset);
-        } catch (IOException e) {
-            // On read errors, return null to avoid breaking the request mapping
-            return null;
-        }
-    }
-
     private Charset charsetFromContentType(HttpExchange exchange) {
         List<String> headers = exchange.getRequestHeaders().get("Content-Type");
         if (headers != null) {
@@ -0,0 +1,102 @@
+package at.technikum.server.util;
+
+import java.io.IOException;
+import java.io.OutputStream;
+
+/**
+ * Response body stream that holds back the first {@code threshold} bytes.
+ *
+ * If the body ends within the threshold, the headers are sent with an exact Content-Length and the
+ * buffer is written in one go. As soon as the body grows past the threshold, the headers are sent
+ * for chunked transfer encoding, the buffer is flushed and everything after it goes straight to the socket.
+ */
+public class ResponseBodyStream extends OutputStream {
+
+    /**
+     * Sends the response headers and returns the stream for the body. The length follows
+     * HttpExchange.sendResponseHeaders: 0 = chunked, -1 = no body.
+     */
+    @FunctionalInterface
+    public interface Committer {
+        OutputStream commit(long contentLength) throws IOException;
+    }
+
+    private final byte[] buffer;
+    private final Committer committer;
+    private int count;
+    private OutputStream target; // null solange noch gepuffert wird
+    private boolean closed;
+
+    public ResponseBodyStream(int threshold, Committer committer) {
+        if (threshold < 0) {
+            throw new IllegalArgumentException("threshold must not be negative");
+        }
+        this.buffer = new byte[threshold];
+        this.committer = committer;
+    }
+
+    // true once the headers were sent, i.e. the status can no longer be changed
+    public boolean isCommitted() {
+        return target != null;
+    }
+
+    @Override
+    public void write(int b) throws IOException {
+        ensureOpen();
+        if (target == null && count == buffer.length) {
+            switchToChunked();
+        }
+        if (target != null) {
+            target.write(b);
+        } else {
+            buffer[count++] = (byte) b;
+        }
+    }
+
+    @Override
+    public void write(byte[] b, int off, int len) throws IOException {
+        ensureOpen();
+        if (target == null && count + len > buffer.length) {
+            switchToChunked();
+        }
+        if (target != null) {
+            target.write(b, off, len);
+        } else {
+            System.arraycopy(b, off, buffer, count, len);
+            count += len;
+        }
+    }
+
+    @Override
+    public void flush() throws IOException {
+        // while buffering a flush would force chunked encoding, so it is deferred to close()
+        if (target != null) {
+            target.flush();
+        }
+    }
+
+    @Override
+    public void close() throws IOException {
+        if (closed) {
+            return;
+        }
+        closed = true;
+        if (target == null) {
+            target = committer.commit(count == 0 ? -1 : count);
+            target.write(buffer, 0, count);
+        }
+        target.close();
+    }
+
+    private void switchToChunked() throws IOException {
+        target = committer.commit(0);
+        target.write(buffer, 0, count);
+        count = 0;
+    }
+
+    private void ensureOpen() throws IOException {
+        if (closed) {
+            throw new IOException("Stream closed");
+        }
+    }
+}
@@ -0,0 +1,86 @@
+package at.technikum.application.common;
+
+import at.technikum.application.mrp.media.dto.MediaUpsertDto;
+import org.junit.jupiter.api.Test;
+
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.time.LocalDate;
+import java.util.Map;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class JsonCodecUnitTest {
+
+    // ==================== read Tests ====================
+
+    @Test
+    void testRead_RawBytesWithUnknownField_BindsDto() throws IOException {
+        // Arrange
+        JsonCodec codec = new JsonCodec(true);
+        byte[] body = "{\"title\":\"Inception\",\"releaseYear\":2010,\"unknown\":true}".getBytes(StandardCharsets.UTF_8);
+
+        // Act
+        MediaUpsertDto dto = codec.read(body, MediaUpsertDto.class);
+
+        // Assert
+        assertEquals("Inception", dto.getTitle());
+        assertEquals(2010, dto.getReleaseYear());
+    }
+
+    @Test
+    void testReaderFor_SameType_ReturnsCachedInstance() {
+        // Arrange
+        JsonCodec codec = new JsonCodec(false);
+
+        // Act & Assert
+        assertSame(codec.readerFor(MediaUpsertDto.class), codec.readerFor(MediaUpsertDto.class));
+        assertSame(codec.writerFor(MediaUpsertDto.class), codec.writerFor(MediaUpsertDto.class));
+    }
+
+    // ==================== write Tests ====================
+
+    @Test
+    void testWrite_WithAndWithoutBlackbird_ProduceSameJson() throws IOException {
+        // Arrange
+        MediaUpsertDto dto = new MediaUpsertDto();
+        dto.setTitle("Inception");
+        dto.setReleaseYear(2010);
+
+        // Act
+        String generated = new String(new JsonCodec(true).writeAsBytes(dto), StandardCharsets.UTF_8);
+        String reflective = new String(new JsonCodec(false).writeAsBytes(dto), StandardCharsets.UTF_8);
+
+        // Assert
+        assertEquals(reflective, generated);
+        assertTrue(generated.contains("\"title\":\"Inception\""));
+    }
+
+    @Test
+    void testWrite_DateValue_WrittenAsIsoStringAndStreamStaysOpen() throws IOException {
+        // Arrange
+        JsonCodec codec = new JsonCodec(true);
+        ByteArrayOutputStream out = new ByteArrayOutputStream() {
+            @Override
+            public void close() {
+                throw new AssertionError("stream must not be closed by the codec");
+            }
+        };
+
+        // Act
+        codec.write(out, Map.of("day", LocalDate.of(2024, 1, 31)));
+
+        // Assert
+        assertEquals("{\"day\":\"2024-01-31\"}", out.toString(StandardCharsets.UTF_8));
+    }
+
+    // ==================== isBlank Tests ====================
+
+    @Test
+    void testIsBlank_WhitespaceAndNull_ReturnsTrue() {
+        assertTrue(JsonCodec.isBlank(null));
+        assertTrue(JsonCodec.isBlank(" \r\n\t".getBytes(StandardCharsets.UTF_8)));
+        assertFalse(JsonCodec.isBlank(" {}".getBytes(StandardCharsets.UTF_8)));
+    }
+}
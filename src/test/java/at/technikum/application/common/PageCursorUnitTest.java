@@ -0,0 +1,53 @@
+package at.technikum.application.common;
+
+import org.junit.jupiter.api.Test;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class PageCursorUnitTest {
+
+    // ==================== encode/decode Tests ====================
+
+    @Test
+    void testDecode_EncodedCursor_ReturnsSameValues() {
+        // Arrange
+        String cursor = PageCursor.encode("title", "Amélie, \"Le fabuleux\" / 2", "42");
+
+        // Act
+        String[] values = PageCursor.decode(cursor, "title", 3);
+
+        // Assert
+        assertArrayEquals(new String[]{"title", "Amélie, \"Le fabuleux\" / 2", "42"}, values);
+        assertTrue(cursor.matches("[A-Za-z0-9_-]+"), "cursor must be URL-safe");
+    }
+
+    @Test
+    void testDecode_CursorOfOtherSortMode_ThrowsIllegalArgumentException() {
+        // Arrange
+        String cursor = PageCursor.encode("id", "42");
+
+        // Act & Assert
+        assertThrows(IllegalArgumentException.class, () -> PageCursor.decode(cursor, "title", 3));
+        assertThrows(IllegalArgumentException.class, () -> PageCursor.decode(cursor, "id", 3));
+    }
+
+    @Test
+    void testDecode_Garbage_ThrowsIllegalArgumentException() {
+        assertThrows(IllegalArgumentException.class, () -> PageCursor.decode("not a cursor!", "id", 2));
+        assertThrows(IllegalArgumentException.class, () -> PageCursor.decode("e30", "id", 2)); // "{}"
+    }
+
+    // ==================== PageLimits Tests ====================
+
+    @Test
+    void testResolve_RequestedSizes_AreDefaultedAndCapped() {
+        // Arrange
+        PageLimits limits = new PageLimits(20, 100);
+
+        // Act & Assert
+        assertEquals(20, limits.resolve(null));
+        assertEquals(20, limits.resolve(0));
+        assertEquals(5, limits.resolve(5));
+        assertEquals(100, limits.resolve(1000));
+    }
+}
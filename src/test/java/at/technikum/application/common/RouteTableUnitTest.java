@@ -0,0 +1,137 @@
+package at.technikum.application.common;
+
+import at.technikum.server.http.Request;
+import at.technikum.server.http.Response;
+import at.technikum.server.http.Status;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class RouteTableUnitTest {
+
+    private RouteTable routes;
+
+    @BeforeEach
+    void setUp() {
+        routes = new RouteTable()
+                .add("GET", "/media", handler("list"))
+                .add("GET", "/media/{id}", handler("get"))
+                .add("PUT", "/media/{id}", handler("update"))
+                .add("POST", "/rating/media/{mediaId}", handler("rateMedia"))
+                .add("POST", "/rating/{id}/like", handler("like"))
+                .add("GET", "/rating/{id}", handler("rating"));
+    }
+
+    // ==================== match Tests ====================
+
+    @Test
+    void testMatch_IntParameter_IsParsed() {
+        // Act
+        RouteTable.Match match = routes.match("GET", "/media/42");
+
+        // Assert
+        assertTrue(match.isFound());
+        assertEquals(42, match.getParams().getInt("id"));
+    }
+
+    @Test
+    void testMatch_LiteralSegment_WinsOverParameter() {
+        // Act
+        RouteTable.Match media = routes.match("POST", "/rating/media/7");
+        RouteTable.Match like = routes.match("POST", "/rating/3/like");
+
+        // Assert
+        assertEquals("rateMedia", body(media));
+        assertEquals(7, media.getParams().getInt("mediaId"));
+        assertEquals("like", body(like));
+        assertEquals(3, like.getParams().getInt("id"));
+    }
+
+    @Test
+    void testMatch_NonNumericOrOverflowingId_NotFound() {
+        // Act & Assert
+        assertFalse(routes.match("GET", "/media/abc").isFound());
+        assertFalse(routes.match("GET", "/media/-1").isFound());
+        assertFalse(routes.match("GET", "/media/99999999999").isFound());
+        assertFalse(routes.match("GET", "/media/2147483648").isFound());
+        assertTrue(routes.match("GET", "/media/2147483647").isFound());
+    }
+
+    @Test
+    void testMatch_TrailingSlashOrPrefix_NotFound() {
+        // Act & Assert
+        assertFalse(routes.match("GET", "/media/").isFound());
+        assertFalse(routes.match("GET", "/mediax").isFound());
+        assertFalse(routes.match("GET", "/media/1/extra").isFound());
+        assertFalse(routes.match("GET", "").isFound());
+    }
+
+    @Test
+    void testMatch_KnownPathOtherMethod_MethodNotAllowedWithAllowList() {
+        // Act
+        RouteTable.Match match = routes.match("DELETE", "/media/1");
+
+        // Assert
+        assertTrue(match.isMethodNotAllowed());
+        assertEquals("GET, PUT", match.getAllow());
+    }
+
+    // ==================== dispatch Tests ====================
+
+    @Test
+    void testDispatch_UnknownPath_Returns404() {
+        // Act
+        Response response = routes.dispatch(request("GET", "/unknown"));
+
+        // Assert
+        assertEquals(404, response.getStatusCode());
+        assertTrue(response.getBody().contains("Route not found"));
+    }
+
+    @Test
+    void testDispatch_WrongMethod_Returns405WithAllowHeader() {
+        // Act
+        Response response = routes.dispatch(request("POST", "/media/1"));
+
+        // Assert
+        assertEquals(405, response.getStatusCode());
+        assertEquals("GET, PUT", response.getHeader("Allow"));
+    }
+
+    // ==================== add Tests ====================
+
+    @Test
+    void testAdd_DuplicateRoute_Throws() {
+        // Act & Assert
+        assertThrows(IllegalArgumentException.class, () -> routes.add("GET", "/media/{id}", handler("again")));
+    }
+
+    @Test
+    void testAdd_ConflictingParameterName_Throws() {
+        // Act & Assert
+        assertThrows(IllegalArgumentException.class, () -> routes.add("DELETE", "/media/{mediaId}", handler("delete")));
+    }
+
+    // ==================== Helper Methods ====================
+
+    private static RouteHandler handler(String name) {
+        return (request, params) -> {
+            Response response = new Response();
+            response.setStatus(Status.OK);
+            response.setBody(name);
+            return response;
+        };
+    }
+
+    private static String body(RouteTable.Match match) {
+        return match.getHandler().handle(null, match.getParams()).getBody();
+    }
+
+    private static Request request(String method, String path) {
+        Request request = new Request();
+        request.setMethod(method);
+        request.setPath(path);
+        return request;
+    }
+}
@@ -4,6 +4,10 @@ import java.util.ArrayList;
 import java.util.List;
 import java.util.Optional;
 
+/**
+ * Former prefix router (linear startsWith scan), the baseline of RouterBenchmark. The application
+ * routes through {@link RouteTable}.
+ */
 public class Router {
 
     private List<Route> routes;
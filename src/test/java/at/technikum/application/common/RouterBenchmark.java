@@ -0,0 +1,164 @@
+package at.technikum.application.common;
+
+import at.technikum.server.http.Request;
+import at.technikum.server.http.Response;
+import at.technikum.server.http.Status;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+import org.openjdk.jmh.infra.Blackhole;
+import org.openjdk.jmh.runner.Runner;
+import org.openjdk.jmh.runner.options.OptionsBuilder;
+
+import java.util.concurrent.TimeUnit;
+import java.util.regex.Matcher;
+import java.util.regex.Pattern;
+
+/**
+ * JMH benchmark: prefix {@link Router} plus the regex matching the controllers used to do, compared
+ * with the {@link RouteTable} trie, over a mix of typical request paths. Not part of the unit test run:
+ *
+ *   mvn -q test-compile exec:java -Dexec.classpathScope=test \
+ *       -Dexec.mainClass=at.technikum.application.common.RouterBenchmark
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class RouterBenchmark {
+
+    private static final String[][] REQUESTS = {
+            {"GET", "/media"},
+            {"GET", "/media/123"},
+            {"PUT", "/media/123"},
+            {"POST", "/rating/media/7"},
+            {"POST", "/rating/45/like"},
+            {"POST", "/rating/45/confirm"},
+            {"GET", "/rating/45"},
+            {"POST", "/favorite/media/9"},
+            {"GET", "/leaderboard"},
+            {"GET", "/users/profile"},
+            {"GET", "/rec"},
+            {"GET", "/ping"},
+            {"DELETE", "/leaderboard"},   // 405
+            {"GET", "/unknown/path"},     // 404
+    };
+
+    private static final Response OK = ok();
+
+    private Router router;
+    private RouteTable routeTable;
+    private Request[] requests;
+
+    @Setup
+    public void setUp() {
+        router = new Router();
+        router.addRoute("/users", new LegacyController("^/users/(profile|ratings|favorites)$"));
+        router.addRoute("/auth", new LegacyController("^/auth/(register|login)$"));
+        router.addRoute("/media", new LegacyController("^/media$", "^/media/(\\d+)$"));
+        router.addRoute("/rating", new LegacyController(
+                "^/rating/media/(\\d+)$", "^/rating$", "^/rating/(\\d+)/like$", "^/rating/(\\d+)/confirm$", "^/rating/(\\d+)$"));
+        router.addRoute("/favorite", new LegacyController("^/favorite$", "^/favorite/media/(\\d+)$"));
+        router.addRoute("/leaderboard", new LegacyController("^/leaderboard$"));
+        router.addRoute("/rec", new LegacyController("^/rec$"));
+        router.addRoute("/ping", new LegacyController("^/ping$"));
+
+        RouteHandler handler = (request, params) -> OK;
+        routeTable = new RouteTable()
+                .add("GET", "/users/profile", handler).add("PUT", "/users/profile", handler)
+                .add("GET", "/users/ratings", handler).add("GET", "/users/favorites", handler)
+                .add("POST", "/auth/register", handler).add("POST", "/auth/login", handler)
+                .add("GET", "/media", handler).add("POST", "/media", handler)
+                .add("GET", "/media/{id}", handler).add("PUT", "/media/{id}", handler).add("DELETE", "/media/{id}", handler)
+                .add("POST", "/rating/media/{mediaId}", handler)
+                .add("GET", "/rating", handler).add("POST", "/rating", handler)
+                .add("POST", "/rating/{id}/like", handler).add("DELETE", "/rating/{id}/like", handler)
+                .add("POST", "/rating/{id}/confirm", handler)
+                .add("GET", "/rating/{id}", handler).add("PUT", "/rating/{id}", handler).add("DELETE", "/rating/{id}", handler)
+                .add("GET", "/favorite", handler)
+                .add("POST", "/favorite/media/{mediaId}", handler).add("DELETE", "/favorite/media/{mediaId}", handler)
+                .add("GET", "/leaderboard", handler)
+                .add("GET", "/rec", handler)
+                .add("GET", "/ping", handler);
+
+        requests = new Request[REQUESTS.length];
+        for (int i = 0; i < REQUESTS.length; i++) {
+            Request request = new Request();
+            request.setMethod(REQUESTS[i][0]);
+            request.setPath(REQUESTS[i][1]);
+            requests[i] = request;
+        }
+    }
+
+    @Benchmark
+    public void prefixRouterWithRegex(Blackhole bh) {
+        for (Request request : requests) {
+            bh.consume(router.findController(request.getPath())
+                    .map(controller -> controller.handle(request))
+                    .orElse(null));
+        }
+    }
+
+    @Benchmark
+    public void routeTable(Blackhole bh) {
+        for (Request request : requests) {
+            bh.consume(routeTable.dispatch(request));
+        }
+    }
+
+    public static void main(String[] args) throws Exception {
+        new Runner(new OptionsBuilder().include(RouterBenchmark.class.getSimpleName()).build()).run();
+    }
+
+    private static Response ok() {
+        Response response = new Response();
+        response.setStatus(Status.OK);
+        return response;
+    }
+
+    // What a controller did per request before: try its patterns in order, parse the id group
+    private static final class LegacyController extends Controller {
+        private final Pattern[] patterns;
+
+        LegacyController(String... regexes) {
+            patterns = new Pattern[regexes.length];
+            for (int i = 0; i < regexes.length; i++) {
+                patterns[i] = Pattern.compile(regexes[i]);
+            }
+        }
+
+        @Override
+        public void registerRoutes(RouteTable routes) {
+        }
+
+        @Override
+        public Response handle(Request request) {
+            for (Pattern pattern : patterns) {
+                Matcher matcher = pattern.matcher(request.getPath());
+                if (matcher.matches()) {
+                    if (matcher.groupCount() > 0 && matcher.group(1) != null && Character.isDigit(matcher.group(1).charAt(0))) {
+                        Integer.parseInt(matcher.group(1));
+                    }
+                    switch (request.getMethod()) {
+                        case "GET", "POST", "PUT", "DELETE" -> {
+                            return OK;
+                        }
+                        default -> {
+                            return null;
+                        }
+                    }
+                }
+            }
+            return null;
+        }
+    }
+}
@@ -0,0 +1,173 @@
+package at.technikum.application.common;
+
+import org.junit.jupiter.api.Test;
+
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.function.Function;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class WTinyLfuCacheUnitTest {
+
+    private long now = 0;
+    private final AtomicInteger loads = new AtomicInteger();
+
+    // ==================== get Tests ====================
+
+    @Test
+    void testGet_CachedValue_LoadsOnlyOnce() {
+        // Arrange
+        WTinyLfuCache<Integer, String> cache = cache(10, 100);
+
+        // Act
+        cache.get(1, loader());
+        String second = cache.get(1, loader());
+
+        // Assert
+        assertEquals("value-1", second);
+        assertEquals(1, loads.get());
+        assertEquals(1, cache.getHits());
+        assertEquals(1, cache.getMisses());
+        assertEquals(0.5, cache.getHitRatio());
+    }
+
+    @Test
+    void testGet_TtlExpired_LoadsAgain() {
+        // Arrange
+        WTinyLfuCache<Integer, String> cache = cache(10, 100);
+        cache.get(1, loader());
+
+        // Act
+        now += 1_000 * 1_000_000L;
+        cache.get(1, loader());
+
+        // Assert
+        assertEquals(2, loads.get());
+    }
+
+    @Test
+    void testGet_NullResult_IsCachedUntilNegativeTtl() {
+        // Arrange
+        WTinyLfuCache<Integer, String> cache = cache(10, 100);
+        Function<Integer, String> missing = key -> {
+            loads.incrementAndGet();
+            return null;
+        };
+
+        // Act
+        assertNull(cache.get(7, missing));
+        assertNull(cache.get(7, missing));
+        now += 100 * 1_000_000L;
+        cache.get(7, missing);
+
+        // Assert
+        assertEquals(2, loads.get());
+        assertEquals(1, cache.getNegativeHits());
+    }
+
+    // ==================== Invalidation Tests ====================
+
+    @Test
+    void testInvalidate_CachedKey_LoadsAgain() {
+        // Arrange
+        WTinyLfuCache<Integer, String> cache = cache(10, 100);
+        cache.get(1, loader());
+
+        // Act
+        cache.invalidate(1);
+        cache.get(1, loader());
+
+        // Assert
+        assertEquals(2, loads.get());
+    }
+
+    @Test
+    void testGet_InvalidatedWhileLoading_DoesNotStoreStaleValue() {
+        // Arrange
+        WTinyLfuCache<Integer, String> cache = cache(10, 100);
+
+        // Act: a write invalidates the key while the (now stale) value is being loaded
+        String stale = cache.get(1, key -> {
+            cache.invalidate(key);
+            return "stale";
+        });
+        String fresh = cache.get(1, loader());
+
+        // Assert
+        assertEquals("stale", stale);
+        assertEquals("value-1", fresh);
+        assertEquals(1, loads.get());
+    }
+
+    // ==================== Eviction Tests ====================
+
+    @Test
+    void testGet_MoreKeysThanMaxEntries_StaysWithinBound() {
+        // Arrange
+        WTinyLfuCache<Integer, String> cache = cache(5, 1_000);
+
+        // Act
+        for (int key = 0; key < 50; key++) {
+            cache.get(key, loader());
+        }
+
+        // Assert
+        assertEquals(5, cache.size());
+        assertTrue(cache.getEvictions() + cache.getRejections() >= 45);
+    }
+
+    @Test
+    void testGet_HeavyValues_StaysWithinMaxWeight() {
+        // Arrange
+        WTinyLfuCache<Integer, String> cache = new WTinyLfuCache<>(100, 100, 1_000, 100, String::length, () -> now);
+
+        // Act
+        for (int key = 0; key < 30; key++) {
+            cache.get(key, k -> "x".repeat(10));
+        }
+        cache.get(99, k -> "x".repeat(500));
+        cache.get(99, k -> "x".repeat(500));
+
+        // Assert: the value heavier than the whole cache is never stored
+        assertTrue(cache.weight() <= 100);
+        assertEquals(2, cache.getMisses() - 30);
+    }
+
+    @Test
+    void testGet_OneOffScan_KeepsFrequentlyReadEntries() {
+        // Arrange
+        WTinyLfuCache<Integer, String> cache = cache(100, 100);
+        for (int round = 0; round < 5; round++) {
+            for (int key = 0; key < 50; key++) {
+                cache.get(key, loader());
+            }
+        }
+        loads.set(0);
+
+        // Act: 500 keys read exactly once
+        for (int key = 1_000; key < 1_500; key++) {
+            cache.get(key, k -> "scan");
+        }
+        for (int key = 0; key < 50; key++) {
+            cache.get(key, loader());
+        }
+
+        // Assert
+        assertEquals(0, loads.get());
+        assertEquals(100, cache.size());
+        assertTrue(cache.getRejections() > 0);
+    }
+
+    // ==================== Helper Methods ====================
+
+    private WTinyLfuCache<Integer, String> cache(int maxEntries, long maxWeight) {
+        return new WTinyLfuCache<>(maxEntries, maxWeight, 1_000, 100, value -> 1, () -> now);
+    }
+
+    private Function<Integer, String> loader() {
+        return key -> {
+            loads.incrementAndGet();
+            return "value-" + key;
+        };
+    }
+}
@@ -8,6 +8,8 @@ import org.junit.jupiter.api.extension.ExtendWith;
 import org.mockito.Mock;
 import org.mockito.junit.jupiter.MockitoExtension;
 
+import java.nio.charset.StandardCharsets;
+
 import static org.junit.jupiter.api.Assertions.*;
 import static org.mockito.Mockito.*;
 
@@ -34,7 +36,7 @@ class AuthControllerUnitTest {
         // Arrange
         when(request.getPath()).thenReturn("/auth/register");
         when(request.getMethod()).thenReturn("POST");
-        when(request.getBody()).thenReturn("{\"username\":\"john_doe\",\"email\":\"john@example.com\",\"password\":\"password123\"}");
+        when(request.getBodyBytes()).thenReturn(bytes("{\"username\":\"john_doe\",\"email\":\"john@example.com\",\"password\":\"password123\"}"));
         when(authService.usernameExists("john_doe")).thenReturn(false);
 
         // Act
@@ -53,7 +55,7 @@ class AuthControllerUnitTest {
         // Arrange
         when(request.getPath()).thenReturn("/auth/register");
         when(request.getMethod()).thenReturn("POST");
-        when(request.getBody()).thenReturn("{\"username\":\"john_doe\",\"email\":\"john@example.com\",\"password\":\"password123\"}");
+        when(request.getBodyBytes()).thenReturn(bytes("{\"username\":\"john_doe\",\"email\":\"john@example.com\",\"password\":\"password123\"}"));
         when(authService.usernameExists("john_doe")).thenReturn(true);
 
         // Act
@@ -72,7 +74,7 @@ class AuthControllerUnitTest {
         // Arrange
         when(request.getPath()).thenReturn("/auth/register");
         when(request.getMethod()).thenReturn("POST");
-        when(request.getBody()).thenReturn("");
+        when(request.getBodyBytes()).thenReturn(bytes(""));
 
         // Act
         Response response = controller.handle(request);
@@ -90,7 +92,7 @@ class AuthControllerUnitTest {
         // Arrange
         when(request.getPath()).thenReturn("/auth/register");
         when(request.getMethod()).thenReturn("POST");
-        when(request.getBody()).thenReturn(null);
+        when(request.getBodyBytes()).thenReturn(null);
 
         // Act
         Response response = controller.handle(request);
@@ -108,7 +110,7 @@ class AuthControllerUnitTest {
         // Arrange
         when(request.getPath()).thenReturn("/auth/register");
         when(request.getMethod()).thenReturn("POST");
-        when(request.getBody()).thenReturn("invalid json");
+        when(request.getBodyBytes()).thenReturn(bytes("invalid json"));
 
         // Act
         Response response = controller.handle(request);
@@ -128,7 +130,7 @@ class AuthControllerUnitTest {
         // Arrange
         when(request.getPath()).thenReturn("/auth/login");
         when(request.getMethod()).thenReturn("POST");
-        when(request.getBody()).thenReturn("{\"username\":\"john_doe\",\"password\":\"password123\"}");
+        when(request.getBodyBytes()).thenReturn(bytes("{\"username\":\"john_doe\",\"password\":\"password123\"}"));
         when(authService.login(any())).thenReturn("john_doe-mrpToken");
 
         // Act
@@ -146,7 +148,7 @@ class AuthControllerUnitTest {
         // Arrange
         when(request.getPath()).thenReturn("/auth/login");
         when(request.getMethod()).thenReturn("POST");
-        when(request.getBody()).thenReturn("{\"username\":\"john_doe\",\"password\":\"wrongpassword\"}");
+        when(request.getBodyBytes()).thenReturn(bytes("{\"username\":\"john_doe\",\"password\":\"wrongpassword\"}"));
         when(authService.login(any())).thenReturn(null);
 
         // Act
@@ -164,7 +166,7 @@ class AuthControllerUnitTest {
         // Arrange
         when(request.getPath()).thenReturn("/auth/login");
         when(request.getMethod()).thenReturn("POST");
-        when(request.getBody()).thenReturn("");
+        when(request.getBodyBytes()).thenReturn(bytes(""));
 
         // Act
         Response response = controller.handle(request);
@@ -181,7 +183,7 @@ class AuthControllerUnitTest {
         // Arrange
         when(request.getPath()).thenReturn("/auth/login");
         when(request.getMethod()).thenReturn("POST");
-        when(request.getBody()).thenReturn("not json");
+        when(request.getBodyBytes()).thenReturn(bytes("not json"));
 
         // Act
         Response response = controller.handle(request);
@@ -227,5 +229,10 @@ class AuthControllerUnitTest {
         // since the conditions for POST handling are not met
         verify(authService, never()).register(any());
     }
-}
 
+    // ==================== Helper Methods ====================
+
+    private static byte[] bytes(String body) {
+        return body.getBytes(StandardCharsets.UTF_8);
+    }
+}
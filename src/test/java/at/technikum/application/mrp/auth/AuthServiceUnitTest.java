@@ -10,6 +10,7 @@ import org.mockito.Mock;
 import org.mockito.junit.jupiter.MockitoExtension;
 
 import java.util.Optional;
+import java.util.function.Consumer;
 
 import static org.junit.jupiter.api.Assertions.*;
 import static org.mockito.Mockito.*;
@@ -24,7 +25,7 @@ class AuthServiceUnitTest {
 
     @BeforeEach
     void setUp() {
-        authService = new AuthService(authRepository);
+        authService = AuthService.create(authRepository);
     }
 
     // ==================== register Tests ====================
@@ -261,5 +262,72 @@ class AuthServiceUnitTest {
         assertFalse(result.isPresent());
         verify(authRepository).findByUsername("nonexistent");
     }
-}
 
+    @Test
+    void testGetUserByToken_RepeatedToken_LoadsUserOnce() {
+        // Arrange
+        String token = "john_doe-mrpToken";
+        when(authRepository.findByUsername("john_doe")).thenReturn(Optional.of(createUser(1, "john_doe")));
+
+        // Act
+        authService.getUserByToken(token);
+        Optional<UserEntity> result = authService.getUserByToken(token);
+
+        // Assert
+        assertTrue(result.isPresent());
+        assertEquals(1, result.get().getId());
+        verify(authRepository, times(1)).findByUsername("john_doe");
+        assertEquals(1, authService.getTokenCache().getHits());
+        assertEquals(1, authService.getTokenCache().getMisses());
+    }
+
+    @Test
+    void testGetUserByToken_UnknownTokenRepeated_NegativeEntryIsCached() {
+        // Arrange
+        String token = "ghost-mrpToken";
+        when(authRepository.findByUsername("ghost")).thenReturn(Optional.empty());
+
+        // Act
+        authService.getUserByToken(token);
+        Optional<UserEntity> result = authService.getUserByToken(token);
+
+        // Assert
+        assertFalse(result.isPresent());
+        verify(authRepository, times(1)).findByUsername("ghost");
+        assertEquals(1, authService.getTokenCache().getNegativeHits());
+    }
+
+    @Test
+    @SuppressWarnings("unchecked")
+    void testSave_UserUpdated_InvalidatesCachedToken() {
+        // Arrange
+        String token = "john_doe-mrpToken";
+        UserEntity before = createUser(1, "john_doe");
+        before.setEmail("old@example.com");
+        UserEntity after = createUser(1, "john_doe");
+        after.setEmail("new@example.com");
+        when(authRepository.findByUsername("john_doe")).thenReturn(Optional.of(before), Optional.of(after));
+        ArgumentCaptor<Consumer<UserEntity>> listener = ArgumentCaptor.forClass(Consumer.class);
+        verify(authRepository).addSaveListener(listener.capture());
+        authService.getUserByToken(token);
+
+        // Act
+        listener.getValue().accept(after);
+        Optional<UserEntity> result = authService.getUserByToken(token);
+
+        // Assert
+        assertTrue(result.isPresent());
+        assertEquals("new@example.com", result.get().getEmail());
+        verify(authRepository, times(2)).findByUsername("john_doe");
+    }
+
+    // ==================== Helper Methods ====================
+
+    private UserEntity createUser(int id, String username) {
+        UserEntity user = new UserEntity();
+        user.setId(id);
+        user.setUsername(username);
+        user.setPassword("secret");
+        return user;
+    }
+}
@@ -0,0 +1,131 @@
+package at.technikum.application.mrp.auth;
+
+import at.technikum.application.mrp.user.entity.UserEntity;
+import org.junit.jupiter.api.Test;
+
+import java.util.Optional;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.function.Function;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class TokenCacheUnitTest {
+
+    private long now = 0;
+    private final AtomicInteger loads = new AtomicInteger();
+
+    // ==================== get Tests ====================
+
+    @Test
+    void testGet_ReturnedPrincipal_HasNoPasswordAndIsACopy() {
+        // Arrange
+        TokenCache cache = new TokenCache(10, 1_000, 100, () -> now);
+        cache.get("a-mrpToken", loader(1));
+
+        // Act
+        UserEntity first = cache.get("a-mrpToken", loader(1)).orElseThrow();
+        first.setEmail("changed@example.com");
+        UserEntity second = cache.get("a-mrpToken", loader(1)).orElseThrow();
+
+        // Assert
+        assertNull(first.getPassword());
+        assertEquals("user1@example.com", second.getEmail());
+        assertEquals(1, loads.get());
+    }
+
+    @Test
+    void testGet_TtlExpired_LoadsAgain() {
+        // Arrange
+        TokenCache cache = new TokenCache(10, 1_000, 100, () -> now);
+        cache.get("a-mrpToken", loader(1));
+
+        // Act
+        now += 1_000 * 1_000_000L;
+        cache.get("a-mrpToken", loader(1));
+
+        // Assert
+        assertEquals(2, loads.get());
+        assertEquals(2, cache.getMisses());
+    }
+
+    @Test
+    void testGet_NegativeEntry_ExpiresAfterNegativeTtl() {
+        // Arrange
+        TokenCache cache = new TokenCache(10, 1_000, 100, () -> now);
+        Function<String, Optional<UserEntity>> missing = token -> {
+            loads.incrementAndGet();
+            return Optional.empty();
+        };
+        cache.get("ghost-mrpToken", missing);
+
+        // Act
+        cache.get("ghost-mrpToken", missing);
+        now += 100 * 1_000_000L;
+        cache.get("ghost-mrpToken", missing);
+
+        // Assert
+        assertEquals(2, loads.get());
+        assertEquals(1, cache.getNegativeHits());
+    }
+
+    @Test
+    void testGet_MaxEntriesReached_StaysBounded() {
+        // Arrange
+        TokenCache cache = new TokenCache(3, 1_000, 100, () -> now);
+
+        // Act
+        for (int i = 0; i < 10; i++) {
+            now += 1_000_000L;
+            cache.get("user" + i + "-mrpToken", loader(i));
+        }
+
+        // Assert
+        assertEquals(3, cache.size());
+        assertEquals(7, cache.getEvictions());
+    }
+
+    // ==================== invalidate Tests ====================
+
+    @Test
+    void testInvalidateUser_CachedEntry_IsReloaded() {
+        // Arrange
+        TokenCache cache = new TokenCache(10, 1_000, 100, () -> now);
+        cache.get("a-mrpToken", loader(1));
+
+        // Act
+        cache.invalidateUser(1);
+        cache.get("a-mrpToken", loader(1));
+
+        // Assert
+        assertEquals(2, loads.get());
+    }
+
+    @Test
+    void testInvalidateToken_DuringLoad_ResultIsNotCached() {
+        // Arrange
+        TokenCache cache = new TokenCache(10, 1_000, 100, () -> now);
+
+        // Act
+        cache.get("a-mrpToken", token -> {
+            cache.invalidateToken(token); // concurrent write while the user was being loaded
+            return loader(1).apply(token);
+        });
+
+        // Assert
+        assertEquals(0, cache.size());
+    }
+
+    // ==================== Helper Methods ====================
+
+    private Function<String, Optional<UserEntity>> loader(int id) {
+        return token -> {
+            loads.incrementAndGet();
+            UserEntity user = new UserEntity();
+            user.setId(id);
+            user.setUsername("user" + id);
+            user.setEmail("user" + id + "@example.com");
+            user.setPassword("secret");
+            return Optional.of(user);
+        };
+    }
+}
@@ -0,0 +1,139 @@
+package at.technikum.application.mrp.database;
+
+import javax.sql.DataSource;
+import java.lang.reflect.InvocationTargetException;
+import java.lang.reflect.Proxy;
+import java.sql.Connection;
+import java.sql.DriverManager;
+import java.sql.SQLException;
+import java.sql.Statement;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Support code for the manual benchmarks: a connection pool on a scratch schema of the configured
+ * database (DB_URL, DB_USER, DB_PASSWORD) and a DataSource wrapper that counts executed statements.
+ * The scratch schema is dropped again on close.
+ */
+public class BenchmarkDatabase implements AutoCloseable {
+
+    private final String schema;
+    private final ConnectionPoolConfig baseConfig;
+    private final ConnectionPool pool;
+    private final AtomicLong executedStatements = new AtomicLong();
+    private final DataSource countingDataSource;
+
+    public BenchmarkDatabase(String schema) throws SQLException {
+        this.schema = schema;
+        this.baseConfig = ConnectionPoolConfig.fromEnvironment();
+        try (Connection conn = DriverManager.getConnection(baseConfig.getUrl(), baseConfig.getUser(), baseConfig.getPassword());
+             Statement stmt = conn.createStatement()) {
+            stmt.execute("DROP SCHEMA IF EXISTS " + schema + " CASCADE");
+            stmt.execute("CREATE SCHEMA " + schema);
+        }
+
+        ConnectionPoolConfig config = ConnectionPoolConfig.fromEnvironment();
+        String url = config.getUrl();
+        config.setUrl(url + (url.contains("?") ? "&" : "?") + "currentSchema=" + schema);
+        this.pool = new ConnectionPool(config);
+        pool.startHousekeeping();
+        this.countingDataSource = countingDataSource(pool);
+
+        try (Connection conn = pool.getConnection()) {
+            DatabaseInitializer.initializeSchema(conn);
+        }
+    }
+
+    // Pool without statement counting, e.g. for seeding
+    public DataSource getRawDataSource() {
+        return pool;
+    }
+
+    // DataSource whose connections count every executed statement
+    public DataSource getDataSource() {
+        return countingDataSource;
+    }
+
+    public long getExecutedStatements() {
+        return executedStatements.get();
+    }
+
+    @Override
+    public void close() throws SQLException {
+        pool.close();
+        try (Connection conn = DriverManager.getConnection(baseConfig.getUrl(), baseConfig.getUser(), baseConfig.getPassword());
+             Statement stmt = conn.createStatement()) {
+            stmt.execute("DROP SCHEMA IF EXISTS " + schema + " CASCADE");
+        }
+    }
+
+    private DataSource countingDataSource(DataSource target) {
+        return (DataSource) Proxy.newProxyInstance(
+                getClass().getClassLoader(),
+                new Class<?>[]{DataSource.class},
+                (proxy, method, args) -> {
+                    Object result = invoke(target, method, args);
+                    return result instanceof Connection connection ? countingConnection(connection) : result;
+                });
+    }
+
+    private Connection countingConnection(Connection target) {
+        return (Connection) Proxy.newProxyInstance(
+                getClass().getClassLoader(),
+                new Class<?>[]{Connection.class},
+                (proxy, method, args) -> {
+                    Object result = invoke(target, method, args);
+                    return result instanceof Statement statement ? countingStatement(statement) : result;
+                });
+    }
+
+    private Statement countingStatement(Statement target) {
+        // keep the concrete JDBC interface (PreparedStatement / CallableStatement) of the target
+        Class<?>[] interfaces = target instanceof java.sql.CallableStatement
+                ? new Class<?>[]{java.sql.CallableStatement.class}
+                : target instanceof java.sql.PreparedStatement
+                ? new Class<?>[]{java.sql.PreparedStatement.class}
+                : new Class<?>[]{Statement.class};
+        return (Statement) Proxy.newProxyInstance(
+                getClass().getClassLoader(),
+                interfaces,
+                (proxy, method, args) -> {
+                    if (method.getName().startsWith("execute")) {
+                        executedStatements.incrementAndGet();
+                    }
+                    return invoke(target, method, args);
+                });
+    }
+
+    private static Object invoke(Object target, java.lang.reflect.Method method, Object[] args) throws Throwable {
+        try {
+            return method.invoke(target, args);
+        } catch (InvocationTargetException e) {
+            throw e.getCause();
+        }
+    }
+
+    /**
+     * Runs the action a number of times and prints average latency and executed statements per run.
+     */
+    public void measure(String name, int iterations, ThrowingRunnable action) throws Exception {
+        action.run(); // warm-up
+        long statementsBefore = getExecutedStatements();
+        long best = Long.MAX_VALUE;
+        long total = 0;
+        for (int i = 0; i < iterations; i++) {
+            long start = System.nanoTime();
+            action.run();
+            long elapsed = System.nanoTime() - start;
+            total += elapsed;
+            best = Math.min(best, elapsed);
+        }
+        double queriesPerRun = (getExecutedStatements() - statementsBefore) / (double) iterations;
+        System.out.printf("%-40s %10.1f queries/op %10.2f ms avg %10.2f ms best%n",
+                name, queriesPerRun, total / iterations / 1e6, best / 1e6);
+    }
+
+    @FunctionalInterface
+    public interface ThrowingRunnable {
+        void run() throws Exception;
+    }
+}
@@ -0,0 +1,166 @@
+package at.technikum.application.mrp.database;
+
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Test;
+
+import java.sql.Connection;
+import java.sql.SQLException;
+import java.sql.SQLTimeoutException;
+import java.util.ArrayList;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.Mockito.*;
+
+class ConnectionPoolUnitTest {
+
+    private final List<Connection> opened = new ArrayList<>();
+    private ConnectionPool pool;
+
+    @AfterEach
+    void tearDown() {
+        if (pool != null) {
+            pool.close();
+        }
+    }
+
+    // ==================== borrow / return Tests ====================
+
+    @Test
+    void testGetConnection_ClosedHandle_PhysicalConnectionIsReused() throws Exception {
+        // Arrange
+        pool = new ConnectionPool(config(0, 2), this::openMockConnection);
+
+        // Act
+        Connection first = pool.getConnection();
+        first.close();
+        Connection second = pool.getConnection();
+        second.close();
+
+        // Assert
+        assertEquals(1, opened.size());
+        assertEquals(1, pool.getTotalConnections());
+        assertEquals(1, pool.getIdleConnections());
+        verify(opened.get(0), never()).close();
+    }
+
+    @Test
+    void testGetConnection_MinSize_OpensConnectionsUpFront() {
+        // Act
+        pool = new ConnectionPool(config(2, 4), this::openMockConnection);
+
+        // Assert
+        assertEquals(2, opened.size());
+        assertEquals(2, pool.getIdleConnections());
+        assertEquals(0, pool.getActiveConnections());
+    }
+
+    @Test
+    void testGetConnection_PoolExhausted_ThrowsTimeout() throws Exception {
+        // Arrange
+        ConnectionPoolConfig config = config(0, 1);
+        config.setAcquireTimeoutMillis(50);
+        pool = new ConnectionPool(config, this::openMockConnection);
+        Connection held = pool.getConnection();
+
+        // Act & Assert
+        assertThrows(SQLTimeoutException.class, () -> pool.getConnection());
+        held.close();
+        assertDoesNotThrow(() -> pool.getConnection().close());
+    }
+
+    @Test
+    void testClose_CalledTwice_ReleasesOnlyOnce() throws Exception {
+        // Arrange
+        pool = new ConnectionPool(config(0, 1), this::openMockConnection);
+        Connection handle = pool.getConnection();
+
+        // Act
+        handle.close();
+        handle.close();
+
+        // Assert
+        assertTrue(handle.isClosed());
+        assertEquals(1, pool.getIdleConnections());
+        assertThrows(SQLException.class, handle::createStatement);
+    }
+
+    @Test
+    void testClose_OpenTransaction_IsRolledBackBeforeReuse() throws Exception {
+        // Arrange
+        pool = new ConnectionPool(config(0, 1), this::openMockConnection);
+        Connection handle = pool.getConnection();
+        Connection physical = opened.get(0);
+        when(physical.getAutoCommit()).thenReturn(false);
+
+        // Act
+        handle.close();
+
+        // Assert
+        verify(physical).rollback();
+        verify(physical).setAutoCommit(true);
+    }
+
+    // ==================== validation / eviction Tests ====================
+
+    @Test
+    void testGetConnection_InvalidIdleConnection_IsReplaced() throws Exception {
+        // Arrange
+        ConnectionPoolConfig config = config(0, 2);
+        config.setValidationBypassMillis(0);
+        pool = new ConnectionPool(config, this::openMockConnection);
+        pool.getConnection().close();
+        Connection stale = opened.get(0);
+        when(stale.isValid(anyInt())).thenReturn(false);
+
+        // Act
+        Connection fresh = pool.getConnection();
+
+        // Assert
+        assertEquals(2, opened.size());
+        verify(stale).close();
+        assertEquals(1, pool.getTotalConnections());
+        fresh.close();
+    }
+
+    @Test
+    void testHousekeep_IdleTimeoutExceeded_EvictsDownToMinSize() throws Exception {
+        // Arrange
+        ConnectionPoolConfig config = config(1, 3);
+        config.setIdleTimeoutMillis(0);
+        pool = new ConnectionPool(config, this::openMockConnection);
+        Connection a = pool.getConnection();
+        Connection b = pool.getConnection();
+        Connection c = pool.getConnection();
+        a.close();
+        b.close();
+        c.close();
+        Thread.sleep(5);
+
+        // Act
+        pool.housekeep();
+
+        // Assert
+        assertEquals(1, pool.getTotalConnections());
+        assertEquals(1, pool.getIdleConnections());
+    }
+
+    // ==================== Helper Methods ====================
+
+    private ConnectionPoolConfig config(int min, int max) {
+        ConnectionPoolConfig config = new ConnectionPoolConfig();
+        config.setMinSize(min);
+        config.setMaxSize(max);
+        config.setAcquireTimeoutMillis(1_000);
+        config.setHousekeepingIntervalMillis(60_000);
+        return config;
+    }
+
+    private Connection openMockConnection() throws SQLException {
+        Connection connection = mock(Connection.class);
+        when(connection.getAutoCommit()).thenReturn(true);
+        when(connection.isValid(anyInt())).thenReturn(true);
+        opened.add(connection);
+        return connection;
+    }
+}
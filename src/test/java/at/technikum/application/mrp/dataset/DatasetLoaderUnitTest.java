@@ -0,0 +1,209 @@
+package at.technikum.application.mrp.dataset;
+
+import at.technikum.application.mrp.auth.AuthRepository;
+import at.technikum.application.mrp.dataset.dto.DatasetLoadResultDto;
+import at.technikum.application.mrp.media.MediaRepository;
+import at.technikum.application.mrp.media.entity.MediaEntryEntity;
+import at.technikum.application.mrp.rating.RatingImportBatch;
+import at.technikum.application.mrp.rating.RatingRepository;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.junit.jupiter.api.io.TempDir;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyList;
+import static org.mockito.ArgumentMatchers.anyString;
+import static org.mockito.Mockito.*;
+
+@ExtendWith(MockitoExtension.class)
+class DatasetLoaderUnitTest {
+
+    private static final String MOVIES = """
+            movieId,title,genres
+            1,Toy Story (1995),Adventure|Animation
+            2,"Heat, The (1995)",Action
+            broken
+            3,Cosmos,(no genres listed)
+            """;
+
+    private static final String RATINGS = """
+            userId,movieId,rating,timestamp
+            1,1,4.0,964982703
+            1,2,3.5,964981247
+            2,1,5.0,964982224
+            2,9,4.0,964982931
+            2,3,x,964982400
+            3,3,0.5,964983815
+            """;
+
+    @TempDir
+    Path tempDir;
+
+    @Mock
+    private AuthRepository authRepository;
+
+    @Mock
+    private MediaRepository mediaRepository;
+
+    @Mock
+    private RatingRepository ratingRepository;
+
+    private final Map<String, Integer> userIdsByName = new HashMap<>();
+    private final List<MediaEntryEntity> media = new ArrayList<>();
+    private final List<String> ratings = new ArrayList<>();
+
+    // ==================== Load Tests ====================
+
+    @Test
+    void testLoad_SmallChunks_MapsDatasetIdsAndStreamsBatches() throws IOException {
+        // Arrange
+        stubUsersAndMedia();
+        stubImportBatch();
+
+        // Act (12-byte chunks: about one line per chunk)
+        DatasetLoadResultDto result = loader(12, 2)
+                .load(write("movies.csv", MOVIES), write("ratings.csv", RATINGS), "ml");
+
+        // Assert
+        assertEquals(4, result.getMoviesRead());
+        assertEquals(3, result.getMediaCreated());
+        assertEquals(List.of("Toy Story", "Heat, The", "Cosmos"), media.stream().map(MediaEntryEntity::getTitle).toList());
+        assertEquals(1995, media.get(0).getReleaseYear());
+        assertEquals(userIdsByName.get("ml"), media.get(0).getCreatorUserId());
+        assertEquals(List.of(), media.get(2).getGenres());
+
+        assertEquals(3, result.getUsers());
+        assertEquals(4, userIdsByName.size());
+        assertEquals(6, result.getRatingsRead());
+        assertEquals(4, result.getRatingsImported());
+        int toyStory = media.get(0).getId();
+        int user1 = userIdsByName.get("ml_1");
+        assertEquals(user1 + "/" + toyStory + "/4/964982703000/2", ratings.get(0));
+        assertTrue(ratings.get(1).endsWith("/4/964981247000/3"), "3.5 rounds up to 4");
+        assertEquals(4, ratings.size());
+        verify(ratingRepository, times(2)).importBatch(any());
+
+        assertEquals(3, result.getFailed());
+        assertEquals("movies.csv:4 Malformed line", error(result, 0));
+        assertEquals("ratings.csv:5 Unknown movie 9", error(result, 1));
+        assertEquals("ratings.csv:6 Malformed line", error(result, 2));
+        assertTrue(result.getChunks() > 2);
+    }
+
+    @Test
+    void testLoad_RatingBatchRejected_ReportsRejectedLines() throws IOException {
+        // Arrange
+        stubUsersAndMedia();
+        when(ratingRepository.importBatch(any())).thenAnswer(invocation -> {
+            RatingImportBatch batch = invocation.getArgument(0);
+            return new RatingRepository.ImportOutcome(batch.size() - 1, 0, 0, Map.of(batch.line(0), "Unknown user"), 1);
+        });
+
+        // Act
+        DatasetLoadResultDto result = loader(1024, 2)
+                .load(write("movies.csv", MOVIES), write("ratings.csv", "1,1,4,1\n2,2,3,1\n"), "ml");
+
+        // Assert
+        assertEquals(1, result.getRatingsImported());
+        assertEquals("ratings.csv:1 Unknown user", error(result, 1));
+    }
+
+    @Test
+    void testLoad_WithoutRatingsFile_LoadsOnlyMovies() throws IOException {
+        // Arrange
+        stubUsersAndMedia();
+
+        // Act
+        DatasetLoadResultDto result = loader(1024, 1).load(write("movies.csv", MOVIES), null, "ml");
+
+        // Assert
+        assertEquals(3, result.getMediaCreated());
+        assertEquals(0, result.getRatingsRead());
+        verifyNoInteractions(ratingRepository);
+    }
+
+    @Test
+    void testConstructor_InvalidThreads_ThrowsIllegalArgumentException() {
+        // Act & Assert
+        assertThrows(IllegalArgumentException.class,
+                () -> new DatasetLoader(authRepository, mediaRepository, ratingRepository, 0, 1024, 10));
+    }
+
+    // ==================== IdMap Tests ====================
+
+    @Test
+    void testIdMap_DenseSparseAndNegativeIds_MapsEachWithoutHugeArray() {
+        // Arrange
+        DatasetLoader.IdMap map = new DatasetLoader.IdMap();
+
+        // Act: before, the largest id sized the array
+        map.put(7, 70);
+        map.put(Integer.MAX_VALUE, 80);
+        map.put(DatasetLoader.IdMap.DENSE_LIMIT, 90);
+        map.put(-3, 100);
+
+        // Assert
+        assertEquals(70, map.get(7));
+        assertEquals(80, map.get(Integer.MAX_VALUE));
+        assertEquals(90, map.get(DatasetLoader.IdMap.DENSE_LIMIT));
+        assertEquals(100, map.get(-3));
+        assertEquals(0, map.get(8));
+        assertEquals(0, map.get(DatasetLoader.IdMap.DENSE_LIMIT - 1));
+        assertEquals(0, map.get(Integer.MAX_VALUE - 1));
+    }
+
+    // ==================== Helper Methods ====================
+
+    private DatasetLoader loader(int chunkSize, int batchSize) {
+        return new DatasetLoader(authRepository, mediaRepository, ratingRepository, 2, chunkSize, batchSize);
+    }
+
+    private Path write(String name, String content) throws IOException {
+        return Files.writeString(tempDir.resolve(name), content);
+    }
+
+    private void stubUsersAndMedia() {
+        when(authRepository.ensureUsers(anyList(), anyString())).thenAnswer(invocation -> {
+            List<String> names = invocation.getArgument(0);
+            return names.stream()
+                    .mapToInt(name -> userIdsByName.computeIfAbsent(name, n -> 500 + userIdsByName.size()))
+                    .toArray();
+        });
+        when(mediaRepository.createAll(anyList())).thenAnswer(invocation -> {
+            List<MediaEntryEntity> batch = invocation.getArgument(0);
+            for (MediaEntryEntity entity : batch) {
+                entity.setId(100 + media.size());
+                media.add(entity);
+            }
+            return batch;
+        });
+    }
+
+    // Records user/media/score/createdAt/line per row; the batch is cleared after each call
+    private void stubImportBatch() {
+        when(ratingRepository.importBatch(any())).thenAnswer(invocation -> {
+            RatingImportBatch batch = invocation.getArgument(0);
+            for (int i = 0; i < batch.size(); i++) {
+                ratings.add(batch.userId(i) + "/" + batch.mediaId(i) + "/" + batch.score(i) + "/"
+                        + batch.createdAt(i) + "/" + batch.line(i));
+            }
+            return new RatingRepository.ImportOutcome(batch.size(), 0, 0, Map.of(), 1);
+        });
+    }
+
+    private static String error(DatasetLoadResultDto result, int index) {
+        DatasetLoadResultDto.RowError error = result.getErrors().get(index);
+        return error.getFile() + ":" + error.getLine() + " " + error.getMessage();
+    }
+}
@@ -0,0 +1,77 @@
+package at.technikum.application.mrp.dataset;
+
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import java.io.IOException;
+import java.nio.MappedByteBuffer;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class LineChunksUnitTest {
+
+    @TempDir
+    Path tempDir;
+
+    @Test
+    void testChunks_WithHeader_SplitsOnLineBreaksAndSkipsHeader() throws IOException {
+        // Arrange
+        Path file = write("userId,movieId\n1,10\n22,200\n333,3000\n4,40\n5,50");
+
+        // Act
+        StringBuilder joined = new StringBuilder();
+        try (LineChunks chunks = new LineChunks(file, 8)) {
+            for (LineChunks.Chunk chunk : chunks.chunks()) {
+                String text = read(chunks.map(chunk));
+                joined.append(text);
+                boolean last = chunk.offset() + chunk.length() == Files.size(file);
+                assertTrue(last || text.endsWith("\n"), "chunk must end on a line break: " + text);
+            }
+
+            // Assert
+            assertEquals(1, chunks.headerLines());
+            assertTrue(chunks.chunks().size() > 1);
+        }
+        assertEquals("1,10\n22,200\n333,3000\n4,40\n5,50", joined.toString());
+    }
+
+    @Test
+    void testChunks_ChunkSizeLargerThanFile_ReturnsOneChunkWithoutHeader() throws IOException {
+        // Arrange
+        Path file = write("1,10\n2,20\n");
+
+        // Act
+        try (LineChunks chunks = new LineChunks(file, 1024)) {
+
+            // Assert
+            assertEquals(0, chunks.headerLines());
+            assertEquals(1, chunks.chunks().size());
+            assertEquals("1,10\n2,20\n", read(chunks.map(chunks.chunks().get(0))));
+        }
+    }
+
+    @Test
+    void testChunks_EmptyFile_ReturnsNoChunks() throws IOException {
+        // Act
+        try (LineChunks chunks = new LineChunks(write(""), 8)) {
+
+            // Assert
+            assertTrue(chunks.chunks().isEmpty());
+        }
+    }
+
+    // ==================== Helper Methods ====================
+
+    private Path write(String content) throws IOException {
+        return Files.writeString(tempDir.resolve("data.csv"), content);
+    }
+
+    private static String read(MappedByteBuffer buffer) {
+        byte[] bytes = new byte[buffer.remaining()];
+        buffer.get(bytes);
+        return new String(bytes, StandardCharsets.UTF_8);
+    }
+}
@@ -0,0 +1,116 @@
+package at.technikum.application.mrp.dataset;
+
+import org.junit.jupiter.api.Test;
+
+import java.nio.ByteBuffer;
+import java.nio.charset.StandardCharsets;
+import java.util.Arrays;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class MovieLensFormatUnitTest {
+
+    // ==================== Ratings Tests ====================
+
+    @Test
+    void testParseRatings_CsvWithHalfStars_RoundsUpToWholeStars() {
+        // Act
+        MovieLensFormat.RatingColumns columns = MovieLensFormat.parseRatings(buffer("""
+                1,31,2.5,1260759144
+                1,1029,3.0,1260759179\r
+                7,10,0.5,1260759185
+                """));
+
+        // Assert
+        assertEquals(3, columns.size);
+        assertEquals(3, columns.lineCount);
+        assertEquals(0, columns.malformed);
+        assertArrayEquals(new int[]{1, 1, 7}, slice(columns.userIds, 3));
+        assertArrayEquals(new int[]{31, 1029, 10}, slice(columns.movieIds, 3));
+        assertEquals(3, columns.scores[0]);
+        assertEquals(3, columns.scores[1]);
+        assertEquals(1, columns.scores[2]);
+        assertEquals(1260759179, columns.timestamps[1]);
+    }
+
+    @Test
+    void testParseRatings_TabAndDoubleColonSeparators_ParsesAllLayouts() {
+        // Act
+        MovieLensFormat.RatingColumns columns = MovieLensFormat.parseRatings(buffer(
+                "196\t242\t3\t881250949\n1::1193::5::978300760\n2,50,4"));
+
+        // Assert
+        assertEquals(3, columns.size);
+        assertArrayEquals(new int[]{196, 1, 2}, slice(columns.userIds, 3));
+        assertArrayEquals(new int[]{242, 1193, 50}, slice(columns.movieIds, 3));
+        assertEquals(MovieLensFormat.NO_TIMESTAMP, columns.timestamps[2]);
+    }
+
+    @Test
+    void testParseRatings_MalformedAndBlankLines_SkipsAndKeepsLineNumbers() {
+        // Act
+        MovieLensFormat.RatingColumns columns = MovieLensFormat.parseRatings(buffer("""
+                1,31,6.0,1
+                userId,movieId,rating,timestamp
+
+                1,31
+                1,31,0,1
+                99999999999,1,3,1
+                2,31,4,1
+                """));
+
+        // Assert
+        assertEquals(1, columns.size);
+        assertEquals(6, columns.lines[0]);
+        assertEquals(7, columns.lineCount);
+        assertEquals(5, columns.malformed);
+        assertArrayEquals(new int[]{0, 1, 3, 4, 5}, columns.malformedLines);
+    }
+
+    // ==================== Movies Tests ====================
+
+    @Test
+    void testParseMovies_CsvWithQuotedTitles_SplitsTitleYearAndGenres() {
+        // Act
+        MovieLensFormat.MovieChunk chunk = MovieLensFormat.parseMovies(buffer("""
+                1,Toy Story (1995),Adventure|Animation|Children
+                11,"American President, The (1995)",Comedy|Drama|Romance
+                12,"Say ""Hi"" (2001)",(no genres listed)
+                13,Cosmos,Documentary
+                no id,Title,Drama
+                """));
+
+        // Assert
+        assertEquals(4, chunk.movies.size());
+        assertEquals(5, chunk.lineCount);
+        assertEquals(1, chunk.malformed);
+        assertEquals(new MovieLensFormat.Movie(0, 1, "Toy Story", 1995, List.of("Adventure", "Animation", "Children")),
+                chunk.movies.get(0));
+        assertEquals("American President, The", chunk.movies.get(1).title());
+        assertEquals("Say \"Hi\"", chunk.movies.get(2).title());
+        assertEquals(List.of(), chunk.movies.get(2).genres());
+        assertNull(chunk.movies.get(3).releaseYear());
+    }
+
+    @Test
+    void testParseMovie_DoubleColonLayout_ParsesMovie() {
+        // Act
+        MovieLensFormat.Movie movie = MovieLensFormat.parseMovie("2::Jumanji (1995)::Adventure|Children's|Fantasy", 4);
+
+        // Assert
+        assertEquals(new MovieLensFormat.Movie(4, 2, "Jumanji", 1995, List.of("Adventure", "Children's", "Fantasy")),
+                movie);
+        assertNull(MovieLensFormat.parseMovie("3,Only a title", 0));
+    }
+
+    // ==================== Helper Methods ====================
+
+    private static ByteBuffer buffer(String text) {
+        return ByteBuffer.wrap(text.getBytes(StandardCharsets.UTF_8));
+    }
+
+    private static int[] slice(int[] values, int size) {
+        return Arrays.copyOf(values, size);
+    }
+}
@@ -74,13 +74,16 @@ class FavoritesControllerUnitTest {
     }
 
     @Test
-    void testHandle_ListFavorites_WrongMethod_ThrowsException() {
+    void testHandle_ListFavorites_WrongMethod_ReturnsMethodNotAllowed() {
         // Arrange
         when(request.getPath()).thenReturn("/favorite");
         when(request.getMethod()).thenReturn("POST");
 
-        // Act & Assert
-        assertThrows(UnsupportedOperationException.class, () -> controller.handle(request));
+        // Act
+        Response response = controller.handle(request);
+
+        // Assert
+        assertEquals(405, response.getStatusCode());
         verify(favoritesService, never()).listFavorites(any());
     }
 
@@ -106,13 +109,16 @@ class FavoritesControllerUnitTest {
     }
 
     @Test
-    void testHandle_AddFavorite_InvalidMediaId_ThrowsException() {
+    void testHandle_AddFavorite_InvalidMediaId_ReturnsNotFound() {
         // Arrange
         when(request.getPath()).thenReturn("/favorite/media/invalid");
         when(request.getMethod()).thenReturn("POST");
 
-        // Act & Assert
-        assertThrows(NoSuchElementException.class, () -> controller.handle(request));
+        // Act
+        Response response = controller.handle(request);
+
+        // Assert
+        assertEquals(404, response.getStatusCode());
         verify(favoritesService, never()).addFavorite(any(), anyInt());
     }
 
@@ -153,13 +159,16 @@ class FavoritesControllerUnitTest {
     }
 
     @Test
-    void testHandle_RemoveFavorite_InvalidMediaId_ThrowsException() {
+    void testHandle_RemoveFavorite_InvalidMediaId_ReturnsNotFound() {
         // Arrange
         when(request.getPath()).thenReturn("/favorite/media/abc");
         when(request.getMethod()).thenReturn("DELETE");
 
-        // Act & Assert
-        assertThrows(NoSuchElementException.class, () -> controller.handle(request));
+        // Act
+        Response response = controller.handle(request);
+
+        // Assert
+        assertEquals(404, response.getStatusCode());
         verify(favoritesService, never()).removeFavorite(any(), anyInt());
     }
 
@@ -179,13 +188,16 @@ class FavoritesControllerUnitTest {
     }
 
     @Test
-    void testHandle_MediaPath_UnsupportedMethod_ThrowsException() {
+    void testHandle_MediaPath_UnsupportedMethod_ReturnsMethodNotAllowed() {
         // Arrange
         when(request.getPath()).thenReturn("/favorite/media/100");
         when(request.getMethod()).thenReturn("GET");
 
-        // Act & Assert
-        assertThrows(UnsupportedOperationException.class, () -> controller.handle(request));
+        // Act
+        Response response = controller.handle(request);
+
+        // Assert
+        assertEquals(405, response.getStatusCode());
         verify(favoritesService, never()).addFavorite(any(), anyInt());
         verify(favoritesService, never()).removeFavorite(any(), anyInt());
     }
@@ -193,24 +205,30 @@ class FavoritesControllerUnitTest {
     // ==================== Route Not Found Tests ====================
 
     @Test
-    void testHandle_UnknownRoute_ThrowsException() {
+    void testHandle_UnknownRoute_ReturnsNotFound() {
         // Arrange
         when(request.getPath()).thenReturn("/favorite/unknown");
         when(request.getMethod()).thenReturn("GET");
 
-        // Act & Assert
-        assertThrows(NoSuchElementException.class, () -> controller.handle(request));
+        // Act
+        Response response = controller.handle(request);
+
+        // Assert
+        assertEquals(404, response.getStatusCode());
         verify(favoritesService, never()).listFavorites(any());
     }
 
     @Test
-    void testHandle_InvalidPath_ThrowsException() {
+    void testHandle_InvalidPath_ReturnsNotFound() {
         // Arrange
         when(request.getPath()).thenReturn("/invalid");
         when(request.getMethod()).thenReturn("GET");
 
-        // Act & Assert
-        assertThrows(NoSuchElementException.class, () -> controller.handle(request));
+        // Act
+        Response response = controller.handle(request);
+
+        // Assert
+        assertEquals(404, response.getStatusCode());
     }
 
     // ==================== Security Tests ====================
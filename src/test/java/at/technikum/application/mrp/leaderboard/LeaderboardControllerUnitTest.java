@@ -74,43 +74,55 @@ class LeaderboardControllerUnitTest {
     }
 
     @Test
-    void testHandle_PostLeaderboard_ThrowsUnsupportedOperationException() {
+    void testHandle_PostLeaderboard_ReturnsMethodNotAllowed() {
         // Arrange
         when(request.getPath()).thenReturn("/leaderboard");
         when(request.getMethod()).thenReturn("POST");
 
-        // Act & Assert
-        assertThrows(UnsupportedOperationException.class, () -> controller.handle(request));
+        // Act
+        Response response = controller.handle(request);
+
+        // Assert
+        assertEquals(405, response.getStatusCode());
     }
 
     @Test
-    void testHandle_PutLeaderboard_ThrowsUnsupportedOperationException() {
+    void testHandle_PutLeaderboard_ReturnsMethodNotAllowed() {
         // Arrange
         when(request.getPath()).thenReturn("/leaderboard");
         when(request.getMethod()).thenReturn("PUT");
 
-        // Act & Assert
-        assertThrows(UnsupportedOperationException.class, () -> controller.handle(request));
+        // Act
+        Response response = controller.handle(request);
+
+        // Assert
+        assertEquals(405, response.getStatusCode());
     }
 
     @Test
-    void testHandle_DeleteLeaderboard_ThrowsUnsupportedOperationException() {
+    void testHandle_DeleteLeaderboard_ReturnsMethodNotAllowed() {
         // Arrange
         when(request.getPath()).thenReturn("/leaderboard");
         when(request.getMethod()).thenReturn("DELETE");
 
-        // Act & Assert
-        assertThrows(UnsupportedOperationException.class, () -> controller.handle(request));
+        // Act
+        Response response = controller.handle(request);
+
+        // Assert
+        assertEquals(405, response.getStatusCode());
     }
 
     @Test
-    void testHandle_InvalidPath_ThrowsNoSuchElementException() {
+    void testHandle_InvalidPath_ReturnsNotFound() {
         // Arrange
         when(request.getPath()).thenReturn("/invalid");
         when(request.getMethod()).thenReturn("GET");
 
-        // Act & Assert
-        assertThrows(NoSuchElementException.class, () -> controller.handle(request));
+        // Act
+        Response response = controller.handle(request);
+
+        // Assert
+        assertEquals(404, response.getStatusCode());
     }
 
     @Test
@@ -0,0 +1,67 @@
+package at.technikum.application.mrp.media;
+
+import at.technikum.application.common.WTinyLfuCache;
+import at.technikum.application.mrp.media.entity.MediaEntryEntity;
+import at.technikum.application.mrp.rating.entity.RatingEntity;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+import java.util.List;
+import java.util.Set;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class CachingMediaRepositoryUnitTest {
+
+    private WTinyLfuCache<Integer, MediaEntryEntity> cache;
+    private CachingMediaRepository repository;
+
+    @BeforeEach
+    void setUp() {
+        cache = new WTinyLfuCache<>(100, 1_000, 60_000, 60_000, entity -> 1 + entity.getRatings().size());
+        repository = CachingMediaRepository.create(null, cache);
+    }
+
+    // ==================== FindById Tests ====================
+
+    @Test
+    void testFindById_CopyModified_CachedEntryUnchanged() {
+        // Arrange
+        cache.get(1, id -> cachedEntry());
+
+        // Act
+        MediaEntryEntity copy = repository.findById(1).orElseThrow();
+        copy.getGenres().add("Drama");
+        copy.getFavoriteUserIds().add(99);
+        copy.getStarCounts()[4] = 42;
+        copy.getRatings().get(0).getLikedByUserIds().add(99);
+        copy.getRatings().clear();
+
+        // Assert
+        MediaEntryEntity again = repository.findById(1).orElseThrow();
+        assertEquals(List.of("Sci-Fi"), again.getGenres());
+        assertEquals(Set.of(7), again.getFavoriteUserIds());
+        assertEquals(1, again.getStarCounts()[4]);
+        assertEquals(1, again.getRatings().size());
+        assertEquals(Set.of(8), again.getRatings().get(0).getLikedByUserIds());
+    }
+
+    // ==================== Helper Methods ====================
+
+    private static MediaEntryEntity cachedEntry() {
+        RatingEntity rating = new RatingEntity();
+        rating.setId(10);
+        rating.setMediaId(1);
+        rating.setScore(5);
+        rating.setLikedByUserIds(Set.of(8));
+
+        MediaEntryEntity entity = new MediaEntryEntity();
+        entity.setId(1);
+        entity.setTitle("Star Wars");
+        entity.setGenres(List.of("Sci-Fi"));
+        entity.setFavoriteUserIds(Set.of(7));
+        entity.setStarCounts(new int[]{0, 0, 0, 0, 1});
+        entity.setRatings(List.of(rating));
+        return entity;
+    }
+}
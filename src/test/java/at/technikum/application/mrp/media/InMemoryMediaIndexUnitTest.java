@@ -0,0 +1,264 @@
+package at.technikum.application.mrp.media;
+
+import at.technikum.application.common.PageDto;
+import at.technikum.application.mrp.media.entity.MediaEntryEntity;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+
+import java.util.*;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.ArgumentMatchers.*;
+import static org.mockito.Mockito.*;
+
+@ExtendWith(MockitoExtension.class)
+class InMemoryMediaIndexUnitTest {
+
+    @Mock
+    private MediaRepository mediaRepository;
+
+    private InMemoryMediaIndex index;
+    private final Map<Integer, MediaEntryEntity> stored = new HashMap<>();
+
+    @BeforeEach
+    void setUp() {
+        index = new InMemoryMediaIndex(mediaRepository);
+        add(1, "Star Wars", "A space opera", "movie", 1977, List.of("Sci-Fi", "Adventure"), 10, 50);
+        add(2, "Star Trek", "Space exploration", "series", 1966, List.of("Sci-Fi"), 4, 12);
+        add(3, "Stardust", "A fairy tale about a fallen star", "movie", 2007, List.of("Fantasy"), 0, 0);
+        add(4, "The Matrix", "Hackers and machines", "movie", 1999, List.of("Sci-Fi", "Action"), 5, 20);
+        add(5, "Tetris", "Falling blocks", "game", 1984, List.of("Puzzle"), 2, 10);
+    }
+
+    // ==================== Filter Tests ====================
+
+    @Test
+    void testSearch_TypeAndAllGenres_IntersectsBitmaps() {
+        // Arrange
+        stubFindByIds();
+        MediaSearchQuery query = new MediaSearchQuery().setMediaType("MOVIE")
+                .setGenres(List.of("sci-fi", "Action")).setGenreMatch(MediaSearchQuery.GenreMatch.ALL);
+
+        // Act & Assert
+        assertEquals(List.of(4), ids(index.search(query)));
+    }
+
+    @Test
+    void testSearch_AnyGenreYearAndMinRating_CombinesFilters() {
+        // Arrange
+        stubFindByIds();
+
+        // Act & Assert
+        assertEquals(List.of(1, 2, 3, 4), ids(index.search(new MediaSearchQuery().setGenres(List.of("Sci-Fi", "Fantasy")))));
+        assertEquals(List.of(4), ids(index.search(new MediaSearchQuery().setReleaseYear(1999))));
+        // averages: 5.0, 3.0, unrated, 4.0, 5.0
+        assertEquals(List.of(1, 4, 5), ids(index.search(new MediaSearchQuery().setMinRating(4))));
+        assertEquals(List.of(), ids(index.search(new MediaSearchQuery().setGenres(List.of("Unknown")))));
+    }
+
+    // ==================== Full-Text Tests ====================
+
+    @Test
+    void testSearch_WordsWithPrefix_MatchesTitleAndDescription() {
+        // Arrange
+        stubFindByIds();
+
+        // Act & Assert
+        assertEquals(List.of(1), ids(index.search(fullText("star wa"))));
+        // "star" as prefix: titles Star Wars, Star Trek, Stardust and the description of Stardust
+        assertEquals(List.of(1, 2, 3), ids(index.search(fullText("star"))));
+        assertEquals(List.of(1, 2), ids(index.search(fullText("space"))));
+    }
+
+    @Test
+    void testSearch_SortByRelevance_TitleHitsRankFirst() {
+        // Arrange
+        stubFindByIds();
+        add(6, "Tale of Time", "Nothing else", "movie", 2000, List.of(), 0, 0);
+
+        // Act: "tale" is in the title of 6 but only in the description of 3
+        PageDto<MediaEntryEntity> page = index.search(fullText("tale").setSort(MediaSearchQuery.Sort.RELEVANCE));
+
+        // Assert
+        assertEquals(List.of(6, 3), ids(page));
+    }
+
+    // ==================== Sorting & Pagination Tests ====================
+
+    @Test
+    void testSearch_SortByScoreAcrossPages_ReturnsEveryEntryOnceInOrder() {
+        // Arrange
+        stubFindByIds();
+        List<Integer> seen = new ArrayList<>();
+        String cursor = null;
+
+        // Act
+        do {
+            PageDto<MediaEntryEntity> page = index.search(new MediaSearchQuery()
+                    .setSort(MediaSearchQuery.Sort.SCORE).setLimit(2).setCursor(cursor));
+            seen.addAll(ids(page));
+            cursor = page.getNextCursor();
+        } while (cursor != null);
+
+        // Assert: score desc, ties by id desc
+        assertEquals(List.of(5, 1, 4, 2, 3), seen);
+    }
+
+    @Test
+    void testSearch_SortByTitleWithCursor_ContinuesAfterCursor() {
+        // Arrange
+        stubFindByIds();
+
+        // Act
+        PageDto<MediaEntryEntity> first = index.search(new MediaSearchQuery().setSort(MediaSearchQuery.Sort.TITLE).setLimit(2));
+        PageDto<MediaEntryEntity> second = index.search(new MediaSearchQuery().setSort(MediaSearchQuery.Sort.TITLE).setLimit(2)
+                .setCursor(first.getNextCursor()));
+
+        // Assert
+        assertEquals(List.of(2, 1), ids(first));
+        assertEquals(List.of(3, 5), ids(second));
+    }
+
+    @Test
+    void testSearch_CursorOfOtherSort_ThrowsIllegalArgumentException() {
+        // Arrange
+        stubFindByIds();
+        String idCursor = index.search(new MediaSearchQuery().setLimit(1)).getNextCursor();
+
+        // Act & Assert
+        assertThrows(IllegalArgumentException.class, () -> index.search(
+                new MediaSearchQuery().setSort(MediaSearchQuery.Sort.YEAR).setCursor(idCursor)));
+    }
+
+    // ==================== Incremental Update Tests ====================
+
+    @Test
+    void testIndex_UpdatedAndRemovedEntries_AreReflectedImmediately() {
+        // Arrange
+        stubFindByIds();
+
+        // Act
+        add(2, "Galaxy Quest", "Space exploration", "movie", 1999, List.of("Comedy"), 4, 12);
+        index.remove(5);
+
+        // Assert
+        // "Star Trek" is gone; Stardust still matches through "star" and "tale" in its description
+        assertEquals(List.of(3), ids(index.search(fullText("star t"))));
+        assertEquals(List.of(2), ids(index.search(fullText("galaxy"))));
+        assertEquals(List.of(2, 4), ids(index.search(new MediaSearchQuery().setReleaseYear(1999))));
+        assertEquals(List.of(), ids(index.search(new MediaSearchQuery().setMediaType("game"))));
+        assertEquals(4, index.getStats().get("documents"));
+    }
+
+    @Test
+    void testRefresh_ChangedRatingAggregates_UpdatesScoreOrder() {
+        // Arrange
+        stubFindByIds();
+        MediaEntryEntity rated = entity(3, "Stardust", "A fairy tale about a fallen star", "movie", 2007, List.of("Fantasy"), 1, 5);
+        when(mediaRepository.findById(3)).thenReturn(Optional.of(rated));
+
+        // Act
+        index.refresh(3);
+
+        // Assert: 3 now averages 5.0 and sorts between 5 and 1 (ties by id desc)
+        assertEquals(List.of(5, 3, 1), ids(index.search(new MediaSearchQuery().setSort(MediaSearchQuery.Sort.SCORE).setLimit(3))));
+    }
+
+    @Test
+    void testIndex_OlderVersionAfterNewer_KeepsNewerEntry() {
+        // Arrange
+        stubFindByIds();
+        MediaEntryEntity newer = entity(2, "Galaxy Quest", "Space exploration", "movie", 1999, List.of("Comedy"), 4, 12);
+        newer.setVersion(3);
+        MediaEntryEntity older = entity(2, "Star Trek", "Space exploration", "series", 1966, List.of("Sci-Fi"), 4, 12);
+        older.setVersion(2);
+        stored.put(2, newer);
+
+        // Act: listener of the earlier update runs last
+        index.index(newer);
+        index.index(older);
+
+        // Assert
+        assertEquals(List.of(2), ids(index.search(fullText("galaxy"))));
+        assertEquals(List.of(), ids(index.search(new MediaSearchQuery().setMediaType("series"))));
+    }
+
+    // ==================== Facet Tests ====================
+
+    @Test
+    void testFacets_MovieFilter_CountsMatchingEntriesMostFrequentFirst() {
+        // Arrange
+        MediaSearchQuery query = new MediaSearchQuery().setMediaType("movie").setLimit(1)
+                .setFacets(EnumSet.allOf(MediaSearchQuery.Facet.class));
+
+        // Act
+        Map<String, Map<String, Long>> facets = index.facets(query);
+
+        // Assert
+        assertEquals(List.of("genre", "mediaType", "releaseYear", "ageRestriction"), new ArrayList<>(facets.keySet()));
+        assertEquals(List.of("Sci-Fi", "Action", "Adventure", "Fantasy"), new ArrayList<>(facets.get("genre").keySet()));
+        assertEquals(2L, facets.get("genre").get("Sci-Fi"));
+        assertEquals(Map.of("movie", 3L), facets.get("mediaType"));
+        assertEquals(Map.of("1977", 1L, "1999", 1L, "2007", 1L), facets.get("releaseYear"));
+        assertTrue(facets.get("ageRestriction").isEmpty());
+        verifyNoInteractions(mediaRepository);
+    }
+
+    // ==================== Fallback Tests ====================
+
+    @Test
+    void testSearch_SubstringText_DelegatesToRepository() {
+        // Arrange
+        MediaSearchQuery query = new MediaSearchQuery().setText("100%").setTextMode(MediaSearchQuery.TextMode.SUBSTRING);
+        PageDto<MediaEntryEntity> fromDatabase = new PageDto<>(List.of(), null, 20);
+        when(mediaRepository.search(query)).thenReturn(fromDatabase);
+
+        // Act
+        PageDto<MediaEntryEntity> result = index.search(query);
+
+        // Assert
+        assertSame(fromDatabase, result);
+        verify(mediaRepository, never()).findByIds(anyList(), any());
+    }
+
+    // ==================== Helper Methods ====================
+
+    private void stubFindByIds() {
+        when(mediaRepository.findByIds(anyList(), any())).thenAnswer(invocation -> {
+            List<Integer> ids = invocation.getArgument(0);
+            return ids.stream().map(stored::get).toList();
+        });
+    }
+
+    private static MediaSearchQuery fullText(String text) {
+        return new MediaSearchQuery().setText(text).setTextMode(MediaSearchQuery.TextMode.FULL_TEXT);
+    }
+
+    private static List<Integer> ids(PageDto<MediaEntryEntity> page) {
+        return page.getItems().stream().map(MediaEntryEntity::getId).toList();
+    }
+
+    private void add(int id, String title, String description, String mediaType, int year,
+                     List<String> genres, int ratingCount, int ratingSum) {
+        MediaEntryEntity entity = entity(id, title, description, mediaType, year, genres, ratingCount, ratingSum);
+        stored.put(id, entity);
+        index.index(entity);
+    }
+
+    private static MediaEntryEntity entity(int id, String title, String description, String mediaType, int year,
+                                           List<String> genres, int ratingCount, int ratingSum) {
+        MediaEntryEntity entity = new MediaEntryEntity();
+        entity.setId(id);
+        entity.setTitle(title);
+        entity.setDescription(description);
+        entity.setMediaType(mediaType);
+        entity.setReleaseYear(year);
+        entity.setGenres(genres);
+        entity.setRatingCount(ratingCount);
+        entity.setRatingSum(ratingSum);
+        return entity;
+    }
+}
@@ -1,6 +1,11 @@
 package at.technikum.application.mrp.media;
 
+import at.technikum.application.common.PageDto;
+import at.technikum.application.common.VersionConflictException;
+import at.technikum.application.mrp.media.dto.MediaBatchDto;
 import at.technikum.application.mrp.media.dto.MediaDetailDto;
+import at.technikum.application.mrp.media.dto.MediaImportResultDto;
+import at.technikum.application.mrp.media.dto.MediaStatsDto;
 import at.technikum.application.mrp.media.dto.MediaUpsertDto;
 import at.technikum.server.http.Request;
 import at.technikum.server.http.Response;
@@ -11,6 +16,8 @@ import org.junit.jupiter.api.extension.ExtendWith;
 import org.mockito.Mock;
 import org.mockito.junit.jupiter.MockitoExtension;
 
+import java.io.ByteArrayInputStream;
+import java.nio.charset.StandardCharsets;
 import java.util.*;
 
 import static org.junit.jupiter.api.Assertions.*;
@@ -49,7 +56,7 @@ class MediaControllerUnitTest {
             createMediaDetailDto(1, "Movie 1", "movie"),
             createMediaDetailDto(2, "Movie 2", "movie")
         );
-        when(mediaService.search(any())).thenReturn(mediaList);
+        when(mediaService.search(any())).thenReturn(new PageDto<>(mediaList, "next-page", 20));
 
         // Act
         Response response = controller.handle(request);
@@ -59,6 +66,7 @@ class MediaControllerUnitTest {
         assertNotNull(response.getBody());
         assertTrue(response.getBody().contains("Movie 1"));
         assertTrue(response.getBody().contains("Movie 2"));
+        assertTrue(response.getBody().contains("\"nextCursor\":\"next-page\""));
         verify(mediaService).getAuthorizedUserId("Bearer valid-token");
         verify(mediaService).search(any());
     }
@@ -76,7 +84,7 @@ class MediaControllerUnitTest {
         when(request.getQueryParams()).thenReturn(queryParams);
 
         when(mediaService.getAuthorizedUserId("Bearer valid-token")).thenReturn(Optional.of(1));
-        when(mediaService.search(queryParams)).thenReturn(new ArrayList<>());
+        when(mediaService.search(queryParams)).thenReturn(new PageDto<>(new ArrayList<>(), null, 20));
 
         // Act
         Response response = controller.handle(request);
@@ -86,6 +94,25 @@ class MediaControllerUnitTest {
         verify(mediaService).search(queryParams);
     }
 
+    @Test
+    void testHandle_GetMediaList_InvalidCursor_ReturnsBadRequest() {
+        // Arrange
+        when(request.getPath()).thenReturn("/media");
+        when(request.getMethod()).thenReturn("GET");
+        when(request.getAuthorization()).thenReturn("Bearer valid-token");
+        Map<String, String> queryParams = Map.of("cursor", "not-a-cursor");
+        when(request.getQueryParams()).thenReturn(queryParams);
+        when(mediaService.getAuthorizedUserId("Bearer valid-token")).thenReturn(Optional.of(1));
+        when(mediaService.search(queryParams)).thenThrow(new IllegalArgumentException("Invalid cursor"));
+
+        // Act
+        Response response = controller.handle(request);
+
+        // Assert
+        assertEquals(400, response.getStatusCode());
+        assertTrue(response.getBody().contains("Invalid cursor"));
+    }
+
     @Test
     void testHandle_GetMediaList_NoAuth_ReturnsUnauthorized() {
         // Arrange
@@ -119,6 +146,105 @@ class MediaControllerUnitTest {
         verify(mediaService, never()).search(any());
     }
 
+    @Test
+    void testHandle_GetMediaList_WithIds_ReturnsBatchInsteadOfSearch() {
+        // Arrange
+        when(request.getPath()).thenReturn("/media");
+        when(request.getMethod()).thenReturn("GET");
+        when(request.getAuthorization()).thenReturn("Bearer valid-token");
+        when(request.getQueryParams()).thenReturn(Map.of("ids", "2,7"));
+        when(mediaService.getAuthorizedUserId("Bearer valid-token")).thenReturn(Optional.of(1));
+        when(mediaService.getByIds(List.of(2, 7)))
+            .thenReturn(new MediaBatchDto<>(List.of(createMediaDetailDto(2, "Movie 2", "movie")), List.of(7)));
+
+        // Act
+        Response response = controller.handle(request);
+
+        // Assert
+        assertEquals(200, response.getStatusCode());
+        assertTrue(response.getBody().contains("Movie 2"));
+        assertTrue(response.getBody().contains("\"missing\":[7]"));
+        verify(mediaService, never()).search(any());
+    }
+
+    @Test
+    void testHandle_GetMediaList_WithInvalidIds_ReturnsBadRequest() {
+        // Arrange
+        when(request.getPath()).thenReturn("/media");
+        when(request.getMethod()).thenReturn("GET");
+        when(request.getAuthorization()).thenReturn("Bearer valid-token");
+        when(request.getQueryParams()).thenReturn(Map.of("ids", "2,abc"));
+        when(mediaService.getAuthorizedUserId("Bearer valid-token")).thenReturn(Optional.of(1));
+
+        // Act
+        Response response = controller.handle(request);
+
+        // Assert
+        assertEquals(400, response.getStatusCode());
+        verify(mediaService, never()).getByIds(any());
+    }
+
+    // ==================== POST /media/batch Tests ====================
+
+    @Test
+    void testHandle_PostMediaBatch_ValidBody_ReturnsProjectedBatch() {
+        // Arrange
+        when(request.getPath()).thenReturn("/media/batch");
+        when(request.getMethod()).thenReturn("POST");
+        when(request.getAuthorization()).thenReturn("Bearer valid-token");
+        when(request.getQueryParams()).thenReturn(Map.of("view", "summary"));
+        when(request.getBodyBytes()).thenReturn(bytes("{\"ids\": [5, 4]}"));
+        when(mediaService.getAuthorizedUserId("Bearer valid-token")).thenReturn(Optional.of(1));
+        when(mediaService.getByIds(List.of(5, 4), MediaProjection.SUMMARY))
+            .thenReturn(new MediaBatchDto<>(List.of(Map.of("id", 5), Map.of("id", 4)), List.of()));
+
+        // Act
+        Response response = controller.handle(request);
+
+        // Assert
+        assertEquals(200, response.getStatusCode());
+        assertTrue(response.getBody().contains("\"items\":[{\"id\":5},{\"id\":4}]"));
+    }
+
+    @Test
+    void testHandle_PostMediaBatch_EmptyBody_ReturnsBadRequest() {
+        // Arrange
+        when(request.getPath()).thenReturn("/media/batch");
+        when(request.getMethod()).thenReturn("POST");
+        when(request.getAuthorization()).thenReturn("Bearer valid-token");
+        when(request.getBodyBytes()).thenReturn(bytes(""));
+        when(mediaService.getAuthorizedUserId("Bearer valid-token")).thenReturn(Optional.of(1));
+
+        // Act
+        Response response = controller.handle(request);
+
+        // Assert
+        assertEquals(400, response.getStatusCode());
+    }
+
+    // ==================== POST /media/import Tests ====================
+
+    @Test
+    void testHandle_ImportMedia_CsvContentType_ImportsAsCreator() throws Exception {
+        // Arrange
+        when(request.getPath()).thenReturn("/media/import");
+        when(request.getMethod()).thenReturn("POST");
+        when(request.getAuthorization()).thenReturn("Bearer valid-token");
+        when(request.getHeader("Content-Type")).thenReturn("text/csv");
+        when(request.getBodyStream()).thenReturn(new ByteArrayInputStream(bytes("title,mediaType\nAlien,movie\n")));
+        when(mediaService.getAuthorizedUserId("Bearer valid-token")).thenReturn(Optional.of(3));
+        MediaImportResultDto result = new MediaImportResultDto();
+        result.setImported(1);
+        when(mediaService.importMedia(eq(3), any(), eq(MediaImporter.Format.CSV))).thenReturn(result);
+
+        // Act
+        Response response = controller.handle(request);
+
+        // Assert
+        assertEquals(200, response.getStatusCode());
+        assertTrue(response.getBody().contains("\"imported\":1"));
+    }
+
     // ==================== POST /media Tests ====================
 
     @Test
@@ -131,7 +257,7 @@ class MediaControllerUnitTest {
 
         MediaUpsertDto dto = createValidUpsertDto("New Movie", "movie");
         String requestBody = objectMapper.writeValueAsString(dto);
-        when(request.getBody()).thenReturn(requestBody);
+        when(request.getBodyBytes()).thenReturn(bytes(requestBody));
 
         MediaDetailDto createdMedia = createMediaDetailDto(100, "New Movie", "movie");
         when(mediaService.create(eq(1), any(MediaUpsertDto.class))).thenReturn(createdMedia);
@@ -152,7 +278,7 @@ class MediaControllerUnitTest {
         when(request.getMethod()).thenReturn("POST");
         when(request.getAuthorization()).thenReturn("Bearer valid-token");
         when(mediaService.getAuthorizedUserId("Bearer valid-token")).thenReturn(Optional.of(1));
-        when(request.getBody()).thenReturn("");
+        when(request.getBodyBytes()).thenReturn(bytes(""));
 
         // Act
         Response response = controller.handle(request);
@@ -170,7 +296,7 @@ class MediaControllerUnitTest {
         when(request.getMethod()).thenReturn("POST");
         when(request.getAuthorization()).thenReturn("Bearer valid-token");
         when(mediaService.getAuthorizedUserId("Bearer valid-token")).thenReturn(Optional.of(1));
-        when(request.getBody()).thenReturn(null);
+        when(request.getBodyBytes()).thenReturn(null);
 
         // Act
         Response response = controller.handle(request);
@@ -187,7 +313,7 @@ class MediaControllerUnitTest {
         when(request.getMethod()).thenReturn("POST");
         when(request.getAuthorization()).thenReturn("Bearer valid-token");
         when(mediaService.getAuthorizedUserId("Bearer valid-token")).thenReturn(Optional.of(1));
-        when(request.getBody()).thenReturn("{invalid json");
+        when(request.getBodyBytes()).thenReturn(bytes("{invalid json"));
 
         // Act
         Response response = controller.handle(request);
@@ -207,7 +333,7 @@ class MediaControllerUnitTest {
 
         MediaUpsertDto dto = createValidUpsertDto("", "movie");
         String requestBody = objectMapper.writeValueAsString(dto);
-        when(request.getBody()).thenReturn(requestBody);
+        when(request.getBodyBytes()).thenReturn(bytes(requestBody));
 
         when(mediaService.create(eq(1), any(MediaUpsertDto.class)))
             .thenThrow(new IllegalArgumentException("title is required"));
@@ -231,6 +357,7 @@ class MediaControllerUnitTest {
         when(mediaService.getAuthorizedUserId("Bearer valid-token")).thenReturn(Optional.of(1));
 
         MediaDetailDto media = createMediaDetailDto(42, "Test Movie", "movie");
+        media.setVersion(2);
         when(mediaService.getById(42)).thenReturn(Optional.of(media));
 
         // Act
@@ -239,6 +366,7 @@ class MediaControllerUnitTest {
         // Assert
         assertEquals(200, response.getStatusCode());
         assertTrue(response.getBody().contains("Test Movie"));
+        assertEquals("\"2\"", response.getHeader("ETag"));
         verify(mediaService).getById(42);
     }
 
@@ -261,21 +389,62 @@ class MediaControllerUnitTest {
     }
 
     @Test
-    void testHandle_GetMediaById_InvalidId_ReturnsBadRequest() {
+    void testHandle_GetMediaById_InvalidId_ReturnsNotFound() {
         // Arrange
         when(request.getPath()).thenReturn("/media/invalid");
         when(request.getMethod()).thenReturn("GET");
+
+        // Act
+        Response response = controller.handle(request);
+
+        // Assert
+        assertEquals(404, response.getStatusCode());
+        verify(mediaService, never()).getById(anyInt());
+        // answered by the route table, the controller is not invoked
+        verify(mediaService, never()).getAuthorizedUserId(any());
+    }
+
+    // ==================== GET /media/{id}/stats Tests ====================
+
+    @Test
+    void testHandle_GetMediaStats_ExistingMedia_ReturnsStats() {
+        // Arrange
+        when(request.getPath()).thenReturn("/media/42/stats");
+        when(request.getMethod()).thenReturn("GET");
         when(request.getAuthorization()).thenReturn("Bearer valid-token");
         when(mediaService.getAuthorizedUserId("Bearer valid-token")).thenReturn(Optional.of(1));
+        Map<String, Integer> histogram = new LinkedHashMap<>();
+        histogram.put("1", 0);
+        histogram.put("5", 2);
+        when(mediaService.getStats(42)).thenReturn(Optional.of(new MediaStatsDto(42, 2, 5.0, histogram, 7, 1)));
 
         // Act
         Response response = controller.handle(request);
 
         // Assert
-        assertEquals(404, response.getStatusCode());
+        assertEquals(200, response.getStatusCode());
+        assertTrue(response.getBody().contains("\"histogram\":{\"1\":0,\"5\":2}"));
+        assertTrue(response.getBody().contains("\"likeCount\":7"));
         verify(mediaService, never()).getById(anyInt());
     }
 
+    @Test
+    void testHandle_GetMediaStats_NonExistingMedia_ReturnsNotFound() {
+        // Arrange
+        when(request.getPath()).thenReturn("/media/999/stats");
+        when(request.getMethod()).thenReturn("GET");
+        when(request.getAuthorization()).thenReturn("Bearer valid-token");
+        when(mediaService.getAuthorizedUserId("Bearer valid-token")).thenReturn(Optional.of(1));
+        when(mediaService.getStats(999)).thenReturn(Optional.empty());
+
+        // Act
+        Response response = controller.handle(request);
+
+        // Assert
+        assertEquals(404, response.getStatusCode());
+        assertTrue(response.getBody().contains("Media not found"));
+    }
+
     // ==================== PUT /media/{id} Tests ====================
 
     @Test
@@ -288,10 +457,10 @@ class MediaControllerUnitTest {
 
         MediaUpsertDto dto = createValidUpsertDto("Updated Movie", "movie");
         String requestBody = objectMapper.writeValueAsString(dto);
-        when(request.getBody()).thenReturn(requestBody);
+        when(request.getBodyBytes()).thenReturn(bytes(requestBody));
 
         MediaDetailDto updatedMedia = createMediaDetailDto(10, "Updated Movie", "movie");
-        when(mediaService.update(eq(1), eq(10), any(MediaUpsertDto.class)))
+        when(mediaService.update(eq(1), eq(10), any(MediaUpsertDto.class), isNull()))
             .thenReturn(Optional.of(updatedMedia));
 
         // Act
@@ -300,7 +469,7 @@ class MediaControllerUnitTest {
         // Assert
         assertEquals(200, response.getStatusCode());
         assertTrue(response.getBody().contains("Updated Movie"));
-        verify(mediaService).update(eq(1), eq(10), any(MediaUpsertDto.class));
+        verify(mediaService).update(eq(1), eq(10), any(MediaUpsertDto.class), isNull());
     }
 
     @Test
@@ -313,9 +482,9 @@ class MediaControllerUnitTest {
 
         MediaUpsertDto dto = createValidUpsertDto("Updated Movie", "movie");
         String requestBody = objectMapper.writeValueAsString(dto);
-        when(request.getBody()).thenReturn(requestBody);
+        when(request.getBodyBytes()).thenReturn(bytes(requestBody));
 
-        when(mediaService.update(eq(1), eq(999), any(MediaUpsertDto.class)))
+        when(mediaService.update(eq(1), eq(999), any(MediaUpsertDto.class), isNull()))
             .thenReturn(Optional.empty());
 
         // Act
@@ -336,9 +505,9 @@ class MediaControllerUnitTest {
 
         MediaUpsertDto dto = createValidUpsertDto("Updated Movie", "movie");
         String requestBody = objectMapper.writeValueAsString(dto);
-        when(request.getBody()).thenReturn(requestBody);
+        when(request.getBodyBytes()).thenReturn(bytes(requestBody));
 
-        when(mediaService.update(eq(2), eq(10), any(MediaUpsertDto.class)))
+        when(mediaService.update(eq(2), eq(10), any(MediaUpsertDto.class), isNull()))
             .thenThrow(new SecurityException("Only creator can update this entry"));
 
         // Act
@@ -350,36 +519,100 @@ class MediaControllerUnitTest {
     }
 
     @Test
-    void testHandle_UpdateMedia_EmptyBody_ReturnsBadRequest() {
+    void testHandle_UpdateMedia_IfMatch_PassesVersionAndReturnsNewETag() throws Exception {
+        // Arrange
+        when(request.getPath()).thenReturn("/media/10");
+        when(request.getMethod()).thenReturn("PUT");
+        when(request.getAuthorization()).thenReturn("Bearer valid-token");
+        when(request.getHeader("If-Match")).thenReturn("\"3\"");
+        when(mediaService.getAuthorizedUserId("Bearer valid-token")).thenReturn(Optional.of(1));
+        when(request.getBodyBytes()).thenReturn(bytes(objectMapper.writeValueAsString(
+            createValidUpsertDto("Updated Movie", "movie"))));
+
+        MediaDetailDto updatedMedia = createMediaDetailDto(10, "Updated Movie", "movie");
+        updatedMedia.setVersion(4);
+        when(mediaService.update(eq(1), eq(10), any(MediaUpsertDto.class), eq(3)))
+            .thenReturn(Optional.of(updatedMedia));
+
+        // Act
+        Response response = controller.handle(request);
+
+        // Assert
+        assertEquals(200, response.getStatusCode());
+        assertEquals("\"4\"", response.getHeader("ETag"));
+        assertFalse(response.getBody().contains("version"));
+    }
+
+    @Test
+    void testHandle_UpdateMedia_StaleIfMatch_ReturnsPreconditionFailed() throws Exception {
+        // Arrange
+        when(request.getPath()).thenReturn("/media/10");
+        when(request.getMethod()).thenReturn("PUT");
+        when(request.getAuthorization()).thenReturn("Bearer valid-token");
+        when(request.getHeader("If-Match")).thenReturn("\"3\"");
+        when(mediaService.getAuthorizedUserId("Bearer valid-token")).thenReturn(Optional.of(1));
+        when(request.getBodyBytes()).thenReturn(bytes(objectMapper.writeValueAsString(
+            createValidUpsertDto("Updated Movie", "movie"))));
+
+        when(mediaService.update(eq(1), eq(10), any(MediaUpsertDto.class), eq(3)))
+            .thenThrow(new VersionConflictException("Media entry was modified (current version 5)", 5));
+
+        // Act
+        Response response = controller.handle(request);
+
+        // Assert: current ETag lets the client re-read and retry
+        assertEquals(412, response.getStatusCode());
+        assertEquals("\"5\"", response.getHeader("ETag"));
+    }
+
+    @Test
+    void testHandle_UpdateMedia_MalformedIfMatch_ReturnsBadRequest() {
         // Arrange
         when(request.getPath()).thenReturn("/media/10");
         when(request.getMethod()).thenReturn("PUT");
         when(request.getAuthorization()).thenReturn("Bearer valid-token");
+        when(request.getHeader("If-Match")).thenReturn("W/\"3\"");
         when(mediaService.getAuthorizedUserId("Bearer valid-token")).thenReturn(Optional.of(1));
-        when(request.getBody()).thenReturn("   ");
 
         // Act
         Response response = controller.handle(request);
 
         // Assert
         assertEquals(400, response.getStatusCode());
-        verify(mediaService, never()).update(anyInt(), anyInt(), any());
+        verify(mediaService, never()).update(anyInt(), anyInt(), any(), any());
     }
 
     @Test
-    void testHandle_UpdateMedia_InvalidId_ReturnsBadRequest() {
+    void testHandle_UpdateMedia_EmptyBody_ReturnsBadRequest() {
         // Arrange
-        when(request.getPath()).thenReturn("/media/abc");
+        when(request.getPath()).thenReturn("/media/10");
         when(request.getMethod()).thenReturn("PUT");
         when(request.getAuthorization()).thenReturn("Bearer valid-token");
         when(mediaService.getAuthorizedUserId("Bearer valid-token")).thenReturn(Optional.of(1));
+        when(request.getBodyBytes()).thenReturn(bytes("   "));
+
+        // Act
+        Response response = controller.handle(request);
+
+        // Assert
+        assertEquals(400, response.getStatusCode());
+        verify(mediaService, never()).update(anyInt(), anyInt(), any(), any());
+    }
+
+    @Test
+    void testHandle_UpdateMedia_InvalidId_ReturnsNotFound() {
+        // Arrange
+        when(request.getPath()).thenReturn("/media/abc");
+        when(request.getMethod()).thenReturn("PUT");
 
         // Act
         Response response = controller.handle(request);
 
         // Assert
         assertEquals(404, response.getStatusCode());
-        verify(mediaService, never()).update(anyInt(), anyInt(), any());
+        verify(mediaService, never()).update(anyInt(), anyInt(), any(), any());
+        // answered by the route table, the controller is not invoked
+        verify(mediaService, never()).getAuthorizedUserId(any());
     }
 
     // ==================== DELETE /media/{id} Tests ====================
@@ -438,12 +671,10 @@ class MediaControllerUnitTest {
     }
 
     @Test
-    void testHandle_DeleteMedia_InvalidId_ReturnsBadRequest() {
+    void testHandle_DeleteMedia_InvalidId_ReturnsNotFound() {
         // Arrange
         when(request.getPath()).thenReturn("/media/xyz");
         when(request.getMethod()).thenReturn("DELETE");
-        when(request.getAuthorization()).thenReturn("Bearer valid-token");
-        when(mediaService.getAuthorizedUserId("Bearer valid-token")).thenReturn(Optional.of(1));
 
         // Act
         Response response = controller.handle(request);
@@ -451,6 +682,8 @@ class MediaControllerUnitTest {
         // Assert
         assertEquals(404, response.getStatusCode());
         verify(mediaService, never()).delete(anyInt(), anyInt());
+        // answered by the route table, the controller is not invoked
+        verify(mediaService, never()).getAuthorizedUserId(any());
     }
 
     // ==================== Method Not Allowed Tests ====================
@@ -460,8 +693,6 @@ class MediaControllerUnitTest {
         // Arrange
         when(request.getPath()).thenReturn("/media");
         when(request.getMethod()).thenReturn("PATCH");
-        when(request.getAuthorization()).thenReturn("Bearer valid-token");
-        when(mediaService.getAuthorizedUserId("Bearer valid-token")).thenReturn(Optional.of(1));
 
         // Act
         Response response = controller.handle(request);
@@ -469,6 +700,8 @@ class MediaControllerUnitTest {
         // Assert
         assertEquals(405, response.getStatusCode());
         assertTrue(response.getBody().contains("Method not allowed"));
+        // answered by the route table, the controller is not invoked
+        verify(mediaService, never()).getAuthorizedUserId(any());
     }
 
     @Test
@@ -476,8 +709,6 @@ class MediaControllerUnitTest {
         // Arrange
         when(request.getPath()).thenReturn("/media/10");
         when(request.getMethod()).thenReturn("PATCH");
-        when(request.getAuthorization()).thenReturn("Bearer valid-token");
-        when(mediaService.getAuthorizedUserId("Bearer valid-token")).thenReturn(Optional.of(1));
 
         // Act
         Response response = controller.handle(request);
@@ -485,6 +716,8 @@ class MediaControllerUnitTest {
         // Assert
         assertEquals(405, response.getStatusCode());
         assertTrue(response.getBody().contains("Method not allowed"));
+        // answered by the route table, the controller is not invoked
+        verify(mediaService, never()).getAuthorizedUserId(any());
     }
 
     // ==================== Route Not Found Tests ====================
@@ -494,8 +727,6 @@ class MediaControllerUnitTest {
         // Arrange
         when(request.getPath()).thenReturn("/media/10/invalid");
         when(request.getMethod()).thenReturn("GET");
-        when(request.getAuthorization()).thenReturn("Bearer valid-token");
-        when(mediaService.getAuthorizedUserId("Bearer valid-token")).thenReturn(Optional.of(1));
 
         // Act
         Response response = controller.handle(request);
@@ -503,6 +734,8 @@ class MediaControllerUnitTest {
         // Assert
         assertEquals(404, response.getStatusCode());
         assertTrue(response.getBody().contains("Route not found"));
+        // answered by the route table, the controller is not invoked
+        verify(mediaService, never()).getAuthorizedUserId(any());
     }
 
     @Test
@@ -510,8 +743,6 @@ class MediaControllerUnitTest {
         // Arrange
         when(request.getPath()).thenReturn("/wrong/path");
         when(request.getMethod()).thenReturn("GET");
-        when(request.getAuthorization()).thenReturn("Bearer valid-token");
-        when(mediaService.getAuthorizedUserId("Bearer valid-token")).thenReturn(Optional.of(1));
 
         // Act
         Response response = controller.handle(request);
@@ -519,6 +750,8 @@ class MediaControllerUnitTest {
         // Assert
         assertEquals(404, response.getStatusCode());
         assertTrue(response.getBody().contains("Route not found"));
+        // answered by the route table, the controller is not invoked
+        verify(mediaService, never()).getAuthorizedUserId(any());
     }
 
     // ==================== Edge Cases Tests ====================
@@ -564,8 +797,6 @@ class MediaControllerUnitTest {
         // Arrange
         when(request.getPath()).thenReturn("/media/-1");
         when(request.getMethod()).thenReturn("GET");
-        when(request.getAuthorization()).thenReturn("Bearer valid-token");
-        when(mediaService.getAuthorizedUserId("Bearer valid-token")).thenReturn(Optional.of(1));
 
         // Act
         Response response = controller.handle(request);
@@ -573,6 +804,8 @@ class MediaControllerUnitTest {
         // Assert
         assertEquals(404, response.getStatusCode());
         verify(mediaService, never()).getById(anyInt());
+        // answered by the route table, the controller is not invoked
+        verify(mediaService, never()).getAuthorizedUserId(any());
     }
 
     @Test
@@ -580,14 +813,14 @@ class MediaControllerUnitTest {
         // Arrange
         when(request.getPath()).thenReturn("/media/10/");
         when(request.getMethod()).thenReturn("GET");
-        when(request.getAuthorization()).thenReturn("Bearer valid-token");
-        when(mediaService.getAuthorizedUserId("Bearer valid-token")).thenReturn(Optional.of(1));
 
         // Act
         Response response = controller.handle(request);
 
         // Assert
         assertEquals(404, response.getStatusCode());
+        // answered by the route table, the controller is not invoked
+        verify(mediaService, never()).getAuthorizedUserId(any());
     }
 
     // ==================== Helper Methods ====================
@@ -616,5 +849,8 @@ class MediaControllerUnitTest {
             0.0
         );
     }
-}
 
+    private static byte[] bytes(String body) {
+        return body.getBytes(StandardCharsets.UTF_8);
+    }
+}
@@ -0,0 +1,159 @@
+package at.technikum.application.mrp.media;
+
+import at.technikum.application.mrp.media.dto.MediaImportResultDto;
+import at.technikum.application.mrp.media.entity.MediaEntryEntity;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+
+import java.io.ByteArrayInputStream;
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.ArgumentMatchers.anyList;
+import static org.mockito.Mockito.*;
+
+@ExtendWith(MockitoExtension.class)
+class MediaImporterUnitTest {
+
+    @Mock
+    private MediaRepository mediaRepository;
+
+    private final List<MediaEntryEntity> stored = new ArrayList<>();
+
+    // ==================== NDJSON Tests ====================
+
+    @Test
+    void testImport_NdjsonWithInvalidRows_ImportsValidRowsAndReportsLines() throws IOException {
+        // Arrange
+        stubCreateAll();
+        String input = """
+                {"title": "Alien", "mediaType": "movie", "releaseYear": 1979, "genres": ["Horror"]}
+
+                {"title": "", "mediaType": "movie"}
+                {"title": "Tetris", "mediaType": "game"
+                {"title": "Dark", "mediaType": "series"}
+                """;
+
+        // Act
+        MediaImportResultDto result = importer(100).importFrom(stream(input), MediaImporter.Format.NDJSON, 7);
+
+        // Assert
+        assertEquals(4, result.getRowsRead());
+        assertEquals(2, result.getImported());
+        assertEquals(2, result.getFailed());
+        assertEquals(3, result.getErrors().get(0).getLine());
+        assertEquals("title is required", result.getErrors().get(0).getMessage());
+        assertEquals(4, result.getErrors().get(1).getLine());
+        assertTrue(result.getErrors().get(1).getMessage().startsWith("Invalid JSON"));
+        assertEquals(List.of("Alien", "Dark"), stored.stream().map(MediaEntryEntity::getTitle).toList());
+        assertEquals(7, stored.get(0).getCreatorUserId());
+        assertEquals(List.of("Horror"), stored.get(0).getGenres());
+    }
+
+    @Test
+    void testImport_MoreRowsThanBatchSize_WritesOneBatchPerBatchSize() throws IOException {
+        // Arrange
+        stubCreateAll();
+        StringBuilder input = new StringBuilder();
+        for (int i = 0; i < 5; i++) {
+            input.append("{\"title\": \"Movie ").append(i).append("\", \"mediaType\": \"movie\"}\n");
+        }
+
+        // Act
+        MediaImportResultDto result = importer(2).importFrom(stream(input.toString()), MediaImporter.Format.NDJSON, 1);
+
+        // Assert
+        assertEquals(5, result.getImported());
+        verify(mediaRepository, times(3)).createAll(anyList());
+    }
+
+    @Test
+    void testImport_BatchRejectedByDatabase_ReportsEveryRowOfTheBatch() throws IOException {
+        // Arrange
+        when(mediaRepository.createAll(anyList()))
+            .thenThrow(new RuntimeException("Failed to import media entries: value too long"))
+            .thenAnswer(invocation -> invocation.getArgument(0));
+        String input = """
+                {"title": "A", "mediaType": "movie"}
+                {"title": "B", "mediaType": "movie"}
+                {"title": "C", "mediaType": "movie"}
+                """;
+
+        // Act
+        MediaImportResultDto result = importer(2).importFrom(stream(input), MediaImporter.Format.NDJSON, 1);
+
+        // Assert
+        assertEquals(1, result.getImported());
+        assertEquals(2, result.getFailed());
+        assertEquals(List.of(1, 2), result.getErrors().stream().map(MediaImportResultDto.RowError::getLine).toList());
+        assertTrue(result.getErrors().get(0).getMessage().contains("value too long"));
+    }
+
+    // ==================== CSV Tests ====================
+
+    @Test
+    void testImport_CsvWithQuotedFields_ParsesGenresAndMultilineText() throws IOException {
+        // Arrange
+        stubCreateAll();
+        String input = """
+                title,mediaType,releaseYear,genres,description
+                "Alien",movie,1979,Horror|Sci-Fi,"In space, ""no one""
+                can hear you scream"
+                Tetris,game,abc,,
+                Dark,series,,,
+                """;
+
+        // Act
+        MediaImportResultDto result = importer(100).importFrom(stream(input), MediaImporter.Format.CSV, 1);
+
+        // Assert
+        assertEquals(3, result.getRowsRead());
+        assertEquals(2, result.getImported());
+        assertEquals(4, result.getErrors().get(0).getLine());
+        assertEquals("releaseYear must be a number", result.getErrors().get(0).getMessage());
+        MediaEntryEntity alien = stored.get(0);
+        assertEquals(List.of("Horror", "Sci-Fi"), alien.getGenres());
+        assertEquals("In space, \"no one\"\ncan hear you scream", alien.getDescription());
+        assertNull(stored.get(1).getReleaseYear());
+        assertNull(stored.get(1).getDescription());
+    }
+
+    @Test
+    void testImport_CsvWithUnknownColumn_ThrowsIllegalArgumentException() {
+        // Act & Assert
+        assertThrows(IllegalArgumentException.class, () ->
+                importer(100).importFrom(stream("title,director\nAlien,Scott\n"), MediaImporter.Format.CSV, 1));
+        verifyNoInteractions(mediaRepository);
+    }
+
+    @Test
+    void testFormatFrom_ParameterAndContentType_PicksFormat() {
+        assertEquals(MediaImporter.Format.CSV, MediaImporter.Format.from("CSV", null));
+        assertEquals(MediaImporter.Format.CSV, MediaImporter.Format.from(null, "text/csv; charset=utf-8"));
+        assertEquals(MediaImporter.Format.NDJSON, MediaImporter.Format.from(null, "application/x-ndjson"));
+        assertThrows(IllegalArgumentException.class, () -> MediaImporter.Format.from("xml", null));
+    }
+
+    // ==================== Helper Methods ====================
+
+    private MediaImporter importer(int batchSize) {
+        return new MediaImporter(mediaRepository, batchSize);
+    }
+
+    private void stubCreateAll() {
+        when(mediaRepository.createAll(anyList())).thenAnswer(invocation -> {
+            List<MediaEntryEntity> batch = invocation.getArgument(0);
+            stored.addAll(batch);
+            return batch;
+        });
+    }
+
+    private static ByteArrayInputStream stream(String input) {
+        return new ByteArrayInputStream(input.getBytes(StandardCharsets.UTF_8));
+    }
+}
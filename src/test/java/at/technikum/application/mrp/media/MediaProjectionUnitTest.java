@@ -0,0 +1,92 @@
+package at.technikum.application.mrp.media;
+
+import at.technikum.application.mrp.media.dto.MediaStatsDto;
+import at.technikum.application.mrp.media.entity.MediaEntryEntity;
+import org.junit.jupiter.api.Test;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class MediaProjectionUnitTest {
+
+    // ==================== fromQuery Tests ====================
+
+    @Test
+    void testFromQuery_NoParameters_ReturnsDetail() {
+        // Act & Assert
+        assertSame(MediaProjection.DETAIL, MediaProjection.fromQuery(null, null));
+        assertSame(MediaProjection.DETAIL, MediaProjection.fromQuery(" detail ", ""));
+        assertSame(MediaProjection.SUMMARY, MediaProjection.fromQuery("SUMMARY", null));
+    }
+
+    @Test
+    void testFromQuery_Fields_AlwaysIncludesIdAndWinsOverView() {
+        // Act
+        MediaProjection projection = MediaProjection.fromQuery("detail", "title, averageScore");
+
+        // Assert
+        assertFalse(projection.isDetail());
+        assertTrue(projection.includes(MediaProjection.Field.ID));
+        assertTrue(projection.includes(MediaProjection.Field.TITLE));
+        assertTrue(projection.includes(MediaProjection.Field.AVERAGE_SCORE));
+        assertFalse(projection.includes(MediaProjection.Field.RATINGS));
+    }
+
+    @Test
+    void testFromQuery_UnknownFieldOrView_ThrowsIllegalArgumentException() {
+        // Act & Assert
+        assertThrows(IllegalArgumentException.class, () -> MediaProjection.fromQuery(null, "title,password"));
+        assertThrows(IllegalArgumentException.class, () -> MediaProjection.fromQuery("full", null));
+    }
+
+    // ==================== render Tests ====================
+
+    @Test
+    void testRender_Summary_ContainsOnlySummaryFieldsInOrder() {
+        // Arrange
+        MediaEntryEntity entity = new MediaEntryEntity();
+        entity.setId(7);
+        entity.setTitle("Alien");
+        entity.setMediaType("movie");
+        entity.setReleaseYear(1979);
+        entity.setRatingCount(2);
+        entity.setRatingSum(9);
+
+        // Act
+        Map<String, Object> rendered = MediaProjection.SUMMARY.render(entity);
+
+        // Assert
+        assertEquals(List.of("id", "title", "mediaType", "releaseYear", "averageScore", "ratingCount"),
+                new ArrayList<>(rendered.keySet()));
+        assertEquals(4.5, rendered.get("averageScore"));
+        assertEquals(2, rendered.get("ratingCount"));
+    }
+
+    @Test
+    void testRender_StatsField_BuildsHistogramFromCounters() {
+        // Arrange
+        MediaEntryEntity entity = new MediaEntryEntity();
+        entity.setId(7);
+        entity.setRatingCount(4);
+        entity.setRatingSum(15);
+        entity.setStarCounts(new int[]{0, 1, 0, 1, 2});
+        entity.setLikeTotal(12);
+        entity.setFavoriteCount(3);
+
+        // Act
+        Map<String, Object> rendered = MediaProjection.fromQuery(null, "stats").render(entity);
+
+        // Assert
+        MediaStatsDto stats = (MediaStatsDto) rendered.get("stats");
+        assertEquals(7, stats.getMediaId());
+        assertEquals(4, stats.getRatingCount());
+        assertEquals(3.75, stats.getAverageScore());
+        assertEquals(List.of("1", "2", "3", "4", "5"), new ArrayList<>(stats.getHistogram().keySet()));
+        assertEquals(List.of(0, 1, 0, 1, 2), new ArrayList<>(stats.getHistogram().values()));
+        assertEquals(12, stats.getLikeCount());
+        assertEquals(3, stats.getFavoriteCount());
+    }
+}
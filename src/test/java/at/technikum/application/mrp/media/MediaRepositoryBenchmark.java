@@ -0,0 +1,151 @@
+package at.technikum.application.mrp.media;
+
+import at.technikum.application.mrp.database.BenchmarkDatabase;
+import at.technikum.application.mrp.database.DatabaseInitializer;
+
+import javax.sql.DataSource;
+import java.sql.Connection;
+import java.sql.PreparedStatement;
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.sql.Statement;
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * Manual benchmark for the media read paths, not part of the unit test run.
+ *
+ * Seeds a catalog into a scratch schema and compares the former per-row ratings load (one query per
+ * media entry) with the batched load used by MediaRepository. Needs DB_URL, DB_USER and DB_PASSWORD:
+ *
+ *   mvn -q test-compile exec:java -Dexec.classpathScope=test \
+ *       -Dexec.mainClass=at.technikum.application.mrp.media.MediaRepositoryBenchmark -Dexec.args="5000 5"
+ *
+ * Arguments: number of media entries (default 5000), ratings per entry (default 5).
+ */
+public class MediaRepositoryBenchmark {
+
+    private static final int ITERATIONS = 10;
+
+    public static void main(String[] args) throws Exception {
+        int mediaCount = args.length > 0 ? Integer.parseInt(args[0]) : 5000;
+        int ratingsPerMedia = args.length > 1 ? Integer.parseInt(args[1]) : 5;
+
+        try (BenchmarkDatabase db = new BenchmarkDatabase("mrp_bench_media")) {
+            System.out.println("Seeding " + mediaCount + " media entries with " + ratingsPerMedia + " ratings each...");
+            seed(db.getRawDataSource(), mediaCount, ratingsPerMedia);
+
+            DataSource dataSource = db.getDataSource();
+            MediaRepository repository = new MediaRepository(dataSource);
+            int someId = mediaCount / 2;
+
+            db.measure("findAll (per-row ratings, old)", ITERATIONS, () -> legacyFindAll(dataSource));
+            db.measure("findAll (batched ratings)", ITERATIONS, repository::findAll);
+            MediaSearchQuery firstPage = new MediaSearchQuery().setSort(MediaSearchQuery.Sort.TITLE).setLimit(20);
+            MediaSearchQuery deepPage = new MediaSearchQuery().setSort(MediaSearchQuery.Sort.TITLE).setLimit(20)
+                    .setCursor(cursorOfPage(repository, MediaSearchQuery.Sort.TITLE, 20, 100));
+            db.measure("search sortBy=title, first page", ITERATIONS, () -> repository.search(firstPage));
+            db.measure("search sortBy=title, page 100 (keyset)", ITERATIONS, () -> repository.search(deepPage));
+            db.measure("search sortBy=score minRating=3, first page", ITERATIONS,
+                    () -> repository.search(new MediaSearchQuery().setMinRating(3).setSort(MediaSearchQuery.Sort.SCORE)));
+            db.measure("findById (batched)", ITERATIONS, () -> repository.findById(someId));
+        }
+    }
+
+    // Walks the pages once to obtain the cursor that starts the given page
+    private static String cursorOfPage(MediaRepository repository, MediaSearchQuery.Sort sort, int limit, int page) {
+        String cursor = null;
+        for (int i = 1; i < page; i++) {
+            cursor = repository.search(new MediaSearchQuery().setSort(sort).setLimit(limit).setCursor(cursor)).getNextCursor();
+            if (cursor == null) break;
+        }
+        return cursor;
+    }
+
+    // The read path as it was before ratings were batched: one ratings query per media row
+    private static int legacyFindAll(DataSource dataSource) throws SQLException {
+        int ratings = 0;
+        try (Connection conn = dataSource.getConnection();
+             Statement stmt = conn.createStatement();
+             ResultSet rs = stmt.executeQuery("SELECT * FROM media ORDER BY media_id")) {
+            while (rs.next()) {
+                try (PreparedStatement ratingStmt = conn.prepareStatement(
+                        "SELECT rating_id, user_id, media_id, rating_value, comment, confirmed, created_at FROM ratings WHERE media_id = ?")) {
+                    ratingStmt.setInt(1, rs.getInt("media_id"));
+                    ResultSet ratingRs = ratingStmt.executeQuery();
+                    while (ratingRs.next()) {
+                        ratings++;
+                    }
+                }
+            }
+        }
+        return ratings;
+    }
+
+    private static void seed(DataSource dataSource, int mediaCount, int ratingsPerMedia) throws SQLException {
+        try (Connection conn = dataSource.getConnection()) {
+            conn.setAutoCommit(false);
+
+            List<Integer> userIds = new ArrayList<>();
+            try (PreparedStatement stmt = conn.prepareStatement(
+                    "INSERT INTO users (username, password_hash) VALUES (?, 'bench') RETURNING user_id")) {
+                for (int u = 0; u < ratingsPerMedia; u++) {
+                    stmt.setString(1, "bench_user_" + u);
+                    ResultSet rs = stmt.executeQuery();
+                    rs.next();
+                    userIds.add(rs.getInt(1));
+                }
+            }
+
+            Integer[] actionDrama = seedGenres(conn, "action", "drama");
+            Integer[] comedy = seedGenres(conn, "comedy");
+
+            try (PreparedStatement stmt = conn.prepareStatement("""
+                    INSERT INTO media (title, description, genre_ids, media_type, release_year, creator_user_id, age_restriction)
+                    VALUES (?, ?, ?, ?, ?, ?, ?)
+                    """)) {
+                String[] types = {"movie", "series", "game"};
+                for (int m = 0; m < mediaCount; m++) {
+                    stmt.setString(1, "Title " + m);
+                    stmt.setString(2, "Description of media entry " + m);
+                    stmt.setArray(3, conn.createArrayOf("integer", m % 2 == 0 ? actionDrama : comedy));
+                    stmt.setString(4, types[m % types.length]);
+                    stmt.setInt(5, 1970 + m % 55);
+                    stmt.setInt(6, userIds.get(0));
+                    stmt.setInt(7, (m % 4) * 6);
+                    stmt.addBatch();
+                }
+                stmt.executeBatch();
+            }
+
+            try (PreparedStatement stmt = conn.prepareStatement("""
+                    INSERT INTO ratings (user_id, media_id, rating_value, comment, confirmed)
+                    SELECT ?, media_id, 1 + (media_id + ?) % 5, 'seeded', TRUE FROM media
+                    """)) {
+                for (int u = 0; u < userIds.size(); u++) {
+                    stmt.setInt(1, userIds.get(u));
+                    stmt.setInt(2, u);
+                    stmt.executeUpdate();
+                }
+            }
+            // ratings were inserted directly, so the media aggregates are computed once at the end
+            try (Statement stmt = conn.createStatement()) {
+                DatabaseInitializer.recomputeRatingAggregates(stmt);
+            }
+            conn.commit();
+        }
+    }
+
+    private static Integer[] seedGenres(Connection conn, String... names) throws SQLException {
+        Integer[] ids = new Integer[names.length];
+        try (PreparedStatement stmt = conn.prepareStatement("INSERT INTO genres (name) VALUES (?) RETURNING genre_id")) {
+            for (int i = 0; i < names.length; i++) {
+                stmt.setString(1, names[i]);
+                ResultSet rs = stmt.executeQuery();
+                rs.next();
+                ids[i] = rs.getInt(1);
+            }
+        }
+        return ids;
+    }
+}
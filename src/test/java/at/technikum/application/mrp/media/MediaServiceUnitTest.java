@@ -1,6 +1,12 @@
 package at.technikum.application.mrp.media;
 
+import at.technikum.application.common.PageDto;
+import at.technikum.application.common.PageLimits;
+import at.technikum.application.common.VersionConflictException;
+import at.technikum.application.common.WTinyLfuCache;
+import at.technikum.application.mrp.media.dto.MediaBatchDto;
 import at.technikum.application.mrp.media.dto.MediaDetailDto;
+import at.technikum.application.mrp.media.dto.MediaStatsDto;
 import at.technikum.application.mrp.media.dto.MediaUpsertDto;
 import at.technikum.application.mrp.media.entity.MediaEntryEntity;
 import at.technikum.application.mrp.rating.entity.RatingEntity;
@@ -9,6 +15,7 @@ import at.technikum.application.mrp.user.entity.UserEntity;
 import org.junit.jupiter.api.BeforeEach;
 import org.junit.jupiter.api.Test;
 import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.ArgumentCaptor;
 import org.mockito.Mock;
 import org.mockito.junit.jupiter.MockitoExtension;
 
@@ -30,7 +37,7 @@ class MediaServiceUnitTest {
 
     @BeforeEach
     void setUp() {
-        mediaService = new MediaService(mediaRepository, userRepository);
+        mediaService = new MediaService(mediaRepository, userRepository, new PageLimits(20, 100));
     }
 
     // ==================== Authorization Tests ====================
@@ -307,6 +314,108 @@ class MediaServiceUnitTest {
         assertTrue(result.get().getRatings().isEmpty());
     }
 
+    @Test
+    void testGetById_RatingAggregatesLoaded_AverageScoreUsesAggregates() {
+        // Arrange
+        MediaEntryEntity entity = createMediaEntity(1, 10, "Rated Movie", "movie");
+        entity.setRatingCount(4);
+        entity.setRatingSum(14);
+        entity.setRatings(List.of(new RatingEntity(1, 1)));
+        when(mediaRepository.findById(1)).thenReturn(Optional.of(entity));
+
+        // Act
+        Optional<MediaDetailDto> result = mediaService.getById(1);
+
+        // Assert
+        assertTrue(result.isPresent());
+        assertEquals(3.5, result.get().getAverageScore(), 0.01);
+    }
+
+    // ==================== GetStats Tests ====================
+
+    @Test
+    void testGetStats_ExistingMedia_ReadsOnlyTheCounters() {
+        // Arrange
+        MediaEntryEntity entity = createMediaEntity(1, 10, "Rated Movie", "movie");
+        entity.setRatingCount(2);
+        entity.setRatingSum(7);
+        entity.setStarCounts(new int[]{0, 0, 1, 1, 0});
+        entity.setLikeTotal(5);
+        when(mediaRepository.findById(1, MediaProjection.of(MediaProjection.Field.STATS)))
+            .thenReturn(Optional.of(entity));
+
+        // Act
+        Optional<MediaStatsDto> result = mediaService.getStats(1);
+
+        // Assert
+        assertTrue(result.isPresent());
+        assertEquals(3.5, result.get().getAverageScore(), 0.01);
+        assertEquals(1, result.get().getHistogram().get("4"));
+        assertEquals(5, result.get().getLikeCount());
+        verify(mediaRepository, never()).findById(1);
+    }
+
+    @Test
+    void testGetStats_NonExistingMedia_ReturnsEmpty() {
+        // Arrange
+        when(mediaRepository.findById(eq(999), any(MediaProjection.class))).thenReturn(Optional.empty());
+
+        // Act
+        Optional<MediaStatsDto> result = mediaService.getStats(999);
+
+        // Assert
+        assertFalse(result.isPresent());
+    }
+
+    // ==================== GetByIds Tests ====================
+
+    @Test
+    void testGetByIds_SomeMissing_KeepsRequestOrderAndReportsMissing() {
+        // Arrange
+        when(mediaRepository.findByIds(List.of(3, 99, 1), MediaProjection.DETAIL)).thenReturn(List.of(
+            createMediaEntity(3, 1, "Movie 3", "movie"),
+            createMediaEntity(1, 1, "Movie 1", "movie")));
+
+        // Act
+        MediaBatchDto<MediaDetailDto> result = mediaService.getByIds(List.of(3, 99, 1, 3));
+
+        // Assert: duplicates are resolved once, in one query
+        assertEquals(List.of(3, 1), result.getItems().stream().map(MediaDetailDto::getId).toList());
+        assertEquals(List.of(99), result.getMissing());
+        verify(mediaRepository, never()).findById(anyInt());
+    }
+
+    @Test
+    void testGetByIds_WithProjection_RendersProjectedFields() {
+        // Arrange
+        when(mediaRepository.findByIds(List.of(1), MediaProjection.SUMMARY))
+            .thenReturn(List.of(createMediaEntity(1, 1, "Movie 1", "movie")));
+
+        // Act
+        MediaBatchDto<Map<String, Object>> result = mediaService.getByIds(List.of(1), MediaProjection.SUMMARY);
+
+        // Assert
+        assertEquals("Movie 1", result.getItems().get(0).get("title"));
+        assertFalse(result.getItems().get(0).containsKey("ratings"));
+        assertTrue(result.getMissing().isEmpty());
+    }
+
+    @Test
+    void testGetByIds_EmptyOrTooManyIds_ThrowsIllegalArgumentException() {
+        // Arrange
+        List<Integer> tooMany = new ArrayList<>();
+        for (int id = 0; id <= MediaService.MAX_BATCH_IDS; id++) {
+            tooMany.add(id);
+        }
+
+        // Act & Assert
+        assertThrows(IllegalArgumentException.class, () -> mediaService.getByIds(List.of()));
+        assertThrows(IllegalArgumentException.class, () -> mediaService.getByIds(tooMany));
+        assertThrows(IllegalArgumentException.class, () -> MediaService.parseIds("1,x,3"));
+        assertEquals(List.of(1, 2, 3), MediaService.parseIds(" 1, 2,,3 "));
+        verifyNoInteractions(mediaRepository);
+    }
+
     // ==================== Update Tests ====================
 
     @Test
@@ -315,35 +424,48 @@ class MediaServiceUnitTest {
         int userId = 1;
         int mediaId = 10;
         MediaUpsertDto dto = createValidUpsertDto("Updated Title", "movie");
-        MediaEntryEntity existingEntity = createMediaEntity(mediaId, userId, "Old Title", "movie");
         MediaEntryEntity updatedEntity = createMediaEntity(mediaId, userId, "Updated Title", "movie");
+        updatedEntity.setVersion(4);
 
-        when(mediaRepository.findById(mediaId)).thenReturn(Optional.of(existingEntity));
-        when(mediaRepository.update(any(MediaEntryEntity.class))).thenReturn(updatedEntity);
+        when(mediaRepository.updateIfMatch(any(MediaEntryEntity.class), eq(userId), isNull()))
+            .thenReturn(Optional.of(updatedEntity));
 
         // Act
         Optional<MediaDetailDto> result = mediaService.update(userId, mediaId, dto);
 
-        // Assert
+        // Assert: owner check happens in the UPDATE, no read before the write
         assertTrue(result.isPresent());
         assertEquals("Updated Title", result.get().getTitle());
-        verify(mediaRepository).findById(mediaId);
-        verify(mediaRepository).update(any(MediaEntryEntity.class));
+        assertEquals(4, result.get().getVersion());
+        verify(mediaRepository, never()).findById(anyInt());
+    }
+
+    @Test
+    void testUpdate_WithExpectedVersion_PassesItToConditionalUpdate() {
+        // Arrange
+        MediaUpsertDto dto = createValidUpsertDto("Updated Title", "movie");
+        when(mediaRepository.updateIfMatch(any(MediaEntryEntity.class), eq(1), eq(3)))
+            .thenThrow(new VersionConflictException("Media entry was modified (current version 5)", 5));
+
+        // Act & Assert
+        VersionConflictException conflict = assertThrows(
+            VersionConflictException.class,
+            () -> mediaService.update(1, 10, dto, 3)
+        );
+        assertEquals(5, conflict.getCurrentVersion());
     }
 
     @Test
     void testUpdate_NonExistingMedia_ReturnsEmpty() {
         // Arrange
         MediaUpsertDto dto = createValidUpsertDto("Title", "movie");
-        when(mediaRepository.findById(999)).thenReturn(Optional.empty());
+        when(mediaRepository.updateIfMatch(any(MediaEntryEntity.class), eq(1), isNull())).thenReturn(Optional.empty());
 
         // Act
         Optional<MediaDetailDto> result = mediaService.update(1, 999, dto);
 
         // Assert
         assertFalse(result.isPresent());
-        verify(mediaRepository).findById(999);
-        verify(mediaRepository, never()).update(any());
     }
 
     @Test
@@ -353,9 +475,9 @@ class MediaServiceUnitTest {
         int otherUserId = 2;
         int mediaId = 10;
         MediaUpsertDto dto = createValidUpsertDto("Updated Title", "movie");
-        MediaEntryEntity existingEntity = createMediaEntity(mediaId, ownerId, "Old Title", "movie");
 
-        when(mediaRepository.findById(mediaId)).thenReturn(Optional.of(existingEntity));
+        when(mediaRepository.updateIfMatch(any(MediaEntryEntity.class), eq(otherUserId), isNull()))
+            .thenThrow(new SecurityException("Only creator can update this entry"));
 
         // Act & Assert
         SecurityException exception = assertThrows(
@@ -363,8 +485,6 @@ class MediaServiceUnitTest {
             () -> mediaService.update(otherUserId, mediaId, dto)
         );
         assertEquals("Only creator can update this entry", exception.getMessage());
-        verify(mediaRepository).findById(mediaId);
-        verify(mediaRepository, never()).update(any());
     }
 
     @Test
@@ -439,23 +559,26 @@ class MediaServiceUnitTest {
     // ==================== Search Tests ====================
 
     @Test
-    void testSearch_NoFilters_ReturnsAllMedia() {
+    void testSearch_NoFilters_ReturnsFirstPageSortedById() {
         // Arrange
         Map<String, String> query = new HashMap<>();
         List<MediaEntryEntity> entities = Arrays.asList(
             createMediaEntity(1, 1, "Movie 1", "movie"),
             createMediaEntity(2, 1, "Movie 2", "movie")
         );
-
-        when(mediaRepository.search(null, null, null, null, null, null, null))
-            .thenReturn(entities);
+        when(mediaRepository.search(any(MediaSearchQuery.class)))
+            .thenReturn(new PageDto<>(entities, "next", 20));
 
         // Act
-        List<MediaDetailDto> result = mediaService.search(query);
+        PageDto<MediaDetailDto> result = mediaService.search(query);
 
         // Assert
-        assertEquals(2, result.size());
-        verify(mediaRepository).search(null, null, null, null, null, null, null);
+        assertEquals(2, result.getItems().size());
+        assertEquals("next", result.getNextCursor());
+        MediaSearchQuery passed = captureSearchQuery();
+        assertEquals(MediaSearchQuery.Sort.ID, passed.getSort());
+        assertNull(passed.getCursor());
+        assertEquals(20, passed.getLimit());
     }
 
     @Test
@@ -463,15 +586,13 @@ class MediaServiceUnitTest {
         // Arrange
         Map<String, String> query = new HashMap<>();
         query.put("title", "  Matrix  ");
-
-        when(mediaRepository.search("Matrix", null, null, null, null, null, null))
-            .thenReturn(new ArrayList<>());
+        stubEmptyPage();
 
         // Act
         mediaService.search(query);
 
         // Assert
-        verify(mediaRepository).search("Matrix", null, null, null, null, null, null);
+        assertEquals("Matrix", captureSearchQuery().getTitle());
     }
 
     @Test
@@ -479,15 +600,31 @@ class MediaServiceUnitTest {
         // Arrange
         Map<String, String> query = new HashMap<>();
         query.put("genre", "  Action  ");
+        stubEmptyPage();
+
+        // Act
+        mediaService.search(query);
 
-        when(mediaRepository.search(null, "Action", null, null, null, null, null))
-            .thenReturn(new ArrayList<>());
+        // Assert
+        assertEquals(List.of("Action"), captureSearchQuery().getGenres());
+        assertEquals(MediaSearchQuery.GenreMatch.ANY, captureSearchQuery().getGenreMatch());
+    }
+
+    @Test
+    void testSearch_WithSeveralGenresAndMatchAll_PassesGenreListAndMode() {
+        // Arrange
+        Map<String, String> query = new HashMap<>();
+        query.put("genre", "Action, Sci-Fi,,");
+        query.put("genreMatch", "all");
+        stubEmptyPage();
 
         // Act
         mediaService.search(query);
 
         // Assert
-        verify(mediaRepository).search(null, "Action", null, null, null, null, null);
+        MediaSearchQuery passed = captureSearchQuery();
+        assertEquals(List.of("Action", "Sci-Fi"), passed.getGenres());
+        assertEquals(MediaSearchQuery.GenreMatch.ALL, passed.getGenreMatch());
     }
 
     @Test
@@ -495,15 +632,13 @@ class MediaServiceUnitTest {
         // Arrange
         Map<String, String> query = new HashMap<>();
         query.put("mediaType", "  movie  ");
-
-        when(mediaRepository.search(null, null, "movie", null, null, null, null))
-            .thenReturn(new ArrayList<>());
+        stubEmptyPage();
 
         // Act
         mediaService.search(query);
 
         // Assert
-        verify(mediaRepository).search(null, null, "movie", null, null, null, null);
+        assertEquals("movie", captureSearchQuery().getMediaType());
     }
 
     @Test
@@ -511,15 +646,13 @@ class MediaServiceUnitTest {
         // Arrange
         Map<String, String> query = new HashMap<>();
         query.put("releaseYear", "2020");
-
-        when(mediaRepository.search(null, null, null, 2020, null, null, null))
-            .thenReturn(new ArrayList<>());
+        stubEmptyPage();
 
         // Act
         mediaService.search(query);
 
         // Assert
-        verify(mediaRepository).search(null, null, null, 2020, null, null, null);
+        assertEquals(2020, captureSearchQuery().getReleaseYear());
     }
 
     @Test
@@ -527,15 +660,13 @@ class MediaServiceUnitTest {
         // Arrange
         Map<String, String> query = new HashMap<>();
         query.put("ageRestriction", "18");
-
-        when(mediaRepository.search(null, null, null, null, 18, null, null))
-            .thenReturn(new ArrayList<>());
+        stubEmptyPage();
 
         // Act
         mediaService.search(query);
 
         // Assert
-        verify(mediaRepository).search(null, null, null, null, 18, null, null);
+        assertEquals(18, captureSearchQuery().getAgeRestriction());
     }
 
     @Test
@@ -543,31 +674,27 @@ class MediaServiceUnitTest {
         // Arrange
         Map<String, String> query = new HashMap<>();
         query.put("rating", "4");
-
-        when(mediaRepository.search(null, null, null, null, null, 4, null))
-            .thenReturn(new ArrayList<>());
+        stubEmptyPage();
 
         // Act
         mediaService.search(query);
 
         // Assert
-        verify(mediaRepository).search(null, null, null, null, null, 4, null);
+        assertEquals(4, captureSearchQuery().getMinRating());
     }
 
     @Test
-    void testSearch_WithSortBy_PassesNormalizedValue() {
+    void testSearch_WithSortByRating_SortsByScore() {
         // Arrange
         Map<String, String> query = new HashMap<>();
         query.put("sortBy", "  rating  ");
-
-        when(mediaRepository.search(null, null, null, null, null, null, "rating"))
-            .thenReturn(new ArrayList<>());
+        stubEmptyPage();
 
         // Act
         mediaService.search(query);
 
         // Assert
-        verify(mediaRepository).search(null, null, null, null, null, null, "rating");
+        assertEquals(MediaSearchQuery.Sort.SCORE, captureSearchQuery().getSort());
     }
 
     @Test
@@ -580,16 +707,39 @@ class MediaServiceUnitTest {
         query.put("releaseYear", "1999");
         query.put("ageRestriction", "16");
         query.put("rating", "4");
-        query.put("sortBy", "rating");
+        query.put("sortBy", "year");
+        query.put("cursor", "abc");
+        query.put("limit", "5");
+        stubEmptyPage();
+
+        // Act
+        mediaService.search(query);
 
-        when(mediaRepository.search("Matrix", "Sci-Fi", "movie", 1999, 16, 4, "rating"))
-            .thenReturn(new ArrayList<>());
+        // Assert
+        MediaSearchQuery passed = captureSearchQuery();
+        assertEquals("Matrix", passed.getTitle());
+        assertEquals(List.of("Sci-Fi"), passed.getGenres());
+        assertEquals("movie", passed.getMediaType());
+        assertEquals(1999, passed.getReleaseYear());
+        assertEquals(16, passed.getAgeRestriction());
+        assertEquals(4, passed.getMinRating());
+        assertEquals(MediaSearchQuery.Sort.YEAR, passed.getSort());
+        assertEquals("abc", passed.getCursor());
+        assertEquals(5, passed.getLimit());
+    }
+
+    @Test
+    void testSearch_LimitAboveMaximum_IsCapped() {
+        // Arrange
+        Map<String, String> query = new HashMap<>();
+        query.put("limit", "100000");
+        stubEmptyPage();
 
         // Act
         mediaService.search(query);
 
         // Assert
-        verify(mediaRepository).search("Matrix", "Sci-Fi", "movie", 1999, 16, 4, "rating");
+        assertEquals(100, captureSearchQuery().getLimit());
     }
 
     @Test
@@ -597,15 +747,16 @@ class MediaServiceUnitTest {
         // Arrange
         Map<String, String> query = new HashMap<>();
         query.put("releaseYear", "invalid");
-
-        when(mediaRepository.search(null, null, null, null, null, null, null))
-            .thenReturn(new ArrayList<>());
+        query.put("limit", "-3");
+        stubEmptyPage();
 
         // Act
         mediaService.search(query);
 
         // Assert
-        verify(mediaRepository).search(null, null, null, null, null, null, null);
+        MediaSearchQuery passed = captureSearchQuery();
+        assertNull(passed.getReleaseYear());
+        assertEquals(20, passed.getLimit());
     }
 
     @Test
@@ -613,19 +764,144 @@ class MediaServiceUnitTest {
         // Arrange
         Map<String, String> query = new HashMap<>();
         query.put("title", "   ");
+        query.put("cursor", " ");
+        stubEmptyPage();
 
-        when(mediaRepository.search(null, null, null, null, null, null, null))
-            .thenReturn(new ArrayList<>());
+        // Act
+        mediaService.search(query);
+
+        // Assert
+        MediaSearchQuery passed = captureSearchQuery();
+        assertNull(passed.getTitle());
+        assertNull(passed.getCursor());
+    }
+
+    @Test
+    void testSearch_WithSummaryProjection_PushesProjectionDownAndRendersOnlyItsFields() {
+        // Arrange
+        Map<String, String> query = new HashMap<>();
+        when(mediaRepository.search(any(MediaSearchQuery.class)))
+            .thenReturn(new PageDto<>(List.of(createMediaEntity(1, 1, "Movie 1", "movie")), null, 20));
+
+        // Act
+        PageDto<Map<String, Object>> result = mediaService.search(query, MediaProjection.SUMMARY);
+
+        // Assert
+        assertEquals(MediaProjection.SUMMARY, captureSearchQuery().getProjection());
+        assertEquals(List.of("id", "title", "mediaType", "releaseYear", "averageScore", "ratingCount"),
+                new ArrayList<>(result.getItems().get(0).keySet()));
+    }
+
+    // ==================== Facet Tests ====================
+
+    @Test
+    void testSearch_WithFacets_CachesCountsPerNormalizedFilters() {
+        // Arrange
+        mediaService = new MediaService(mediaRepository, userRepository, new PageLimits(20, 100), mediaRepository,
+                new WTinyLfuCache<>(10, 100, 60_000, 60_000, facets -> 1));
+        Map<String, Map<String, Long>> counts = Map.of("genre", Map.of("Sci-Fi", 3L));
+        stubEmptyPage();
+        when(mediaRepository.facets(any(MediaSearchQuery.class))).thenReturn(counts);
+        Map<String, String> first = new HashMap<>();
+        first.put("genre", "Sci-Fi");
+        first.put("facets", "genre,mediaType");
+        Map<String, String> secondPage = new HashMap<>();
+        secondPage.put("genre", " sci-fi ");
+        secondPage.put("facets", "mediaType, genre");
+        secondPage.put("cursor", "abc");
+
+        // Act
+        PageDto<MediaDetailDto> firstResult = mediaService.search(first);
+        PageDto<Map<String, Object>> secondResult = mediaService.search(secondPage, MediaProjection.SUMMARY);
+
+        // Assert
+        assertEquals(counts, firstResult.getFacets());
+        assertEquals(counts, secondResult.getFacets());
+        verify(mediaRepository, times(1)).facets(any(MediaSearchQuery.class));
+    }
+
+    @Test
+    void testSearch_WithoutFacets_DoesNotCountFacets() {
+        // Arrange
+        stubEmptyPage();
+
+        // Act
+        PageDto<MediaDetailDto> result = mediaService.search(new HashMap<>());
+
+        // Assert
+        assertNull(result.getFacets());
+        verify(mediaRepository, never()).facets(any());
+    }
+
+    @Test
+    void testSearch_UnknownFacet_ThrowsIllegalArgumentException() {
+        // Arrange
+        Map<String, String> query = new HashMap<>();
+        query.put("facets", "genre,director");
+
+        // Act & Assert
+        assertThrows(IllegalArgumentException.class, () -> mediaService.search(query));
+        verify(mediaRepository, never()).search(any());
+    }
+
+    // ==================== Search Strategy Tests ====================
+
+    @Test
+    void testSearch_TextOfWholeWords_UsesFullTextSortedByRelevance() {
+        // Arrange
+        Map<String, String> query = new HashMap<>();
+        query.put("q", "  matrix reload ");
+        stubEmptyPage();
 
         // Act
         mediaService.search(query);
 
         // Assert
-        verify(mediaRepository).search(null, null, null, null, null, null, null);
+        MediaSearchQuery passed = captureSearchQuery();
+        assertEquals("matrix reload", passed.getText());
+        assertEquals(MediaSearchQuery.TextMode.FULL_TEXT, passed.getTextMode());
+        assertEquals(MediaSearchQuery.Sort.RELEVANCE, passed.getSort());
+    }
+
+    @Test
+    void testSearch_FullTextWithExplicitSort_KeepsRequestedSort() {
+        // Arrange
+        Map<String, String> query = new HashMap<>();
+        query.put("q", "matrix");
+        query.put("sortBy", "year");
+        stubEmptyPage();
+
+        // Act
+        mediaService.search(query);
+
+        // Assert
+        assertEquals(MediaSearchQuery.Sort.YEAR, captureSearchQuery().getSort());
+    }
+
+    @Test
+    void testChooseTextMode_QueryShapes_PicksStrategy() {
+        assertEquals(MediaSearchQuery.TextMode.FULL_TEXT, MediaService.chooseTextMode("The Matrix"));
+        assertEquals(MediaSearchQuery.TextMode.FULL_TEXT, MediaService.chooseTextMode("Amélie: Le fabuleux destin"));
+        assertEquals(MediaSearchQuery.TextMode.SUBSTRING, MediaService.chooseTextMode("Up"));
+        assertEquals(MediaSearchQuery.TextMode.SUBSTRING, MediaService.chooseTextMode("100%"));
+        assertEquals(MediaSearchQuery.TextMode.SUBSTRING, MediaService.chooseTextMode("c++"));
+        assertEquals(MediaSearchQuery.TextMode.SUBSTRING, MediaService.chooseTextMode("..."));
+        assertEquals(MediaSearchQuery.TextMode.SUBSTRING, MediaService.chooseTextMode(null));
     }
 
     // ==================== Helper Methods ====================
 
+    private void stubEmptyPage() {
+        when(mediaRepository.search(any(MediaSearchQuery.class)))
+            .thenReturn(new PageDto<>(new ArrayList<>(), null, 20));
+    }
+
+    private MediaSearchQuery captureSearchQuery() {
+        ArgumentCaptor<MediaSearchQuery> captor = ArgumentCaptor.forClass(MediaSearchQuery.class);
+        verify(mediaRepository).search(captor.capture());
+        return captor.getValue();
+    }
+
     private MediaUpsertDto createValidUpsertDto(String title, String mediaType) {
         MediaUpsertDto dto = new MediaUpsertDto();
         dto.setTitle(title);
@@ -0,0 +1,89 @@
+package at.technikum.application.mrp.media;
+
+import org.junit.jupiter.api.Test;
+
+import java.util.BitSet;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class PostingListUnitTest {
+
+    // ==================== add/remove Tests ====================
+
+    @Test
+    void testAdd_OutOfOrderAndDuplicateIds_KeepsSortedSet() {
+        // Arrange
+        PostingList list = new PostingList();
+
+        // Act
+        list.add(10);
+        list.add(3);
+        list.add(200_000);
+        list.add(7);
+        boolean duplicate = list.add(10);
+
+        // Assert
+        assertFalse(duplicate);
+        assertArrayEquals(new int[]{3, 7, 10, 200_000}, list.toArray());
+        assertTrue(list.contains(7));
+        assertFalse(list.contains(8));
+        assertFalse(list.contains(300_000));
+    }
+
+    @Test
+    void testRemove_ExistingAndMissingIds_UpdatesList() {
+        // Arrange
+        PostingList list = new PostingList();
+        list.add(1);
+        list.add(5);
+        list.add(9);
+
+        // Act & Assert
+        assertTrue(list.remove(5));
+        assertFalse(list.remove(5));
+        assertFalse(list.remove(42));
+        assertArrayEquals(new int[]{1, 9}, list.toArray());
+        assertTrue(list.remove(1));
+        assertTrue(list.remove(9));
+        assertTrue(list.isEmpty());
+
+        list.add(4);
+        assertArrayEquals(new int[]{4}, list.toArray());
+    }
+
+    // ==================== Encoding Tests ====================
+
+    @Test
+    void testByteSize_DenseIds_UsesOneBytePerId() {
+        // Arrange
+        PostingList list = new PostingList();
+
+        // Act
+        for (int id = 1_000_000; id < 1_001_000; id++) {
+            list.add(id);
+        }
+
+        // Assert: 3 bytes for the first id, then one byte per gap of 1
+        assertEquals(1000, list.size());
+        assertEquals(3 + 999, list.byteSize());
+    }
+
+    @Test
+    void testAddTo_SetsBitOfEveryId() {
+        // Arrange
+        PostingList list = new PostingList();
+        list.add(0);
+        list.add(130);
+        list.add(Integer.MAX_VALUE - 1);
+        BitSet bits = new BitSet();
+
+        // Act
+        list.addTo(bits);
+
+        // Assert
+        assertEquals(3, bits.cardinality());
+        assertTrue(bits.get(0));
+        assertTrue(bits.get(130));
+        assertTrue(bits.get(Integer.MAX_VALUE - 1));
+    }
+}
@@ -0,0 +1,257 @@
+package at.technikum.application.mrp.rating;
+
+import at.technikum.application.mrp.rating.entity.RatingEntity;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.junit.jupiter.api.io.TempDir;
+import org.mockito.ArgumentCaptor;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.Collection;
+import java.util.List;
+import java.util.Optional;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyCollection;
+import static org.mockito.Mockito.*;
+
+@ExtendWith(MockitoExtension.class)
+class LikeWriteBufferUnitTest {
+
+    @Mock
+    private RatingRepository ratingRepository;
+
+    @TempDir
+    Path tempDir;
+
+    private LikeWriteBuffer buffer;
+
+    @AfterEach
+    void tearDown() {
+        if (buffer != null) {
+            buffer.close();
+        }
+    }
+
+    // ==================== Toggle Tests ====================
+
+    @Test
+    void testToggle_Like_CountServedFromMemoryWithoutDatabaseWrite() throws IOException {
+        // Arrange
+        buffer = newBuffer();
+
+        // Act
+        RatingEntity liked = buffer.toggle(7, 1, true, () -> stored(7, 3, false)).orElseThrow();
+        RatingEntity likedAgain = buffer.toggle(7, 1, true, () -> stored(7, 3, false)).orElseThrow();
+        RatingEntity read = buffer.read(2, () -> stored(7, 3, false)).orElseThrow();
+
+        // Assert: second like is a no-op, other users see the count but not the like
+        assertEquals(4, liked.getLikeCount());
+        assertTrue(liked.getLikedByRequester());
+        assertEquals(4, likedAgain.getLikeCount());
+        assertEquals(4, read.getLikeCount());
+        assertFalse(read.getLikedByRequester());
+        verify(ratingRepository, never()).applyLikeChanges(anyCollection(), any());
+    }
+
+    @Test
+    void testToggle_LikeThenUnlike_CoalescesToNothing() throws IOException {
+        // Arrange
+        buffer = newBuffer();
+        buffer.toggle(7, 1, true, () -> stored(7, 3, false));
+
+        // Act
+        RatingEntity unliked = buffer.toggle(7, 1, false, () -> stored(7, 3, false)).orElseThrow();
+        int flushed = buffer.flush();
+
+        // Assert
+        assertEquals(3, unliked.getLikeCount());
+        assertEquals(0, flushed);
+        assertEquals(0, buffer.getStats().get("pending"));
+        verify(ratingRepository, never()).applyLikeChanges(anyCollection(), any());
+    }
+
+    @Test
+    void testToggle_UnknownRating_ReturnsEmptyAndRecordsNothing() throws IOException {
+        // Arrange
+        buffer = newBuffer();
+
+        // Act
+        Optional<RatingEntity> result = buffer.toggle(99, 1, true, Optional::empty);
+
+        // Assert
+        assertTrue(result.isEmpty());
+        assertEquals(0, buffer.getStats().get("pending"));
+    }
+
+    @Test
+    void testToggle_AfterClose_WritesThroughToDatabase() throws IOException {
+        // Arrange: threshold 1 would hand every toggle to the stopped flusher
+        buffer = new LikeWriteBuffer(ratingRepository, journal(), 0, 1);
+        buffer.close();
+        when(ratingRepository.addLike(7, 1)).thenReturn(4);
+
+        // Act
+        RatingEntity liked = buffer.toggle(7, 1, true, () -> stored(7, 3, false)).orElseThrow();
+
+        // Assert
+        assertEquals(4, liked.getLikeCount());
+        assertTrue(liked.getLikedByRequester());
+        assertEquals(0, buffer.getStats().get("pending"));
+        verify(ratingRepository, never()).applyLikeChanges(anyCollection(), any());
+    }
+
+    // ==================== Flush Tests ====================
+
+    @Test
+    @SuppressWarnings("unchecked")
+    void testFlush_WritesFinalStatePerPairInOneBatchAndTruncatesJournal() throws IOException {
+        // Arrange
+        buffer = newBuffer();
+        buffer.toggle(7, 1, true, () -> stored(7, 0, false));
+        buffer.toggle(7, 2, true, () -> stored(7, 0, false));
+        buffer.toggle(8, 1, false, () -> stored(8, 5, true));
+        assertTrue(Files.size(journal()) > 0);
+
+        // Act
+        int flushed = buffer.flush();
+
+        // Assert
+        ArgumentCaptor<Collection<RatingRepository.LikeChange>> changes = ArgumentCaptor.forClass(Collection.class);
+        verify(ratingRepository, times(1)).applyLikeChanges(changes.capture(), any());
+        assertEquals(3, flushed);
+        assertTrue(changes.getValue().containsAll(List.of(
+            new RatingRepository.LikeChange(7, 1, true),
+            new RatingRepository.LikeChange(7, 2, true),
+            new RatingRepository.LikeChange(8, 1, false))));
+        assertEquals(0, Files.size(journal()));
+        assertEquals(0, buffer.getStats().get("pending"));
+    }
+
+    @Test
+    void testFlush_DatabaseFails_KeepsTogglesAndJournal() throws IOException {
+        // Arrange
+        buffer = newBuffer();
+        buffer.toggle(7, 1, true, () -> stored(7, 3, false));
+        doThrow(new RuntimeException("db down")).when(ratingRepository).applyLikeChanges(anyCollection(), any());
+
+        // Act & Assert
+        assertThrows(RuntimeException.class, () -> buffer.flush());
+        assertEquals(4, buffer.read(1, () -> stored(7, 3, false)).orElseThrow().getLikeCount());
+        assertTrue(Files.size(journal()) > 0);
+        assertEquals(1L, buffer.getStats().get("failedFlushes"));
+        reset(ratingRepository);
+    }
+
+    @Test
+    void testFlush_ReadsAndTogglesWhileWriting_ServedFromInFlightTogglesWithoutWaiting() throws IOException {
+        // Arrange
+        buffer = newBuffer();
+        buffer.toggle(7, 1, true, () -> stored(7, 3, false));
+        RatingEntity[] duringFlush = new RatingEntity[2];
+        doAnswer(invocation -> {
+            // the statement ran but is not committed: the database still has 3 likes
+            duringFlush[0] = buffer.read(2, () -> stored(7, 3, false)).orElseThrow();
+            duringFlush[1] = buffer.toggle(7, 2, true, () -> stored(7, 3, false)).orElseThrow();
+            return null;
+        }).when(ratingRepository).applyLikeChanges(anyCollection(), any());
+
+        // Act
+        int flushed = buffer.flush();
+        RatingEntity afterCommit = buffer.read(2, () -> stored(7, 4, false)).orElseThrow();
+
+        // Assert: the toggle recorded during the flush is pending for the next one
+        assertEquals(1, flushed);
+        assertEquals(4, duringFlush[0].getLikeCount());
+        assertEquals(5, duringFlush[1].getLikeCount());
+        assertEquals(5, afterCommit.getLikeCount());
+        assertTrue(afterCommit.getLikedByRequester());
+        assertEquals(1, buffer.getStats().get("pending"));
+        assertEquals("7 2 1\n", Files.readString(journal()));
+    }
+
+    @Test
+    void testFlush_DatabaseFailsAfterTogglesDuringFlush_MergesTogglesAndJournal() throws IOException {
+        // Arrange
+        buffer = newBuffer();
+        buffer.toggle(7, 1, true, () -> stored(7, 3, false));
+        doAnswer(invocation -> {
+            buffer.toggle(7, 1, false, () -> stored(7, 3, false));
+            buffer.toggle(7, 2, true, () -> stored(7, 3, false));
+            throw new RuntimeException("db down");
+        }).when(ratingRepository).applyLikeChanges(anyCollection(), any());
+
+        // Act
+        assertThrows(RuntimeException.class, () -> buffer.flush());
+        RatingEntity read = buffer.read(1, () -> stored(7, 3, false)).orElseThrow();
+
+        // Assert: like + unlike of user 1 coalesced, only user 2's like is left
+        assertEquals(4, read.getLikeCount());
+        assertFalse(read.getLikedByRequester());
+        assertEquals(1, buffer.getStats().get("pending"));
+        assertEquals("7 1 1\n7 1 0\n7 2 1\n", Files.readString(journal()));
+        reset(ratingRepository);
+    }
+
+    // ==================== Journal Tests ====================
+
+    @Test
+    void testConstructor_JournalFromCrash_AppliesLastStatePerPair() throws IOException {
+        // Arrange: like + unlike of (7, 1), like of (8, 2), torn last line
+        Files.writeString(journal(), "7 1 1\n8 2 1\n7 1 0\n8 3");
+
+        // Act
+        buffer = newBuffer();
+
+        // Assert
+        verify(ratingRepository).applyLikeChanges(List.of(
+            new RatingRepository.LikeChange(7, 1, false),
+            new RatingRepository.LikeChange(8, 2, true)));
+        assertEquals(0, Files.size(journal()));
+    }
+
+    @Test
+    void testConstructor_CrashDuringFlush_AppliesSetAsideTogglesFirst() throws IOException {
+        // Arrange: (7, 1) was being flushed as a like, then unliked into the new journal
+        Files.writeString(tempDir.resolve("likes.log.flushing"), "7 1 1\n8 2 1\n");
+        Files.writeString(journal(), "7 1 0\n");
+
+        // Act
+        buffer = newBuffer();
+
+        // Assert
+        verify(ratingRepository).applyLikeChanges(List.of(
+            new RatingRepository.LikeChange(7, 1, false),
+            new RatingRepository.LikeChange(8, 2, true)));
+        assertFalse(Files.exists(tempDir.resolve("likes.log.flushing")));
+        assertEquals(0, Files.size(journal()));
+    }
+
+    // ==================== Helper Methods ====================
+
+    private LikeWriteBuffer newBuffer() throws IOException {
+        // no timer and a high threshold: only explicit flush() writes
+        return new LikeWriteBuffer(ratingRepository, journal(), 0, 1_000_000);
+    }
+
+    private Path journal() {
+        return tempDir.resolve("likes.log");
+    }
+
+    private static Optional<RatingEntity> stored(int id, int likeCount, boolean likedByRequester) {
+        RatingEntity rating = new RatingEntity();
+        rating.setId(id);
+        rating.setMediaId(100);
+        rating.setUserId(50);
+        rating.setScore(4);
+        rating.setLikeCount(likeCount);
+        rating.setLikedByRequester(likedByRequester);
+        return Optional.of(rating);
+    }
+}
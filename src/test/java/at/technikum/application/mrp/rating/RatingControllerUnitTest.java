@@ -1,6 +1,9 @@
 package at.technikum.application.mrp.rating;
 
+import at.technikum.application.common.PageDto;
+import at.technikum.application.mrp.media.MediaImporter;
 import at.technikum.application.mrp.rating.dto.RatingDetailDto;
+import at.technikum.application.mrp.rating.dto.RatingImportResultDto;
 import at.technikum.application.mrp.rating.dto.RatingUpsertDto;
 import at.technikum.server.http.Request;
 import at.technikum.server.http.Response;
@@ -10,6 +13,8 @@ import org.junit.jupiter.api.extension.ExtendWith;
 import org.mockito.Mock;
 import org.mockito.junit.jupiter.MockitoExtension;
 
+import java.io.ByteArrayInputStream;
+import java.nio.charset.StandardCharsets;
 import java.util.*;
 
 import static org.junit.jupiter.api.Assertions.*;
@@ -39,7 +44,7 @@ class RatingControllerUnitTest {
         when(request.getPath()).thenReturn("/rating/media/100");
         when(request.getMethod()).thenReturn("POST");
         when(request.getAuthorization()).thenReturn("Bearer valid-token");
-        when(request.getBody()).thenReturn("{\"score\":5,\"comment\":\"Great!\"}");
+        when(request.getBodyBytes()).thenReturn(bytes("{\"score\":5,\"comment\":\"Great!\"}"));
         when(ratingService.getAuthorizedUserId("Bearer valid-token")).thenReturn(Optional.of(1));
 
         RatingDetailDto mockRating = createMockRatingDto(1, 1, 100, 5, "Great!");
@@ -78,8 +83,6 @@ class RatingControllerUnitTest {
         // Arrange
         when(request.getPath()).thenReturn("/rating/media/invalid");
         when(request.getMethod()).thenReturn("POST");
-        when(request.getAuthorization()).thenReturn("Bearer valid-token");
-        when(ratingService.getAuthorizedUserId("Bearer valid-token")).thenReturn(Optional.of(1));
 
         // Act
         Response response = controller.handle(request);
@@ -89,6 +92,8 @@ class RatingControllerUnitTest {
         assertEquals(404, response.getStatusCode());
         assertTrue(response.getBody().contains("Route not found"));
         verify(ratingService, never()).create(anyInt(), any());
+        // answered by the route table, the controller is not invoked
+        verify(ratingService, never()).getAuthorizedUserId(any());
     }
 
     // ==================== GET /rating Tests ====================
@@ -109,7 +114,7 @@ class RatingControllerUnitTest {
             createMockRatingDto(1, 1, 100, 5, "Great!"),
             createMockRatingDto(2, 2, 100, 4, "Good")
         );
-        when(ratingService.listByMedia(1, 100)).thenReturn(mockRatings);
+        when(ratingService.listByMedia(1, 100, queryParams)).thenReturn(new PageDto<>(mockRatings, "next-page", 20));
 
         // Act
         Response response = controller.handle(request);
@@ -119,7 +124,8 @@ class RatingControllerUnitTest {
         assertEquals(200, response.getStatusCode());
         assertTrue(response.getBody().contains("\"id\":1"));
         assertTrue(response.getBody().contains("\"id\":2"));
-        verify(ratingService).listByMedia(1, 100);
+        assertTrue(response.getBody().contains("\"nextCursor\":\"next-page\""));
+        verify(ratingService).listByMedia(1, 100, queryParams);
     }
 
     @Test
@@ -140,7 +146,47 @@ class RatingControllerUnitTest {
         assertNotNull(response);
         assertEquals(400, response.getStatusCode());
         assertTrue(response.getBody().contains("mediaId query parameter is required"));
-        verify(ratingService, never()).listByMedia(anyInt(), anyInt());
+        verify(ratingService, never()).listByMedia(anyInt(), anyInt(), any());
+    }
+
+    // ==================== POST /rating/import Tests ====================
+
+    @Test
+    void testHandle_ImportRatings_CsvFormatParameter_ImportsForCaller() throws Exception {
+        // Arrange
+        when(request.getPath()).thenReturn("/rating/import");
+        when(request.getMethod()).thenReturn("POST");
+        when(request.getAuthorization()).thenReturn("Bearer valid-token");
+        when(request.getQueryParam("format")).thenReturn("csv");
+        when(request.getBodyStream()).thenReturn(new ByteArrayInputStream(bytes("mediaId,score\n100,4\n")));
+        when(ratingService.getAuthorizedUserId("Bearer valid-token")).thenReturn(Optional.of(1));
+        RatingImportResultDto result = new RatingImportResultDto();
+        result.setInserted(1);
+        when(ratingService.importRatings(eq(1), any(), eq(MediaImporter.Format.CSV))).thenReturn(result);
+
+        // Act
+        Response response = controller.handle(request);
+
+        // Assert
+        assertEquals(200, response.getStatusCode());
+        assertTrue(response.getBody().contains("\"inserted\":1"));
+    }
+
+    @Test
+    void testHandle_ImportRatings_EmptyBody_ReturnsBadRequest() throws Exception {
+        // Arrange
+        when(request.getPath()).thenReturn("/rating/import");
+        when(request.getMethod()).thenReturn("POST");
+        when(request.getAuthorization()).thenReturn("Bearer valid-token");
+        when(request.getBodyStream()).thenReturn(null);
+        when(ratingService.getAuthorizedUserId("Bearer valid-token")).thenReturn(Optional.of(1));
+
+        // Act
+        Response response = controller.handle(request);
+
+        // Assert
+        assertEquals(400, response.getStatusCode());
+        verify(ratingService, never()).importRatings(anyInt(), any(), any());
     }
 
     // ==================== GET /rating/{id} Tests ====================
@@ -193,11 +239,11 @@ class RatingControllerUnitTest {
         when(request.getPath()).thenReturn("/rating/1");
         when(request.getMethod()).thenReturn("PUT");
         when(request.getAuthorization()).thenReturn("Bearer valid-token");
-        when(request.getBody()).thenReturn("{\"score\":4,\"comment\":\"Updated\"}");
+        when(request.getBodyBytes()).thenReturn(bytes("{\"score\":4,\"comment\":\"Updated\"}"));
         when(ratingService.getAuthorizedUserId("Bearer valid-token")).thenReturn(Optional.of(1));
 
         RatingDetailDto mockRating = createMockRatingDto(1, 1, 100, 4, "Updated");
-        when(ratingService.update(eq(1), eq(1), any(RatingUpsertDto.class))).thenReturn(Optional.of(mockRating));
+        when(ratingService.update(eq(1), eq(1), any(RatingUpsertDto.class), isNull())).thenReturn(Optional.of(mockRating));
 
         // Act
         Response response = controller.handle(request);
@@ -206,7 +252,7 @@ class RatingControllerUnitTest {
         assertNotNull(response);
         assertEquals(200, response.getStatusCode());
         assertTrue(response.getBody().contains("\"score\":4"));
-        verify(ratingService).update(eq(1), eq(1), any(RatingUpsertDto.class));
+        verify(ratingService).update(eq(1), eq(1), any(RatingUpsertDto.class), isNull());
     }
 
     @Test
@@ -215,9 +261,9 @@ class RatingControllerUnitTest {
         when(request.getPath()).thenReturn("/rating/999");
         when(request.getMethod()).thenReturn("PUT");
         when(request.getAuthorization()).thenReturn("Bearer valid-token");
-        when(request.getBody()).thenReturn("{\"score\":4}");
+        when(request.getBodyBytes()).thenReturn(bytes("{\"score\":4}"));
         when(ratingService.getAuthorizedUserId("Bearer valid-token")).thenReturn(Optional.of(1));
-        when(ratingService.update(eq(1), eq(999), any(RatingUpsertDto.class))).thenReturn(Optional.empty());
+        when(ratingService.update(eq(1), eq(999), any(RatingUpsertDto.class), isNull())).thenReturn(Optional.empty());
 
         // Act
         Response response = controller.handle(request);
@@ -356,8 +402,6 @@ class RatingControllerUnitTest {
         // Arrange
         when(request.getPath()).thenReturn("/rating/1/confirm");
         when(request.getMethod()).thenReturn("GET");
-        when(request.getAuthorization()).thenReturn("Bearer valid-token");
-        when(ratingService.getAuthorizedUserId("Bearer valid-token")).thenReturn(Optional.of(1));
 
         // Act
         Response response = controller.handle(request);
@@ -367,6 +411,8 @@ class RatingControllerUnitTest {
         assertEquals(405, response.getStatusCode());
         assertTrue(response.getBody().contains("Method not allowed"));
         verify(ratingService, never()).confirm(anyInt(), anyInt());
+        // answered by the route table, the controller is not invoked
+        verify(ratingService, never()).getAuthorizedUserId(any());
     }
 
     // ==================== Exception Handling Tests ====================
@@ -377,9 +423,9 @@ class RatingControllerUnitTest {
         when(request.getPath()).thenReturn("/rating/1");
         when(request.getMethod()).thenReturn("PUT");
         when(request.getAuthorization()).thenReturn("Bearer valid-token");
-        when(request.getBody()).thenReturn("{\"score\":5}");
+        when(request.getBodyBytes()).thenReturn(bytes("{\"score\":5}"));
         when(ratingService.getAuthorizedUserId("Bearer valid-token")).thenReturn(Optional.of(1));
-        when(ratingService.update(eq(1), eq(1), any())).thenThrow(new SecurityException("Not authorized"));
+        when(ratingService.update(eq(1), eq(1), any(), isNull())).thenThrow(new SecurityException("Not authorized"));
 
         // Act
         Response response = controller.handle(request);
@@ -396,7 +442,7 @@ class RatingControllerUnitTest {
         when(request.getPath()).thenReturn("/rating/media/100");
         when(request.getMethod()).thenReturn("POST");
         when(request.getAuthorization()).thenReturn("Bearer valid-token");
-        when(request.getBody()).thenReturn("{\"score\":10}");
+        when(request.getBodyBytes()).thenReturn(bytes("{\"score\":10}"));
         when(ratingService.getAuthorizedUserId("Bearer valid-token")).thenReturn(Optional.of(1));
         when(ratingService.create(eq(1), any())).thenThrow(new IllegalArgumentException("Invalid score"));
 
@@ -424,5 +470,8 @@ class RatingControllerUnitTest {
         dto.setLikedByMe(false);
         return dto;
     }
-}
 
+    private static byte[] bytes(String body) {
+        return body.getBytes(StandardCharsets.UTF_8);
+    }
+}
@@ -0,0 +1,210 @@
+package at.technikum.application.mrp.rating;
+
+import at.technikum.application.mrp.media.MediaImporter;
+import at.technikum.application.mrp.rating.dto.RatingImportResultDto;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+
+import java.io.ByteArrayInputStream;
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.time.Instant;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.Mockito.*;
+
+@ExtendWith(MockitoExtension.class)
+class RatingImporterUnitTest {
+
+    @Mock
+    private RatingRepository ratingRepository;
+
+    // userId/mediaId/score/comment per stored row; the batch is cleared after each call
+    private final List<String> stored = new ArrayList<>();
+    private final List<Long> storedCreatedAt = new ArrayList<>();
+
+    // ==================== NDJSON Tests ====================
+
+    @Test
+    void testImport_NdjsonWithInvalidRows_ImportsValidRowsAndReportsLines() throws IOException {
+        // Arrange
+        stubImportBatch(Map.of());
+        String input = """
+                {"userId": 3, "mediaId": 10, "score": 4, "comment": "Great"}
+
+                {"userId": 3, "mediaId": 11, "score": 9}
+                {"userId": 3, "mediaId": 12
+                {"mediaId": 12, "score": 2}
+                {"userId": 4, "mediaId": 10, "stars": 5, "createdAt": "yesterday"}
+                {"userId": 4, "mediaId": 11, "score": 1}
+                """;
+
+        // Act
+        RatingImportResultDto result = importer(100).importFrom(stream(input), MediaImporter.Format.NDJSON, null);
+
+        // Assert
+        assertEquals(6, result.getRowsRead());
+        assertEquals(2, result.getImported());
+        assertEquals(4, result.getFailed());
+        assertEquals(List.of(3, 4, 5, 6), result.getErrors().stream().map(RatingImportResultDto.RowError::getLine).toList());
+        assertEquals("score must be between 1 and 5", result.getErrors().get(0).getMessage());
+        assertTrue(result.getErrors().get(1).getMessage().startsWith("Invalid JSON"));
+        assertEquals("userId is required", result.getErrors().get(2).getMessage());
+        assertEquals("createdAt must be an ISO-8601 date or timestamp", result.getErrors().get(3).getMessage());
+        assertEquals(List.of("3/10/4/Great", "4/11/1/null"), stored);
+    }
+
+    @Test
+    void testImport_MoreRowsThanBatchSize_WritesOneBatchPerBatchSize() throws IOException {
+        // Arrange
+        stubImportBatch(Map.of());
+        StringBuilder input = new StringBuilder();
+        for (int i = 0; i < 5; i++) {
+            input.append("{\"userId\": 1, \"mediaId\": ").append(i + 1).append(", \"score\": 3}\n");
+        }
+
+        // Act
+        RatingImportResultDto result = importer(2).importFrom(stream(input.toString()), MediaImporter.Format.NDJSON, null);
+
+        // Assert
+        assertEquals(5, result.getImported());
+        assertEquals(5, result.getInserted());
+        verify(ratingRepository, times(3)).importBatch(any());
+    }
+
+    @Test
+    void testImport_UnknownUserOrMedia_ReportsRejectedLines() throws IOException {
+        // Arrange
+        stubImportBatch(Map.of(2, "Unknown media"));
+        String input = """
+                {"userId": 1, "mediaId": 10, "score": 3}
+                {"userId": 1, "mediaId": 999, "score": 3}
+                """;
+
+        // Act
+        RatingImportResultDto result = importer(100).importFrom(stream(input), MediaImporter.Format.NDJSON, null);
+
+        // Assert
+        assertEquals(1, result.getImported());
+        assertEquals(1, result.getFailed());
+        assertEquals(2, result.getErrors().get(0).getLine());
+        assertEquals("Unknown media", result.getErrors().get(0).getMessage());
+    }
+
+    @Test
+    void testImport_BatchRejectedByDatabase_ReportsEveryRowOfTheBatch() throws IOException {
+        // Arrange
+        when(ratingRepository.importBatch(any()))
+            .thenThrow(new RuntimeException("Failed to import ratings: deadlock detected"));
+        String input = """
+                {"userId": 1, "mediaId": 10, "score": 3}
+                {"userId": 1, "mediaId": 11, "score": 3}
+                """;
+
+        // Act
+        RatingImportResultDto result = importer(100).importFrom(stream(input), MediaImporter.Format.NDJSON, null);
+
+        // Assert
+        assertEquals(0, result.getImported());
+        assertEquals(2, result.getFailed());
+        assertTrue(result.getErrors().get(0).getMessage().contains("deadlock detected"));
+    }
+
+    @Test
+    void testImport_WithImportingUser_FillsUserAndRejectsOtherUsers() throws IOException {
+        // Arrange
+        stubImportBatch(Map.of());
+        String input = """
+                {"mediaId": 10, "score": 3}
+                {"userId": 7, "mediaId": 11, "score": 4}
+                {"userId": 8, "mediaId": 12, "score": 5}
+                """;
+
+        // Act
+        RatingImportResultDto result = importer(100).importFrom(stream(input), MediaImporter.Format.NDJSON, 7);
+
+        // Assert
+        assertEquals(2, result.getImported());
+        assertEquals(3, result.getErrors().get(0).getLine());
+        assertEquals("Ratings can only be imported for the authenticated user", result.getErrors().get(0).getMessage());
+        assertEquals(List.of("7/10/3/null", "7/11/4/null"), stored);
+    }
+
+    // ==================== CSV Tests ====================
+
+    @Test
+    void testImport_CsvWithQuotedCommentAndCreatedAt_ParsesFields() throws IOException {
+        // Arrange
+        stubImportBatch(Map.of());
+        String input = """
+                userId,mediaId,stars,comment,createdAt
+                1,10,5,"Loved it, ""really""
+                second line",2019-05-01T10:00:00Z
+                1,11,x,,
+                2,10,2,,
+                """;
+
+        // Act
+        RatingImportResultDto result = importer(100).importFrom(stream(input), MediaImporter.Format.CSV, null);
+
+        // Assert
+        assertEquals(3, result.getRowsRead());
+        assertEquals(2, result.getImported());
+        assertEquals(4, result.getErrors().get(0).getLine());
+        assertEquals("score must be a number", result.getErrors().get(0).getMessage());
+        assertEquals(List.of("1/10/5/Loved it, \"really\"\nsecond line", "2/10/2/null"), stored);
+        assertEquals(Instant.parse("2019-05-01T10:00:00Z").toEpochMilli(), storedCreatedAt.get(0));
+        assertEquals(RatingImportBatch.NO_TIMESTAMP, storedCreatedAt.get(1));
+    }
+
+    @Test
+    void testImport_CsvWithUnknownColumn_ThrowsIllegalArgumentException() {
+        // Act & Assert
+        assertThrows(IllegalArgumentException.class, () ->
+                importer(100).importFrom(stream("userId,mediaId,rank\n1,2,3\n"), MediaImporter.Format.CSV, null));
+        verifyNoInteractions(ratingRepository);
+    }
+
+    @Test
+    void testParseCreatedAt_IsoVariants_ReturnsEpochMillis() {
+        assertEquals(RatingImportBatch.NO_TIMESTAMP, RatingImporter.parseCreatedAt(" "));
+        assertEquals(Instant.parse("2019-05-01T10:00:00Z").toEpochMilli(),
+                RatingImporter.parseCreatedAt("2019-05-01T12:00:00+02:00"));
+        assertEquals(Instant.parse("2019-05-01T10:00:00Z").toEpochMilli(),
+                RatingImporter.parseCreatedAt("2019-05-01t10:00:00z"));
+        assertThrows(IllegalArgumentException.class, () -> RatingImporter.parseCreatedAt("01.05.2019"));
+    }
+
+    // ==================== Helper Methods ====================
+
+    private RatingImporter importer(int batchSize) {
+        return new RatingImporter(ratingRepository, batchSize);
+    }
+
+    // Stores every row of the batch except the rejected lines, which are reported back
+    private void stubImportBatch(Map<Integer, String> rejected) {
+        when(ratingRepository.importBatch(any())).thenAnswer(invocation -> {
+            RatingImportBatch batch = invocation.getArgument(0);
+            int inserted = 0;
+            for (int i = 0; i < batch.size(); i++) {
+                if (rejected.containsKey(batch.line(i))) {
+                    continue;
+                }
+                stored.add(batch.userId(i) + "/" + batch.mediaId(i) + "/" + batch.score(i) + "/" + batch.comment(i));
+                storedCreatedAt.add(batch.createdAt(i));
+                inserted++;
+            }
+            return new RatingRepository.ImportOutcome(inserted, 0, 0, rejected, inserted);
+        });
+    }
+
+    private static ByteArrayInputStream stream(String input) {
+        return new ByteArrayInputStream(input.getBytes(StandardCharsets.UTF_8));
+    }
+}
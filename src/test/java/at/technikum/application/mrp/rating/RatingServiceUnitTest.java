@@ -1,5 +1,8 @@
 package at.technikum.application.mrp.rating;
 
+import at.technikum.application.common.PageDto;
+import at.technikum.application.common.PageLimits;
+import at.technikum.application.common.VersionConflictException;
 import at.technikum.application.mrp.media.MediaRepository;
 import at.technikum.application.mrp.media.entity.MediaEntryEntity;
 import at.technikum.application.mrp.rating.dto.RatingDetailDto;
@@ -10,9 +13,12 @@ import at.technikum.application.mrp.user.entity.UserEntity;
 import org.junit.jupiter.api.BeforeEach;
 import org.junit.jupiter.api.Test;
 import org.junit.jupiter.api.extension.ExtendWith;
+import org.junit.jupiter.api.io.TempDir;
 import org.mockito.Mock;
 import org.mockito.junit.jupiter.MockitoExtension;
 
+import java.io.IOException;
+import java.nio.file.Path;
 import java.util.*;
 
 import static org.junit.jupiter.api.Assertions.*;
@@ -117,8 +123,6 @@ class RatingServiceUnitTest {
 
         when(mediaRepository.findById(100)).thenReturn(Optional.of(mockMedia));
         when(ratingRepository.create(any(RatingEntity.class))).thenReturn(savedRating);
-        when(ratingRepository.findByMediaId(100)).thenReturn(Collections.singletonList(savedRating));
-        when(mediaRepository.findById(100)).thenReturn(Optional.of(mockMedia));
 
         // Act
         RatingDetailDto result = ratingService.create(userId, dto);
@@ -131,7 +135,7 @@ class RatingServiceUnitTest {
         assertEquals(5, result.getScore());
         assertFalse(result.isConfirmed());
         verify(ratingRepository).create(any(RatingEntity.class));
-        verify(mediaRepository).update(mockMedia);
+        verify(mediaRepository, never()).updateIfMatch(any(), anyInt(), any());
     }
 
     @Test
@@ -183,7 +187,7 @@ class RatingServiceUnitTest {
         int userId = 1;
         RatingEntity mockRating = createMockRating(1, userId, 100, 5, "Great!");
 
-        when(ratingRepository.findById(1)).thenReturn(Optional.of(mockRating));
+        when(ratingRepository.findById(1, userId)).thenReturn(Optional.of(mockRating));
 
         // Act
         Optional<RatingDetailDto> result = ratingService.getById(userId, 1);
@@ -191,56 +195,86 @@ class RatingServiceUnitTest {
         // Assert
         assertTrue(result.isPresent());
         assertEquals(1, result.get().getId());
-        verify(ratingRepository).findById(1);
+        verify(ratingRepository).findById(1, userId);
     }
 
     @Test
     void testGetById_NonExistingRating_ReturnsEmpty() {
         // Arrange
-        when(ratingRepository.findById(999)).thenReturn(Optional.empty());
+        when(ratingRepository.findById(999, 1)).thenReturn(Optional.empty());
 
         // Act
         Optional<RatingDetailDto> result = ratingService.getById(1, 999);
 
         // Assert
         assertFalse(result.isPresent());
-        verify(ratingRepository).findById(999);
+        verify(ratingRepository).findById(999, 1);
+    }
+
+    @Test
+    void testGetById_LikeSummaryFromRepository_IsUsedForDto() {
+        // Arrange
+        int userId = 1;
+        RatingEntity mockRating = createMockRating(1, 2, 100, 5, "Great!");
+        mockRating.setLikeCount(42);
+        mockRating.setLikedByRequester(true);
+
+        when(ratingRepository.findById(1, userId)).thenReturn(Optional.of(mockRating));
+
+        // Act
+        Optional<RatingDetailDto> result = ratingService.getById(userId, 1);
+
+        // Assert
+        assertTrue(result.isPresent());
+        assertEquals(42, result.get().getLikes());
+        assertTrue(result.get().isLikedByMe());
     }
 
     // ==================== listByMedia Tests ====================
 
     @Test
-    void testListByMedia_ValidMedia_ReturnsList() {
+    void testListByMedia_ValidMedia_ReturnsPage() {
         // Arrange
         int userId = 1;
         int mediaId = 100;
 
-        MediaEntryEntity mockMedia = new MediaEntryEntity();
-        mockMedia.setId(mediaId);
-
         RatingEntity rating1 = createMockRating(1, userId, mediaId, 5, "Great!");
         RatingEntity rating2 = createMockRating(2, 2, mediaId, 4, "Good");
 
-        when(mediaRepository.findById(mediaId)).thenReturn(Optional.of(mockMedia));
-        when(ratingRepository.findByMediaId(mediaId)).thenReturn(Arrays.asList(rating1, rating2));
+        when(ratingRepository.findPageByMediaId(mediaId, userId, RatingSort.RECENT, null, 20))
+            .thenReturn(Optional.of(new PageDto<>(Arrays.asList(rating1, rating2), "next", 20)));
 
         // Act
-        List<RatingDetailDto> result = ratingService.listByMedia(userId, mediaId);
+        PageDto<RatingDetailDto> result = ratingService.listByMedia(userId, mediaId, Map.of());
 
-        // Assert
-        assertNotNull(result);
-        assertEquals(2, result.size());
-        verify(ratingRepository).findByMediaId(mediaId);
+        // Assert: existence check is part of the page query, media is not loaded separately
+        assertEquals(2, result.getItems().size());
+        assertEquals("next", result.getNextCursor());
+        verify(mediaRepository, never()).findById(anyInt());
+    }
+
+    @Test
+    void testListByMedia_SortCursorAndLimit_PassedToRepository() {
+        // Arrange
+        when(ratingRepository.findPageByMediaId(100, 1, RatingSort.LIKES, "abc", 100))
+            .thenReturn(Optional.of(new PageDto<>(List.of(), null, 100)));
+
+        // Act
+        PageDto<RatingDetailDto> result = ratingService.listByMedia(1, 100,
+            Map.of("sort", "likes", "cursor", "abc", "limit", "500"));
+
+        // Assert: limit is capped at the maximum page size
+        assertTrue(result.getItems().isEmpty());
+        assertNull(result.getNextCursor());
     }
 
     @Test
     void testListByMedia_MediaNotFound_ThrowsException() {
         // Arrange
-        when(mediaRepository.findById(999)).thenReturn(Optional.empty());
+        when(ratingRepository.findPageByMediaId(eq(999), eq(1), any(), any(), anyInt())).thenReturn(Optional.empty());
 
         // Act & Assert
-        assertThrows(IllegalArgumentException.class, () -> ratingService.listByMedia(1, 999));
-        verify(ratingRepository, never()).findByMediaId(anyInt());
+        assertThrows(IllegalArgumentException.class, () -> ratingService.listByMedia(1, 999, Map.of()));
     }
 
     // ==================== update Tests ====================
@@ -251,27 +285,35 @@ class RatingServiceUnitTest {
         int userId = 1;
         int ratingId = 1;
 
-        RatingEntity existing = createMockRating(ratingId, userId, 100, 4, "Good");
+        RatingEntity updated = createMockRating(ratingId, userId, 100, 5, "Excellent!");
+        updated.setVersion(2);
 
         RatingUpsertDto updateDto = new RatingUpsertDto();
         updateDto.setScore(5);
         updateDto.setComment("Excellent!");
 
-        when(ratingRepository.findById(ratingId)).thenReturn(Optional.of(existing));
-        when(ratingRepository.update(any(RatingEntity.class))).thenReturn(existing);
-        when(ratingRepository.findByMediaId(100)).thenReturn(Collections.singletonList(existing));
-
-        MediaEntryEntity mockMedia = new MediaEntryEntity();
-        mockMedia.setId(100);
-        when(mediaRepository.findById(100)).thenReturn(Optional.of(mockMedia));
+        when(ratingRepository.updateIfMatch(ratingId, userId, 5, "Excellent!", null)).thenReturn(Optional.of(updated));
 
         // Act
         Optional<RatingDetailDto> result = ratingService.update(userId, ratingId, updateDto);
 
-        // Assert
+        // Assert: owner check happens in the UPDATE, no read before the write
         assertTrue(result.isPresent());
         assertEquals(5, result.get().getScore());
-        verify(ratingRepository).update(any(RatingEntity.class));
+        assertEquals(2, result.get().getVersion());
+        verify(ratingRepository, never()).findById(anyInt());
+    }
+
+    @Test
+    void testUpdate_StaleVersion_ThrowsVersionConflict() {
+        // Arrange
+        RatingUpsertDto updateDto = new RatingUpsertDto();
+        updateDto.setScore(3);
+        when(ratingRepository.updateIfMatch(1, 1, 3, null, 2))
+            .thenThrow(new VersionConflictException("Rating was modified (current version 4)", 4));
+
+        // Act & Assert
+        assertThrows(VersionConflictException.class, () -> ratingService.update(1, 1, updateDto, 2));
     }
 
     @Test
@@ -281,16 +323,14 @@ class RatingServiceUnitTest {
         int otherUserId = 2;
         int ratingId = 1;
 
-        RatingEntity existing = createMockRating(ratingId, otherUserId, 100, 4, "Good");
-
         RatingUpsertDto updateDto = new RatingUpsertDto();
         updateDto.setScore(5);
 
-        when(ratingRepository.findById(ratingId)).thenReturn(Optional.of(existing));
+        when(ratingRepository.updateIfMatch(ratingId, userId, 5, null, null))
+            .thenThrow(new SecurityException("Only creator can update this rating"));
 
         // Act & Assert
         assertThrows(SecurityException.class, () -> ratingService.update(userId, ratingId, updateDto));
-        verify(ratingRepository, never()).update(any());
     }
 
     @Test
@@ -299,14 +339,13 @@ class RatingServiceUnitTest {
         RatingUpsertDto updateDto = new RatingUpsertDto();
         updateDto.setScore(5);
 
-        when(ratingRepository.findById(999)).thenReturn(Optional.empty());
+        when(ratingRepository.updateIfMatch(999, 1, 5, null, null)).thenReturn(Optional.empty());
 
         // Act
         Optional<RatingDetailDto> result = ratingService.update(1, 999, updateDto);
 
         // Assert
         assertFalse(result.isPresent());
-        verify(ratingRepository, never()).update(any());
     }
 
     // ==================== delete Tests ====================
@@ -321,11 +360,6 @@ class RatingServiceUnitTest {
 
         when(ratingRepository.findById(ratingId)).thenReturn(Optional.of(existing));
         when(ratingRepository.delete(ratingId)).thenReturn(true);
-        when(ratingRepository.findByMediaId(100)).thenReturn(Collections.emptyList());
-
-        MediaEntryEntity mockMedia = new MediaEntryEntity();
-        mockMedia.setId(100);
-        when(mediaRepository.findById(100)).thenReturn(Optional.of(mockMedia));
 
         // Act
         boolean result = ratingService.delete(userId, ratingId);
@@ -333,7 +367,7 @@ class RatingServiceUnitTest {
         // Assert
         assertTrue(result);
         verify(ratingRepository).delete(ratingId);
-        verify(mediaRepository).update(mockMedia);
+        verifyNoInteractions(mediaRepository);
     }
 
     @Test
@@ -374,9 +408,11 @@ class RatingServiceUnitTest {
         int ratingId = 1;
 
         RatingEntity existing = createMockRating(ratingId, 2, 100, 5, "Great!");
+        existing.setLikeCount(2);
+        existing.setLikedByRequester(false);
 
-        when(ratingRepository.findById(ratingId)).thenReturn(Optional.of(existing));
-        when(ratingRepository.update(any())).thenReturn(existing);
+        when(ratingRepository.findById(ratingId, userId)).thenReturn(Optional.of(existing));
+        when(ratingRepository.addLike(ratingId, userId)).thenReturn(3);
 
         // Act
         Optional<RatingDetailDto> result = ratingService.like(userId, ratingId);
@@ -384,7 +420,21 @@ class RatingServiceUnitTest {
         // Assert
         assertTrue(result.isPresent());
         assertTrue(result.get().isLikedByMe());
-        verify(ratingRepository).update(any());
+        assertEquals(3, result.get().getLikes());
+        verify(ratingRepository, never()).updateIfMatch(anyInt(), anyInt(), anyInt(), any(), any());
+    }
+
+    @Test
+    void testLike_RatingNotFound_ReturnsEmpty() {
+        // Arrange
+        when(ratingRepository.findById(999, 1)).thenReturn(Optional.empty());
+
+        // Act
+        Optional<RatingDetailDto> result = ratingService.like(1, 999);
+
+        // Assert
+        assertTrue(result.isEmpty());
+        verify(ratingRepository, never()).addLike(anyInt(), anyInt());
     }
 
     @Test
@@ -394,10 +444,11 @@ class RatingServiceUnitTest {
         int ratingId = 1;
 
         RatingEntity existing = createMockRating(ratingId, 2, 100, 5, "Great!");
-        existing.getLikedByUserIds().add(userId);
+        existing.setLikeCount(1);
+        existing.setLikedByRequester(true);
 
-        when(ratingRepository.findById(ratingId)).thenReturn(Optional.of(existing));
-        when(ratingRepository.update(any())).thenReturn(existing);
+        when(ratingRepository.findById(ratingId, userId)).thenReturn(Optional.of(existing));
+        when(ratingRepository.removeLike(ratingId, userId)).thenReturn(0);
 
         // Act
         Optional<RatingDetailDto> result = ratingService.unlike(userId, ratingId);
@@ -405,7 +456,31 @@ class RatingServiceUnitTest {
         // Assert
         assertTrue(result.isPresent());
         assertFalse(result.get().isLikedByMe());
-        verify(ratingRepository).update(any());
+        assertEquals(0, result.get().getLikes());
+        verify(ratingRepository, never()).updateIfMatch(anyInt(), anyInt(), anyInt(), any(), any());
+    }
+
+    @Test
+    void testLike_WithWriteBehindBuffer_RecordsInBufferWithoutWritingLike(@TempDir Path tempDir) throws IOException {
+        // Arrange
+        RatingEntity existing = createMockRating(1, 2, 100, 5, "Great!");
+        existing.setLikeCount(3);
+        existing.setLikedByRequester(false);
+        when(ratingRepository.findById(1, 1)).thenReturn(Optional.of(existing));
+
+        try (LikeWriteBuffer buffer = new LikeWriteBuffer(ratingRepository, tempDir.resolve("likes.log"), 0, 1000)) {
+            RatingService bufferedService = new RatingService(ratingRepository, mediaRepository, userRepository,
+                new PageLimits(20, 100), buffer);
+
+            // Act
+            Optional<RatingDetailDto> result = bufferedService.like(1, 1);
+
+            // Assert
+            assertTrue(result.isPresent());
+            assertTrue(result.get().isLikedByMe());
+            assertEquals(4, result.get().getLikes());
+            verify(ratingRepository, never()).addLike(anyInt(), anyInt());
+        }
     }
 
     // ==================== confirm Tests ====================
@@ -420,7 +495,7 @@ class RatingServiceUnitTest {
         existing.setConfirmed(false);
 
         when(ratingRepository.findById(ratingId)).thenReturn(Optional.of(existing));
-        when(ratingRepository.update(any())).thenReturn(existing);
+        when(ratingRepository.confirm(ratingId)).thenReturn(Optional.of(2));
 
         // Act
         Optional<RatingDetailDto> result = ratingService.confirm(userId, ratingId);
@@ -428,7 +503,7 @@ class RatingServiceUnitTest {
         // Assert
         assertTrue(result.isPresent());
         assertTrue(result.get().isConfirmed());
-        verify(ratingRepository).update(any());
+        assertEquals(2, existing.getVersion());
     }
 
     @Test
@@ -444,7 +519,7 @@ class RatingServiceUnitTest {
 
         // Act & Assert
         assertThrows(SecurityException.class, () -> ratingService.confirm(userId, ratingId));
-        verify(ratingRepository, never()).update(any());
+        verify(ratingRepository, never()).confirm(anyInt());
     }
 
     // ==================== Helper Methods ====================
@@ -1,5 +1,6 @@
 package at.technikum.application.mrp.recommendation;
 
+import at.technikum.application.mrp.media.MediaProjection;
 import at.technikum.server.http.Request;
 import at.technikum.server.http.Response;
 import org.junit.jupiter.api.BeforeEach;
@@ -47,7 +48,7 @@ class RecommendationControllerUnitTest {
             createMockMediaMap(1, "Action Movie 1"),
             createMockMediaMap(2, "Action Movie 2")
         );
-        when(recommendationService.recommendationsByGenre("Bearer valid-token", "Action"))
+        when(recommendationService.recommendationsByGenre("Bearer valid-token", "Action", MediaProjection.DETAIL))
             .thenReturn(mockRecommendations);
 
         // Act
@@ -58,7 +59,7 @@ class RecommendationControllerUnitTest {
         assertEquals(200, response.getStatusCode());
         assertTrue(response.getBody().contains("Action Movie 1"));
         assertTrue(response.getBody().contains("Action Movie 2"));
-        verify(recommendationService).recommendationsByGenre("Bearer valid-token", "Action");
+        verify(recommendationService).recommendationsByGenre("Bearer valid-token", "Action", MediaProjection.DETAIL);
     }
 
     @Test
@@ -76,7 +77,7 @@ class RecommendationControllerUnitTest {
         List<Map<String, Object>> mockRecommendations = Collections.singletonList(
             createMockMediaMap(1, "Action Movie")
         );
-        when(recommendationService.recommendationsByGenre("Bearer valid-token", "Action"))
+        when(recommendationService.recommendationsByGenre("Bearer valid-token", "Action", MediaProjection.DETAIL))
             .thenReturn(mockRecommendations);
 
         // Act
@@ -85,7 +86,7 @@ class RecommendationControllerUnitTest {
         // Assert
         assertNotNull(response);
         assertEquals(200, response.getStatusCode());
-        verify(recommendationService).recommendationsByGenre("Bearer valid-token", "Action");
+        verify(recommendationService).recommendationsByGenre("Bearer valid-token", "Action", MediaProjection.DETAIL);
     }
 
     @Test
@@ -99,7 +100,7 @@ class RecommendationControllerUnitTest {
         when(request.getMethod()).thenReturn("GET");
         when(request.getQueryParams()).thenReturn(queryParams);
         when(request.getAuthorization()).thenReturn("Bearer valid-token");
-        when(recommendationService.recommendationsByGenre("Bearer valid-token", "NonExistent"))
+        when(recommendationService.recommendationsByGenre("Bearer valid-token", "NonExistent", MediaProjection.DETAIL))
             .thenReturn(Collections.emptyList());
 
         // Act
@@ -128,7 +129,7 @@ class RecommendationControllerUnitTest {
             createMockMediaMap(1, "Movie 1"),
             createMockMediaMap(2, "Movie 2")
         );
-        when(recommendationService.recommendationsByMediaType("Bearer valid-token", "movie"))
+        when(recommendationService.recommendationsByMediaType("Bearer valid-token", "movie", MediaProjection.DETAIL))
             .thenReturn(mockRecommendations);
 
         // Act
@@ -139,7 +140,7 @@ class RecommendationControllerUnitTest {
         assertEquals(200, response.getStatusCode());
         assertTrue(response.getBody().contains("Movie 1"));
         assertTrue(response.getBody().contains("Movie 2"));
-        verify(recommendationService).recommendationsByMediaType("Bearer valid-token", "movie");
+        verify(recommendationService).recommendationsByMediaType("Bearer valid-token", "movie", MediaProjection.DETAIL);
     }
 
     @Test
@@ -156,7 +157,7 @@ class RecommendationControllerUnitTest {
         List<Map<String, Object>> mockRecommendations = Collections.singletonList(
             createMockMediaMap(1, "Movie 1")
         );
-        when(recommendationService.recommendationsByMediaType("Bearer valid-token", "MOVIE"))
+        when(recommendationService.recommendationsByMediaType("Bearer valid-token", "MOVIE", MediaProjection.DETAIL))
             .thenReturn(mockRecommendations);
 
         // Act
@@ -165,7 +166,7 @@ class RecommendationControllerUnitTest {
         // Assert
         assertNotNull(response);
         assertEquals(200, response.getStatusCode());
-        verify(recommendationService).recommendationsByMediaType("Bearer valid-token", "MOVIE");
+        verify(recommendationService).recommendationsByMediaType("Bearer valid-token", "MOVIE", MediaProjection.DETAIL);
     }
 
     // ==================== GET /rec?type=series Tests ====================
@@ -184,7 +185,7 @@ class RecommendationControllerUnitTest {
         List<Map<String, Object>> mockRecommendations = Collections.singletonList(
             createMockMediaMap(1, "Series 1")
         );
-        when(recommendationService.recommendationsByMediaType("Bearer valid-token", "series"))
+        when(recommendationService.recommendationsByMediaType("Bearer valid-token", "series", MediaProjection.DETAIL))
             .thenReturn(mockRecommendations);
 
         // Act
@@ -194,7 +195,7 @@ class RecommendationControllerUnitTest {
         assertNotNull(response);
         assertEquals(200, response.getStatusCode());
         assertTrue(response.getBody().contains("Series 1"));
-        verify(recommendationService).recommendationsByMediaType("Bearer valid-token", "series");
+        verify(recommendationService).recommendationsByMediaType("Bearer valid-token", "series", MediaProjection.DETAIL);
     }
 
     // ==================== GET /rec (no type) Tests ====================
@@ -213,7 +214,7 @@ class RecommendationControllerUnitTest {
         for (int i = 1; i <= 10; i++) {
             mockRecommendations.add(createMockMediaMap(i, "Media " + i));
         }
-        when(recommendationService.recommendationsForUser("Bearer valid-token"))
+        when(recommendationService.recommendationsForUser("Bearer valid-token", MediaProjection.DETAIL))
             .thenReturn(mockRecommendations);
 
         // Act
@@ -224,7 +225,7 @@ class RecommendationControllerUnitTest {
         assertEquals(200, response.getStatusCode());
         assertTrue(response.getBody().contains("Media 1"));
         assertTrue(response.getBody().contains("Media 10"));
-        verify(recommendationService).recommendationsForUser("Bearer valid-token");
+        verify(recommendationService).recommendationsForUser("Bearer valid-token", MediaProjection.DETAIL);
     }
 
     @Test
@@ -241,7 +242,7 @@ class RecommendationControllerUnitTest {
         List<Map<String, Object>> mockRecommendations = Collections.singletonList(
             createMockMediaMap(1, "Default Media")
         );
-        when(recommendationService.recommendationsForUser("Bearer valid-token"))
+        when(recommendationService.recommendationsForUser("Bearer valid-token", MediaProjection.DETAIL))
             .thenReturn(mockRecommendations);
 
         // Act
@@ -251,41 +252,50 @@ class RecommendationControllerUnitTest {
         assertNotNull(response);
         assertEquals(200, response.getStatusCode());
         assertTrue(response.getBody().contains("Default Media"));
-        verify(recommendationService).recommendationsForUser("Bearer valid-token");
+        verify(recommendationService).recommendationsForUser("Bearer valid-token", MediaProjection.DETAIL);
     }
 
     // ==================== Route and Method Validation Tests ====================
 
     @Test
-    void testHandle_WrongPath_ThrowsException() {
+    void testHandle_WrongPath_ReturnsNotFound() {
         // Arrange
         when(request.getPath()).thenReturn("/recommendations");
         when(request.getMethod()).thenReturn("GET");
 
-        // Act & Assert
-        assertThrows(NoSuchElementException.class, () -> controller.handle(request));
-        verify(recommendationService, never()).recommendationsForUser(any());
+        // Act
+        Response response = controller.handle(request);
+
+        // Assert
+        assertEquals(404, response.getStatusCode());
+        verify(recommendationService, never()).recommendationsForUser(any(), any());
     }
 
     @Test
-    void testHandle_WrongMethod_ThrowsException() {
+    void testHandle_WrongMethod_ReturnsMethodNotAllowed() {
         // Arrange
         when(request.getPath()).thenReturn("/rec");
         when(request.getMethod()).thenReturn("POST");
 
-        // Act & Assert
-        assertThrows(UnsupportedOperationException.class, () -> controller.handle(request));
-        verify(recommendationService, never()).recommendationsForUser(any());
+        // Act
+        Response response = controller.handle(request);
+
+        // Assert
+        assertEquals(405, response.getStatusCode());
+        verify(recommendationService, never()).recommendationsForUser(any(), any());
     }
 
     @Test
-    void testHandle_DeleteMethod_ThrowsException() {
+    void testHandle_DeleteMethod_ReturnsMethodNotAllowed() {
         // Arrange
         when(request.getPath()).thenReturn("/rec");
         when(request.getMethod()).thenReturn("DELETE");
 
-        // Act & Assert
-        assertThrows(UnsupportedOperationException.class, () -> controller.handle(request));
+        // Act
+        Response response = controller.handle(request);
+
+        // Assert
+        assertEquals(405, response.getStatusCode());
     }
 
     // ==================== Exception Propagation Tests ====================
@@ -301,7 +311,7 @@ class RecommendationControllerUnitTest {
         when(request.getAuthorization()).thenReturn("Bearer invalid-token");
 
         doThrow(new SecurityException("Invalid token"))
-            .when(recommendationService).recommendationsForUser("Bearer invalid-token");
+            .when(recommendationService).recommendationsForUser("Bearer invalid-token", MediaProjection.DETAIL);
 
         // Act & Assert
         assertThrows(SecurityException.class, () -> controller.handle(request));
@@ -320,7 +330,7 @@ class RecommendationControllerUnitTest {
         when(request.getAuthorization()).thenReturn("Bearer valid-token");
 
         doThrow(new IllegalArgumentException("genre required"))
-            .when(recommendationService).recommendationsByGenre("Bearer valid-token", null);
+            .when(recommendationService).recommendationsByGenre("Bearer valid-token", null, MediaProjection.DETAIL);
 
         // Act & Assert
         assertThrows(IllegalArgumentException.class, () -> controller.handle(request));
@@ -339,7 +349,7 @@ class RecommendationControllerUnitTest {
         List<Map<String, Object>> mockRecommendations = Collections.singletonList(
             createMockMediaMap(1, "Default")
         );
-        when(recommendationService.recommendationsForUser("Bearer valid-token"))
+        when(recommendationService.recommendationsForUser("Bearer valid-token", MediaProjection.DETAIL))
             .thenReturn(mockRecommendations);
 
         // Act
@@ -348,7 +358,7 @@ class RecommendationControllerUnitTest {
         // Assert
         assertNotNull(response);
         assertEquals(200, response.getStatusCode());
-        verify(recommendationService).recommendationsForUser("Bearer valid-token");
+        verify(recommendationService).recommendationsForUser("Bearer valid-token", MediaProjection.DETAIL);
     }
 
     @Test
@@ -365,7 +375,7 @@ class RecommendationControllerUnitTest {
         List<Map<String, Object>> mockRecommendations = Collections.singletonList(
             createMockMediaMap(1, "Default")
         );
-        when(recommendationService.recommendationsForUser("Bearer valid-token"))
+        when(recommendationService.recommendationsForUser("Bearer valid-token", MediaProjection.DETAIL))
             .thenReturn(mockRecommendations);
 
         // Act
@@ -374,7 +384,7 @@ class RecommendationControllerUnitTest {
         // Assert
         assertNotNull(response);
         assertEquals(200, response.getStatusCode());
-        verify(recommendationService).recommendationsForUser("Bearer valid-token");
+        verify(recommendationService).recommendationsForUser("Bearer valid-token", MediaProjection.DETAIL);
     }
 
     // ==================== Helper Methods ====================
@@ -1,6 +1,8 @@
 package at.technikum.application.mrp.recommendation;
 
+import at.technikum.application.common.PageDto;
 import at.technikum.application.mrp.media.MediaRepository;
+import at.technikum.application.mrp.media.MediaSearchQuery;
 import at.technikum.application.mrp.media.entity.MediaEntryEntity;
 import at.technikum.application.mrp.rating.RatingRepository;
 import at.technikum.application.mrp.rating.entity.RatingEntity;
@@ -55,8 +57,8 @@ class RecommendationServiceUnitTest {
         MediaEntryEntity media1 = createMockMedia(1, "Action Movie 1", "Action");
         MediaEntryEntity media2 = createMockMedia(2, "Action Movie 2", "Action");
 
-        when(mediaRepository.search(null, genre, null, null, null, null, "score"))
-            .thenReturn(Arrays.asList(media1, media2));
+        when(mediaRepository.search(byGenre(genre)))
+            .thenReturn(page(Arrays.asList(media1, media2)));
 
         // Act
         List<Map<String, Object>> result = recommendationService.recommendationsByGenre(authHeader, genre);
@@ -66,7 +68,26 @@ class RecommendationServiceUnitTest {
         assertEquals(2, result.size());
         assertEquals("Action Movie 1", result.get(0).get("title"));
         assertEquals("Action Movie 2", result.get(1).get("title"));
-        verify(mediaRepository).search(null, genre, null, null, null, null, "score");
+        verify(mediaRepository).search(byGenre(genre));
+    }
+
+    @Test
+    void testRecommendationsByGenre_SeveralPages_ReturnsEveryMatch() {
+        // Arrange
+        when(userRepository.findByToken("valid-token")).thenReturn(Optional.of(createMockUser(1, "john_doe")));
+        MediaEntryEntity media1 = createMockMedia(1, "Action Movie 1", "Action");
+        MediaEntryEntity media2 = createMockMedia(2, "Action Movie 2", "Action");
+        when(mediaRepository.search(argThat(q -> q != null && q.getCursor() == null)))
+            .thenReturn(new PageDto<>(List.of(media1), "next", 1));
+        when(mediaRepository.search(argThat(q -> q != null && "next".equals(q.getCursor()))))
+            .thenReturn(page(List.of(media2)));
+
+        // Act
+        List<Map<String, Object>> result = recommendationService.recommendationsByGenre("Bearer valid-token", "Action");
+
+        // Assert
+        assertEquals(List.of("Action Movie 1", "Action Movie 2"), result.stream().map(m -> m.get("title")).toList());
+        verify(mediaRepository, times(2)).search(any());
     }
 
     @Test
@@ -79,7 +100,7 @@ class RecommendationServiceUnitTest {
         // Act & Assert
         assertThrows(IllegalArgumentException.class,
             () -> recommendationService.recommendationsByGenre(authHeader, null));
-        verify(mediaRepository, never()).search(any(), any(), any(), any(), any(), any(), any());
+        verify(mediaRepository, never()).search(any());
     }
 
     @Test
@@ -92,7 +113,7 @@ class RecommendationServiceUnitTest {
         // Act & Assert
         assertThrows(IllegalArgumentException.class,
             () -> recommendationService.recommendationsByGenre(authHeader, "   "));
-        verify(mediaRepository, never()).search(any(), any(), any(), any(), any(), any(), any());
+        verify(mediaRepository, never()).search(any());
     }
 
     @Test
@@ -103,8 +124,8 @@ class RecommendationServiceUnitTest {
 
         UserEntity mockUser = createMockUser(1, "john_doe");
         when(userRepository.findByToken("valid-token")).thenReturn(Optional.of(mockUser));
-        when(mediaRepository.search(null, genre, null, null, null, null, "score"))
-            .thenReturn(Collections.emptyList());
+        when(mediaRepository.search(byGenre(genre)))
+            .thenReturn(page(Collections.emptyList()));
 
         // Act
         List<Map<String, Object>> result = recommendationService.recommendationsByGenre(authHeader, genre);
@@ -123,7 +144,7 @@ class RecommendationServiceUnitTest {
         // Act & Assert
         assertThrows(SecurityException.class,
             () -> recommendationService.recommendationsByGenre(authHeader, "Action"));
-        verify(mediaRepository, never()).search(any(), any(), any(), any(), any(), any(), any());
+        verify(mediaRepository, never()).search(any());
     }
 
     // ==================== recommendationsByMediaType Tests ====================
@@ -142,8 +163,8 @@ class RecommendationServiceUnitTest {
         MediaEntryEntity movie2 = createMockMedia(2, "Movie 2", "Comedy");
         movie2.setMediaType("movie");
 
-        when(mediaRepository.search(null, null, mediaType, null, null, null, "score"))
-            .thenReturn(Arrays.asList(movie1, movie2));
+        when(mediaRepository.search(byMediaType(mediaType)))
+            .thenReturn(page(Arrays.asList(movie1, movie2)));
 
         // Act
         List<Map<String, Object>> result = recommendationService.recommendationsByMediaType(authHeader, mediaType);
@@ -153,7 +174,7 @@ class RecommendationServiceUnitTest {
         assertEquals(2, result.size());
         assertEquals("Movie 1", result.get(0).get("title"));
         assertEquals("Movie 2", result.get(1).get("title"));
-        verify(mediaRepository).search(null, null, mediaType, null, null, null, "score");
+        verify(mediaRepository).search(byMediaType(mediaType));
     }
 
     @Test
@@ -168,8 +189,8 @@ class RecommendationServiceUnitTest {
         MediaEntryEntity series1 = createMockMedia(1, "Series 1", "Drama");
         series1.setMediaType("series");
 
-        when(mediaRepository.search(null, null, mediaType, null, null, null, "score"))
-            .thenReturn(Collections.singletonList(series1));
+        when(mediaRepository.search(byMediaType(mediaType)))
+            .thenReturn(page(Collections.singletonList(series1)));
 
         // Act
         List<Map<String, Object>> result = recommendationService.recommendationsByMediaType(authHeader, mediaType);
@@ -201,13 +222,14 @@ class RecommendationServiceUnitTest {
         UserEntity mockUser = createMockUser(1, "john_doe");
         when(userRepository.findByToken("valid-token")).thenReturn(Optional.of(mockUser));
 
+        // the repository returns only the requested page of 10
         List<MediaEntryEntity> allMedia = new ArrayList<>();
-        for (int i = 1; i <= 15; i++) {
+        for (int i = 1; i <= 10; i++) {
             allMedia.add(createMockMedia(i, "Media " + i, "Genre"));
         }
 
-        when(mediaRepository.search(null, null, null, null, null, null, "score"))
-            .thenReturn(allMedia);
+        when(mediaRepository.search(topRated()))
+            .thenReturn(page(allMedia));
 
         // Act
         List<Map<String, Object>> result = recommendationService.recommendationsForUser(authHeader);
@@ -217,7 +239,7 @@ class RecommendationServiceUnitTest {
         assertEquals(10, result.size());
         assertEquals("Media 1", result.get(0).get("title"));
         assertEquals("Media 10", result.get(9).get("title"));
-        verify(mediaRepository).search(null, null, null, null, null, null, "score");
+        verify(mediaRepository).search(topRated());
     }
 
     @Test
@@ -231,8 +253,8 @@ class RecommendationServiceUnitTest {
         MediaEntryEntity media1 = createMockMedia(1, "Media 1", "Genre");
         MediaEntryEntity media2 = createMockMedia(2, "Media 2", "Genre");
 
-        when(mediaRepository.search(null, null, null, null, null, null, "score"))
-            .thenReturn(Arrays.asList(media1, media2));
+        when(mediaRepository.search(topRated()))
+            .thenReturn(page(Arrays.asList(media1, media2)));
 
         // Act
         List<Map<String, Object>> result = recommendationService.recommendationsForUser(authHeader);
@@ -249,8 +271,8 @@ class RecommendationServiceUnitTest {
 
         UserEntity mockUser = createMockUser(1, "john_doe");
         when(userRepository.findByToken("valid-token")).thenReturn(Optional.of(mockUser));
-        when(mediaRepository.search(null, null, null, null, null, null, "score"))
-            .thenReturn(Collections.emptyList());
+        when(mediaRepository.search(topRated()))
+            .thenReturn(page(Collections.emptyList()));
 
         // Act
         List<Map<String, Object>> result = recommendationService.recommendationsForUser(authHeader);
@@ -288,8 +310,8 @@ class RecommendationServiceUnitTest {
 
         media.setRatings(Arrays.asList(rating1, rating2, rating3));
 
-        when(mediaRepository.search(null, null, null, null, null, null, "score"))
-            .thenReturn(Collections.singletonList(media));
+        when(mediaRepository.search(topRated()))
+            .thenReturn(page(Collections.singletonList(media)));
 
         // Act
         List<Map<String, Object>> result = recommendationService.recommendationsForUser(authHeader);
@@ -312,8 +334,8 @@ class RecommendationServiceUnitTest {
         MediaEntryEntity media = createMockMedia(1, "Test Movie", "Action");
         media.setRatings(new ArrayList<>());
 
-        when(mediaRepository.search(null, null, null, null, null, null, "score"))
-            .thenReturn(Collections.singletonList(media));
+        when(mediaRepository.search(topRated()))
+            .thenReturn(page(Collections.singletonList(media)));
 
         // Act
         List<Map<String, Object>> result = recommendationService.recommendationsForUser(authHeader);
@@ -346,6 +368,23 @@ class RecommendationServiceUnitTest {
 
     // ==================== Helper Methods ====================
 
+    private static PageDto<MediaEntryEntity> page(List<MediaEntryEntity> items) {
+        return new PageDto<>(items, null, items.size());
+    }
+
+    private static MediaSearchQuery byGenre(String genre) {
+        return argThat(q -> List.of(genre).equals(q.getGenres()) && q.getSort() == MediaSearchQuery.Sort.SCORE);
+    }
+
+    private static MediaSearchQuery byMediaType(String mediaType) {
+        return argThat(q -> mediaType.equals(q.getMediaType()) && q.getSort() == MediaSearchQuery.Sort.SCORE);
+    }
+
+    private static MediaSearchQuery topRated() {
+        return argThat(q -> q.getGenres().isEmpty() && q.getMediaType() == null
+                && q.getSort() == MediaSearchQuery.Sort.SCORE && q.getLimit() == 10);
+    }
+
     private UserEntity createMockUser(int id, String username) {
         UserEntity user = new UserEntity();
         user.setId(id);
@@ -13,6 +13,7 @@ import org.junit.jupiter.api.extension.ExtendWith;
 import org.mockito.Mock;
 import org.mockito.junit.jupiter.MockitoExtension;
 
+import java.nio.charset.StandardCharsets;
 import java.time.LocalDateTime;
 import java.util.ArrayList;
 import java.util.List;
@@ -109,7 +110,7 @@ class UserControllerUnitTest {
         when(request.getAuthorization()).thenReturn("Bearer valid-token");
 
         String requestBody = "{\"email\":\"newemail@example.com\"}";
-        when(request.getBody()).thenReturn(requestBody);
+        when(request.getBodyBytes()).thenReturn(bytes(requestBody));
 
         UserProfileDto updatedProfile = new UserProfileDto(1, "john_doe", "newemail@example.com");
         when(userService.updateProfile(eq("Bearer valid-token"), any())).thenReturn(Optional.of(updatedProfile));
@@ -132,7 +133,7 @@ class UserControllerUnitTest {
         when(request.getAuthorization()).thenReturn("Bearer invalid-token");
 
         String requestBody = "{\"email\":\"newemail@example.com\"}";
-        when(request.getBody()).thenReturn(requestBody);
+        when(request.getBodyBytes()).thenReturn(bytes(requestBody));
 
         when(userService.updateProfile(eq("Bearer invalid-token"), any())).thenReturn(Optional.empty());
 
@@ -153,7 +154,7 @@ class UserControllerUnitTest {
         when(request.getMethod()).thenReturn("PUT");
 
         String invalidJson = "{invalid json}";
-        when(request.getBody()).thenReturn(invalidJson);
+        when(request.getBodyBytes()).thenReturn(bytes(invalidJson));
 
         // Act
         Response response = controller.handle(request);
@@ -172,7 +173,7 @@ class UserControllerUnitTest {
         when(request.getPath()).thenReturn("/users/profile");
         when(request.getMethod()).thenReturn("PUT");
 
-        when(request.getBody()).thenReturn("");
+        when(request.getBodyBytes()).thenReturn(bytes(""));
 
         // Act
         Response response = controller.handle(request);
@@ -189,7 +190,7 @@ class UserControllerUnitTest {
         when(request.getPath()).thenReturn("/users/profile");
         when(request.getMethod()).thenReturn("PUT");
 
-        when(request.getBody()).thenReturn(null);
+        when(request.getBodyBytes()).thenReturn(null);
 
         // Act
         Response response = controller.handle(request);
@@ -440,5 +441,8 @@ class UserControllerUnitTest {
 
         return favorites;
     }
-}
 
+    private static byte[] bytes(String body) {
+        return body.getBytes(StandardCharsets.UTF_8);
+    }
+}
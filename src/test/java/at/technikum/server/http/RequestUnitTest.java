@@ -0,0 +1,89 @@
+package at.technikum.server.http;
+
+import org.junit.jupiter.api.Test;
+
+import java.io.ByteArrayInputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.nio.charset.StandardCharsets;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class RequestUnitTest {
+
+    // ==================== Body Bytes Tests ====================
+
+    @Test
+    void testGetBodyBytes_Latin1Source_TranscodesToUtf8Once() {
+        // Arrange
+        Request request = new Request();
+        request.setBodySource(source("Müller".getBytes(StandardCharsets.ISO_8859_1)), StandardCharsets.ISO_8859_1);
+
+        // Act
+        byte[] first = request.getBodyBytes();
+        byte[] second = request.getBodyBytes();
+
+        // Assert
+        assertEquals("Müller", new String(first, StandardCharsets.UTF_8));
+        assertSame(first, second);
+    }
+
+    @Test
+    void testGetBodyBytes_EmptySource_ReturnsNull() {
+        // Arrange
+        Request request = new Request();
+        request.setBodySource(source(new byte[0]), StandardCharsets.UTF_8);
+
+        // Act & Assert
+        assertNull(request.getBodyBytes());
+    }
+
+    // ==================== Body Stream Tests ====================
+
+    @Test
+    void testGetBodyStream_UnreadUtf8Source_HandsOverSourceWithoutBuffering() throws IOException {
+        // Arrange
+        Request request = new Request();
+        request.setBodySource(source(utf8("title\nAlien\n")), StandardCharsets.UTF_8);
+
+        // Act
+        InputStream body = request.getBodyStream();
+
+        // Assert
+        assertEquals("title\nAlien\n", new String(body.readAllBytes(), StandardCharsets.UTF_8));
+        assertNull(request.getBodyBytes());
+    }
+
+    @Test
+    void testGetBodyStream_EmptySource_ReturnsNull() {
+        // Arrange
+        Request request = new Request();
+        request.setBodySource(source(new byte[0]), StandardCharsets.UTF_8);
+
+        // Act & Assert
+        assertNull(request.getBodyStream());
+    }
+
+    @Test
+    void testGetBodyStream_BodyAlreadySet_StreamsBodyBytes() throws IOException {
+        // Arrange
+        Request request = new Request();
+        request.setBody("{\"title\":\"Alien\"}");
+
+        // Act
+        InputStream body = request.getBodyStream();
+
+        // Assert
+        assertEquals("{\"title\":\"Alien\"}", new String(body.readAllBytes(), StandardCharsets.UTF_8));
+    }
+
+    // ==================== Helper Methods ====================
+
+    private static InputStream source(byte[] bytes) {
+        return new ByteArrayInputStream(bytes);
+    }
+
+    private static byte[] utf8(String text) {
+        return text.getBytes(StandardCharsets.UTF_8);
+    }
+}
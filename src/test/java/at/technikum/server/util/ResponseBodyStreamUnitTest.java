@@ -0,0 +1,87 @@
+package at.technikum.server.util;
+
+import org.junit.jupiter.api.Test;
+
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class ResponseBodyStreamUnitTest {
+
+    private final List<Long> committedLengths = new ArrayList<>();
+    private final ByteArrayOutputStream socket = new ByteArrayOutputStream();
+
+    // ==================== Content-Length Tests ====================
+
+    @Test
+    void testClose_BodyWithinThreshold_SendsContentLength() throws IOException {
+        // Arrange
+        ResponseBodyStream out = new ResponseBodyStream(16, this::commit);
+
+        // Act
+        out.write("{\"id\":1}".getBytes(StandardCharsets.UTF_8));
+        out.flush();
+        boolean committedBeforeClose = out.isCommitted();
+        out.close();
+
+        // Assert
+        assertFalse(committedBeforeClose);
+        assertEquals(List.of(8L), committedLengths);
+        assertEquals("{\"id\":1}", socket.toString(StandardCharsets.UTF_8));
+    }
+
+    @Test
+    void testClose_EmptyBody_SendsNoBody() throws IOException {
+        // Arrange
+        ResponseBodyStream out = new ResponseBodyStream(16, this::commit);
+
+        // Act
+        out.close();
+
+        // Assert
+        assertEquals(List.of(-1L), committedLengths);
+        assertEquals(0, socket.size());
+    }
+
+    // ==================== Chunked Tests ====================
+
+    @Test
+    void testWrite_BodyExceedsThreshold_SwitchesToChunked() throws IOException {
+        // Arrange
+        ResponseBodyStream out = new ResponseBodyStream(4, this::commit);
+
+        // Act
+        out.write('[');
+        out.write("1,2,3".getBytes(StandardCharsets.UTF_8));
+        boolean committedBeforeClose = out.isCommitted();
+        out.write(']');
+        out.close();
+
+        // Assert
+        assertTrue(committedBeforeClose);
+        assertEquals(List.of(0L), committedLengths);
+        assertEquals("[1,2,3]", socket.toString(StandardCharsets.UTF_8));
+    }
+
+    @Test
+    void testWrite_AfterClose_ThrowsException() throws IOException {
+        // Arrange
+        ResponseBodyStream out = new ResponseBodyStream(4, this::commit);
+        out.close();
+
+        // Act & Assert
+        assertThrows(IOException.class, () -> out.write(1));
+        assertEquals(1, committedLengths.size());
+    }
+
+    // ==================== Helper Methods ====================
+
+    private ByteArrayOutputStream commit(long contentLength) {
+        committedLengths.add(contentLength);
+        return socket;
+    }
+}